@@ -0,0 +1,87 @@
+package sw;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Transform of a batch of frames of real signal: frame by frame with
+ * {@link RealFFT} and {@link Radix4FFT}, and all frames at once with
+ * {@link BatchRealFFT}, for all bins and for a band of 64 bins like the
+ * analysis band of a decoder. The forked VM adds the incubator module, so the
+ * loops over frames are vectorized on Java 17 or newer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+@State(Scope.Thread)
+public class BatchFFTBenchmark {
+
+	@Param({ "1024", "4096" })
+	public int n;
+
+	@Param({ "8", "32" })
+	public int frames;
+
+	private RealFFT realFft;
+	private BatchRealFFT batchFft;
+	private double[][] signal;
+	private double[] batchSignal;
+	private double[] re;
+	private double[] im;
+	private double[] batchRe;
+	private double[] batchIm;
+
+	@Setup
+	public void setup() throws Exception {
+		realFft = new RealFFT(new Radix4FFT(n / 2));
+		batchFft = new BatchRealFFT(n, frames);
+		Random random = new Random(n);
+		signal = new double[frames][n];
+		batchSignal = new double[n * frames];
+		for (int b = 0; b < frames; b++) {
+			for (int i = 0; i < n; i++) {
+				signal[b][i] = random.nextDouble() * 2 - 1;
+				batchSignal[i * frames + b] = signal[b][i];
+			}
+		}
+		re = new double[n / 2 + 1];
+		im = new double[n / 2 + 1];
+		batchRe = new double[(n / 2 + 1) * frames];
+		batchIm = new double[(n / 2 + 1) * frames];
+	}
+
+	@Benchmark
+	public double[] frameByFrame() {
+		for (int b = 0; b < frames; b++) {
+			realFft.fft(signal[b], re, im);
+		}
+		return re;
+	}
+
+	@Benchmark
+	public double[] batch() {
+		batchFft.fft(batchSignal, frames, batchRe, batchIm);
+		return batchRe;
+	}
+
+	@Benchmark
+	public double[] batchBand() {
+		batchFft.fft(batchSignal, frames, batchRe, batchIm, n / 4, n / 4 + 64);
+		return batchRe;
+	}
+
+}
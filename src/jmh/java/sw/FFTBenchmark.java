@@ -0,0 +1,118 @@
+package sw;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Transform of one frame of real signal. {@link FFT} and {@link Radix4FFT}
+ * work in place, so the input is copied to work arrays before every transform.
+ * {@link RealFFT} is measured with both complex FFTs. {@link RealFFTFloat}
+ * transforms the same signal in single precision and {@link RealFFTQ15} in
+ * fixed-point.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FFTBenchmark {
+
+	@Param({ "256", "512", "1024", "2048", "4096", "8192", "16384" })
+	public int n;
+
+	private FFT fft;
+	private Radix4FFT radix4Fft;
+	private RealFFT realFft;
+	private RealFFT realFftRadix4;
+	private RealFFTFloat realFftFloat;
+	private RealFFTQ15 realFftQ15;
+	private double[] signal;
+	private double[] re;
+	private double[] im;
+	private float[] signalFloat;
+	private float[] reFloat;
+	private float[] imFloat;
+	private int[] signalQ15;
+	private int[] reQ15;
+	private int[] imQ15;
+
+	@Setup
+	public void setup() throws Exception {
+		fft = new FFT(n);
+		radix4Fft = new Radix4FFT(n);
+		realFft = new RealFFT(n);
+		realFftRadix4 = new RealFFT(new Radix4FFT(n / 2));
+		realFftFloat = new RealFFTFloat(n);
+		realFftQ15 = new RealFFTQ15(n);
+		Random random = new Random(n);
+		signal = new double[n];
+		signalFloat = new float[n];
+		signalQ15 = new int[n];
+		for (int i = 0; i < n; i++) {
+			signal[i] = random.nextDouble() * 2 - 1;
+			signalFloat[i] = (float) signal[i];
+			signalQ15[i] = (int) Math.round(signal[i] * Short.MAX_VALUE);
+		}
+		re = new double[n];
+		im = new double[n];
+		reFloat = new float[n / 2 + 1];
+		imFloat = new float[n / 2 + 1];
+		reQ15 = new int[n / 2 + 1];
+		imQ15 = new int[n / 2 + 1];
+	}
+
+	@Benchmark
+	public double[] fft() {
+		System.arraycopy(signal, 0, re, 0, n);
+		Arrays.fill(im, 0);
+		fft.fft(re, im);
+		return re;
+	}
+
+	@Benchmark
+	public double[] radix4Fft() {
+		System.arraycopy(signal, 0, re, 0, n);
+		Arrays.fill(im, 0);
+		radix4Fft.fft(re, im);
+		return re;
+	}
+
+	@Benchmark
+	public double[] realFft() {
+		realFft.fft(signal, re, im);
+		return re;
+	}
+
+	@Benchmark
+	public double[] realFftRadix4() {
+		realFftRadix4.fft(signal, re, im);
+		return re;
+	}
+
+	@Benchmark
+	public float[] realFftFloat() {
+		realFftFloat.fft(signalFloat, reFloat, imFloat);
+		return reFloat;
+	}
+
+	@Benchmark
+	public int[] realFftQ15() {
+		realFftQ15.fft(signalQ15, reQ15, imQ15);
+		return reQ15;
+	}
+
+}
@@ -0,0 +1,67 @@
+package sw;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Transform of one frame of real signal of any length, like the FFT spectral
+ * detector does it. 2400 and 2205 samples are 50 ms symbols at 48 kHz and
+ * 44.1 kHz, 2205 and 2399 are transformed with {@link BluesteinFFT}. 2048 is
+ * given for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MixedRadixFFTBenchmark {
+
+	@Param({ "2048", "2205", "2399", "2400" })
+	public int n;
+
+	private RealFFT realFft;
+	private double[] signal;
+	private double[] re;
+	private double[] im;
+
+	@Setup
+	public void setup() throws Exception {
+		int size = n % 2 == 0 ? n / 2 : n;
+		IFFTEngine fft;
+		if ((size & (size - 1)) == 0) {
+			fft = new Radix4FFT(size);
+		} else if (MixedRadixFFT.supports(size)) {
+			fft = new MixedRadixFFT(size);
+		} else {
+			fft = new BluesteinFFT(size);
+		}
+		realFft = new RealFFT(n, fft);
+		Random random = new Random(n);
+		signal = new double[n];
+		for (int i = 0; i < n; i++) {
+			signal[i] = random.nextDouble() * 2 - 1;
+		}
+		re = new double[n / 2 + 1];
+		im = new double[n / 2 + 1];
+	}
+
+	@Benchmark
+	public double[] realFft() {
+		realFft.fft(signal, re, im);
+		return re;
+	}
+
+}
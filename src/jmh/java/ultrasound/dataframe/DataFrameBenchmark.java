@@ -0,0 +1,56 @@
+package ultrasound.dataframe;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ultrasound.dataframe.DataFrame.DataFrameBuilder;
+
+/**
+ * Building of {@link DataFrame} and parsing it back with
+ * {@link DataFrameHelper#parseDataFrame(byte[], int, ParserResult, Byte, CheckAddressResult)}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DataFrameBenchmark {
+
+	@Param({ "Alamakota", "The quick brown fox jumps over the lazy dog" })
+	public String message;
+
+	private int noOfChannels = 16;
+	private byte[] data;
+	private byte[] frame;
+
+	@Setup
+	public void setup() throws Exception {
+		data = message.getBytes(StandardCharsets.US_ASCII);
+		frame = build().get();
+	}
+
+	@Benchmark
+	public IDataFrame build() throws Exception {
+		return new DataFrameBuilder((byte) 0x01, noOfChannels).command(IControlCodes.STX).data(data).build();
+	}
+
+	@Benchmark
+	public IDataFrame parse() {
+		return DataFrameHelper.parseDataFrame(frame, noOfChannels, new ParserResult(), (byte) 0x01,
+				new CheckAddressResult());
+	}
+
+}
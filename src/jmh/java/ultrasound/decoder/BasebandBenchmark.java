@@ -0,0 +1,71 @@
+package ultrasound.decoder;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ultrasound.TestData;
+import ultrasound.utils.log.DecoderLogger;
+
+/**
+ * Decoding of a whole recording with overlapping frames, with and without the
+ * baseband front end. Decimation 1 transforms full frames.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BasebandBenchmark {
+
+	@Param({ "1024", "4096" })
+	public int nfft;
+
+	@Param({ "1", "4" })
+	public int hopDivisor;
+
+	@Param({ "1", "4", "16" })
+	public int decimation;
+
+	@Param({ "16F18000S20-Alamakota.csv" })
+	public String recording;
+
+	private AbstractDecoderSimple decoder;
+	private short[] audio;
+
+	@Setup
+	public void setup() throws Exception {
+		DecoderLogger.getInstance().setLogOut(new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b) {
+			}
+		}));
+
+		TestData testData = new TestData(recording, 48000);
+		MockDecoderBuilder builder = new MockDecoderBuilder(testData.getSampleRate(), testData.getNoOfChannels(),
+				testData.getFirstFreq(), testData.getFreqStep(), nfft, 0.3);
+		builder.hopSize(nfft / hopDivisor);
+		builder.decimation(decimation);
+		decoder = builder.build();
+		audio = testData.getAudioSig();
+	}
+
+	@Benchmark
+	public void decodeRecording() {
+		decoder.decode(audio, 0, audio.length);
+	}
+
+}
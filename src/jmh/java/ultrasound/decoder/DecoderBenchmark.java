@@ -0,0 +1,82 @@
+package ultrasound.decoder;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ultrasound.TestData;
+import ultrasound.decoder.IDecoderSimple.Precision;
+import ultrasound.decoder.ISpectralDetector.DetectorType;
+import ultrasound.utils.log.DecoderLogger;
+
+/**
+ * Decoding of one audio frame in {@link AbstractDecoderSimple}. Frames are
+ * taken one after another from a recording, so symbol decisions and bit
+ * assembly are included.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DecoderBenchmark {
+
+	@Param({ "512", "1024", "2048" })
+	public int nfft;
+
+	@Param({ "FFT", "GOERTZEL" })
+	public DetectorType detector;
+
+	@Param({ "DOUBLE", "FLOAT", "Q15" })
+	public Precision precision;
+
+	@Param({ "16F18000S20-Alamakota.csv" })
+	public String recording;
+
+	private AbstractDecoderSimple decoder;
+	private short[][] frames;
+	private int frameNo;
+
+	@Setup
+	public void setup() throws Exception {
+		DecoderLogger.getInstance().setLogOut(new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b) {
+			}
+		}));
+
+		TestData testData = new TestData(recording, 48000);
+		MockDecoderBuilder builder = new MockDecoderBuilder(testData.getSampleRate(), testData.getNoOfChannels(),
+				testData.getFirstFreq(), testData.getFreqStep(), nfft, 0.3);
+		builder.spectralDetector(detector);
+		builder.precision(precision);
+		decoder = builder.build();
+
+		short[] audio = testData.getAudioSig();
+		frames = new short[audio.length / nfft][];
+		for (int i = 0; i < frames.length; i++) {
+			frames[i] = Arrays.copyOfRange(audio, i * nfft, (i + 1) * nfft);
+		}
+	}
+
+	@Benchmark
+	public void decodeFrame() {
+		decoder.decode(frames[frameNo]);
+		frameNo = (frameNo + 1) % frames.length;
+	}
+
+}
@@ -0,0 +1,65 @@
+package ultrasound.encoder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ultrasound.encoder.MockEncoder.MockEncoderBuilder;
+import ultrasound.utils.BitStream;
+
+/**
+ * Symbol synthesis in {@link AbstractEncoder}: generation of one tone and
+ * mixing of the tones of all channels into one symbol.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EncoderBenchmark {
+
+	@Param({ "4", "16" })
+	public int noOfChannels;
+
+	private MockEncoder encoder;
+	private int symbols;
+	private int symbolNo;
+
+	@Setup
+	public void setup() {
+		MockEncoderBuilder builder = new MockEncoderBuilder(48000, noOfChannels, 18000, 20);
+		encoder = builder.build();
+
+		Random random = new Random(0);
+		encoder.signalBinEncoded = new BitStream();
+		for (int i = 0; i < 64 * noOfChannels; i++) {
+			encoder.signalBinEncoded.append(random.nextBoolean());
+		}
+		symbols = 64;
+	}
+
+	@Benchmark
+	public short[] genTone() {
+		return encoder.genTone(18000);
+	}
+
+	@Benchmark
+	public short[] genSymbol() {
+		short[] symbol = encoder.genSymbol(symbolNo * noOfChannels);
+		symbolNo = (symbolNo + 1) % symbols;
+		return symbol;
+	}
+
+}
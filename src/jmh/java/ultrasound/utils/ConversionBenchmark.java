@@ -0,0 +1,69 @@
+package ultrasound.utils;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Data format conversions from {@link UltrasoundHelper} for a hex message of
+ * given length.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConversionBenchmark {
+
+	@Param({ "16", "256" })
+	public int hexLength;
+
+	private String hex;
+	private boolean[] bin;
+	private byte[] bytes;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(0);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < hexLength; i++) {
+			sb.append(Integer.toHexString(random.nextInt(16)));
+		}
+		hex = sb.toString();
+		bin = UltrasoundHelper.binArrayFromBinStr(UltrasoundHelper.hex2bin(hex));
+		bytes = UltrasoundHelper.bin2byte(bin);
+	}
+
+	@Benchmark
+	public String hex2bin() {
+		return UltrasoundHelper.hex2bin(hex);
+	}
+
+	@Benchmark
+	public String bin2hex() {
+		return UltrasoundHelper.bin2hex(bin);
+	}
+
+	@Benchmark
+	public boolean[] byte2bin() {
+		return UltrasoundHelper.byte2bin(bytes);
+	}
+
+	@Benchmark
+	public byte[] bin2byte() {
+		return UltrasoundHelper.bin2byte(bin);
+	}
+
+}
@@ -0,0 +1,89 @@
+package ultrasound.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ShortBuffer;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loading of a recording of given length from CSV, WAV and memory mapped WAV
+ * file.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FileIoBenchmark {
+
+	@Param({ "48000", "480000" })
+	public int samples;
+
+	private File dir;
+	private File csvFile;
+	private File wavFile;
+
+	@Setup
+	public void setup() throws IOException {
+		Random random = new Random(0);
+		short[] data = new short[samples];
+		for (int i = 0; i < samples; i++) {
+			data[i] = (short) random.nextInt();
+		}
+		dir = Files.createTempDirectory("jmh").toFile();
+		csvFile = new File(dir, "rec.csv");
+		wavFile = new File(dir, "rec.wav");
+		FileUtil.saveToCsvFile(new File(dir, "rec").getPath(), data);
+		FileUtil.writeWavFile(wavFile, data, 48000);
+	}
+
+	@TearDown
+	public void tearDown() {
+		csvFile.delete();
+		wavFile.delete();
+		dir.delete();
+	}
+
+	@Benchmark
+	public List<String> readCsv() {
+		return FileUtil.readDataFromCsvFile(csvFile);
+	}
+
+	@Benchmark
+	public short[] readCsvSamples() throws IOException {
+		return FileUtil.readCsvSamples(csvFile);
+	}
+
+	@Benchmark
+	public short[] readWav() throws IOException {
+		return FileUtil.readWavFile(wavFile);
+	}
+
+	@Benchmark
+	public long mapWav() throws IOException {
+		ShortBuffer buffer = FileUtil.mapWavFile(wavFile);
+		long sum = 0;
+		while (buffer.hasRemaining()) {
+			sum += buffer.get();
+		}
+		return sum;
+	}
+
+}
@@ -0,0 +1,112 @@
+package ultrasound.utils;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Kernels of {@link DspKernels} on n samples, with the scalar loops and with
+ * the Vector API. Butterflies are measured on the last radix-4 stage of an FFT
+ * of size n, which works in place, so the input is copied before every call.
+ * Mixing is not measured, it is scalar in both implementations.
+ * The forked VM adds the incubator module, so Java 17 or newer is needed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+@State(Scope.Thread)
+public class KernelBenchmark {
+
+	@Param({ "1024", "4096" })
+	public int n;
+
+	@Param({ "scalar", "vector" })
+	public String kernels;
+
+	private ScalarKernels impl;
+	private short[] samples;
+	private double[] window;
+	private double[] re;
+	private double[] im;
+	private double[] out;
+	private double[] twiddles;
+	private double[] x;
+	private double[] y;
+
+	@Setup
+	public void setup() {
+		impl = DspKernels.create("vector".equals(kernels));
+		if (impl.isVectorized() != "vector".equals(kernels)) {
+			throw new IllegalStateException("Vector kernels are not available on this runtime");
+		}
+
+		Random random = new Random(n);
+		samples = new short[n];
+		window = UltrasoundHelper.hamming(n);
+		re = new double[n];
+		im = new double[n];
+		for (int i = 0; i < n; i++) {
+			samples[i] = (short) random.nextInt();
+			re[i] = random.nextDouble() * 2 - 1;
+			im[i] = random.nextDouble() * 2 - 1;
+		}
+		out = new double[n];
+
+		int q = n / 4;
+		twiddles = new double[6 * q];
+		for (int p = 1; p <= 3; p++) {
+			for (int j = 0; j < q; j++) {
+				twiddles[2 * (p - 1) * q + j] = Math.cos(-2 * Math.PI * p * j / n);
+				twiddles[(2 * p - 1) * q + j] = Math.sin(-2 * Math.PI * p * j / n);
+			}
+		}
+		x = new double[n];
+		y = new double[n];
+	}
+
+	@Benchmark
+	public double[] toDoubles() {
+		impl.toDoubles(samples, 0, out, 0, n);
+		return out;
+	}
+
+	@Benchmark
+	public double[] window() {
+		impl.window(samples, 0, window, 0, out, 0, n);
+		return out;
+	}
+
+	@Benchmark
+	public double[] multiply() {
+		impl.multiply(re, 0, window, out, 0, n);
+		return out;
+	}
+
+	@Benchmark
+	public double[] power() {
+		impl.power(re, im, 0, out, 0, n);
+		return out;
+	}
+
+	@Benchmark
+	public double[] radix4() {
+		System.arraycopy(re, 0, x, 0, n);
+		System.arraycopy(im, 0, y, 0, n);
+		impl.radix4(x, y, 0, n / 4, twiddles, 0, 0, n / 4);
+		return x;
+	}
+
+}
@@ -0,0 +1,91 @@
+package ultrasound.utils;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Comparison of matrix based SECDED functions from {@link UltrasoundHelper}
+ * with table driven {@link SecdedCodec}. Every invocation encodes or decodes
+ * 256 nibbles.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SecdedBenchmark {
+
+	private static final int BLOCKS = 256;
+
+	private boolean[][] nibbles;
+	private boolean[][] codewords;
+	private int[] nibbleVals;
+	private int[] codewordVals;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(0);
+		nibbles = new boolean[BLOCKS][4];
+		codewords = new boolean[BLOCKS][];
+		nibbleVals = new int[BLOCKS];
+		codewordVals = new int[BLOCKS];
+		for (int i = 0; i < BLOCKS; i++) {
+			nibbleVals[i] = random.nextInt(16);
+			for (int j = 0; j < 4; j++) {
+				nibbles[i][j] = (nibbleVals[i] & (8 >> j)) != 0;
+			}
+			// every fourth codeword contains a correctable error
+			codewordVals[i] = SecdedCodec.encode(nibbleVals[i]);
+			int withError = codewordVals[i] ^ (1 << random.nextInt(8));
+			if (i % 4 == 0 && SecdedCodec.getStatus(SecdedCodec.decode(withError)) != SecdedCodec.DOUBLE_ERROR) {
+				codewordVals[i] = withError;
+			}
+			codewords[i] = new boolean[8];
+			for (int j = 0; j < 8; j++) {
+				codewords[i][j] = (codewordVals[i] & (0x80 >> j)) != 0;
+			}
+		}
+	}
+
+	@Benchmark
+	public void encodeMatrix(Blackhole bh) {
+		for (int i = 0; i < BLOCKS; i++) {
+			bh.consume(UltrasoundHelper.encHamming(nibbles[i]));
+		}
+	}
+
+	@Benchmark
+	public void encodeTable(Blackhole bh) {
+		for (int i = 0; i < BLOCKS; i++) {
+			bh.consume(SecdedCodec.encode(nibbleVals[i]));
+		}
+	}
+
+	@Benchmark
+	public void decodeMatrix(Blackhole bh) throws Exception {
+		for (int i = 0; i < BLOCKS; i++) {
+			bh.consume(UltrasoundHelper.secded(codewords[i].clone()));
+		}
+	}
+
+	@Benchmark
+	public void decodeTable(Blackhole bh) {
+		for (int i = 0; i < BLOCKS; i++) {
+			bh.consume(SecdedCodec.decode(codewordVals[i]));
+		}
+	}
+
+}
@@ -0,0 +1,98 @@
+package sw;
+
+import ultrasound.utils.DspKernels;
+import ultrasound.utils.DspTableCache;
+
+/**
+ * Complex FFT of up to batch frames of the same power of 2 size at once, like
+ * {@link Radix4FFT} for every frame. Frames are stored in frame-interleaved
+ * layout: sample i of frame b is at index {@code i * batch + b}. Every
+ * butterfly is calculated for all frames together with
+ * {@link DspKernels#radix4Frames}, so the twiddles are read once for the
+ * whole batch and the loops over frames are vectorized. Results are exactly
+ * the same as of {@link Radix4FFT}, which uses the same tables from
+ * {@link DspTableCache}.
+ */
+public class BatchFFT {
+
+    int n, m, batch;
+
+    private final int[] swaps;
+    private final double[] twiddles;
+
+    /**
+     * @param n     size of the transform, a power of 2
+     * @param batch maximal number of frames transformed at once
+     * @throws Exception when n is not a power of 2
+     */
+    public BatchFFT(int n, int batch) throws Exception {
+        this.n = n;
+        this.m = (int) (Math.log(n) / Math.log(2));
+        this.batch = batch;
+
+        // Make sure n is a power of 2
+        if (n != (1 << m))
+            throw new Exception("FFT length must be power of 2");
+        if (batch < 1)
+            throw new Exception("Batch must have at least 1 frame");
+
+        // precompute tables, shared with all FFTs of the same size
+        swaps = DspTableCache.get("bitreverse", n, () -> Radix4FFT.bitReversalSwaps(n, m));
+        twiddles = DspTableCache.get("twiddle.radix4", n, () -> Radix4FFT.radix4Twiddles(n, m));
+    }
+
+    /**
+     * Calculates FFT of the first frames of the batch in place
+     *
+     * @param x      real parts of n * batch samples in frame-interleaved
+     *               layout, replaced with real parts of the spectra
+     * @param y      imaginary parts of n * batch samples in frame-interleaved
+     *               layout, replaced with imaginary parts of the spectra
+     * @param frames number of frames to transform, at most batch
+     */
+    public void fft(double[] x, double[] y, int frames) {
+        int i, j, k, b, q, t;
+        double tmp;
+
+        // Bit-reverse whole rows of samples of all frames
+        for (i = 0; i < swaps.length; i += 2) {
+            j = swaps[i] * batch;
+            k = swaps[i + 1] * batch;
+            for (b = 0; b < frames; b++) {
+                tmp = x[j + b];
+                x[j + b] = x[k + b];
+                x[k + b] = tmp;
+                tmp = y[j + b];
+                y[j + b] = y[k + b];
+                y[k + b] = tmp;
+            }
+        }
+
+        // Radix-2 stage for odd powers of 2, all twiddles are 1
+        q = 1;
+        if ((m & 1) != 0) {
+            for (k = 0; k < n; k += 2) {
+                DspKernels.radix2Frames(x, y, k * batch, batch, frames);
+            }
+            q = 2;
+        }
+
+        // Radix-4 stages in the order of Radix4FFT
+        for (t = 0; 4 * q <= n; t += 6 * q, q *= 4) {
+            for (k = 0; k < n; k += 4 * q) {
+                DspKernels.radix4Frames(x, y, k * batch, q * batch, frames, null, t, q);
+                for (j = 1; j < q; j++) {
+                    DspKernels.radix4Frames(x, y, (k + j) * batch, q * batch, frames, twiddles, t + j, q);
+                }
+            }
+        }
+    }
+
+    public int getSize() {
+        return n;
+    }
+
+    public int getBatch() {
+        return batch;
+    }
+}
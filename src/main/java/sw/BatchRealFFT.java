@@ -0,0 +1,114 @@
+package sw;
+
+import ultrasound.utils.DspKernels;
+
+/**
+ * FFT of up to batch frames of purely real samples at once, like
+ * {@link RealFFT} with {@link Radix4FFT} for every frame. Frames are stored in
+ * the frame-interleaved layout of {@link BatchFFT}: sample i of frame b is at
+ * index {@code i * batch + b}, the spectra are stored the same way. As in
+ * {@link RealFFT} even and odd samples are packed into complex frames of n/2
+ * samples, transformed with {@link BatchFFT} and separated with
+ * post-processing twiddles. Only the requested range of bins is separated,
+ * e.g. the analysis band of a decoder. Results are exactly the same as of
+ * {@link RealFFT}.
+ *
+ * Work buffers are allocated once in the constructor, so an instance must not
+ * be shared between threads.
+ */
+public class BatchRealFFT {
+
+    int n, h, batch;
+
+    private final BatchFFT fft;
+
+    // Post-processing twiddles e^(-2*pi*i*k/n) for k = 0..n/2
+    private final double[] cos;
+    private final double[] sin;
+
+    private final double[] zr;
+    private final double[] zi;
+
+    /**
+     * @param n     size of the transform, a power of 2 greater than 1
+     * @param batch maximal number of frames transformed at once
+     * @throws Exception when n is not a power of 2
+     */
+    public BatchRealFFT(int n, int batch) throws Exception {
+        if (n < 2 || (n & (n - 1)) != 0)
+            throw new Exception("FFT length must be power of 2");
+
+        this.n = n;
+        this.h = n / 2;
+        this.batch = batch;
+        this.fft = new BatchFFT(h, batch);
+
+        // precompute tables, shared with all FFTs of the same size
+        cos = Twiddles.cos(n);
+        sin = Twiddles.sin(n);
+
+        zr = new double[h * batch];
+        zi = new double[h * batch];
+    }
+
+    /**
+     * Calculates all first n/2 + 1 bins of the spectra, see
+     * {@link #fft(double[], int, double[], double[], int, int)}
+     */
+    public void fft(double[] x, int frames, double[] re, double[] im) {
+        fft(x, frames, re, im, 0, h + 1);
+    }
+
+    /**
+     * Calculates bins from to to - 1 of the spectra of the first frames of the
+     * batch. The remaining bins are complex conjugates of the first n/2 + 1
+     * bins: X[n - k] = conj(X[k]).
+     *
+     * @param x      real samples of n * batch samples in frame-interleaved
+     *               layout, they are not modified
+     * @param frames number of frames to transform, at most batch
+     * @param re     output array of (n/2 + 1) * batch values for real parts of
+     *               the spectra
+     * @param im     output array of (n/2 + 1) * batch values for imaginary parts
+     *               of the spectra
+     * @param from   first bin to calculate
+     * @param to     end of bins to calculate, at most n/2 + 1
+     */
+    public void fft(double[] x, int frames, double[] re, double[] im, int from, int to) {
+        int k, b;
+
+        // Pack even and odd samples, rows of all frames are contiguous
+        for (k = 0; k < h; k++) {
+            System.arraycopy(x, 2 * k * batch, zr, k * batch, frames);
+            System.arraycopy(x, (2 * k + 1) * batch, zi, k * batch, frames);
+        }
+
+        fft.fft(zr, zi, frames);
+
+        // Separate spectra of even and odd samples
+        for (k = from; k < to; k++) {
+            if (k == 0) {
+                for (b = 0; b < frames; b++) {
+                    re[b] = zr[b] + zi[b];
+                    im[b] = 0;
+                }
+            } else if (k == h) {
+                for (b = 0; b < frames; b++) {
+                    re[h * batch + b] = zr[b] - zi[b];
+                    im[h * batch + b] = 0;
+                }
+            } else {
+                DspKernels.realFrames(zr, zi, k * batch, (h - k) * batch, cos[k], sin[k], re, im, k * batch,
+                        frames);
+            }
+        }
+    }
+
+    public int getSize() {
+        return n;
+    }
+
+    public int getBatch() {
+        return batch;
+    }
+}
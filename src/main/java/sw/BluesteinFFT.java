@@ -0,0 +1,127 @@
+package sw;
+
+import ultrasound.utils.DspTableCache;
+
+/**
+ * Implementation of {@link IFFTEngine} for any size, used for sizes with prime
+ * factors other than 2, 3 and 5. The transform of size n is rewritten as a
+ * circular convolution of the input multiplied by the chirp
+ * e^(-pi*i*k^2/n) with the conjugated chirp, which is calculated with
+ * {@link Radix4FFT} of the smallest power of 2 size not less than 2n - 1. It
+ * takes about three transforms of that size, so {@link MixedRadixFFT} should be
+ * preferred when it supports the size.
+ *
+ * The chirp and the transform of the conjugated chirp are shared through
+ * {@link DspTableCache}. Work buffers are allocated once in the constructor, so
+ * an instance must not be shared between threads.
+ */
+public class BluesteinFFT implements IFFTEngine {
+
+    int n, m;
+
+    private final Radix4FFT fft;
+
+    // Chirp e^(-pi*i*k^2/n) for k = 0..n-1, real and imaginary parts interleaved
+    private final double[] chirp;
+
+    // Transform of the conjugated chirp, real and imaginary parts interleaved
+    private final double[] filter;
+
+    private final double[] ar;
+    private final double[] ai;
+
+    public BluesteinFFT(int n) throws Exception {
+        if (n < 1)
+            throw new Exception("FFT length must be positive");
+
+        this.n = n;
+        this.m = Integer.highestOneBit(2 * n - 1);
+        if (m < 2 * n - 1) {
+            m *= 2;
+        }
+        Radix4FFT transform = new Radix4FFT(m);
+        this.fft = transform;
+
+        // precompute tables, shared with all FFTs of the same size
+        chirp = DspTableCache.get("bluestein.chirp", n, () -> chirp(n));
+        filter = DspTableCache.get("bluestein.filter", n, () -> filter(n, chirp, transform));
+
+        ar = new double[m];
+        ai = new double[m];
+    }
+
+    private static double[] chirp(int n) {
+        double[] res = new double[2 * n];
+        for (int k = 0; k < n; k++) {
+            // k^2 modulo 2n keeps the angle small and accurate
+            double angle = -Math.PI * ((long) k * k % (2L * n)) / n;
+            res[2 * k] = Math.cos(angle);
+            res[2 * k + 1] = Math.sin(angle);
+        }
+        return res;
+    }
+
+    private static double[] filter(int n, double[] chirp, Radix4FFT fft) {
+        int m = fft.getSize();
+        double[] re = new double[m];
+        double[] im = new double[m];
+        re[0] = chirp[0];
+        im[0] = -chirp[1];
+        for (int k = 1; k < n; k++) {
+            re[k] = re[m - k] = chirp[2 * k];
+            im[k] = im[m - k] = -chirp[2 * k + 1];
+        }
+        fft.fft(re, im);
+
+        double[] res = new double[2 * m];
+        for (int k = 0; k < m; k++) {
+            res[2 * k] = re[k];
+            res[2 * k + 1] = im[k];
+        }
+        return res;
+    }
+
+    @Override
+    public void fft(double[] x, double[] y) {
+        int k;
+        double c, s, re, im;
+
+        // Multiply by the chirp and pad with zeros
+        for (k = 0; k < n; k++) {
+            c = chirp[2 * k];
+            s = chirp[2 * k + 1];
+            ar[k] = c * x[k] - s * y[k];
+            ai[k] = s * x[k] + c * y[k];
+        }
+        for (k = n; k < m; k++) {
+            ar[k] = 0;
+            ai[k] = 0;
+        }
+
+        // Convolve with the conjugated chirp, inverse transform is calculated as
+        // conjugate of the forward transform of the conjugate
+        fft.fft(ar, ai);
+        for (k = 0; k < m; k++) {
+            c = filter[2 * k];
+            s = filter[2 * k + 1];
+            re = c * ar[k] - s * ai[k];
+            im = s * ar[k] + c * ai[k];
+            ar[k] = re;
+            ai[k] = -im;
+        }
+        fft.fft(ar, ai);
+
+        // Multiply by the chirp and scale the inverse transform
+        for (k = 0; k < n; k++) {
+            c = chirp[2 * k] / m;
+            s = chirp[2 * k + 1] / m;
+            x[k] = c * ar[k] + s * ai[k];
+            y[k] = s * ar[k] - c * ai[k];
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return n;
+    }
+}
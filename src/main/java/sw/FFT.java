@@ -4,7 +4,10 @@
 
 package sw;
 
-public class FFT {
+/**
+ * Reference radix-2 implementation of {@link IFFTEngine}
+ */
+public class FFT implements IFFTEngine {
 
     int n, m;
 
@@ -20,17 +23,13 @@ public class FFT {
         if (n != (1 << m))
             throw new Exception("FFT length must be power of 2");
 
-        // precompute tables
-        cos = new double[n / 2];
-        sin = new double[n / 2];
-
-        for (int i = 0; i < n / 2; i++) {
-            cos[i] = Math.cos(-2 * Math.PI * i / n);
-            sin[i] = Math.sin(-2 * Math.PI * i / n);
-        }
+        // precompute tables, shared with all FFTs of the same size
+        cos = Twiddles.cos(n);
+        sin = Twiddles.sin(n);
 
     }
 
+    @Override
     public void fft(double[] x, double[] y) {
         int i, j, k, n1, n2, a;
         double c, s, t1, t2;
@@ -81,4 +80,9 @@ public class FFT {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public int getSize() {
+        return n;
+    }
+}
@@ -0,0 +1,173 @@
+package sw;
+
+/**
+ * Fixed-point version of {@link FFT} for processors without fast floating
+ * point. Input samples are Q15 numbers stored in {@code int}s, so values grow
+ * in the upper bits of the {@code int} during the transform. Twiddles are
+ * stored in Q30 and multiplied with 32 x 32 to 64 bit products, which is a
+ * single instruction (e.g. SMULL) on 32 bit ARM cores. Rounding of Q15
+ * twiddles would change order of spectral peaks which differ by less than
+ * 1e-4, so it is not used.
+ *
+ * Block floating point scaling is used: before every stage the values are
+ * shifted right just enough to keep them below 2^29, so the butterflies never
+ * overflow. For Q15 input it happens only for frames longer than 2^14 samples.
+ * Number of shifts is returned by {@link #fft(int[], int[])}, the result has to
+ * be multiplied by 2^shifts to get the unscaled transform. Shifts are merged
+ * into the butterflies of the next stage, so no additional pass over the data
+ * is needed. Shifts and products are rounded to the nearest integer, shifts
+ * with round half to even.
+ */
+public class FFTQ15 {
+
+    // Largest magnitude of stage input which can not overflow the butterfly
+    static final int LIMIT = 1 << 29;
+
+    // Twiddles are stored in Q30
+    static final int TWIDDLE_BITS = 30;
+    static final long TWIDDLE_ROUND = 1L << (TWIDDLE_BITS - 1);
+
+    int n, m;
+
+    // Lookup tables. Only need to recompute when size of FFT changes.
+    int[] cos;
+    int[] sin;
+
+    public FFTQ15(int n) throws Exception {
+        this.n = n;
+        this.m = (int) (Math.log(n) / Math.log(2));
+
+        // Make sure n is a power of 2
+        if (n != (1 << m))
+            throw new Exception("FFT length must be power of 2");
+
+        // precompute tables, shared with all FFTs of the same size
+        cos = Twiddles.cosQ15(n);
+        sin = Twiddles.sinQ15(n);
+
+    }
+
+    /**
+     * Converts number from range [-1, 1] to Q30 twiddle with rounding
+     *
+     * @param value number to convert
+     * @return Q30 number
+     */
+    static int toTwiddle(double value) {
+        return (int) Math.round(value * (1 << TWIDDLE_BITS));
+    }
+
+    /**
+     * Calculates FFT in place
+     *
+     * @param x real part, magnitude of values has to be less than 2^29
+     * @param y imaginary part, magnitude of values has to be less than 2^29
+     * @return number of right shifts applied to the result
+     */
+    public int fft(int[] x, int[] y) {
+        int i, j, k, n1, n2, a;
+        int c, s, t1, t2, xk, yk, xk1, yk1;
+        int shift = 0;
+        int round = 0;
+        int odd = 0;
+        int exponent = 0;
+        int max;
+
+        // Bit-reverse
+        j = 0;
+        n2 = n / 2;
+        for (i = 1; i < n - 1; i++) {
+            n1 = n2;
+            while (j >= n1) {
+                j = j - n1;
+                n1 = n1 / 2;
+            }
+            j = j + n1;
+
+            if (i < j) {
+                t1 = x[i];
+                x[i] = x[j];
+                x[j] = t1;
+                t1 = y[i];
+                y[i] = y[j];
+                y[j] = t1;
+            }
+        }
+
+        // FFT
+        n1 = 0;
+        n2 = 1;
+
+        for (i = 0; i < m; i++) {
+            n1 = n2;
+            n2 = n2 + n2;
+            a = 0;
+            max = 0;
+
+            // First butterflies of the stage have twiddle 1, they are done without
+            // multiplication
+            for (k = 0; k < n; k = k + n2) {
+                xk = (x[k] + round + ((x[k] >> shift) & odd)) >> shift;
+                yk = (y[k] + round + ((y[k] >> shift) & odd)) >> shift;
+                xk1 = (x[k + n1] + round + ((x[k + n1] >> shift) & odd)) >> shift;
+                yk1 = (y[k + n1] + round + ((y[k + n1] >> shift) & odd)) >> shift;
+                x[k + n1] = xk - xk1;
+                y[k + n1] = yk - yk1;
+                x[k] = xk + xk1;
+                y[k] = yk + yk1;
+                max |= Math.abs(x[k]) | Math.abs(y[k]) | Math.abs(x[k + n1]) | Math.abs(y[k + n1]);
+            }
+            a += 1 << (m - i - 1);
+
+            for (j = 1; j < n1; j++) {
+                c = cos[a];
+                s = sin[a];
+                a += 1 << (m - i - 1);
+
+                for (k = j; k < n; k = k + n2) {
+                    xk = (x[k] + round + ((x[k] >> shift) & odd)) >> shift;
+                    yk = (y[k] + round + ((y[k] >> shift) & odd)) >> shift;
+                    xk1 = (x[k + n1] + round + ((x[k + n1] >> shift) & odd)) >> shift;
+                    yk1 = (y[k + n1] + round + ((y[k + n1] >> shift) & odd)) >> shift;
+                    t1 = (int) ((c * (long) xk1 - s * (long) yk1 + TWIDDLE_ROUND) >> TWIDDLE_BITS);
+                    t2 = (int) ((s * (long) xk1 + c * (long) yk1 + TWIDDLE_ROUND) >> TWIDDLE_BITS);
+                    x[k + n1] = xk - t1;
+                    y[k + n1] = yk - t2;
+                    x[k] = xk + t1;
+                    y[k] = yk + t2;
+                    max |= Math.abs(x[k]) | Math.abs(y[k]) | Math.abs(x[k + n1]) | Math.abs(y[k + n1]);
+                }
+            }
+
+            exponent += shift;
+            shift = scale(max);
+            // Round half to even, so there is no bias which would add up in low
+            // frequency bins
+            odd = shift > 0 ? 1 : 0;
+            round = ((1 << shift) >> 1) - odd;
+        }
+
+        // Results of the last stage are brought below the limit too
+        if (shift > 0) {
+            for (i = 0; i < n; i++) {
+                x[i] = (x[i] + round + ((x[i] >> shift) & odd)) >> shift;
+                y[i] = (y[i] + round + ((y[i] >> shift) & odd)) >> shift;
+            }
+            exponent += shift;
+        }
+        return exponent;
+    }
+
+    /**
+     * Returns number of right shifts which bring values below 2^29
+     *
+     * @param max bitwise or of magnitudes of all values
+     */
+    static int scale(int max) {
+        int shift = 0;
+        while ((max >> shift) >= LIMIT) {
+            shift++;
+        }
+        return shift;
+    }
+}
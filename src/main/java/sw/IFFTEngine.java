@@ -0,0 +1,22 @@
+package sw;
+
+/**
+ * Complex FFT of a fixed power of 2 size, calculated in place. {@link FFT} is
+ * the reference radix-2 implementation, {@link Radix4FFT} the optimized one.
+ * Both give the same spectrum up to rounding errors.
+ */
+public interface IFFTEngine {
+
+    /**
+     * Calculates FFT in place
+     *
+     * @param x real part, replaced with real part of the spectrum
+     * @param y imaginary part, replaced with imaginary part of the spectrum
+     */
+    void fft(double[] x, double[] y);
+
+    /**
+     * @return number of points of the transform
+     */
+    int getSize();
+}
@@ -0,0 +1,371 @@
+package sw;
+
+import ultrasound.utils.DspTableCache;
+
+/**
+ * Implementation of {@link IFFTEngine} for sizes which are products of 2, 3
+ * and 5, e.g. 2400 or 2205 samples of a 50 ms symbol. Use
+ * {@link #supports(int)} to check the size, other sizes are handled by
+ * {@link BluesteinFFT}.
+ *
+ * The transform is calculated in self-sorting (Stockham) order, one stage
+ * for every factor of n, with radix 4, 2, 3 and 5 butterflies. No
+ * permutation of the data is needed, but every stage writes to the other of
+ * two buffers, so an instance has its own work buffers and must not be shared
+ * between threads. Twiddles of every stage are stored one after another in
+ * the order they are used and are shared through {@link DspTableCache}.
+ */
+public class MixedRadixFFT implements IFFTEngine {
+
+    private static final double SIN_60 = Math.sqrt(3) / 2;
+    private static final double COS_72 = Math.cos(2 * Math.PI / 5);
+    private static final double SIN_72 = Math.sin(2 * Math.PI / 5);
+    private static final double COS_144 = Math.cos(4 * Math.PI / 5);
+    private static final double SIN_144 = Math.sin(4 * Math.PI / 5);
+
+    int n;
+
+    // Radix of every stage
+    private final int[] factors;
+
+    // Twiddles W^(r*j) of each stage for r = 1..radix-1, two numbers per r
+    private final double[] twiddles;
+
+    private final double[] wr;
+    private final double[] wi;
+
+    public MixedRadixFFT(int n) throws Exception {
+        if (!supports(n))
+            throw new Exception("FFT length must be a product of 2, 3 and 5");
+
+        this.n = n;
+        this.factors = factorize(n);
+
+        // precompute tables, shared with all FFTs of the same size
+        twiddles = DspTableCache.get("twiddle.mixed", n, () -> stageTwiddles(n, factors));
+
+        wr = new double[n];
+        wi = new double[n];
+    }
+
+    /**
+     * Checks if the transform of given size can be calculated
+     *
+     * @param n number of points of the transform
+     * @return {@code true} if n is positive and has no prime factors other than
+     *         2, 3 and 5
+     */
+    public static boolean supports(int n) {
+        if (n < 1) {
+            return false;
+        }
+        for (int p : new int[] { 2, 3, 5 }) {
+            while (n % p == 0) {
+                n /= p;
+            }
+        }
+        return n == 1;
+    }
+
+    private static int[] factorize(int n) {
+        int[] res = new int[32];
+        int count = 0;
+        while (n % 4 == 0) {
+            res[count++] = 4;
+            n /= 4;
+        }
+        for (int p : new int[] { 2, 3, 5 }) {
+            while (n % p == 0) {
+                res[count++] = p;
+                n /= p;
+            }
+        }
+        int[] factors = new int[count];
+        System.arraycopy(res, 0, factors, 0, count);
+        return factors;
+    }
+
+    private static double[] stageTwiddles(int n, int[] factors) {
+        int size = 0;
+        int ns = 1;
+        for (int radix : factors) {
+            size += 2 * ns * (radix - 1);
+            ns *= radix;
+        }
+        double[] res = new double[size];
+        int t = 0;
+        ns = 1;
+        for (int radix : factors) {
+            for (int j = 0; j < ns; j++) {
+                for (int r = 1; r < radix; r++) {
+                    res[t++] = Math.cos(-2 * Math.PI * r * j / (ns * radix));
+                    res[t++] = Math.sin(-2 * Math.PI * r * j / (ns * radix));
+                }
+            }
+            ns *= radix;
+        }
+        return res;
+    }
+
+    @Override
+    public void fft(double[] x, double[] y) {
+        double[] inR = x, inI = y, outR = wr, outI = wi, tmp;
+        int ns = 1;
+        int t = 0;
+
+        for (int radix : factors) {
+            switch (radix) {
+            case 2:
+                pass2(ns, inR, inI, outR, outI, t);
+                break;
+            case 3:
+                pass3(ns, inR, inI, outR, outI, t);
+                break;
+            case 4:
+                pass4(ns, inR, inI, outR, outI, t);
+                break;
+            default:
+                pass5(ns, inR, inI, outR, outI, t);
+                break;
+            }
+            t += 2 * ns * (radix - 1);
+            ns *= radix;
+
+            tmp = inR;
+            inR = outR;
+            outR = tmp;
+            tmp = inI;
+            inI = outI;
+            outI = tmp;
+        }
+
+        // Result of odd number of stages is in the work buffers
+        if (inR != x) {
+            System.arraycopy(inR, 0, x, 0, n);
+            System.arraycopy(inI, 0, y, 0, n);
+        }
+    }
+
+    /**
+     * Radix-2 stage. Combines transforms of size ns into transforms of size 2ns,
+     * input r of butterfly j is read from j + r*n/2 and output r is written to
+     * (j/ns)*2ns + j%ns + r*ns
+     */
+    private void pass2(int ns, double[] xr, double[] xi, double[] yr, double[] yi, int t) {
+        int m = n / 2;
+        int j, k, d, tw;
+        double ar, ai, br, bi, c, s, tr;
+
+        for (k = 0; k < m; k += ns) {
+            d = 2 * k;
+            for (j = k; j < k + ns; j++, d++) {
+                ar = xr[j];
+                ai = xi[j];
+                br = xr[j + m];
+                bi = xi[j + m];
+                if (j > k) {
+                    tw = t + 2 * (j - k);
+                    c = twiddles[tw];
+                    s = twiddles[tw + 1];
+                    tr = c * br - s * bi;
+                    bi = s * br + c * bi;
+                    br = tr;
+                }
+                yr[d] = ar + br;
+                yi[d] = ai + bi;
+                yr[d + ns] = ar - br;
+                yi[d + ns] = ai - bi;
+            }
+        }
+    }
+
+    /**
+     * Radix-3 stage, see {@link #pass2(int, double[], double[], double[], double[], int)}
+     */
+    private void pass3(int ns, double[] xr, double[] xi, double[] yr, double[] yi, int t) {
+        int m = n / 3;
+        int j, k, d, tw;
+        double ar, ai, br, bi, cr, ci, c, s, tr;
+        double sr, si, mr, mi, dr, di;
+
+        for (k = 0; k < m; k += ns) {
+            d = 3 * k;
+            for (j = k; j < k + ns; j++, d++) {
+                ar = xr[j];
+                ai = xi[j];
+                br = xr[j + m];
+                bi = xi[j + m];
+                cr = xr[j + 2 * m];
+                ci = xi[j + 2 * m];
+                if (j > k) {
+                    tw = t + 4 * (j - k);
+                    c = twiddles[tw];
+                    s = twiddles[tw + 1];
+                    tr = c * br - s * bi;
+                    bi = s * br + c * bi;
+                    br = tr;
+                    c = twiddles[tw + 2];
+                    s = twiddles[tw + 3];
+                    tr = c * cr - s * ci;
+                    ci = s * cr + c * ci;
+                    cr = tr;
+                }
+                sr = br + cr;
+                si = bi + ci;
+                dr = SIN_60 * (br - cr);
+                di = SIN_60 * (bi - ci);
+                mr = ar - 0.5 * sr;
+                mi = ai - 0.5 * si;
+
+                yr[d] = ar + sr;
+                yi[d] = ai + si;
+                yr[d + ns] = mr + di;
+                yi[d + ns] = mi - dr;
+                yr[d + 2 * ns] = mr - di;
+                yi[d + 2 * ns] = mi + dr;
+            }
+        }
+    }
+
+    /**
+     * Radix-4 stage, see {@link #pass2(int, double[], double[], double[], double[], int)}
+     */
+    private void pass4(int ns, double[] xr, double[] xi, double[] yr, double[] yi, int t) {
+        int m = n / 4;
+        int j, k, d, tw;
+        double ar, ai, br, bi, cr, ci, dr, di, c, s, tr;
+        double s0r, s0i, d0r, d0i, s1r, s1i, d1r, d1i;
+
+        for (k = 0; k < m; k += ns) {
+            d = 4 * k;
+            for (j = k; j < k + ns; j++, d++) {
+                ar = xr[j];
+                ai = xi[j];
+                br = xr[j + m];
+                bi = xi[j + m];
+                cr = xr[j + 2 * m];
+                ci = xi[j + 2 * m];
+                dr = xr[j + 3 * m];
+                di = xi[j + 3 * m];
+                if (j > k) {
+                    tw = t + 6 * (j - k);
+                    c = twiddles[tw];
+                    s = twiddles[tw + 1];
+                    tr = c * br - s * bi;
+                    bi = s * br + c * bi;
+                    br = tr;
+                    c = twiddles[tw + 2];
+                    s = twiddles[tw + 3];
+                    tr = c * cr - s * ci;
+                    ci = s * cr + c * ci;
+                    cr = tr;
+                    c = twiddles[tw + 4];
+                    s = twiddles[tw + 5];
+                    tr = c * dr - s * di;
+                    di = s * dr + c * di;
+                    dr = tr;
+                }
+                s0r = ar + cr;
+                s0i = ai + ci;
+                d0r = ar - cr;
+                d0i = ai - ci;
+                s1r = br + dr;
+                s1i = bi + di;
+                d1r = br - dr;
+                d1i = bi - di;
+
+                yr[d] = s0r + s1r;
+                yi[d] = s0i + s1i;
+                yr[d + ns] = d0r + d1i;
+                yi[d + ns] = d0i - d1r;
+                yr[d + 2 * ns] = s0r - s1r;
+                yi[d + 2 * ns] = s0i - s1i;
+                yr[d + 3 * ns] = d0r - d1i;
+                yi[d + 3 * ns] = d0i + d1r;
+            }
+        }
+    }
+
+    /**
+     * Radix-5 stage, see {@link #pass2(int, double[], double[], double[], double[], int)}
+     */
+    private void pass5(int ns, double[] xr, double[] xi, double[] yr, double[] yi, int t) {
+        int m = n / 5;
+        int j, k, d, tw;
+        double ar, ai, br, bi, cr, ci, dr, di, er, ei, c, s, tr;
+        double t1r, t1i, t2r, t2i, d1r, d1i, d2r, d2i;
+        double a1r, a1i, a2r, a2i, u1r, u1i, u2r, u2i;
+
+        for (k = 0; k < m; k += ns) {
+            d = 5 * k;
+            for (j = k; j < k + ns; j++, d++) {
+                ar = xr[j];
+                ai = xi[j];
+                br = xr[j + m];
+                bi = xi[j + m];
+                cr = xr[j + 2 * m];
+                ci = xi[j + 2 * m];
+                dr = xr[j + 3 * m];
+                di = xi[j + 3 * m];
+                er = xr[j + 4 * m];
+                ei = xi[j + 4 * m];
+                if (j > k) {
+                    tw = t + 8 * (j - k);
+                    c = twiddles[tw];
+                    s = twiddles[tw + 1];
+                    tr = c * br - s * bi;
+                    bi = s * br + c * bi;
+                    br = tr;
+                    c = twiddles[tw + 2];
+                    s = twiddles[tw + 3];
+                    tr = c * cr - s * ci;
+                    ci = s * cr + c * ci;
+                    cr = tr;
+                    c = twiddles[tw + 4];
+                    s = twiddles[tw + 5];
+                    tr = c * dr - s * di;
+                    di = s * dr + c * di;
+                    dr = tr;
+                    c = twiddles[tw + 6];
+                    s = twiddles[tw + 7];
+                    tr = c * er - s * ei;
+                    ei = s * er + c * ei;
+                    er = tr;
+                }
+                t1r = br + er;
+                t1i = bi + ei;
+                t2r = cr + dr;
+                t2i = ci + di;
+                d1r = br - er;
+                d1i = bi - ei;
+                d2r = cr - dr;
+                d2i = ci - di;
+
+                a1r = ar + COS_72 * t1r + COS_144 * t2r;
+                a1i = ai + COS_72 * t1i + COS_144 * t2i;
+                a2r = ar + COS_144 * t1r + COS_72 * t2r;
+                a2i = ai + COS_144 * t1i + COS_72 * t2i;
+                u1r = SIN_72 * d1r + SIN_144 * d2r;
+                u1i = SIN_72 * d1i + SIN_144 * d2i;
+                u2r = SIN_144 * d1r - SIN_72 * d2r;
+                u2i = SIN_144 * d1i - SIN_72 * d2i;
+
+                yr[d] = ar + t1r + t2r;
+                yi[d] = ai + t1i + t2i;
+                yr[d + ns] = a1r + u1i;
+                yi[d + ns] = a1i - u1r;
+                yr[d + 2 * ns] = a2r + u2i;
+                yi[d + 2 * ns] = a2i - u2r;
+                yr[d + 3 * ns] = a2r - u2i;
+                yi[d + 3 * ns] = a2i + u2r;
+                yr[d + 4 * ns] = a1r - u1i;
+                yi[d + 4 * ns] = a1i + u1r;
+            }
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return n;
+    }
+}
@@ -0,0 +1,131 @@
+package sw;
+
+import ultrasound.utils.DspKernels;
+import ultrasound.utils.DspTableCache;
+
+/**
+ * Optimized implementation of {@link IFFTEngine}. Gives the same results as
+ * {@link FFT} up to rounding errors, but:
+ * <ul>
+ * <li>bit-reversal permutation is precomputed as a list of swapped pairs, so
+ * no index arithmetic is done on every call</li>
+ * <li>pairs of radix-2 stages are merged into radix-4 stages, which halves
+ * the number of passes over the data and saves a quarter of the
+ * multiplications. For odd powers of 2 the first stage is radix-2</li>
+ * <li>twiddles of every stage are stored in six rows, real and imaginary
+ * parts of W^j, W^2j and W^3j, so they are read sequentially instead of with
+ * a stride</li>
+ * <li>butterflies are calculated with {@link DspKernels#radix4}, which uses
+ * SIMD instructions when the runtime supports them</li>
+ * </ul>
+ * Tables are shared through {@link DspTableCache} by all instances of the same
+ * size.
+ */
+public class Radix4FFT implements IFFTEngine {
+
+    int n, m;
+
+    // Pairs of indexes swapped by the bit-reversal permutation
+    private final int[] swaps;
+
+    // Twiddles W^j, W^2j, W^3j of each radix-4 stage, six rows of q numbers
+    private final double[] twiddles;
+
+    public Radix4FFT(int n) throws Exception {
+        this.n = n;
+        this.m = (int) (Math.log(n) / Math.log(2));
+
+        // Make sure n is a power of 2
+        if (n != (1 << m))
+            throw new Exception("FFT length must be power of 2");
+
+        // precompute tables, shared with all FFTs of the same size
+        swaps = DspTableCache.get("bitreverse", n, () -> bitReversalSwaps(n, m));
+        twiddles = DspTableCache.get("twiddle.radix4", n, () -> radix4Twiddles(n, m));
+    }
+
+    static int[] bitReversalSwaps(int n, int m) {
+        int[] rev = new int[n];
+        int count = 0;
+        for (int i = 1; i < n; i++) {
+            rev[i] = (rev[i >> 1] >> 1) | ((i & 1) << (m - 1));
+            if (i < rev[i]) {
+                count++;
+            }
+        }
+        int[] res = new int[2 * count];
+        int p = 0;
+        for (int i = 1; i < n; i++) {
+            if (i < rev[i]) {
+                res[p++] = i;
+                res[p++] = rev[i];
+            }
+        }
+        return res;
+    }
+
+    static double[] radix4Twiddles(int n, int m) {
+        int size = 0;
+        for (int q = 1 << (m & 1); 4 * q <= n; q *= 4) {
+            size += 6 * q;
+        }
+        double[] res = new double[size];
+        int t = 0;
+        for (int q = 1 << (m & 1); 4 * q <= n; q *= 4) {
+            for (int p = 1; p <= 3; p++) {
+                for (int j = 0; j < q; j++) {
+                    res[t + j] = Math.cos(-2 * Math.PI * p * j / (4 * q));
+                    res[t + q + j] = Math.sin(-2 * Math.PI * p * j / (4 * q));
+                }
+                t += 2 * q;
+            }
+        }
+        return res;
+    }
+
+    @Override
+    public void fft(double[] x, double[] y) {
+        int i, j, k, q, t;
+        double tmp, ar, ai;
+
+        // Bit-reverse
+        for (i = 0; i < swaps.length; i += 2) {
+            j = swaps[i];
+            k = swaps[i + 1];
+            tmp = x[j];
+            x[j] = x[k];
+            x[k] = tmp;
+            tmp = y[j];
+            y[j] = y[k];
+            y[k] = tmp;
+        }
+
+        // Radix-2 stage for odd powers of 2, all twiddles are 1
+        q = 1;
+        if ((m & 1) != 0) {
+            for (k = 0; k < n; k += 2) {
+                ar = x[k];
+                ai = y[k];
+                x[k] = ar + x[k + 1];
+                y[k] = ai + y[k + 1];
+                x[k + 1] = ar - x[k + 1];
+                y[k + 1] = ai - y[k + 1];
+            }
+            q = 2;
+        }
+
+        // Radix-4 stages, each combines four transforms of size q into one of
+        // size 4q. Thanks to the bit-reversed order the four transforms are of
+        // samples with indexes 0, 2, 1 and 3 modulo 4
+        for (t = 0; 4 * q <= n; t += 6 * q, q *= 4) {
+            for (k = 0; k < n; k += 4 * q) {
+                DspKernels.radix4(x, y, k, q, twiddles, t);
+            }
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return n;
+    }
+}
@@ -0,0 +1,134 @@
+package sw;
+
+import java.util.Arrays;
+
+/**
+ * FFT of purely real input. The n real samples are packed into n/2 complex
+ * values (even samples as real part, odd samples as imaginary part),
+ * transformed with complex FFT of size n/2 and then separated with
+ * post-processing twiddles. It takes about half of the operations of a complex
+ * FFT of size n. {@link FFT} is used unless another {@link IFFTEngine} is
+ * given. Odd n can not be packed, so for odd n the samples are transformed
+ * with complex FFT of size n.
+ * 
+ * Work buffers are allocated once in the constructor, so an instance must not
+ * be shared between threads.
+ */
+public class RealFFT {
+
+    int n, h;
+
+    private final IFFTEngine fft;
+
+    // Post-processing twiddles e^(-2*pi*i*k/n) for k = 0..n/2, only for even n
+    double[] cos;
+    double[] sin;
+
+    private final double[] zr;
+    private final double[] zi;
+
+    public RealFFT(int n) throws Exception {
+        this(new FFT(halfSize(n)));
+    }
+
+    /**
+     * @param fft complex FFT of size n/2 used for the transform, it must not be
+     *            used by other objects
+     */
+    public RealFFT(IFFTEngine fft) throws Exception {
+        this(2 * fft.getSize(), fft);
+    }
+
+    /**
+     * @param n   size of the transform
+     * @param fft complex FFT of size n/2 for even n or of size n for odd n, it
+     *            must not be used by other objects
+     * @throws Exception when size of the complex FFT does not match n
+     */
+    public RealFFT(int n, IFFTEngine fft) throws Exception {
+        if (n < 2 || fft.getSize() != (n % 2 == 0 ? n / 2 : n))
+            throw new Exception("Complex FFT of size " + fft.getSize()
+                    + " can not be used for real FFT of size " + n);
+
+        this.n = n;
+        this.h = n / 2;
+        this.fft = fft;
+
+        // precompute tables, shared with all FFTs of the same size
+        if (n % 2 == 0) {
+            cos = Twiddles.cos(n);
+            sin = Twiddles.sin(n);
+        }
+
+        zr = new double[fft.getSize()];
+        zi = new double[fft.getSize()];
+    }
+
+    private static int halfSize(int n) throws Exception {
+        if (n < 2 || (n & (n - 1)) != 0)
+            throw new Exception("FFT length must be power of 2");
+        return n / 2;
+    }
+
+    /**
+     * Calculates first n/2 + 1 bins of the spectrum of real signal, n/2 is
+     * rounded down. The remaining bins are complex conjugates of those:
+     * X[n - k] = conj(X[k]).
+     * 
+     * @param x  real input of length n, it is not modified
+     * @param re output array of length n/2 + 1 for real part of the spectrum
+     * @param im output array of length n/2 + 1 for imaginary part of the spectrum
+     */
+    public void fft(double[] x, double[] re, double[] im) {
+        int k;
+        double ar, ai, br, bi, er, ei, or, oi;
+
+        if (cos == null) {
+            fftOdd(x, re, im);
+            return;
+        }
+
+        // Pack even and odd samples
+        for (k = 0; k < h; k++) {
+            zr[k] = x[2 * k];
+            zi[k] = x[2 * k + 1];
+        }
+
+        fft.fft(zr, zi);
+
+        re[0] = zr[0] + zi[0];
+        im[0] = 0;
+        re[h] = zr[0] - zi[0];
+        im[h] = 0;
+
+        // Separate spectra of even and odd samples
+        for (k = 1; k < h; k++) {
+            ar = zr[k];
+            ai = zi[k];
+            br = zr[h - k];
+            bi = zi[h - k];
+
+            er = 0.5 * (ar + br);
+            ei = 0.5 * (ai - bi);
+            or = 0.5 * (ai + bi);
+            oi = 0.5 * (br - ar);
+
+            re[k] = er + cos[k] * or - sin[k] * oi;
+            im[k] = ei + sin[k] * or + cos[k] * oi;
+        }
+    }
+
+    private void fftOdd(double[] x, double[] re, double[] im) {
+        System.arraycopy(x, 0, zr, 0, n);
+        Arrays.fill(zi, 0);
+
+        fft.fft(zr, zi);
+
+        System.arraycopy(zr, 0, re, 0, h + 1);
+        System.arraycopy(zi, 0, im, 0, h + 1);
+    }
+
+    public int getSize() {
+        return n;
+    }
+}
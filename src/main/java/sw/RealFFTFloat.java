@@ -0,0 +1,84 @@
+package sw;
+
+/**
+ * Single precision version of {@link RealFFT}, built on {@link FFTFloat}. Input,
+ * work buffers and output take half of the memory of the double version.
+ * 
+ * Work buffers are allocated once in the constructor, so an instance must not
+ * be shared between threads.
+ */
+public class RealFFTFloat {
+
+    int n, h;
+
+    private final FFTFloat fft;
+
+    // Post-processing twiddles e^(-2*pi*i*k/n) for k = 0..n/2
+    float[] cos;
+    float[] sin;
+
+    private final float[] zr;
+    private final float[] zi;
+
+    public RealFFTFloat(int n) throws Exception {
+        if (n < 2 || (n & (n - 1)) != 0)
+            throw new Exception("FFT length must be power of 2");
+
+        this.n = n;
+        this.h = n / 2;
+        this.fft = new FFTFloat(h);
+
+        // precompute tables, shared with all FFTs of the same size
+        cos = Twiddles.cosFloat(n);
+        sin = Twiddles.sinFloat(n);
+
+        zr = new float[h];
+        zi = new float[h];
+    }
+
+    /**
+     * Calculates first n/2 + 1 bins of the spectrum of real signal. The remaining
+     * bins are complex conjugates of those: X[n - k] = conj(X[k]).
+     * 
+     * @param x  real input of length n, it is not modified
+     * @param re output array of length n/2 + 1 for real part of the spectrum
+     * @param im output array of length n/2 + 1 for imaginary part of the spectrum
+     */
+    public void fft(float[] x, float[] re, float[] im) {
+        int k;
+        float ar, ai, br, bi, er, ei, or, oi;
+
+        // Pack even and odd samples
+        for (k = 0; k < h; k++) {
+            zr[k] = x[2 * k];
+            zi[k] = x[2 * k + 1];
+        }
+
+        fft.fft(zr, zi);
+
+        re[0] = zr[0] + zi[0];
+        im[0] = 0;
+        re[h] = zr[0] - zi[0];
+        im[h] = 0;
+
+        // Separate spectra of even and odd samples
+        for (k = 1; k < h; k++) {
+            ar = zr[k];
+            ai = zi[k];
+            br = zr[h - k];
+            bi = zi[h - k];
+
+            er = 0.5f * (ar + br);
+            ei = 0.5f * (ai - bi);
+            or = 0.5f * (ai + bi);
+            oi = 0.5f * (br - ar);
+
+            re[k] = er + cos[k] * or - sin[k] * oi;
+            im[k] = ei + sin[k] * or + cos[k] * oi;
+        }
+    }
+
+    public int getSize() {
+        return n;
+    }
+}
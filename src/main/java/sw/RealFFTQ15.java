@@ -0,0 +1,98 @@
+package sw;
+
+/**
+ * Fixed-point version of {@link RealFFT}, built on {@link FFTQ15}. Input is
+ * given as Q15 numbers stored in {@code int}s, output is scaled like the output
+ * of {@link FFTQ15}.
+ *
+ * Work buffers are allocated once in the constructor, so an instance must not
+ * be shared between threads.
+ */
+public class RealFFTQ15 {
+
+    int n, h;
+
+    private final FFTQ15 fft;
+
+    // Post-processing twiddles e^(-2*pi*i*k/n) for k = 0..n/2
+    int[] cos;
+    int[] sin;
+
+    private final int[] zr;
+    private final int[] zi;
+
+    public RealFFTQ15(int n) throws Exception {
+        if (n < 2 || (n & (n - 1)) != 0)
+            throw new Exception("FFT length must be power of 2");
+
+        this.n = n;
+        this.h = n / 2;
+        this.fft = new FFTQ15(h);
+
+        // precompute tables, shared with all FFTs of the same size
+        cos = Twiddles.cosQ15(n);
+        sin = Twiddles.sinQ15(n);
+
+        zr = new int[h];
+        zi = new int[h];
+    }
+
+    /**
+     * Calculates first n/2 + 1 bins of the spectrum of real signal. The remaining
+     * bins are complex conjugates of those: X[n - k] = conj(X[k]).
+     *
+     * @param x  real input of length n, magnitude of values has to be less than
+     *           2^29. It is not modified
+     * @param re output array of length n/2 + 1 for real part of the spectrum
+     * @param im output array of length n/2 + 1 for imaginary part of the spectrum
+     * @return number of right shifts applied to the result, the spectrum is
+     *         {@code (re + i*im) * 2^shifts}
+     */
+    public int fft(int[] x, int[] re, int[] im) {
+        int k, exponent;
+        int ar, ai, br, bi, er, ei, or, oi;
+
+        // Pack even and odd samples
+        for (k = 0; k < h; k++) {
+            zr[k] = x[2 * k];
+            zi[k] = x[2 * k + 1];
+        }
+
+        exponent = fft.fft(zr, zi);
+
+        re[0] = zr[0] + zi[0];
+        im[0] = 0;
+        re[h] = zr[0] - zi[0];
+        im[h] = 0;
+
+        // Separate spectra of even and odd samples
+        for (k = 1; k < h; k++) {
+            ar = zr[k];
+            ai = zi[k];
+            br = zr[h - k];
+            bi = zi[h - k];
+
+            er = half(ar + br);
+            ei = half(ai - bi);
+            or = half(ai + bi);
+            oi = half(br - ar);
+
+            re[k] = er + (int) ((cos[k] * (long) or - sin[k] * (long) oi + FFTQ15.TWIDDLE_ROUND)
+                    >> FFTQ15.TWIDDLE_BITS);
+            im[k] = ei + (int) ((sin[k] * (long) or + cos[k] * (long) oi + FFTQ15.TWIDDLE_ROUND)
+                    >> FFTQ15.TWIDDLE_BITS);
+        }
+        return exponent;
+    }
+
+    /**
+     * Divides by 2 with round half to even
+     */
+    private static int half(int value) {
+        return (value + ((value >> 1) & 1)) >> 1;
+    }
+
+    public int getSize() {
+        return n;
+    }
+}
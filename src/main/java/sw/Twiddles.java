@@ -0,0 +1,69 @@
+package sw;
+
+import ultrasound.utils.DspTableCache;
+
+/**
+ * Twiddle tables e^(-2*pi*i*k/n) for k = 0..n/2, in every precision used by
+ * the FFTs. Tables are shared through {@link DspTableCache}, so all FFTs of the
+ * same size use one copy. {@link FFT} of size n uses the first n/2 entries,
+ * {@link RealFFT} of size n the whole table for post-processing.
+ *
+ * Tables are shared, so they must not be modified.
+ */
+final class Twiddles {
+
+    private Twiddles() {
+    }
+
+    static double[] cos(int n) {
+        return DspTableCache.get("twiddle.cos", n, () -> {
+            double[] table = new double[n / 2 + 1];
+            for (int i = 0; i <= n / 2; i++) {
+                table[i] = Math.cos(-2 * Math.PI * i / n);
+            }
+            return table;
+        });
+    }
+
+    static double[] sin(int n) {
+        return DspTableCache.get("twiddle.sin", n, () -> {
+            double[] table = new double[n / 2 + 1];
+            for (int i = 0; i <= n / 2; i++) {
+                table[i] = Math.sin(-2 * Math.PI * i / n);
+            }
+            return table;
+        });
+    }
+
+    static float[] cosFloat(int n) {
+        return DspTableCache.get("twiddle.cos.float", n, () -> toFloat(cos(n)));
+    }
+
+    static float[] sinFloat(int n) {
+        return DspTableCache.get("twiddle.sin.float", n, () -> toFloat(sin(n)));
+    }
+
+    static int[] cosQ15(int n) {
+        return DspTableCache.get("twiddle.cos.q15", n, () -> toQ15(cos(n)));
+    }
+
+    static int[] sinQ15(int n) {
+        return DspTableCache.get("twiddle.sin.q15", n, () -> toQ15(sin(n)));
+    }
+
+    private static float[] toFloat(double[] table) {
+        float[] result = new float[table.length];
+        for (int i = 0; i < table.length; i++) {
+            result[i] = (float) table[i];
+        }
+        return result;
+    }
+
+    private static int[] toQ15(double[] table) {
+        int[] result = new int[table.length];
+        for (int i = 0; i < table.length; i++) {
+            result[i] = FFTQ15.toTwiddle(table[i]);
+        }
+        return result;
+    }
+}
@@ -16,7 +16,7 @@ public abstract class AbstractCoder implements ICoder {
 	protected boolean secdedEnabled = true;
 	protected double tOnePulse;
 
-	protected boolean isRunning;
+	protected volatile boolean isRunning;
 	protected int N;
 
 	protected CoderMode mode;
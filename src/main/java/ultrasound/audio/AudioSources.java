@@ -0,0 +1,58 @@
+package ultrasound.audio;
+
+import java.io.File;
+import java.io.IOException;
+
+import ultrasound.utils.FileUtil;
+import ultrasound.utils.WavHeader;
+
+/**
+ * Factory methods for {@link IAudioSource}
+ */
+public final class AudioSources {
+
+	private AudioSources() {
+
+	}
+
+	/**
+	 * Opens audio file. Type of the file is recognized by its extension:
+	 * <ul>
+	 * <li>{@code .wav} - mono 16 bit PCM WAV file, memory mapped</li>
+	 * <li>{@code .csv} - CSV file, streamed</li>
+	 * <li>any other - raw 16 bit little endian PCM, memory mapped</li>
+	 * </ul>
+	 * 
+	 * @param file       audio file
+	 * @param sampleRate sample rate in Hz, for WAV files it is read from the
+	 *                   header
+	 * @return {@link IAudioSource}
+	 * @throws IOException when file could not be opened
+	 */
+	public static IAudioSource open(File file, int sampleRate) throws IOException {
+		String name = file.getName().toLowerCase();
+		if (name.endsWith(".wav")) {
+			WavHeader header = FileUtil.readWavHeader(file);
+			if (header.getNoOfChannels() != 1) {
+				throw new IOException("Only mono WAV files are supported!");
+			}
+			return new BufferAudioSource(FileUtil.mapWavFile(file), header.getSampleRate());
+		}
+		if (name.endsWith(".csv")) {
+			return new CsvAudioSource(file, sampleRate);
+		}
+		return new BufferAudioSource(FileUtil.mapPcmFile(file), sampleRate);
+	}
+
+	/**
+	 * Creates source which reads raw 16 bit little endian PCM samples from the
+	 * standard input
+	 * 
+	 * @param sampleRate sample rate in Hz
+	 * @return {@link IAudioSource}
+	 */
+	public static IAudioSource stdin(int sampleRate) {
+		return new StreamAudioSource(System.in, sampleRate);
+	}
+
+}
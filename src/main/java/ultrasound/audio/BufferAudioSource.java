@@ -0,0 +1,64 @@
+package ultrasound.audio;
+
+import java.nio.ShortBuffer;
+
+/**
+ * Audio source which reads samples from memory: an array or a
+ * {@link ShortBuffer}, e.g. memory mapped file.
+ */
+public class BufferAudioSource implements IAudioSource {
+
+	private final ShortBuffer samples;
+	private final int sampleRate;
+
+	/**
+	 * @param samples    audio samples
+	 * @param sampleRate sample rate in Hz
+	 */
+	public BufferAudioSource(short[] samples, int sampleRate) {
+		this(ShortBuffer.wrap(samples), sampleRate);
+	}
+
+	/**
+	 * @param samples    audio samples from position to limit of the buffer, the
+	 *                   buffer is not modified
+	 * @param sampleRate sample rate in Hz
+	 */
+	public BufferAudioSource(ShortBuffer samples, int sampleRate) {
+		this.samples = samples.duplicate();
+		this.sampleRate = sampleRate;
+	}
+
+	@Override
+	public void start() {
+
+	}
+
+	@Override
+	public int read(short[] dst, int off, int len) {
+		if (!samples.hasRemaining()) {
+			return -1;
+		}
+		int n = Math.min(len, samples.remaining());
+		samples.get(dst, off, n);
+		return n;
+	}
+
+	@Override
+	public int getSampleRate() {
+		return sampleRate;
+	}
+
+	/**
+	 * @return number of samples not read yet
+	 */
+	public int remaining() {
+		return samples.remaining();
+	}
+
+	@Override
+	public void close() {
+
+	}
+
+}
@@ -0,0 +1,46 @@
+package ultrasound.audio;
+
+import java.io.File;
+import java.io.IOException;
+
+import ultrasound.utils.CsvSampleReader;
+
+/**
+ * Audio source which streams samples from a CSV file
+ */
+public class CsvAudioSource implements IAudioSource {
+
+	private final CsvSampleReader reader;
+	private final int sampleRate;
+
+	/**
+	 * @param file       CSV file with audio samples
+	 * @param sampleRate sample rate in Hz
+	 * @throws IOException when file could not be opened
+	 */
+	public CsvAudioSource(File file, int sampleRate) throws IOException {
+		this.reader = new CsvSampleReader(file);
+		this.sampleRate = sampleRate;
+	}
+
+	@Override
+	public void start() {
+
+	}
+
+	@Override
+	public int read(short[] dst, int off, int len) throws IOException {
+		return reader.read(dst, off, len);
+	}
+
+	@Override
+	public int getSampleRate() {
+		return sampleRate;
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+}
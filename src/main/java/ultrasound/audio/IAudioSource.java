@@ -0,0 +1,38 @@
+package ultrasound.audio;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Source of mono 16 bit audio samples for a decoder. Samples are read in bulk
+ * into a buffer given by the caller.
+ */
+public interface IAudioSource extends Closeable {
+
+	/**
+	 * Prepares the source for reading, e.g. starts recording. Called once before
+	 * the first {@link IAudioSource#read(short[], int, int)}.
+	 * 
+	 * @throws IOException when source could not be started
+	 */
+	void start() throws IOException;
+
+	/**
+	 * Reads next samples. Blocks until at least one sample is available.
+	 * 
+	 * @param dst destination array
+	 * @param off index of the first sample in destination array
+	 * @param len maximal number of samples to read
+	 * @return number of read samples or -1 when there are no more samples
+	 * @throws IOException when samples could not be read
+	 */
+	int read(short[] dst, int off, int len) throws IOException;
+
+	/**
+	 * Get sample rate of the source
+	 * 
+	 * @return sample rate in Hz
+	 */
+	int getSampleRate();
+
+}
@@ -0,0 +1,72 @@
+package ultrasound.audio;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Audio source which reads raw 16 bit little endian PCM samples from a stream,
+ * e.g. standard input fed from {@code arecord -t raw -f S16_LE -c 1 -r 48000}.
+ */
+public class StreamAudioSource implements IAudioSource {
+
+	private static final int BUFFER_SIZE = 1 << 14;
+
+	private final InputStream in;
+	private final int sampleRate;
+	private final byte[] bytes;
+	// Number of bytes of incomplete sample kept at the beginning of the buffer
+	private int pending;
+
+	/**
+	 * @param in         stream of raw PCM samples, it is closed together with the
+	 *                   source
+	 * @param sampleRate sample rate in Hz
+	 */
+	public StreamAudioSource(InputStream in, int sampleRate) {
+		this.in = in;
+		this.sampleRate = sampleRate;
+		this.bytes = new byte[BUFFER_SIZE];
+	}
+
+	@Override
+	public void start() {
+
+	}
+
+	@Override
+	public int read(short[] dst, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		int maxBytes = Math.min(bytes.length, 2 * len);
+		int available = pending;
+		// Wait for at least one complete sample
+		while (available < 2) {
+			int n = in.read(bytes, available, maxBytes - available);
+			if (n < 0) {
+				return -1;
+			}
+			available += n;
+		}
+		int samples = available / 2;
+		for (int i = 0; i < samples; i++) {
+			dst[off + i] = (short) ((bytes[2 * i] & 0xFF) | (bytes[2 * i + 1] << 8));
+		}
+		pending = available - 2 * samples;
+		if (pending > 0) {
+			bytes[0] = bytes[available - 1];
+		}
+		return samples;
+	}
+
+	@Override
+	public int getSampleRate() {
+		return sampleRate;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+}
@@ -1,6 +1,11 @@
 package ultrasound.decoder;
 
 import ultrasound.AbstractCoderBuilder;
+import ultrasound.decoder.IDecoderSimple.ExecutionMode;
+import ultrasound.decoder.IDecoderSimple.FftEngine;
+import ultrasound.decoder.IDecoderSimple.PeakInterpolation;
+import ultrasound.decoder.IDecoderSimple.Precision;
+import ultrasound.decoder.ISpectralDetector.DetectorType;
 
 /**
  * Abstract builder class used to create new instances of
@@ -11,6 +16,15 @@ public abstract class AbstractDecoderBuilder extends AbstractCoderBuilder implem
 
 	protected final int nfft;
 	protected final double threshold;
+	protected DetectorType detectorType;
+	protected ExecutionMode executionMode;
+	protected int hopSize;
+	protected Precision precision;
+	protected FftEngine fftEngine;
+	protected int zoom;
+	protected int decimation;
+	protected int batchSize;
+	protected PeakInterpolation peakInterpolation;
 
 	/**
 	 * Constructor for a new AbstractDecoder builder object. It should be overridden
@@ -22,8 +36,9 @@ public abstract class AbstractDecoderBuilder extends AbstractCoderBuilder implem
 	 *                     of low signal of the first channel)
 	 * @param freqStep     frequency interval between successive transmission
 	 *                     channels
-	 * @param nfft         size of FFT transform given as natural number n, where
-	 *                     FFT Size = 2^n
+	 * @param nfft         size of FFT transform, has to be a power of 2 unless
+	 *                     the decoder works in {@link Precision#DOUBLE} or uses
+	 *                     {@link DetectorType#GOERTZEL}
 	 * @param threshold    minimum amplitude of frequency to be detected as searched
 	 *                     signal
 	 */
@@ -32,6 +47,59 @@ public abstract class AbstractDecoderBuilder extends AbstractCoderBuilder implem
 		super(sampleRate, noOfChannels, firstFreq, freqStep);
 		this.nfft = nfft;
 		this.threshold = threshold;
+		this.detectorType = DetectorType.FFT;
+		this.executionMode = ExecutionMode.SERIAL;
+		this.precision = Precision.DOUBLE;
+		this.fftEngine = FftEngine.RADIX4;
+		this.zoom = 1;
+		this.decimation = 1;
+		this.batchSize = 1;
+		this.peakInterpolation = PeakInterpolation.NONE;
+	}
+
+	public IDecoderBuilder spectralDetector(DetectorType detectorType) {
+		this.detectorType = detectorType;
+		return this;
+	}
+
+	public IDecoderBuilder executionMode(ExecutionMode executionMode) {
+		this.executionMode = executionMode;
+		return this;
+	}
+
+	public IDecoderBuilder hopSize(int hopSize) {
+		this.hopSize = hopSize;
+		return this;
+	}
+
+	public IDecoderBuilder precision(Precision precision) {
+		this.precision = precision;
+		return this;
+	}
+
+	public IDecoderBuilder fftEngine(FftEngine fftEngine) {
+		this.fftEngine = fftEngine;
+		return this;
+	}
+
+	public IDecoderBuilder zoom(int zoom) {
+		this.zoom = zoom;
+		return this;
+	}
+
+	public IDecoderBuilder decimation(int decimation) {
+		this.decimation = decimation;
+		return this;
+	}
+
+	public IDecoderBuilder batchSize(int batchSize) {
+		this.batchSize = batchSize;
+		return this;
+	}
+
+	public IDecoderBuilder peakInterpolation(PeakInterpolation peakInterpolation) {
+		this.peakInterpolation = peakInterpolation;
+		return this;
 	}
 
 	/**
@@ -44,9 +112,41 @@ public abstract class AbstractDecoderBuilder extends AbstractCoderBuilder implem
 	@Override
 	protected void validate() {
 		super.validate();
-		// check if Nfft is a power of 2
-		if ((nfft & nfft - 1) != 0) {
-			throw new IllegalArgumentException("Nfft must be a power of 2! Decoder Stopped!");
+		if (nfft < 2) {
+			throw new IllegalArgumentException("Nfft must be at least 2! Decoder Stopped!");
+		}
+		// only double precision FFT supports Nfft which is not a power of 2
+		if ((nfft & nfft - 1) != 0 && detectorType == DetectorType.FFT && precision != Precision.DOUBLE) {
+			throw new IllegalArgumentException("Nfft must be a power of 2 in " + precision
+					+ " precision! Decoder Stopped!");
+		}
+		if (zoom < 1 || (zoom > 1 && detectorType == DetectorType.FFT)) {
+			throw new IllegalArgumentException(
+					"Zoom must be 1 for FFT detector and at least 1 for other detectors! Decoder Stopped!");
+		}
+		if (detectorType == DetectorType.ZOOM && precision == Precision.Q15) {
+			throw new IllegalArgumentException("Zoom detector does not support Q15 precision! Decoder Stopped!");
+		}
+		if (hopSize != 0 && (hopSize < 1 || hopSize > nfft)) {
+			throw new IllegalArgumentException("Hop size must be between 1 and Nfft! Decoder Stopped!");
+		}
+		if (decimation < 1) {
+			throw new IllegalArgumentException("Decimation must be at least 1! Decoder Stopped!");
+		}
+		if (decimation > 1 && (detectorType != DetectorType.FFT || precision != Precision.DOUBLE)) {
+			throw new IllegalArgumentException(
+					"Decimation is supported only by FFT detector in DOUBLE precision! Decoder Stopped!");
+		}
+		if (nfft % decimation != 0 || (hopSize != 0 ? hopSize : nfft) % decimation != 0) {
+			throw new IllegalArgumentException("Nfft and hop size must be multiples of decimation! Decoder Stopped!");
+		}
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be at least 1! Decoder Stopped!");
+		}
+		if (batchSize > 1 && (detectorType != DetectorType.FFT || precision != Precision.DOUBLE
+				|| fftEngine != FftEngine.RADIX4 || decimation > 1 || (nfft & nfft - 1) != 0)) {
+			throw new IllegalArgumentException("Batches are supported only by FFT detector in DOUBLE precision with "
+					+ "RADIX4 engine, without decimation and with Nfft which is a power of 2! Decoder Stopped!");
 		}
 	}
 }
\ No newline at end of file
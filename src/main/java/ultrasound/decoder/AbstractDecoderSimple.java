@@ -1,11 +1,22 @@
 package ultrasound.decoder;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
 import java.util.Arrays;
 
 import org.apache.commons.lang3.ArrayUtils;
 
 import sw.FFT;
+import sw.FFTFloat;
+import sw.FFTQ15;
 import ultrasound.AbstractCoder;
+import ultrasound.decoder.ISpectralDetector.DetectorType;
+import ultrasound.utils.BitStream;
+import ultrasound.utils.DspKernels;
+import ultrasound.utils.DspTableCache;
+import ultrasound.utils.SecdedCodec;
 import ultrasound.utils.UltrasoundHelper;
 import ultrasound.utils.log.DecoderLogger;
 
@@ -17,19 +28,73 @@ public abstract class AbstractDecoderSimple extends AbstractCoder implements IDe
 	protected int nfft;
 	private final double threshold;
 	protected double deltaF;
+	// Spacing of the analysed bins, deltaF / zoom
+	private final double binStep;
 
 	private final double[] hamming;
-	private final FFT fft;
+	private final ISpectralDetector detector;
+	private final ExecutionMode executionMode;
+	private final Precision precision;
+	private final FftEngine fftEngine;
+	private final int zoom;
+	private final int decimation;
+	private final int hopSize;
+	private final int batchSize;
+	private final PeakInterpolation peakInterpolation;
+	// Maximal distance of a found frequency from a tone, one analysed bin
+	// without peak interpolation and half of the frequency step with it
+	private final double freqTolerance;
+	private DecoderPipeline pipeline;
 	private double[] f;
 
+	// Work buffers reused for every decoded fragment
+	private final double[] windowedFrag;
+	private final double[] ampl;
+	// Single precision window and work buffers, used instead of the double ones
+	// in Precision.FLOAT
+	private final float[] hammingFloat;
+	private final float[] windowedFragFloat;
+	private final float[] amplFloat;
+	// Fixed-point window and work buffers, used in Precision.Q15
+	private final int[] hammingQ15;
+	private final int[] windowedFragQ15;
+	private final long[] amplQ15;
+	// Threshold of ampQ15 for every exponent returned by the detector
+	private final long[] thresholdQ15;
+	private final double[] vals;
+	private final double[] oldVals;
+
+	// Capture buffer filled in place by readAudioSamples
+	private final ByteBuffer captureBuffer;
+	private final ShortBuffer capturedSamples;
+	// Capture buffer filled in place by readAudioSamples(FloatBuffer)
+	private final FloatBuffer capturedSamplesFloat;
+	// Captured samples copied out of the capture buffers for analysis
+	private final short[] frameSamples;
+	private final float[] frameSamplesFloat;
+	// Samples returned by getAudioSamples which did not fit in the capture buffer
+	private short[] pendingFrag;
+	private int pendingPos;
+
 	private final int lowestAnalyseFreqInd;
 	private final int highestAnalyseFreqInd;
 	private final int[][] freqInd;
 
+	// Baseband front end and its detector, used instead of the detector of full
+	// frames when decimation is greater than 1
+	private final int centreBin;
+	private final BasebandSpectralDetector basebandDetector;
+	private final BasebandFramer basebandFramer;
+
+	// Detector of many frames at once, used when batch size is greater than 1
+	private final BatchSpectralDetector batchDetector;
+	private final Runnable onBatchValuesFound = () -> onValuesFoundOnAllChannels(getChannelValues());
+
 	protected StringBuilder receivedHexMsg;
 
-	protected boolean[] sigBinDec;
-	private boolean[] resBin;
+	protected BitStream sigBinDec;
+	private final BitStream resBin;
+	private final BitStream symbolBin;
 	
 	private double tempSigLevel;
 
@@ -38,7 +103,8 @@ public abstract class AbstractDecoderSimple extends AbstractCoder implements IDe
 	 * instantiate new object of this type use {@link AbstractDecoderBuilder}
 	 * 
 	 * @param builder {@link AbstractDecoderBuilder}
-	 * @throws Exception on {@link FFT} initialization error
+	 * @throws Exception on {@link FFT}, {@link FFTFloat} or {@link FFTQ15}
+	 *                   initialization error
 	 */
 	protected AbstractDecoderSimple(AbstractDecoderBuilder builder) throws Exception {
 
@@ -52,9 +118,14 @@ public abstract class AbstractDecoderSimple extends AbstractCoder implements IDe
 		//this.N = (int) Math.ceil(tOnePulse * sampleRate);
 		this.N = nfft;
 		this.deltaF = sampleRate / (double) nfft;
-		this.hamming = UltrasoundHelper.hamming(N);
-
-		this.fft = new FFT(nfft);
+		this.precision = builder.precision;
+		this.fftEngine = builder.fftEngine;
+		this.zoom = builder.zoom;
+		this.decimation = builder.decimation;
+		this.batchSize = builder.batchSize;
+		this.binStep = deltaF / zoom;
+		this.peakInterpolation = builder.peakInterpolation;
+		this.freqTolerance = peakInterpolation == PeakInterpolation.NONE ? binStep : freqStep / 2.0;
 
 		double lowestAnalyseFreq = firstFreq - deltaF;
 		double highestAnalyseFreq = freq[freq.length - 1][1] + deltaF;
@@ -73,15 +144,63 @@ public abstract class AbstractDecoderSimple extends AbstractCoder implements IDe
 			f[i_f] = freqIndexToFrequency(lowestAnalyseFreqInd + i_f);
 		}
 
+		this.detector = decimation > 1 ? null : createSpectralDetector(builder.detectorType, precision, fftEngine);
+		this.executionMode = builder.executionMode;
+		this.hopSize = builder.hopSize > 0 ? builder.hopSize : N;
+
+		// Centre of the analysis band is moved to 0 Hz by the baseband front end
+		this.centreBin = lowestAnalyseFreqInd + f.length / 2;
+		this.basebandDetector = decimation > 1
+				? new BasebandSpectralDetector(nfft, decimation, lowestAnalyseFreqInd, centreBin, fftEngine)
+				: null;
+		this.basebandFramer = createBasebandFramer(this::decode);
+
+		this.ampl = new double[f.length];
+		this.vals = new double[noOfChannels];
+		this.oldVals = new double[noOfChannels];
+		this.captureBuffer = ByteBuffer.allocateDirect(2 * N).order(ByteOrder.nativeOrder());
+		this.capturedSamples = captureBuffer.asShortBuffer();
+		this.frameSamples = new short[N];
+
+		// Only buffers of the selected precision are allocated, windows are shared
+		// with other decoders of the same size
+		boolean isDouble = precision == Precision.DOUBLE;
+		this.hamming = isDouble ? hammingWindow(N) : null;
+		this.windowedFrag = isDouble ? new double[nfft] : null;
+		this.batchDetector = batchSize > 1
+				? new BatchSpectralDetector(nfft, lowestAnalyseFreqInd, f.length, hamming, batchSize)
+				: null;
+
+		boolean isFloat = precision == Precision.FLOAT;
+		this.hammingFloat = isFloat ? hammingWindowFloat(N) : null;
+		this.windowedFragFloat = isFloat ? new float[nfft] : null;
+		this.amplFloat = isFloat ? new float[f.length] : null;
+		this.capturedSamplesFloat = isFloat
+				? ByteBuffer.allocateDirect(4 * N).order(ByteOrder.nativeOrder()).asFloatBuffer()
+				: null;
+		this.frameSamplesFloat = isFloat ? new float[N] : null;
+
+		boolean isQ15 = precision == Precision.Q15;
+		this.hammingQ15 = isQ15 ? hammingWindowQ15(N) : null;
+		this.windowedFragQ15 = isQ15 ? new int[nfft] : null;
+		this.amplQ15 = isQ15 ? new long[f.length] : null;
+		this.thresholdQ15 = isQ15 ? createThresholdQ15(threshold) : null;
+
 		this.receivedHexMsg = new StringBuilder();
 
+		this.sigBinDec = new BitStream();
+		this.resBin = new BitStream();
+		this.symbolBin = new BitStream(noOfChannels);
+
 		logger.logMessage(this.toString());
 
 	}
 
 	/**
-	*
-	*/
+	 * Starts decoding. In {@link ExecutionMode#PIPELINED} mode this thread only
+	 * captures audio, spectral analysis and bit/frame assembly run on separate
+	 * threads.
+	 */
 	public void run() {
 
 		logger.logMessage("Decoder started!");
@@ -90,14 +209,60 @@ public abstract class AbstractDecoderSimple extends AbstractCoder implements IDe
 
 		startRecording();
 
-		double[] oldVals = new double[noOfChannels];
+		Arrays.fill(oldVals, 0);
+
+		if (executionMode == ExecutionMode.PIPELINED) {
+			pipeline = new DecoderPipeline(this, N, hopSize, logger);
+			pipeline.run();
+			stopAudioRecorder();
+			return;
+		}
+
+		// Captured samples are framed only when frames overlap, otherwise every
+		// capture is analysed as one frame. Frames completed by one capture are
+		// available at once, so they are analysed in batches when batch size is
+		// greater than 1.
+		StreamFramer framer = null;
+		FloatStreamFramer floatFramer = null;
+		if (basebandFramer != null) {
+			basebandFramer.reset();
+		} else if (hopSize < N) {
+			if (precision == Precision.FLOAT) {
+				floatFramer = new FloatStreamFramer(N, hopSize, this::decode);
+			} else if (batchDetector != null) {
+				framer = new StreamFramer(N, hopSize, this::decodeInBatch);
+			} else {
+				framer = new StreamFramer(N, hopSize, this::decode);
+			}
+		}
 
 		while (isRunning) {
 
 			try {
-				short[] recordFrag = getAudioSamples();	
-				if(!ArrayUtils.isEmpty(recordFrag)) {
-					oldVals = decode(recordFrag, oldVals);
+				if (precision == Precision.FLOAT) {
+					FloatBuffer recordFrag = captureFloat();
+					if (recordFrag.hasRemaining()) {
+						if (floatFramer != null) {
+							floatFramer.push(recordFrag);
+						} else {
+							decode(recordFrag);
+						}
+					}
+				} else {
+					ShortBuffer recordFrag = capture();
+					if (recordFrag.hasRemaining()) {
+						if (basebandFramer != null) {
+							basebandFramer.push(recordFrag);
+						} else if (framer != null) {
+							framer.push(recordFrag);
+							if (batchDetector != null) {
+								// Frames are not delayed until the next capture
+								analyseBatch(onBatchValuesFound);
+							}
+						} else {
+							decode(recordFrag);
+						}
+					}
 				}
 
 			} catch (Exception e) {
@@ -113,7 +278,7 @@ public abstract class AbstractDecoderSimple extends AbstractCoder implements IDe
 
 	public void clearReceivedDataBuffers() {
 		receivedHexMsg.setLength(0);
-		sigBinDec = null;
+		sigBinDec.clear();
 
 	}
 
@@ -135,20 +300,473 @@ public abstract class AbstractDecoderSimple extends AbstractCoder implements IDe
 	 */
 	protected abstract short[] getAudioSamples() throws IllegalStateException;
 
-	private double[] decode(short[] recordFrag, double[] oldVals) {
+	/**
+	 * Fills the capture buffer with audio samples in place. Override this method
+	 * to capture audio without allocating a new array for every fragment, e.g.
+	 * with {@code AudioRecord.read(ByteBuffer, int)} or from native code. The
+	 * same buffer is passed on every call. The default implementation is an
+	 * adapter of {@link #getAudioSamples()}. It joins fragments until N samples
+	 * are captured or no more samples are available. Samples which do not fit in
+	 * the buffer are returned by the next call.
+	 * 
+	 * @param buffer direct buffer in native byte order with room for N 16 bit
+	 *               samples. Samples have to be written from index 0, position
+	 *               and limit of the buffer are ignored.
+	 * @return number of written samples, 0 when no samples are available
+	 * @throws IllegalStateException when Audio Recorder was not initialized
+	 */
+	protected int readAudioSamples(ByteBuffer buffer) throws IllegalStateException {
+		capturedSamples.clear();
+		while (capturedSamples.hasRemaining()) {
+			if (pendingFrag == null || pendingPos >= pendingFrag.length) {
+				pendingFrag = getAudioSamples();
+				pendingPos = 0;
+				if (ArrayUtils.isEmpty(pendingFrag)) {
+					break;
+				}
+			}
+			int n = Math.min(capturedSamples.remaining(), pendingFrag.length - pendingPos);
+			capturedSamples.put(pendingFrag, pendingPos, n);
+			pendingPos += n;
+		}
+		return capturedSamples.position();
+	}
+
+	/**
+	 * Captures next audio samples with {@link #readAudioSamples(ByteBuffer)}
+	 * 
+	 * @return view of the captured samples, valid until the next capture
+	 */
+	ShortBuffer capture() {
+		int n = readAudioSamples(captureBuffer);
+		capturedSamples.clear();
+		capturedSamples.limit(Math.max(0, Math.min(n, N)));
+		return capturedSamples;
+	}
+
+	/**
+	 * Fills the single precision capture buffer with audio samples normalised to
+	 * [-1, 1] in place. It is used instead of {@link #readAudioSamples(ByteBuffer)}
+	 * when the decoder works in {@link Precision#FLOAT}. Override this method to
+	 * capture from devices delivering 24 bit or floating point PCM without
+	 * truncation to 16 bits, e.g. with
+	 * {@code AudioRecord.read(float[], int, int, int)}. The default
+	 * implementation converts samples captured by
+	 * {@link #readAudioSamples(ByteBuffer)}.
+	 * 
+	 * @param buffer direct buffer in native byte order with room for N samples.
+	 *               Samples have to be written from index 0, position and limit of
+	 *               the buffer are ignored.
+	 * @return number of written samples, 0 when no samples are available
+	 * @throws IllegalStateException when Audio Recorder was not initialized
+	 */
+	protected int readAudioSamples(FloatBuffer buffer) throws IllegalStateException {
+		int n = Math.max(0, Math.min(readAudioSamples(captureBuffer), N));
+		for (int i = 0; i < n; i++) {
+			buffer.put(i, (float) capturedSamples.get(i) / Short.MAX_VALUE);
+		}
+		return n;
+	}
+
+	/**
+	 * Captures next audio samples with {@link #readAudioSamples(FloatBuffer)}
+	 * 
+	 * @return view of the captured samples, valid until the next capture
+	 */
+	FloatBuffer captureFloat() {
+		int n = readAudioSamples(capturedSamplesFloat);
+		capturedSamplesFloat.clear();
+		capturedSamplesFloat.limit(Math.max(0, Math.min(n, N)));
+		return capturedSamplesFloat;
+	}
 
-		double[] vals = new double[noOfChannels];
+	/**
+	 * Decodes one fragment of audio data. Only the first N samples of the fragment
+	 * are analysed. All work buffers are allocated in the constructor, so no
+	 * memory is allocated here unless a new symbol has been found.
+	 * 
+	 * @param recordFrag audio data samples
+	 */
+	void decode(short[] recordFrag) {
+		if (analyseFrame(recordFrag)) {
+			onValuesFoundOnAllChannels(vals);
+		}
+	}
 
-		double[] frag = UltrasoundHelper.shortArrayToDoubleArray(recordFrag);
+	/**
+	 * Decodes captured samples as one frame
+	 * 
+	 * @param recordFrag audio data samples from position to limit of the buffer,
+	 *                   at most N
+	 */
+	void decode(ShortBuffer recordFrag) {
+		if (analyseFrame(recordFrag)) {
+			onValuesFoundOnAllChannels(vals);
+		}
+	}
 
-		// Hamming window
-		for (int i = 0; i < N; i++) {
-			frag[i] = frag[i] * hamming[i];
+	/**
+	 * Decodes captured single precision samples as one frame
+	 * 
+	 * @param recordFrag audio data samples normalised to [-1, 1] from position to
+	 *                   limit of the buffer, at most N
+	 */
+	void decode(FloatBuffer recordFrag) {
+		if (analyseFrame(recordFrag)) {
+			onValuesFoundOnAllChannels(vals);
 		}
+	}
 
-		double[] x = zeroPadding(frag);
+	/**
+	 * Decodes audio samples from the array without audio recorder. Frames start
+	 * every hop size samples from {@code from}, the last frames are zero padded.
+	 * When batch size is greater than 1 the frames are analysed in batches.
+	 * 
+	 * @param audio audio data samples
+	 * @param from  index of the first sample to decode
+	 * @param to    index after the last sample to decode
+	 */
+	void decode(short[] audio, int from, int to) {
+		Arrays.fill(oldVals, 0);
+		if (basebandFramer != null) {
+			decodeBaseband(audio, from, to);
+			return;
+		}
+		if (batchDetector != null) {
+			for (int pos = from; pos < to; pos += hopSize) {
+				if (addToBatch(audio, pos, Math.min(N, to - pos))) {
+					analyseBatch(onBatchValuesFound);
+				}
+			}
+			analyseBatch(onBatchValuesFound);
+			return;
+		}
+		for (int pos = from; pos < to; pos += hopSize) {
+			if (analyseFrame(audio, pos, Math.min(N, to - pos))) {
+				onValuesFoundOnAllChannels(vals);
+			}
+		}
+	}
 
-		double[] ampl = calculateFFT(x);
+	/**
+	 * Decodes audio samples from the array with the baseband front end. Frames
+	 * start at the same samples as in {@link #decode(short[], int, int)}, the
+	 * stream is padded with zeros until the last frame is emitted.
+	 */
+	private void decodeBaseband(short[] audio, int from, int to) {
+		basebandFramer.reset();
+		if (to <= from) {
+			return;
+		}
+		basebandFramer.push(audio, from, to - from);
+		int lastFrame = (to - from - 1) / hopSize * hopSize;
+		basebandFramer.pushZeros(lastFrame + N + basebandFramer.getZeroPadding() - (to - from));
+	}
+
+	/**
+	 * Decodes single precision audio samples from the array without audio
+	 * recorder, like {@link #decode(short[], int, int)}
+	 * 
+	 * @param audio audio data samples normalised to [-1, 1]
+	 * @param from  index of the first sample to decode
+	 * @param to    index after the last sample to decode
+	 */
+	void decode(float[] audio, int from, int to) {
+		Arrays.fill(oldVals, 0);
+		for (int pos = from; pos < to; pos += hopSize) {
+			if (analyseFrame(audio, pos, Math.min(N, to - pos))) {
+				onValuesFoundOnAllChannels(vals);
+			}
+		}
+	}
+
+	/**
+	 * Decodes one frame emitted by {@link StreamFramer}
+	 * 
+	 * @param history circular buffer of N samples
+	 * @param start   index of the oldest sample of the frame in the buffer
+	 */
+	void decode(short[] history, int start) {
+		if (analyseFrame(history, start, N)) {
+			onValuesFoundOnAllChannels(vals);
+		}
+	}
+
+	/**
+	 * Adds one frame emitted by {@link StreamFramer} to the batch and decodes the
+	 * batch when it is full
+	 * 
+	 * @param history circular buffer of N samples
+	 * @param start   index of the oldest sample of the frame in the buffer
+	 */
+	private void decodeInBatch(short[] history, int start) {
+		if (addToBatch(history, start, N)) {
+			analyseBatch(onBatchValuesFound);
+		}
+	}
+
+	/**
+	 * Decodes one frame emitted by {@link FloatStreamFramer}
+	 * 
+	 * @param history circular buffer of N samples
+	 * @param start   index of the oldest sample of the frame in the buffer
+	 */
+	void decode(float[] history, int start) {
+		if (analyseFrame(history, start, N)) {
+			onValuesFoundOnAllChannels(vals);
+		}
+	}
+
+	/**
+	 * Decodes one decimated frame emitted by {@link BasebandFramer}
+	 * 
+	 * @param re    circular buffer of real parts of N / D samples
+	 * @param im    circular buffer of imaginary parts of N / D samples
+	 * @param start index of the oldest sample of the frame in the buffers
+	 */
+	void decode(double[] re, double[] im, int start) {
+		if (analyseFrame(re, im, start)) {
+			onValuesFoundOnAllChannels(vals);
+		}
+	}
+
+	/**
+	 * Analyses one fragment of audio data and compares found frequencies with the
+	 * ones from the previous fragment. Only the first N samples of the fragment
+	 * are analysed.
+	 * 
+	 * @param recordFrag audio data samples
+	 * @return {@code true} when new frequency values have been found on all
+	 *         channels. They are available in {@link #getChannelValues()}
+	 */
+	boolean analyseFrame(short[] recordFrag) {
+		return analyseFrame(recordFrag, 0, Math.min(recordFrag.length, N));
+	}
+
+	/**
+	 * Analyses one frame of audio data stored in a circular buffer, like the
+	 * history of {@link StreamFramer}.
+	 * 
+	 * @param buffer circular buffer of audio samples
+	 * @param start  index of the first sample of the frame in the buffer
+	 * @param len    number of samples in the frame, at most N
+	 * @return {@code true} when new frequency values have been found on all
+	 *         channels. They are available in {@link #getChannelValues()}
+	 */
+	boolean analyseFrame(short[] buffer, int start, int len) {
+
+		if (basebandFramer != null) {
+			int frameStart = basebandFramer.decimateFrame(buffer, start, len);
+			return analyseFrame(basebandFramer.getRe(), basebandFramer.getIm(), frameStart);
+		}
+
+		int first = Math.min(len, buffer.length - start);
+		convertSamples(buffer, start, 0, first);
+		convertSamples(buffer, 0, first, len - first);
+		return analyseConvertedFrame(len);
+	}
+
+	/**
+	 * Analyses one frame of single precision audio data stored in a circular
+	 * buffer, like the history of {@link FloatStreamFramer}.
+	 * 
+	 * @param buffer circular buffer of audio samples normalised to [-1, 1]
+	 * @param start  index of the first sample of the frame in the buffer
+	 * @param len    number of samples in the frame, at most N
+	 * @return {@code true} when new frequency values have been found on all
+	 *         channels. They are available in {@link #getChannelValues()}
+	 */
+	boolean analyseFrame(float[] buffer, int start, int len) {
+		int first = Math.min(len, buffer.length - start);
+		convertSamples(buffer, start, 0, first);
+		convertSamples(buffer, 0, first, len - first);
+		return analyseConvertedFrame(len);
+	}
+
+	/**
+	 * Analyses samples of the buffer from its position to limit, at most N
+	 * samples. Samples are copied to a work array with one bulk read, position of
+	 * the buffer is not changed.
+	 * 
+	 * @param samples audio data samples
+	 * @return {@code true} when new frequency values have been found on all
+	 *         channels. They are available in {@link #getChannelValues()}
+	 */
+	boolean analyseFrame(ShortBuffer samples) {
+		int start = samples.position();
+		int len = Math.min(samples.remaining(), N);
+		samples.get(frameSamples, 0, len);
+		samples.position(start);
+		return analyseFrame(frameSamples, 0, len);
+	}
+
+	/**
+	 * Analyses single precision samples of the buffer from its position to limit,
+	 * at most N samples. Samples are copied to a work array with one bulk read,
+	 * position of the buffer is not changed.
+	 * 
+	 * @param samples audio data samples normalised to [-1, 1]
+	 * @return {@code true} when new frequency values have been found on all
+	 *         channels. They are available in {@link #getChannelValues()}
+	 */
+	boolean analyseFrame(FloatBuffer samples) {
+		int start = samples.position();
+		int len = Math.min(samples.remaining(), N);
+		samples.get(frameSamplesFloat, 0, len);
+		samples.position(start);
+		return analyseFrame(frameSamplesFloat, 0, len);
+	}
+
+	/**
+	 * Converts samples to the precision of the detector
+	 * 
+	 * @param src    audio samples
+	 * @param srcPos index of the first sample
+	 * @param pos    index of the first converted sample in the frame
+	 * @param len    number of samples
+	 */
+	private void convertSamples(short[] src, int srcPos, int pos, int len) {
+		if (windowedFragQ15 != null) {
+			for (int i = 0; i < len; i++) {
+				windowedFragQ15[pos + i] = src[srcPos + i];
+			}
+		} else if (windowedFragFloat != null) {
+			for (int i = 0; i < len; i++) {
+				windowedFragFloat[pos + i] = (float) src[srcPos + i] / Short.MAX_VALUE;
+			}
+		} else {
+			DspKernels.toDoubles(src, srcPos, windowedFrag, pos, len);
+		}
+	}
+
+	/**
+	 * Converts samples normalised to [-1, 1] to the precision of the detector
+	 * 
+	 * @param src    audio samples
+	 * @param srcPos index of the first sample
+	 * @param pos    index of the first converted sample in the frame
+	 * @param len    number of samples
+	 */
+	private void convertSamples(float[] src, int srcPos, int pos, int len) {
+		if (windowedFragQ15 != null) {
+			for (int i = 0; i < len; i++) {
+				windowedFragQ15[pos + i] = (int) (src[srcPos + i] * Short.MAX_VALUE);
+			}
+		} else if (windowedFragFloat != null) {
+			System.arraycopy(src, srcPos, windowedFragFloat, pos, len);
+		} else {
+			for (int i = 0; i < len; i++) {
+				windowedFrag[pos + i] = src[srcPos + i];
+			}
+		}
+	}
+
+	/**
+	 * Applies the Hamming window to the first len converted samples, zero pads
+	 * the frame and searches frequencies of all channels in it
+	 * 
+	 * @param len number of samples in the frame
+	 */
+	private boolean analyseConvertedFrame(int len) {
+
+		int exponentQ15 = 0;
+		if (windowedFragQ15 != null) {
+			windowQ15(len);
+			exponentQ15 = detector.calculatePower(windowedFragQ15, amplQ15);
+		} else if (windowedFragFloat != null) {
+			windowFloat(len);
+			detector.calculatePower(windowedFragFloat, amplFloat);
+			for (int i = 0; i < ampl.length; i++) {
+				ampl[i] = amplFloat[i];
+			}
+		} else {
+			windowDouble(len);
+			detector.calculatePower(windowedFrag, ampl);
+		}
+
+		return findChannelValues(exponentQ15);
+	}
+
+	private void windowQ15(int len) {
+		for (int i = 0; i < len; i++) {
+			windowedFragQ15[i] = (windowedFragQ15[i] * hammingQ15[i] + (1 << 14)) >> 15;
+		}
+		Arrays.fill(windowedFragQ15, len, nfft, 0);
+	}
+
+	private void windowFloat(int len) {
+		for (int i = 0; i < len; i++) {
+			windowedFragFloat[i] *= hammingFloat[i];
+		}
+		Arrays.fill(windowedFragFloat, len, nfft, 0);
+	}
+
+	private void windowDouble(int len) {
+		DspKernels.multiply(windowedFrag, 0, hamming, windowedFrag, 0, len);
+		Arrays.fill(windowedFrag, len, nfft, 0);
+	}
+
+	/**
+	 * Analyses one decimated frame of the baseband front end, see
+	 * {@link BasebandFramer.FrameListener}
+	 * 
+	 * @param re    circular buffer of real parts of N / D samples
+	 * @param im    circular buffer of imaginary parts of N / D samples
+	 * @param start index of the oldest sample of the frame in the buffers
+	 * @return {@code true} when new frequency values have been found on all
+	 *         channels. They are available in {@link #getChannelValues()}
+	 */
+	boolean analyseFrame(double[] re, double[] im, int start) {
+		basebandDetector.calculatePower(re, im, start, ampl);
+		return findChannelValues(0);
+	}
+
+	/**
+	 * Adds one frame of audio data stored in a circular buffer to the batch, it
+	 * is analysed by the next call of {@link #analyseBatch(Runnable)}
+	 * 
+	 * @param buffer circular buffer of audio samples
+	 * @param start  index of the first sample of the frame in the buffer
+	 * @param len    number of samples in the frame, at most N
+	 * @return {@code true} when the batch is full
+	 */
+	boolean addToBatch(short[] buffer, int start, int len) {
+		return batchDetector.add(buffer, start, len);
+	}
+
+	/**
+	 * Analyses all frames added to the batch in order of adding and clears the
+	 * batch. Every frame is compared with the previous one as in
+	 * {@link #analyseFrame(short[], int, int)}.
+	 * 
+	 * @param onValuesFound called for every frame in which new frequency values
+	 *                      have been found on all channels. They are available in
+	 *                      {@link #getChannelValues()}
+	 * @return number of analysed frames
+	 */
+	int analyseBatch(Runnable onValuesFound) {
+		int frames = batchDetector.size();
+		if (frames == 0) {
+			return 0;
+		}
+		batchDetector.calculatePower();
+		for (int b = 0; b < frames; b++) {
+			batchDetector.getPower(b, ampl);
+			if (findChannelValues(0)) {
+				onValuesFound.run();
+			}
+		}
+		batchDetector.clear();
+		return frames;
+	}
+
+	/**
+	 * Searches frequencies of all channels in the power of the analysis band
+	 * 
+	 * @param exponentQ15 exponent of the scaling of the fixed-point power, used
+	 *                    only in {@link Precision#Q15}
+	 */
+	private boolean findChannelValues(int exponentQ15) {
 
 		// Iterate for every transmission's channel
 		boolean valFound = true;
@@ -156,9 +774,10 @@ public abstract class AbstractDecoderSimple extends AbstractCoder implements IDe
 
 		for (int j = 0; j < noOfChannels; j++) {
 
-			int foundVal = analyseChannelForSignalPresence(j, ampl);
+			int foundVal = amplQ15 != null ? analyseChannelForSignalPresence(j, amplQ15, exponentQ15)
+					: analyseChannelForSignalPresence(j, ampl);
 			if (foundVal != -1) {
-				vals[j] = f[foundVal];
+				vals[j] = f[foundVal] + binStep * findPeakOffset(foundVal);
 			} else {
 				vals[j] = 0;
 				valFound = false;
@@ -167,38 +786,72 @@ public abstract class AbstractDecoderSimple extends AbstractCoder implements IDe
 				valChanged = true;
 			}
 		}
-		if(valFound) {
-			//logger.logMessage("FOUND");
-		}
 
 		if (valChanged) {
-			if(valFound) {
-				//logger.logMessage("SIG LEVEL: " + tempSigLevel);
-				//logger.logMessage(ArrayUtils.toString(vals));
-				onValuesFoundOnAllChannels(vals);
-			}
-			return ArrayUtils.clone(vals);
-		} 
-		return oldVals;
+			System.arraycopy(vals, 0, oldVals, 0, noOfChannels);
+			return valFound;
+		}
+		return false;
+	}
+
+	/**
+	 * Estimates position of the peak between the analysed bins with the
+	 * decoder's {@link PeakInterpolation}
+	 * 
+	 * @param ind index of the strongest bin of a channel in the analysis band
+	 * @return offset of the peak from the bin in bins, 0 without interpolation
+	 *         and for bins at the edges of the analysis band
+	 */
+	private double findPeakOffset(int ind) {
+		if (peakInterpolation == PeakInterpolation.NONE || ind == 0 || ind == f.length - 1) {
+			return 0;
+		}
+		double left = amplQ15 != null ? amplQ15[ind - 1] : ampl[ind - 1];
+		double peak = amplQ15 != null ? amplQ15[ind] : ampl[ind];
+		double right = amplQ15 != null ? amplQ15[ind + 1] : ampl[ind + 1];
+		if (peakInterpolation == PeakInterpolation.GAUSSIAN) {
+			return UltrasoundHelper.gaussianPeakOffset(left, peak, right);
+		}
+		return UltrasoundHelper.quadraticPeakOffset(Math.sqrt(left), Math.sqrt(peak), Math.sqrt(right));
+	}
+
+	/**
+	 * Returns frequency values found on every channel by the last call of
+	 * {@link #analyseFrame(short[])}. The array is reused for every fragment.
+	 * 
+	 * @return Frequency values for every transmission channel
+	 */
+	double[] getChannelValues() {
+		return vals;
+	}
+
+	/**
+	 * Returns power of the strongest bin of the last channel analysed by the last
+	 * call of {@link #analyseFrame(short[])}, in the scale of
+	 * {@link Precision#DOUBLE} whatever the precision of the decoder
+	 * 
+	 * @return signal level of the last analysed channel
+	 */
+	double getSignalLevel() {
+		return tempSigLevel;
 	}
 
 	/**
 	 * This method is called when searched frequencies have been found on every channel
 	 * @param vals Frequency values for every transmission channel 
 	 */
-	private void onValuesFoundOnAllChannels(double[] vals) {
-		boolean[] newBinVals = convertFreqValsToBinary(vals);
-		resBin = ArrayUtils.addAll(resBin, newBinVals);
-		if(newBinVals != null) {
-			logger.logMessage(UltrasoundHelper.binStrFromBinArray(newBinVals));
+	void onValuesFoundOnAllChannels(double[] vals) {
+		if (convertFreqValsToBinary(vals, symbolBin)) {
+			resBin.append(symbolBin);
+			logger.logMessage(symbolBin.toString());
 		}
-		if(resBin != null && resBin.length % noOfChannels == 0 && resBin.length % (2 * Byte.SIZE) == 0) {
-			boolean[] resBinDec = decodeSecdedEncodedBinaryData(resBin);
-			resBin = null;
+		if(!resBin.isEmpty() && resBin.length() % noOfChannels == 0 && resBin.length() % (2 * Byte.SIZE) == 0) {
+			BitStream resBinDec = decodeSecdedEncodedBinaryData(resBin);
+			resBin.clear();
 			if (resBinDec != null ) {
-				sigBinDec = ArrayUtils.addAll(sigBinDec, resBinDec);
-				logger.logMessage("Decoded data binary: " + UltrasoundHelper.binStrFromBinArray(sigBinDec));
-				onNewBinaryDataDecoded(resBinDec);
+				sigBinDec.append(resBinDec);
+				logger.logMessage("Decoded data binary: " + sigBinDec);
+				onNewBinaryDataDecoded(resBinDec.toBooleanArray());
 			}
 		}
 	}
@@ -213,17 +866,38 @@ public abstract class AbstractDecoderSimple extends AbstractCoder implements IDe
 		return -1;
 	}
 
+	/**
+	 * Fixed-point version of
+	 * {@link #analyseChannelForSignalPresence(int, double[])}
+	 * 
+	 * @param channelNo number of the channel
+	 * @param sig       power of bins of the analysis band in Q30
+	 * @param exponent  exponent of the scaling of the power returned by the
+	 *                  detector
+	 * @return index of the found bin or -1 when signal is below threshold
+	 */
+	private int analyseChannelForSignalPresence(int channelNo, long[] sig, int exponent) {
+		int fMaxInd = UltrasoundHelper.findMaxValueIndex(sig, freqInd[channelNo][0], freqInd[channelNo][1] + 1);
+		tempSigLevel = Math.scalb((double) sig[fMaxInd], 2 * exponent) / ((double) Short.MAX_VALUE * Short.MAX_VALUE);
+		if (sig[fMaxInd] > thresholdQ15[Math.min(exponent, thresholdQ15.length - 1)]) {
+			return fMaxInd;
+		}
+		return -1;
+	}
+
 	/**
 	 * Returns true if value of frequency is different from its value from previous
 	 * iteration. 
-	 * A different value means that it is outside the range of (oldVal +- deltaF)
+	 * A different value means that it is outside the range of (oldVal +- one
+	 * analysed bin), which is deltaF when zoom is 1. With peak interpolation the
+	 * range is (oldVal +- half of the frequency step)
 	 * 
 	 * @param actVal actual value to compare
 	 * @param oldVal value from previous iteration
 	 * @return true if value changed
 	 */
 	private boolean checkIfFreqValuesChanged(double actVal, double oldVal) {
-		return (actVal < oldVal - deltaF || actVal > oldVal + deltaF);
+		return (actVal < oldVal - freqTolerance || actVal > oldVal + freqTolerance);
 	}
 
 	/**
@@ -237,92 +911,178 @@ public abstract class AbstractDecoderSimple extends AbstractCoder implements IDe
 	}
 
 	/**
-	 * @param resBin
-	 * @return
+	 * Decodes received binary data when SECDED encoding is enabled.
+	 * 
+	 * @param resBin received binary data
+	 * @return decoded binary data or {@code null} when data could not be decoded
 	 */
-	private boolean[] decodeSecdedEncodedBinaryData(boolean[] resBin) {
-		boolean[] resBinDec = null;
+	private BitStream decodeSecdedEncodedBinaryData(BitStream resBin) {
+		BitStream resBinDec;
 
 		if (isSecdedEnabled()) {
-			try {
-				for (int ii = 8; ii <= resBin.length; ii += 8) {
-					boolean[] encoded4th = Arrays.copyOfRange(resBin, ii - 8, ii);
-					resBinDec = ArrayUtils.addAll(resBinDec, UltrasoundHelper.secded(encoded4th));
+			resBinDec = new BitStream(resBin.length() / 2);
+			for (int ii = 8; ii <= resBin.length(); ii += 8) {
+				int decoded = SecdedCodec.decode((int) resBin.readBits(ii - 8, 8));
+				if (SecdedCodec.getStatus(decoded) == SecdedCodec.DOUBLE_ERROR) {
+					logger.logMessage("Double error detected!");
+					clearReceivedDataBuffers();
+					return null;
 				}
-			} catch (Exception e) {
-				logger.logMessage(e.getMessage());
-				clearReceivedDataBuffers();
-				return null;
+				resBinDec.append(SecdedCodec.getData(decoded), 4);
 			}
 
 		} else {
-			resBinDec = ArrayUtils.clone(resBin);
+			resBinDec = resBin.slice(0, resBin.length());
 		}
 		return resBinDec;
 	}
 
 	/**
 	 * Converts frequency value for every channel to binary value. 
-	 * Conversion will be done based on decoder's frequency  matrix {@link AbstractCoder#freq } 
+	 * Conversion will be done based on decoder's frequency  matrix {@link AbstractCoder#freq }.
+	 * A frequency is recognized as a tone within one analysed bin, or within half
+	 * of the frequency step with peak interpolation
 	 * 
 	 * @param freqVals Array of frequencies found on every channel
-	 * @return Array of binary values or {@code null} when error by conversion occurred
+	 * @param resBin   Output stream, it is cleared and filled with binary values
+	 * @return {@code false} when error by conversion occurred
 	 */
-	private boolean[] convertFreqValsToBinary(double[] freqVals) {
-		boolean[] resBin = null;
+	private boolean convertFreqValsToBinary(double[] freqVals, BitStream resBin) {
+		resBin.clear();
 
 		for (int j = 0; j < noOfChannels; j++) {
-			if (freqVals[j] <= freq[j][0] + deltaF && freqVals[j] >= freq[j][0] - deltaF) {
-				resBin = ArrayUtils.add(resBin, false);
-			} else if (freqVals[j] <= freq[j][1] + deltaF && freqVals[j] >= freq[j][1] - deltaF) {
-				resBin = ArrayUtils.add(resBin, true);
+			if (freqVals[j] <= freq[j][0] + freqTolerance && freqVals[j] >= freq[j][0] - freqTolerance) {
+				resBin.append(false);
+			} else if (freqVals[j] <= freq[j][1] + freqTolerance && freqVals[j] >= freq[j][1] - freqTolerance) {
+				resBin.append(true);
 			} else {
 				//logger.logMessage("Could not detect on channel " + j);
-				return new boolean[0];
+				return false;
 			}
 		}
-		return resBin;
+		return true;
 	}
 
 	/**
-	 * @param x
+	 * Creates spectral detector of given type for the decoder's analysis band
+	 * 
+	 * @param type      {@link DetectorType} of the detector
+	 * @param precision {@link Precision} of the analysis
+	 * @param engine    {@link FftEngine} used in double precision
+	 * @return new {@link ISpectralDetector}
+	 * @throws Exception on {@link FFT} initialization error
 	 */
-	private double[] calculateFFT(double[] x) {
+	private ISpectralDetector createSpectralDetector(DetectorType type, Precision precision, FftEngine engine)
+			throws Exception {
+		if (type == DetectorType.GOERTZEL) {
+			return new GoertzelSpectralDetector(nfft * zoom, N, lowestAnalyseFreqInd, getSearchedBins());
+		}
+		if (type == DetectorType.ZOOM) {
+			return new ZoomSpectralDetector(nfft, zoom, lowestAnalyseFreqInd, f.length);
+		}
+		return new FftSpectralDetector(nfft, lowestAnalyseFreqInd, precision, engine);
+	}
 
-		double[] ampl = new double[f.length];
-		// FFT Calculation
-		double[] y = new double[this.nfft];
-		this.fft.fft(x, y);
+	/**
+	 * Creates baseband front end for the decoder's analysis band. Every caller
+	 * gets its own front end, as it keeps the history of the stream.
+	 * 
+	 * @param listener receives decimated frames
+	 * @return new {@link BasebandFramer} or {@code null} when the decoder does not
+	 *         decimate
+	 */
+	BasebandFramer createBasebandFramer(BasebandFramer.FrameListener listener) {
+		if (decimation == 1) {
+			return null;
+		}
+		// One bin of margin for the main lobe of the window
+		int passBins = Math.max(centreBin - lowestAnalyseFreqInd, highestAnalyseFreqInd - 1 - centreBin) + 1;
+		return new BasebandFramer(nfft, decimation, hopSize, centreBin, passBins, listener);
+	}
 
-		// show usable FFT output
+	/**
+	 * Returns indexes of all bins searched by
+	 * {@link AbstractDecoderSimple#analyseChannelForSignalPresence(int, double[])}.
+	 * Indexes are relative to the first bin of the analysis band.
+	 * 
+	 * @return sorted array of bin indexes
+	 */
+	private int[] getSearchedBins() {
+		// Neighbours of the searched bins are needed by peak interpolation
+		int margin = peakInterpolation == PeakInterpolation.NONE ? 0 : 1;
+		boolean[] searched = new boolean[f.length];
+		for (int j = 0; j < noOfChannels; j++) {
+			int start = Math.max(freqInd[j][0] - margin, 0);
+			int end = Math.min(freqInd[j][1] + margin, f.length - 1);
+			for (int i = start; i <= end; i++) {
+				searched[i] = true;
+			}
+		}
+		int[] bins = new int[0];
+		for (int i = 0; i < searched.length; i++) {
+			if (searched[i]) {
+				bins = ArrayUtils.add(bins, i);
+			}
+		}
+		return bins;
+	}
+
+	static double[] hammingWindow(int n) {
+		return DspTableCache.get("hamming", n, () -> UltrasoundHelper.hamming(n));
+	}
+
+	private static float[] hammingWindowFloat(int n) {
+		return DspTableCache.get("hamming.float", n, () -> toFloatWindow(hammingWindow(n)));
+	}
+
+	private static int[] hammingWindowQ15(int n) {
+		return DspTableCache.get("hamming.q15", n, () -> toQ15Window(hammingWindow(n)));
+	}
 
-		for (int ii = 0; ii < ampl.length; ii++) {
-			int ind = lowestAnalyseFreqInd + ii;
-			ampl[ii] = x[ind] * x[ind] + y[ind] * y[ind];
+	private static float[] toFloatWindow(double[] window) {
+		float[] res = new float[window.length];
+		for (int i = 0; i < window.length; i++) {
+			res[i] = (float) window[i];
 		}
-		return ampl;
+		return res;
+	}
+
+	private static int[] toQ15Window(double[] window) {
+		int[] res = new int[window.length];
+		for (int i = 0; i < window.length; i++) {
+			res[i] = (int) Math.min(Short.MAX_VALUE, Math.round(window[i] * (1 << 15)));
+		}
+		return res;
 	}
 
 	/**
-	 * @param frag
-	 * @return
+	 * Converts threshold of the power to fixed-point. Windowed Q15 samples are
+	 * equal to the double ones multiplied by {@link Short#MAX_VALUE}, so the power
+	 * found by the detector with scaling exponent e is equal to the double one
+	 * multiplied by {@code Short.MAX_VALUE^2 / 4^e}. As the power is an integer,
+	 * {@code power > threshold} is the same as {@code power > floor(threshold)}.
+	 * 
+	 * @param threshold threshold of the power of the double path
+	 * @return thresholds for exponents from 0 to 63
 	 */
-	private double[] zeroPadding(double[] frag) {
-		// Zero padding
-		int pad = nfft - N;
-		double[] x = ArrayUtils.clone(frag);
-		if (pad > 0) {
-			x = ArrayUtils.addAll(frag, new double[pad]);
+	private static long[] createThresholdQ15(double threshold) {
+		long[] res = new long[64];
+		for (int e = 0; e < res.length; e++) {
+			res[e] = (long) Math.floor(Math.scalb(threshold * Short.MAX_VALUE * Short.MAX_VALUE, -2 * e));
 		}
-		return x;
+		return res;
 	}
 
+	/**
+	 * Bins of the analysis band are spaced by deltaF / zoom, so their indexes are
+	 * indexes of FFT of size nfft * zoom
+	 */
 	private int freqToFreqIndex(double frequency) {
-		return (int) Math.ceil(frequency * nfft / sampleRate);
+		return (int) Math.ceil(frequency * nfft * zoom / sampleRate);
 	}
 
 	private double freqIndexToFrequency(int freqInd) {
-		return (double) (freqInd * sampleRate) / nfft;
+		return (double) freqInd * sampleRate / ((double) nfft * zoom);
 	}
 
 	/* GETTERS AND SETTERS */
@@ -339,6 +1099,45 @@ public abstract class AbstractDecoderSimple extends AbstractCoder implements IDe
 		return ArrayUtils.clone(f);
 	}
 
+	public ExecutionMode getExecutionMode() {
+		return executionMode;
+	}
+
+	public int getHopSize() {
+		return hopSize;
+	}
+
+	public Precision getPrecision() {
+		return precision;
+	}
+
+	public FftEngine getFftEngine() {
+		return fftEngine;
+	}
+
+	public int getZoom() {
+		return zoom;
+	}
+
+	public int getDecimation() {
+		return decimation;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public PeakInterpolation getPeakInterpolation() {
+		return peakInterpolation;
+	}
+
+	public PipelineMetrics getPipelineMetrics() {
+		if (pipeline == null) {
+			return null;
+		}
+		return pipeline.getMetrics();
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
@@ -351,6 +1150,24 @@ public abstract class AbstractDecoderSimple extends AbstractCoder implements IDe
 		sb.append(System.lineSeparator());
 		sb.append("\tFrequency resolution " + deltaF + "Hz, DFT resolution " + nfft);
 		sb.append(System.lineSeparator());
+		sb.append("\tSpectral detector: " + (detector != null ? detector.getType() : DetectorType.FFT));
+		sb.append(System.lineSeparator());
+		sb.append("\tDecimation: " + decimation + ", analysed at " + sampleRate / decimation + "Hz");
+		sb.append(System.lineSeparator());
+		sb.append("\tZoom: " + zoom + ", analysed bins every " + binStep + "Hz");
+		sb.append(System.lineSeparator());
+		sb.append("\tExecution mode: " + executionMode);
+		sb.append(System.lineSeparator());
+		sb.append("\tHop size: " + hopSize + " samples");
+		sb.append(System.lineSeparator());
+		sb.append("\tBatch size: " + batchSize + " frames");
+		sb.append(System.lineSeparator());
+		sb.append("\tPrecision: " + precision);
+		sb.append(System.lineSeparator());
+		sb.append("\tFFT engine: " + fftEngine);
+		sb.append(System.lineSeparator());
+		sb.append("\tPeak interpolation: " + peakInterpolation);
+		sb.append(System.lineSeparator());
 		sb.append("\tBandwidth: " + freq[0][0] + "Hz - " + freq[noOfChannels - 1][1] + "Hz");
 		sb.append(System.lineSeparator());
 		return sb.toString();
@@ -0,0 +1,104 @@
+package ultrasound.decoder;
+
+import java.lang.reflect.Array;
+
+/**
+ * Cuts a continuous stream of audio samples into overlapping frames of N
+ * samples. A new frame is emitted every {@code hop} samples. Last N samples are
+ * kept in a circular history, so every sample is copied only once, no matter
+ * how much the frames overlap.
+ *
+ * Use a typed implementation: {@link StreamFramer} or
+ * {@link FloatStreamFramer}.
+ */
+abstract class AbstractStreamFramer {
+
+	private final Object history;
+	private final int frameSize;
+	private final int hop;
+
+	private int writePos;
+	private int untilNextFrame;
+
+	/**
+	 * @param history array used to store the last N samples, its length is the
+	 *                number of samples in one frame (N)
+	 * @param hop     number of samples between starts of successive frames,
+	 *                from 1 to N
+	 */
+	protected AbstractStreamFramer(Object history, int hop) {
+		int frameSize = Array.getLength(history);
+		if (hop < 1 || hop > frameSize) {
+			throw new IllegalArgumentException("Hop size must be between 1 and " + frameSize + "! Is " + hop);
+		}
+		this.history = history;
+		this.frameSize = frameSize;
+		this.hop = hop;
+		reset();
+	}
+
+	/**
+	 * Appends samples to the stream and emits every frame completed by them
+	 *
+	 * @param src source array or buffer of the same type as the history
+	 * @param off index of the first sample in source array, ignored for buffers
+	 * @param len number of samples to append
+	 */
+	protected final void pushSamples(Object src, int off, int len) {
+		while (len > 0) {
+			int n = Math.min(len, untilNextFrame);
+			int first = Math.min(n, frameSize - writePos);
+			copyIn(src, off, history, writePos, first);
+			copyIn(src, off + first, history, 0, n - first);
+			writePos = (writePos + n) % frameSize;
+			untilNextFrame -= n;
+			off += n;
+			len -= n;
+
+			if (untilNextFrame == 0) {
+				onFrame(writePos);
+				untilNextFrame = hop;
+			}
+		}
+	}
+
+	/**
+	 * Copies samples from the source to the history. Arrays are copied with
+	 * {@link System#arraycopy}, typed implementations override it to read
+	 * samples from their buffers.
+	 *
+	 * @param src     source array or buffer
+	 * @param srcOff  index of the first sample in source array
+	 * @param history history of samples
+	 * @param pos     index of the first sample in the history
+	 * @param len     number of samples to copy
+	 */
+	protected void copyIn(Object src, int srcOff, Object history, int pos, int len) {
+		System.arraycopy(src, srcOff, history, pos, len);
+	}
+
+	/**
+	 * Called for every complete frame
+	 *
+	 * @param start index of the oldest sample of the frame in the history
+	 */
+	protected abstract void onFrame(int start);
+
+	/**
+	 * Drops all samples from the history. Next frame is emitted after N new
+	 * samples.
+	 */
+	void reset() {
+		writePos = 0;
+		untilNextFrame = frameSize;
+	}
+
+	int getFrameSize() {
+		return frameSize;
+	}
+
+	int getHop() {
+		return hop;
+	}
+
+}
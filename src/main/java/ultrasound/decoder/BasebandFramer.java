@@ -0,0 +1,335 @@
+package ultrasound.decoder;
+
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
+import ultrasound.utils.DspTableCache;
+import ultrasound.utils.UltrasoundHelper;
+
+/**
+ * Front end moving the analysis band to baseband and decimating it, so the
+ * band is analysed at a low sample rate. A continuous stream of audio samples
+ * is mixed with a complex oscillator (NCO) running at the centre bin of the
+ * band, low-pass filtered and decimated by D. The filter is evaluated only for
+ * the kept outputs, like a polyphase decimator, so one input sample costs
+ * about 2 * L / D multiply-adds for L taps. The oscillator is moved behind the
+ * filter: real samples are filtered with the low-pass taps modulated to the
+ * centre bin and only the kept outputs are mixed. Decimated complex samples
+ * are cut into overlapping frames of N / D samples, like {@link StreamFramer}
+ * does with the raw stream.
+ *
+ * The oscillator runs at a whole bin, so bin k of the FFT of a decimated frame
+ * is bin centreBin + k of the FFT of the full frame and the frequency
+ * resolution does not change. The filter is linear phase with a delay of a
+ * whole number of decimated samples, the first frame is emitted when the
+ * filter has seen the first N samples, so frames start every hop samples
+ * from the beginning of the stream, like full frames.
+ *
+ * Work buffers are allocated once in the constructor, so an instance must not
+ * be shared between threads.
+ */
+final class BasebandFramer {
+
+	/**
+	 * Receives frames from {@link BasebandFramer}
+	 */
+	interface FrameListener {
+
+		/**
+		 * Called for every complete frame. Frame is stored in a circular buffer and
+		 * is valid only during this call.
+		 *
+		 * @param re    circular buffer of real parts of N / D decimated samples
+		 * @param im    circular buffer of imaginary parts of N / D decimated
+		 *              samples
+		 * @param start index of the oldest sample of the frame in the buffers
+		 */
+		void onFrame(double[] re, double[] im, int start);
+	}
+
+	// Transition band of the Hamming windowed sinc filter is about 3.3 / L
+	private static final double TRANSITION_TAPS = 3.3;
+
+	private static final double SCALE = 1.0 / Short.MAX_VALUE;
+
+	private final int decimation;
+	private final int hop;
+	private final int filterDelay;
+	private final FrameListener listener;
+
+	// Low-pass filter modulated to the centre bin, real and imaginary parts
+	// interleaved, in order of samples from the oldest one
+	private final double[] taps;
+	// Oscillator e^(-2*pi*i*centreBin*n/nfft), real and imaginary parts
+	// interleaved, one period of nfft samples
+	private final double[] nco;
+
+	// Last samples, every sample is stored at i and i + L, so the last L samples
+	// are always contiguous
+	private final double[] delay;
+
+	// Circular history of N / D decimated samples
+	private final double[] re;
+	private final double[] im;
+
+	private int ncoPos;
+	private int delayPos;
+	private int untilOutput;
+	private int writePos;
+	private int untilNextFrame;
+
+	/**
+	 * @param nfft       number of samples of the full frame (N)
+	 * @param decimation decimation factor D, N and hop have to be its multiples
+	 * @param hop        number of samples of the full stream between starts of
+	 *                   successive frames, from D to N
+	 * @param centreBin  bin of the full frame moved to 0 Hz
+	 * @param passBins   number of bins on each side of the centre bin which have
+	 *                   to pass through the filter
+	 * @param listener   {@link FrameListener} which receives decimated frames
+	 */
+	BasebandFramer(int nfft, int decimation, int hop, int centreBin, int passBins, FrameListener listener) {
+		if (decimation < 1 || nfft % decimation != 0 || hop % decimation != 0 || hop < decimation || hop > nfft) {
+			throw new IllegalArgumentException("Nfft " + nfft + " and hop size " + hop
+					+ " must be multiples of decimation " + decimation + "!");
+		}
+		int frameSize = nfft / decimation;
+
+		// Aliases of the bins from frameSize - passBins must not reach the band
+		int transitionBins = frameSize - 2 * passBins;
+		if (transitionBins < 1) {
+			throw new IllegalArgumentException("Analysis band of " + (2 * passBins + 1)
+					+ " bins does not fit in the " + frameSize + " bins of decimated frame!");
+		}
+
+		// L = K * D + 1 taps with even K, so the delay is K / 2 decimated samples
+		int phaseTaps = (int) Math.ceil(TRANSITION_TAPS * nfft / transitionBins / decimation);
+		phaseTaps += phaseTaps % 2;
+		int length = phaseTaps * decimation + 1;
+
+		this.decimation = decimation;
+		this.hop = hop / decimation;
+		this.filterDelay = phaseTaps / 2;
+		this.listener = listener;
+
+		int bin = Math.floorMod(centreBin, nfft);
+		this.taps = DspTableCache.get("decimator.taps", length, () -> modulate(lowPass(length, decimation), nfft, bin),
+				decimation, nfft, bin);
+		this.nco = DspTableCache.get("nco", nfft, () -> oscillator(nfft, bin), bin);
+
+		this.delay = new double[2 * length];
+		this.re = new double[frameSize];
+		this.im = new double[frameSize];
+		reset();
+	}
+
+	/**
+	 * Hamming windowed sinc with unity gain at 0 Hz and cut-off at 1 / (2 * D) of
+	 * the input rate
+	 */
+	private static double[] lowPass(int length, int decimation) {
+		double[] window = UltrasoundHelper.hamming(length);
+		double cutoff = 0.5 / decimation;
+		double centre = (length - 1) / 2.0;
+		double[] res = new double[length];
+		double sum = 0;
+		for (int k = 0; k < length; k++) {
+			double t = k - centre;
+			res[k] = window[k] * (t == 0 ? 2 * cutoff : Math.sin(2 * Math.PI * cutoff * t) / (Math.PI * t));
+			sum += res[k];
+		}
+		for (int k = 0; k < length; k++) {
+			res[k] /= sum;
+		}
+		return res;
+	}
+
+	/**
+	 * Taps h[k] * e^(2*pi*i*bin*k/nfft) of the filter of mixed samples, which
+	 * multiply real samples delayed by k, ordered from the oldest sample. Mixing
+	 * the output of the filter by e^(-2*pi*i*bin*n/nfft) gives the same result as
+	 * filtering of mixed samples.
+	 */
+	private static double[] modulate(double[] lowPass, int nfft, int bin) {
+		int length = lowPass.length;
+		double[] res = new double[2 * length];
+		for (int j = 0; j < length; j++) {
+			int k = length - 1 - j;
+			double angle = 2 * Math.PI * (int) ((long) k * bin % nfft) / nfft;
+			res[2 * j] = lowPass[k] * Math.cos(angle);
+			res[2 * j + 1] = lowPass[k] * Math.sin(angle);
+		}
+		return res;
+	}
+
+	private static double[] oscillator(int nfft, int bin) {
+		double[] res = new double[2 * nfft];
+		for (int n = 0; n < nfft; n++) {
+			// Integer phase, so the table is exact for long frames
+			double angle = -2 * Math.PI * (int) ((long) n * bin % nfft) / nfft;
+			res[2 * n] = Math.cos(angle);
+			res[2 * n + 1] = Math.sin(angle);
+		}
+		return res;
+	}
+
+	/**
+	 * Appends samples to the stream and emits every frame completed by them
+	 *
+	 * @param samples array of audio samples
+	 * @param off     index of the first sample to append
+	 * @param len     number of samples to append
+	 */
+	void push(short[] samples, int off, int len) {
+		for (int i = off; i < off + len; i++) {
+			if (add(samples[i] * SCALE)) {
+				listener.onFrame(re, im, writePos);
+			}
+		}
+	}
+
+	/**
+	 * Appends samples from position to limit of the buffer to the stream and
+	 * emits every frame completed by them. Position of the buffer is moved to its
+	 * limit.
+	 *
+	 * @param samples buffer of audio samples
+	 */
+	void push(ShortBuffer samples) {
+		while (samples.hasRemaining()) {
+			if (add(samples.get() * SCALE)) {
+				listener.onFrame(re, im, writePos);
+			}
+		}
+	}
+
+	/**
+	 * Appends zeros to the stream, so frames started before the end of the
+	 * stream are emitted, see {@link #getZeroPadding()}.
+	 *
+	 * @param len number of zeros to append
+	 */
+	void pushZeros(int len) {
+		for (int i = 0; i < len; i++) {
+			if (add(0)) {
+				listener.onFrame(re, im, writePos);
+			}
+		}
+	}
+
+	/**
+	 * Decimates one frame of a circular buffer without the history of the stream,
+	 * missing samples are zeros. The listener is not called.
+	 *
+	 * @param buffer circular buffer of audio samples
+	 * @param start  index of the first sample of the frame in the buffer
+	 * @param len    number of samples in the frame, at most N
+	 * @return index of the oldest sample of the decimated frame in
+	 *         {@link #getRe()} and {@link #getIm()}
+	 */
+	int decimateFrame(short[] buffer, int start, int len) {
+		reset();
+		int first = Math.min(len, buffer.length - start);
+		for (int i = 0; i < first; i++) {
+			add(buffer[start + i] * SCALE);
+		}
+		for (int i = first; i < len; i++) {
+			add(buffer[i - first] * SCALE);
+		}
+		return completeFrame(len);
+	}
+
+	private int completeFrame(int len) {
+		for (int i = len; i < re.length * decimation + getZeroPadding(); i++) {
+			add(0);
+		}
+		return writePos;
+	}
+
+	/**
+	 * Mixes one sample and calculates the next decimated sample every D samples
+	 *
+	 * @return {@code true} when a frame has been completed
+	 */
+	private boolean add(double sample) {
+		int length = delay.length / 2;
+		int n = ncoPos;
+		if (++ncoPos == nco.length / 2) {
+			ncoPos = 0;
+		}
+		delay[delayPos] = sample;
+		delay[delayPos + length] = sample;
+		if (++delayPos == length) {
+			delayPos = 0;
+		}
+
+		if (--untilOutput > 0) {
+			return false;
+		}
+		untilOutput = decimation;
+
+		// Last L samples from the oldest one
+		double sr = 0;
+		double si = 0;
+		for (int j = 0; j < length; j++) {
+			double x = delay[delayPos + j];
+			sr += taps[2 * j] * x;
+			si += taps[2 * j + 1] * x;
+		}
+		double cr = nco[2 * n];
+		double ci = nco[2 * n + 1];
+		re[writePos] = cr * sr - ci * si;
+		im[writePos] = cr * si + ci * sr;
+		if (++writePos == re.length) {
+			writePos = 0;
+		}
+
+		if (--untilNextFrame > 0) {
+			return false;
+		}
+		untilNextFrame = hop;
+		return true;
+	}
+
+	/**
+	 * Drops all samples from the filter and the history. Next frame is emitted
+	 * after N new samples and the delay of the filter.
+	 */
+	void reset() {
+		Arrays.fill(delay, 0);
+		ncoPos = 0;
+		delayPos = 0;
+		untilOutput = 1;
+		writePos = 0;
+		untilNextFrame = re.length + filterDelay;
+	}
+
+	/**
+	 * Frame starting at sample s of the stream is emitted when sample
+	 * {@code s + N + getZeroPadding() - 1} has been pushed, as the filter delays
+	 * the stream.
+	 *
+	 * @return number of samples which have to follow the last sample of a frame
+	 *         before the frame is emitted
+	 */
+	int getZeroPadding() {
+		return filterDelay * decimation - decimation + 1;
+	}
+
+	double[] getRe() {
+		return re;
+	}
+
+	double[] getIm() {
+		return im;
+	}
+
+	int getFrameSize() {
+		return re.length;
+	}
+
+	int getHop() {
+		return hop;
+	}
+
+}
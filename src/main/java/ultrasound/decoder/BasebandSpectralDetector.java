@@ -0,0 +1,94 @@
+package ultrasound.decoder;
+
+import sw.IFFTEngine;
+import ultrasound.decoder.IDecoderSimple.FftEngine;
+import ultrasound.utils.DspKernels;
+import ultrasound.utils.DspTableCache;
+
+/**
+ * Spectral detector of decimated complex frames of {@link BasebandFramer}. The
+ * frame of N / D samples is windowed and transformed with complex FFT, which
+ * is D times shorter than the FFT of the full frame and has the same frequency
+ * resolution. Bin k of the baseband spectrum is bin centreBin + k of the full
+ * spectrum, negative k are at the end of the transform. Power is multiplied by
+ * D^2, so it has the same scale as power of {@link FftSpectralDetector} and the
+ * same threshold can be used.
+ *
+ * It is used instead of {@link ISpectralDetector} when the decoder decimates,
+ * only in double precision.
+ */
+final class BasebandSpectralDetector {
+
+	private final int lowestBin;
+	private final int centreBin;
+	private final double scale;
+	private final IFFTEngine fft;
+	private final double[] window;
+
+	private final double[] re;
+	private final double[] im;
+
+	/**
+	 * @param nfft       number of samples of the full frame (N)
+	 * @param decimation decimation factor D
+	 * @param lowestBin  index of the first bin of the analysis band in the full
+	 *                   spectrum
+	 * @param centreBin  bin of the full spectrum moved to 0 Hz by
+	 *                   {@link BasebandFramer}
+	 * @param engine     {@link FftEngine} used when N / D is a power of 2
+	 * @throws Exception on FFT initialization error
+	 */
+	BasebandSpectralDetector(int nfft, int decimation, int lowestBin, int centreBin, FftEngine engine)
+			throws Exception {
+		int frameSize = nfft / decimation;
+		this.lowestBin = lowestBin;
+		this.centreBin = centreBin;
+		this.scale = (double) decimation * decimation;
+		this.fft = FftSpectralDetector.createComplexFft(frameSize, engine);
+		this.window = DspTableCache.get("hamming.decimated", frameSize, () -> decimatedWindow(nfft, decimation),
+				nfft);
+		this.re = new double[frameSize];
+		this.im = new double[frameSize];
+	}
+
+	/**
+	 * Hamming window of the full frame at the instants of the decimated samples,
+	 * so the decimated frame is windowed like the full one
+	 */
+	private static double[] decimatedWindow(int nfft, int decimation) {
+		double[] full = AbstractDecoderSimple.hammingWindow(nfft);
+		double[] res = new double[nfft / decimation];
+		for (int i = 0; i < res.length; i++) {
+			res[i] = full[i * decimation];
+		}
+		return res;
+	}
+
+	/**
+	 * Calculates power of bins of the analysis band
+	 *
+	 * @param frameRe circular buffer of real parts of the decimated frame
+	 * @param frameIm circular buffer of imaginary parts of the decimated frame
+	 * @param start   index of the oldest sample of the frame in the buffers
+	 * @param ampl    output array for power of bins of the analysis band
+	 */
+	void calculatePower(double[] frameRe, double[] frameIm, int start, double[] ampl) {
+		int n = re.length;
+		int first = n - start;
+		DspKernels.multiply(frameRe, start, window, re, 0, first);
+		DspKernels.multiply(frameIm, start, window, im, 0, first);
+		DspKernels.multiply(frameRe, 0, window, re, first, n - first);
+		DspKernels.multiply(frameIm, 0, window, im, first, n - first);
+
+		fft.fft(re, im);
+
+		for (int ii = 0; ii < ampl.length; ii++) {
+			int ind = lowestBin + ii - centreBin;
+			if (ind < 0) {
+				ind += n;
+			}
+			ampl[ii] = (re[ind] * re[ind] + im[ind] * im[ind]) * scale;
+		}
+	}
+
+}
@@ -0,0 +1,265 @@
+package ultrasound.decoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import ultrasound.dataframe.IDataFrame;
+import ultrasound.utils.FileUtil;
+
+/**
+ * Decodes whole recordings offline, without an audio recorder. The recording is
+ * split at silence gaps into independent bursts, which are decoded in parallel
+ * on a {@link ForkJoinPool}. Results are returned in the order of bursts in the
+ * recording.
+ *
+ * Bursts are cut at the same frame boundaries as during decoding of the whole
+ * recording, so as long as silence gaps are longer than breaks inside a
+ * transmission, the result is the same as for real time decoding. Messages
+ * of the decoders are not printed, they are kept with every burst, see
+ * {@link Burst#getLog()}.
+ */
+public final class BatchDecoder {
+
+	/**
+	 * Default maximal amplitude of silence
+	 */
+	public static final int DEFAULT_SILENCE_LEVEL = 1000;
+	/**
+	 * Default minimal length of silence gap between bursts in seconds
+	 */
+	public static final double DEFAULT_MIN_SILENCE = 1.0;
+
+	private final AbstractDecoderBuilder settings;
+	private final ForkJoinPool pool;
+
+	private int silenceLevel = DEFAULT_SILENCE_LEVEL;
+	private double minSilence = DEFAULT_MIN_SILENCE;
+
+	/**
+	 * Decoded burst of the recording
+	 */
+	public static final class Burst {
+
+		private final int startSample;
+		private final int endSample;
+		private final double startTime;
+		private final String resHex;
+		private final List<IDataFrame> dataFrames;
+		private final List<String> log;
+
+		Burst(int startSample, int endSample, double startTime, String resHex, List<IDataFrame> dataFrames,
+				List<String> log) {
+			this.startSample = startSample;
+			this.endSample = endSample;
+			this.startTime = startTime;
+			this.resHex = resHex;
+			this.dataFrames = Collections.unmodifiableList(dataFrames);
+			this.log = Collections.unmodifiableList(log);
+		}
+
+		/**
+		 * @return index of the first sample of the burst in the recording
+		 */
+		public int getStartSample() {
+			return startSample;
+		}
+
+		/**
+		 * @return index after the last sample of the burst in the recording
+		 */
+		public int getEndSample() {
+			return endSample;
+		}
+
+		/**
+		 * @return start of the burst in seconds from the beginning of the recording
+		 */
+		public double getStartTime() {
+			return startTime;
+		}
+
+		/**
+		 * @return data decoded in {@link ultrasound.ICoder.CoderMode#SIMPLE} mode
+		 */
+		public String getResHex() {
+			return resHex;
+		}
+
+		/**
+		 * @return data frames successfully received in
+		 *         {@link ultrasound.ICoder.CoderMode#DATA_FRAME} mode
+		 */
+		public List<IDataFrame> getDataFrames() {
+			return dataFrames;
+		}
+
+		/**
+		 * @return messages logged during decoding of the burst, e.g. found
+		 *         symbols, without time stamps
+		 */
+		public List<String> getLog() {
+			return log;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("Burst %.3fs [%d - %d]: %s %s", startTime, startSample, endSample, resHex,
+					dataFrames);
+		}
+	}
+
+	/**
+	 * Creates batch decoder which uses common {@link ForkJoinPool}
+	 * 
+	 * @param settings builder with settings of the decoder, its execution mode is
+	 *                 ignored
+	 */
+	public BatchDecoder(AbstractDecoderBuilder settings) {
+		this(settings, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @param settings builder with settings of the decoder, its execution mode is
+	 *                 ignored
+	 * @param pool     {@link ForkJoinPool} used to decode bursts
+	 */
+	public BatchDecoder(AbstractDecoderBuilder settings, ForkJoinPool pool) {
+		this.settings = settings;
+		this.pool = pool;
+	}
+
+	/**
+	 * @param silenceLevel maximal absolute amplitude of samples treated as silence
+	 */
+	public void setSilenceLevel(int silenceLevel) {
+		this.silenceLevel = silenceLevel;
+	}
+
+	/**
+	 * @param minSilence minimal length of silence in seconds which splits the
+	 *                   recording. It should be longer than breaks between
+	 *                   symbols of one transmission.
+	 */
+	public void setMinSilence(double minSilence) {
+		this.minSilence = minSilence;
+	}
+
+	/**
+	 * Decodes recording stored in a file. Mono 16 bit PCM WAV files (*.wav), raw
+	 * 16 bit little endian PCM files (*.pcm) and CSV files are supported.
+	 * 
+	 * @param file file with audio samples
+	 * @return decoded bursts in order of the recording
+	 * @throws IOException when file could not be read
+	 */
+	public List<Burst> decode(File file) throws IOException {
+		if (!file.canRead()) {
+			throw new IOException("Cannot read file " + file);
+		}
+		String name = file.getName().toLowerCase();
+		if (name.endsWith(".wav")) {
+			return decode(FileUtil.readWavFile(file));
+		}
+		if (name.endsWith(".pcm")) {
+			return decode(FileUtil.readPcmFile(file));
+		}
+		return decode(FileUtil.readCsvSamples(file));
+	}
+
+	/**
+	 * Decodes recording
+	 * 
+	 * @param audio audio samples of the whole recording
+	 * @return decoded bursts in order of the recording
+	 */
+	public List<Burst> decode(short[] audio) {
+		OfflineDecoder first = createDecoder();
+		List<int[]> ranges = findBursts(audio, first.getFrameSize(), first.getHopSize(), first.getSampleRate());
+
+		List<ForkJoinTask<Burst>> tasks = new ArrayList<>(ranges.size());
+		for (int i = 0; i < ranges.size(); i++) {
+			int[] range = ranges.get(i);
+			OfflineDecoder decoder = i == 0 ? first : null;
+			tasks.add(pool.submit(() -> decodeBurst(decoder, audio, range[0], range[1])));
+		}
+
+		List<Burst> bursts = new ArrayList<>(tasks.size());
+		for (ForkJoinTask<Burst> task : tasks) {
+			bursts.add(task.join());
+		}
+		return bursts;
+	}
+
+	/**
+	 * Finds bursts separated with silence. Recording is divided into blocks of hop
+	 * size samples, the same as starts of analysed frames.
+	 * 
+	 * @return list of ranges {from, to} of samples to decode
+	 */
+	List<int[]> findBursts(short[] audio, int frameSize, int hopSize, int sampleRate) {
+		int blocks = (audio.length + hopSize - 1) / hopSize;
+		int framesPerWindow = (frameSize + hopSize - 1) / hopSize;
+		int minGapBlocks = Math.max((int) Math.ceil(minSilence * sampleRate / hopSize), 2 * framesPerWindow);
+
+		List<int[]> ranges = new ArrayList<>();
+		int burstStart = -1;
+		int lastActive = -1;
+		for (int block = 0; block < blocks; block++) {
+			if (!isSilent(audio, block * hopSize, Math.min(audio.length, (block + 1) * hopSize))) {
+				if (burstStart < 0) {
+					burstStart = block;
+				} else if (block - lastActive - 1 >= minGapBlocks) {
+					ranges.add(toSampleRange(burstStart, lastActive, audio.length, frameSize, hopSize));
+					burstStart = block;
+				}
+				lastActive = block;
+			}
+		}
+		if (burstStart >= 0) {
+			ranges.add(toSampleRange(burstStart, lastActive, audio.length, frameSize, hopSize));
+		}
+		return ranges;
+	}
+
+	/**
+	 * Returns range of samples of all frames which contain any active block
+	 */
+	private static int[] toSampleRange(int firstBlock, int lastBlock, int length, int frameSize, int hopSize) {
+		int framesPerWindow = (frameSize + hopSize - 1) / hopSize;
+		int from = Math.max(0, firstBlock - framesPerWindow + 1) * hopSize;
+		int to = Math.min(length, lastBlock * hopSize + frameSize);
+		return new int[] { from, to };
+	}
+
+	private boolean isSilent(short[] audio, int from, int to) {
+		for (int i = from; i < to; i++) {
+			if (Math.abs(audio[i]) > silenceLevel) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private Burst decodeBurst(OfflineDecoder decoder, short[] audio, int from, int to) {
+		if (decoder == null) {
+			decoder = createDecoder();
+		}
+		decoder.decode(audio, from, to);
+		return new Burst(from, to, (double) from / decoder.getSampleRate(), decoder.getResHex(),
+				decoder.getDataFrames(), decoder.getLog());
+	}
+
+	private OfflineDecoder createDecoder() {
+		try {
+			return new OfflineDecoder(settings);
+		} catch (Exception e) {
+			throw new IllegalStateException("Decoder could not be created: " + e.getMessage(), e);
+		}
+	}
+
+}
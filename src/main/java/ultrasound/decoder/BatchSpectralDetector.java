@@ -0,0 +1,153 @@
+package ultrasound.decoder;
+
+import java.util.Arrays;
+
+import sw.BatchRealFFT;
+import ultrasound.utils.DspKernels;
+
+/**
+ * Spectral detector of many frames at once, used when frames are available
+ * together: in offline decoding and when the pipelined decoder catches up with
+ * a backlog of audio. Frames are windowed one after another and transposed in
+ * tiles to the frame-interleaved layout of {@link BatchRealFFT}, so writes
+ * with the stride of the batch stay in the L1 cache. The frames are
+ * transformed together and only bins of the analysis band are separated. Power of every frame is exactly the same as of
+ * {@link FftSpectralDetector} in double precision with
+ * {@link IDecoderSimple.FftEngine#RADIX4}, so the decoder finds the same
+ * frequencies whether frames are analysed one by one or in batches.
+ *
+ * Work buffers are allocated once in the constructor, so an instance must not
+ * be shared between threads.
+ */
+final class BatchSpectralDetector {
+
+	// Number of samples of every frame transposed at once
+	private static final int TILE = 64;
+
+	private final int nfft;
+	private final int batch;
+	private final int noOfBins;
+	private final double[] window;
+	private final BatchRealFFT fft;
+
+	// Rows of bins of the spectra which hold the analysis band, bins above
+	// nfft/2 are read from their complex conjugates
+	private final int[] rows;
+	private final int firstRow;
+	private final int endRow;
+
+	// Windowed frames stored one after another and in frame-interleaved layout
+	private final double[] windowed;
+	private final double[] x;
+	private final double[] re;
+	private final double[] im;
+	private final double[] power;
+
+	private int frames;
+
+	/**
+	 * @param nfft      size of FFT transform, a power of 2
+	 * @param lowestBin index of the first bin of the analysis band
+	 * @param noOfBins  number of bins of the analysis band
+	 * @param window    window function of nfft samples
+	 * @param batch     maximal number of frames analysed at once
+	 * @throws Exception on {@link BatchRealFFT} initialization error
+	 */
+	BatchSpectralDetector(int nfft, int lowestBin, int noOfBins, double[] window, int batch) throws Exception {
+		this.nfft = nfft;
+		this.batch = batch;
+		this.noOfBins = noOfBins;
+		this.window = window;
+		this.fft = new BatchRealFFT(nfft, batch);
+
+		this.rows = new int[noOfBins];
+		int first = nfft / 2;
+		int end = 0;
+		for (int ii = 0; ii < noOfBins; ii++) {
+			int ind = lowestBin + ii;
+			if (ind > nfft / 2) {
+				ind = nfft - ind;
+			}
+			rows[ii] = ind;
+			first = Math.min(first, ind);
+			end = Math.max(end, ind + 1);
+		}
+		this.firstRow = first;
+		this.endRow = end;
+
+		this.windowed = new double[nfft * batch];
+		this.x = new double[nfft * batch];
+		this.re = new double[(nfft / 2 + 1) * batch];
+		this.im = new double[(nfft / 2 + 1) * batch];
+		this.power = new double[noOfBins * batch];
+	}
+
+	/**
+	 * Windows one frame of audio data stored in a circular buffer and adds it to
+	 * the batch, missing samples are zeros
+	 *
+	 * @param buffer circular buffer of audio samples
+	 * @param start  index of the first sample of the frame in the buffer
+	 * @param len    number of samples in the frame, at most nfft
+	 * @return {@code true} when the batch is full
+	 */
+	boolean add(short[] buffer, int start, int len) {
+		int pos = frames++ * nfft;
+		int first = Math.min(len, buffer.length - start);
+		DspKernels.window(buffer, start, window, 0, windowed, pos, first);
+		DspKernels.window(buffer, 0, window, first, windowed, pos + first, len - first);
+		Arrays.fill(windowed, pos + len, pos + nfft, 0);
+		return frames == batch;
+	}
+
+	/**
+	 * Transforms all added frames and calculates power of the analysis band
+	 */
+	void calculatePower() {
+		for (int from = 0; from < nfft; from += TILE) {
+			int to = Math.min(nfft, from + TILE);
+			for (int b = 0; b < frames; b++) {
+				int pos = b * nfft;
+				for (int i = from; i < to; i++) {
+					x[i * batch + b] = windowed[pos + i];
+				}
+			}
+		}
+		fft.fft(x, frames, re, im, firstRow, endRow);
+		for (int ii = 0; ii < noOfBins; ii++) {
+			DspKernels.power(re, im, rows[ii] * batch, power, ii * batch, frames);
+		}
+	}
+
+	/**
+	 * Copies power of the analysis band of one frame calculated by
+	 * {@link #calculatePower()}
+	 *
+	 * @param frame index of the frame in order of adding
+	 * @param ampl  output array for power of bins of the analysis band
+	 */
+	void getPower(int frame, double[] ampl) {
+		for (int ii = 0; ii < noOfBins; ii++) {
+			ampl[ii] = power[ii * batch + frame];
+		}
+	}
+
+	/**
+	 * Removes all frames from the batch
+	 */
+	void clear() {
+		frames = 0;
+	}
+
+	/**
+	 * @return number of frames added since the last {@link #clear()}
+	 */
+	int size() {
+		return frames;
+	}
+
+	int getBatch() {
+		return batch;
+	}
+
+}
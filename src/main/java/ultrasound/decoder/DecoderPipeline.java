@@ -0,0 +1,293 @@
+package ultrasound.decoder;
+
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.concurrent.locks.LockSupport;
+
+import ultrasound.decoder.IDecoderSimple.Precision;
+import ultrasound.decoder.PipelineMetrics.QueueMetrics;
+import ultrasound.utils.AbstractRingBuffer;
+import ultrasound.utils.DoubleRingBuffer;
+import ultrasound.utils.FloatRingBuffer;
+import ultrasound.utils.ShortRingBuffer;
+import ultrasound.utils.log.ILogger;
+
+/**
+ * Runs the decoder as three stages connected with lock-free SPSC ring buffers:
+ * <ul>
+ * <li>capture - reads audio samples from the recorder, runs on the thread which
+ * called {@link #run()}</li>
+ * <li>DSP - cuts samples into frames of N samples with {@link StreamFramer}
+ * and searches frequencies on every channel. In {@link Precision#FLOAT} samples
+ * are queued and framed as {@code float} with {@link FloatStreamFramer}. When
+ * the decoder decimates, samples are framed by {@link BasebandFramer}. When
+ * the decoder's batch size is greater than 1 and a backlog of at least a batch
+ * of frames is queued, the stage catches up by analysing the frames in
+ * batches until it is back to real time</li>
+ * <li>framing - converts found frequencies to bits and assembles data</li>
+ * </ul>
+ * Capture never waits for the other stages, samples which do not fit in the
+ * queue are dropped and counted as overrun. The DSP stage waits for space in
+ * the queue of frequency values while the framing stage runs, values found
+ * after it has failed are dropped and counted as overrun. Audio is treated as
+ * a continuous stream, so fragments returned by the recorder do not have to be
+ * exactly N samples long.
+ */
+final class DecoderPipeline {
+
+	private static final int SAMPLES_QUEUE_FRAMES = 32;
+	private static final int VALUES_QUEUE_SYMBOLS = 64;
+	private static final long IDLE_NANOS = 100_000;
+
+	private final AbstractDecoderSimple decoder;
+	private final ILogger logger;
+	private final int frameSize;
+	private final int hopSize;
+	private final int batchSize;
+	private final int noOfChannels;
+	private final Precision precision;
+
+	// ShortRingBuffer or FloatRingBuffer, depending on the decoder's precision
+	private final AbstractRingBuffer samples;
+	private final DoubleRingBuffer values;
+
+	private volatile boolean capturing;
+	private volatile boolean analysing;
+	private volatile boolean assembling;
+
+	private volatile int samplesMaxDepth;
+	private volatile int valuesMaxDepth;
+	private volatile long framesAnalysed;
+	private volatile long framesBatched;
+
+	// Frames emitted by the framer are added to the decoder's batch
+	private boolean catchingUp;
+
+	/**
+	 * @param decoder   decoder which stages are run
+	 * @param frameSize number of samples analysed at once (N)
+	 * @param hopSize   number of samples between starts of successive frames
+	 * @param logger    logger used to report errors of the stages
+	 */
+	DecoderPipeline(AbstractDecoderSimple decoder, int frameSize, int hopSize, ILogger logger) {
+		this.decoder = decoder;
+		this.logger = logger;
+		this.frameSize = frameSize;
+		this.hopSize = hopSize;
+		this.batchSize = decoder.getBatchSize();
+		this.noOfChannels = decoder.getNoOfChannels();
+		this.precision = decoder.getPrecision();
+		if (precision == Precision.FLOAT) {
+			this.samples = new FloatRingBuffer(SAMPLES_QUEUE_FRAMES * frameSize);
+		} else {
+			this.samples = new ShortRingBuffer(SAMPLES_QUEUE_FRAMES * frameSize);
+		}
+		this.values = new DoubleRingBuffer(VALUES_QUEUE_SYMBOLS * noOfChannels);
+	}
+
+	/**
+	 * Starts DSP and framing threads and captures audio until the decoder is
+	 * stopped. Returns when all captured samples have been processed.
+	 */
+	void run() {
+		capturing = true;
+		analysing = true;
+		assembling = true;
+
+		Thread dspThread = new Thread(this::analyse, "decoder-dsp");
+		Thread framingThread = new Thread(this::assemble, "decoder-framing");
+		dspThread.start();
+		framingThread.start();
+
+		try {
+			capture();
+		} finally {
+			capturing = false;
+			join(dspThread);
+			join(framingThread);
+		}
+	}
+
+	PipelineMetrics getMetrics() {
+		return new PipelineMetrics(
+				new QueueMetrics(samples.size(), samplesMaxDepth, samples.capacity(), samples.getOverrunCount()),
+				new QueueMetrics(values.size() / noOfChannels, valuesMaxDepth, values.capacity() / noOfChannels,
+						values.getOverrunCount()),
+				framesAnalysed, framesBatched);
+	}
+
+	private void capture() {
+		while (decoder.isRunning()) {
+			try {
+				if (precision == Precision.FLOAT) {
+					FloatBuffer recordFrag = decoder.captureFloat();
+					if (recordFrag.hasRemaining()) {
+						((FloatRingBuffer) samples).write(recordFrag);
+					}
+				} else {
+					ShortBuffer recordFrag = decoder.capture();
+					if (recordFrag.hasRemaining()) {
+						((ShortRingBuffer) samples).write(recordFrag);
+					}
+				}
+				samplesMaxDepth = Math.max(samplesMaxDepth, samples.size());
+			} catch (Exception e) {
+				fail(e);
+			}
+		}
+	}
+
+	private void analyse() {
+		try {
+			if (precision == Precision.FLOAT) {
+				analyseFloatSamples();
+			} else {
+				analyseShortSamples();
+			}
+		} catch (Exception e) {
+			fail(e);
+		} finally {
+			analysing = false;
+		}
+	}
+
+	private void analyseShortSamples() {
+		ShortRingBuffer queue = (ShortRingBuffer) samples;
+		short[] hop = new short[hopSize];
+		// Baseband front end replaces framing of full frames when the decoder
+		// decimates
+		BasebandFramer baseband = decoder.createBasebandFramer(this::analyseFrame);
+		StreamFramer framer = baseband == null ? new StreamFramer(frameSize, hopSize, this::analyseFrame) : null;
+		while (true) {
+			// Read capturing flag before the queue, so no samples are lost on stop
+			boolean lastPass = !capturing;
+			int queued = queue.size();
+			if (framer != null && batchSize > 1 && queued >= batchSize * hopSize) {
+				catchingUp = true;
+				for (int i = 0; i < batchSize; i++) {
+					queue.readFully(hop, 0, hopSize);
+					framer.push(hop, 0, hopSize);
+				}
+				continue;
+			}
+			if (catchingUp) {
+				// Back to real time, frames left in the batch are analysed before the
+				// next frame
+				catchingUp = false;
+				analyseBatch();
+			}
+			if (queued >= hopSize) {
+				queue.readFully(hop, 0, hopSize);
+				if (baseband != null) {
+					baseband.push(hop, 0, hopSize);
+				} else {
+					framer.push(hop, 0, hopSize);
+				}
+			} else if (lastPass) {
+				break;
+			} else {
+				LockSupport.parkNanos(IDLE_NANOS);
+			}
+		}
+	}
+
+	private void analyseFloatSamples() {
+		FloatRingBuffer queue = (FloatRingBuffer) samples;
+		float[] hop = new float[hopSize];
+		FloatStreamFramer framer = new FloatStreamFramer(frameSize, hopSize, this::analyseFrame);
+		while (true) {
+			// Read capturing flag before the queue, so no samples are lost on stop
+			boolean lastPass = !capturing;
+			if (queue.size() >= hopSize) {
+				queue.readFully(hop, 0, hopSize);
+				framer.push(hop, 0, hopSize);
+			} else if (lastPass) {
+				break;
+			} else {
+				LockSupport.parkNanos(IDLE_NANOS);
+			}
+		}
+	}
+
+	private void analyseFrame(short[] history, int start) {
+		if (catchingUp) {
+			if (decoder.addToBatch(history, start, frameSize)) {
+				analyseBatch();
+			}
+			return;
+		}
+		framesAnalysed++;
+		if (decoder.analyseFrame(history, start, frameSize)) {
+			publishValues();
+		}
+	}
+
+	private void analyseFrame(float[] history, int start) {
+		framesAnalysed++;
+		if (decoder.analyseFrame(history, start, frameSize)) {
+			publishValues();
+		}
+	}
+
+	private void analyseFrame(double[] re, double[] im, int start) {
+		framesAnalysed++;
+		if (decoder.analyseFrame(re, im, start)) {
+			publishValues();
+		}
+	}
+
+	private void analyseBatch() {
+		int frames = decoder.analyseBatch(this::publishValues);
+		framesAnalysed += frames;
+		framesBatched += frames;
+	}
+
+	private void publishValues() {
+		double[] vals = decoder.getChannelValues();
+		while (!values.writeFully(vals, 0, noOfChannels)) {
+			if (!assembling) {
+				// Nobody reads the queue anymore, values which do not fit are counted
+				values.write(vals, 0, noOfChannels);
+				break;
+			}
+			LockSupport.parkNanos(IDLE_NANOS);
+		}
+		valuesMaxDepth = Math.max(valuesMaxDepth, values.size() / noOfChannels);
+	}
+
+	private void assemble() {
+		double[] vals = new double[noOfChannels];
+		try {
+			while (true) {
+				boolean lastPass = !analysing;
+				if (values.size() >= noOfChannels) {
+					values.readFully(vals, 0, noOfChannels);
+					decoder.onValuesFoundOnAllChannels(vals);
+				} else if (lastPass) {
+					break;
+				} else {
+					LockSupport.parkNanos(IDLE_NANOS);
+				}
+			}
+		} catch (Exception e) {
+			fail(e);
+		} finally {
+			assembling = false;
+		}
+	}
+
+	private void fail(Exception e) {
+		logger.logMessage(e.toString());
+		decoder.stop();
+		capturing = false;
+	}
+
+	private static void join(Thread thread) {
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,169 @@
+package ultrasound.decoder;
+
+import sw.BluesteinFFT;
+import sw.FFT;
+import sw.IFFTEngine;
+import sw.MixedRadixFFT;
+import sw.Radix4FFT;
+import sw.RealFFT;
+import sw.RealFFTFloat;
+import sw.RealFFTQ15;
+import ultrasound.decoder.IDecoderSimple.FftEngine;
+import ultrasound.decoder.IDecoderSimple.Precision;
+import ultrasound.utils.DspKernels;
+
+/**
+ * Spectral detector calculating full FFT of the frame. Only bins from the
+ * analysis band are copied to the output. As the frame is real,
+ * {@link RealFFT} is used and bins above nfft/2 are taken from their complex
+ * conjugates. Complex FFT of the double precision transform is selected with
+ * {@link FftEngine}, the single precision and fixed-point transforms always
+ * use radix-2. In double precision nfft does not have to be a power of 2, see
+ * {@link #createComplexFft(int, FftEngine)}. Transform and work buffers are created only for the precision
+ * given in the constructor, other {@code calculatePower} methods throw
+ * {@link IllegalStateException}.
+ */
+final class FftSpectralDetector implements ISpectralDetector {
+
+	private final int nfft;
+	private final int lowestBin;
+	private final Precision precision;
+	private final RealFFT fft;
+	private final RealFFTFloat fftFloat;
+	private final RealFFTQ15 fftQ15;
+
+	private final double[] re;
+	private final double[] im;
+	private final float[] reFloat;
+	private final float[] imFloat;
+	private final int[] reQ15;
+	private final int[] imQ15;
+
+	/**
+	 * Creates detector working in {@link Precision#DOUBLE}
+	 * 
+	 * @param nfft      size of FFT transform
+	 * @param lowestBin index of the first bin of the analysis band
+	 * @throws Exception on {@link RealFFT} initialization error
+	 */
+	FftSpectralDetector(int nfft, int lowestBin) throws Exception {
+		this(nfft, lowestBin, Precision.DOUBLE);
+	}
+
+	/**
+	 * Creates detector using {@link FftEngine#RADIX4} in double precision
+	 * 
+	 * @param nfft      size of FFT transform
+	 * @param lowestBin index of the first bin of the analysis band
+	 * @param precision {@link Precision} of the transform
+	 * @throws Exception on {@link RealFFT} initialization error
+	 */
+	FftSpectralDetector(int nfft, int lowestBin, Precision precision) throws Exception {
+		this(nfft, lowestBin, precision, FftEngine.RADIX4);
+	}
+
+	/**
+	 * @param nfft      size of FFT transform
+	 * @param lowestBin index of the first bin of the analysis band
+	 * @param precision {@link Precision} of the transform
+	 * @param engine    {@link FftEngine} of the double precision transform
+	 * @throws Exception on {@link RealFFT} initialization error
+	 */
+	FftSpectralDetector(int nfft, int lowestBin, Precision precision, FftEngine engine) throws Exception {
+		this.nfft = nfft;
+		this.lowestBin = lowestBin;
+		this.precision = precision;
+
+		boolean isDouble = precision == Precision.DOUBLE;
+		this.fft = isDouble ? createRealFft(nfft, engine) : null;
+		this.re = isDouble ? new double[nfft / 2 + 1] : null;
+		this.im = isDouble ? new double[nfft / 2 + 1] : null;
+
+		boolean isFloat = precision == Precision.FLOAT;
+		this.fftFloat = isFloat ? new RealFFTFloat(nfft) : null;
+		this.reFloat = isFloat ? new float[nfft / 2 + 1] : null;
+		this.imFloat = isFloat ? new float[nfft / 2 + 1] : null;
+
+		boolean isQ15 = precision == Precision.Q15;
+		this.fftQ15 = isQ15 ? new RealFFTQ15(nfft) : null;
+		this.reQ15 = isQ15 ? new int[nfft / 2 + 1] : null;
+		this.imQ15 = isQ15 ? new int[nfft / 2 + 1] : null;
+	}
+
+	private static RealFFT createRealFft(int nfft, FftEngine engine) throws Exception {
+		if (nfft < 2) {
+			throw new Exception("FFT length must be at least 2");
+		}
+		return new RealFFT(nfft, createComplexFft(nfft % 2 == 0 ? nfft / 2 : nfft, engine));
+	}
+
+	/**
+	 * Powers of 2 are transformed with the given {@link FftEngine}, products of
+	 * 2, 3 and 5 with {@link MixedRadixFFT} and other sizes with
+	 * {@link BluesteinFFT}
+	 */
+	static IFFTEngine createComplexFft(int n, FftEngine engine) throws Exception {
+		if ((n & (n - 1)) == 0) {
+			return engine == FftEngine.RADIX2 ? new FFT(n) : new Radix4FFT(n);
+		}
+		if (MixedRadixFFT.supports(n)) {
+			return new MixedRadixFFT(n);
+		}
+		return new BluesteinFFT(n);
+	}
+
+	@Override
+	public void calculatePower(double[] x, double[] ampl) {
+		if (fft == null) {
+			throw new IllegalStateException("Detector was created for " + precision + " precision!");
+		}
+		fft.fft(x, re, im);
+
+		// Bins up to nfft/2 are contiguous, bins above are folded
+		int direct = Math.max(0, Math.min(ampl.length, nfft / 2 + 1 - lowestBin));
+		DspKernels.power(re, im, lowestBin, ampl, 0, direct);
+		for (int ii = direct; ii < ampl.length; ii++) {
+			int ind = nfft - lowestBin - ii;
+			ampl[ii] = re[ind] * re[ind] + im[ind] * im[ind];
+		}
+	}
+
+	@Override
+	public void calculatePower(float[] x, float[] ampl) {
+		if (fftFloat == null) {
+			throw new IllegalStateException("Detector was created for " + precision + " precision!");
+		}
+		fftFloat.fft(x, reFloat, imFloat);
+
+		for (int ii = 0; ii < ampl.length; ii++) {
+			int ind = lowestBin + ii;
+			if (ind > nfft / 2) {
+				ind = nfft - ind;
+			}
+			ampl[ii] = reFloat[ind] * reFloat[ind] + imFloat[ind] * imFloat[ind];
+		}
+	}
+
+	@Override
+	public int calculatePower(int[] x, long[] ampl) {
+		if (fftQ15 == null) {
+			throw new IllegalStateException("Detector was created for " + precision + " precision!");
+		}
+		int exponent = fftQ15.fft(x, reQ15, imQ15);
+
+		for (int ii = 0; ii < ampl.length; ii++) {
+			int ind = lowestBin + ii;
+			if (ind > nfft / 2) {
+				ind = nfft - ind;
+			}
+			ampl[ii] = (long) reQ15[ind] * reQ15[ind] + (long) imQ15[ind] * imQ15[ind];
+		}
+		return exponent;
+	}
+
+	@Override
+	public DetectorType getType() {
+		return DetectorType.FFT;
+	}
+
+}
@@ -0,0 +1,132 @@
+package ultrasound.decoder;
+
+/**
+ * Spectral detector implemented as a bank of Goertzel filters. Only the bins
+ * given in the constructor are evaluated, all other bins of the analysis band
+ * are set to 0. The power of every evaluated bin is equal to the squared
+ * magnitude of the corresponding FFT bin. Filters run only over the samples
+ * of the frame, zero padding up to nfft does not change the power.
+ */
+final class GoertzelSpectralDetector implements ISpectralDetector {
+
+	// Limit of the fixed-point filter state, products with coefficients up to 2
+	// in Q30 and the power stay below 2^62
+	private static final long STATE_LIMIT = 1L << 30;
+
+	private final int frameLength;
+	private final int[] bins;
+	private final double[] coeff;
+	private final float[] coeffFloat;
+	// Coefficients in Q30, so products with the filter state fit in long
+	private final long[] coeffQ30;
+	// Power and scaling of every bin of the last fixed-point calculation
+	private final long[] powerQ30;
+	private final int[] shifts;
+
+	/**
+	 * @param nfft        size of the FFT whose bins are evaluated, it is larger
+	 *                    than the analysed frame when bins are spaced more
+	 *                    densely than deltaF
+	 * @param frameLength number of samples of the frame, the rest of the input
+	 *                    up to nfft is zero padding
+	 * @param lowestBin   index of the first bin of the analysis band
+	 * @param bins        indexes of bins to evaluate, relative to lowestBin
+	 */
+	GoertzelSpectralDetector(int nfft, int frameLength, int lowestBin, int[] bins) {
+		this.frameLength = frameLength;
+		this.bins = bins.clone();
+		this.coeff = new double[bins.length];
+		this.coeffFloat = new float[bins.length];
+		this.coeffQ30 = new long[bins.length];
+		this.powerQ30 = new long[bins.length];
+		this.shifts = new int[bins.length];
+		for (int i = 0; i < bins.length; i++) {
+			coeff[i] = 2 * Math.cos(2 * Math.PI * (lowestBin + bins[i]) / nfft);
+			coeffFloat[i] = (float) coeff[i];
+			coeffQ30[i] = Math.round(coeff[i] * (1 << 30));
+		}
+	}
+
+	@Override
+	public void calculatePower(double[] x, double[] ampl) {
+		for (int i = 0; i < ampl.length; i++) {
+			ampl[i] = 0;
+		}
+
+		for (int b = 0; b < bins.length; b++) {
+			double c = coeff[b];
+			double s1 = 0;
+			double s2 = 0;
+			for (int n = 0; n < frameLength; n++) {
+				double s = x[n] + c * s1 - s2;
+				s2 = s1;
+				s1 = s;
+			}
+			ampl[bins[b]] = s1 * s1 + s2 * s2 - c * s1 * s2;
+		}
+	}
+
+	@Override
+	public void calculatePower(float[] x, float[] ampl) {
+		for (int i = 0; i < ampl.length; i++) {
+			ampl[i] = 0;
+		}
+
+		for (int b = 0; b < bins.length; b++) {
+			float c = coeffFloat[b];
+			float s1 = 0;
+			float s2 = 0;
+			for (int n = 0; n < frameLength; n++) {
+				float s = x[n] + c * s1 - s2;
+				s2 = s1;
+				s1 = s;
+			}
+			ampl[bins[b]] = s1 * s1 + s2 * s2 - c * s1 * s2;
+		}
+	}
+
+	/**
+	 * Filter state is kept in {@code long}. Whenever it reaches
+	 * {@link #STATE_LIMIT}, the state and the following samples are halved, so
+	 * products with the coefficient and the power never overflow, whatever the
+	 * frame length. Power of every bin is then scaled to the largest exponent.
+	 */
+	@Override
+	public int calculatePower(int[] x, long[] ampl) {
+		for (int i = 0; i < ampl.length; i++) {
+			ampl[i] = 0;
+		}
+
+		int exponent = 0;
+		for (int b = 0; b < bins.length; b++) {
+			long c = coeffQ30[b];
+			long s1 = 0;
+			long s2 = 0;
+			int shift = 0;
+			for (int n = 0; n < frameLength; n++) {
+				long s = ((long) x[n] >> shift) + ((c * s1 + (1 << 29)) >> 30) - s2;
+				s2 = s1;
+				s1 = s;
+				while (s1 >= STATE_LIMIT || s1 <= -STATE_LIMIT) {
+					s1 >>= 1;
+					s2 >>= 1;
+					shift++;
+				}
+			}
+			powerQ30[b] = s1 * s1 + s2 * s2 - ((c * s1 + (1 << 29)) >> 30) * s2;
+			shifts[b] = shift;
+			exponent = Math.max(exponent, shift);
+		}
+
+		for (int b = 0; b < bins.length; b++) {
+			ampl[bins[b]] = powerQ30[b] >> (2 * (exponent - shifts[b]));
+		}
+		return exponent;
+	}
+
+	@Override
+	public DetectorType getType() {
+		return DetectorType.GOERTZEL;
+	}
+
+}
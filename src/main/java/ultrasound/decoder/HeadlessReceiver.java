@@ -0,0 +1,53 @@
+package ultrasound.decoder;
+
+import java.io.File;
+import java.io.IOException;
+
+import ultrasound.ICoder.CoderMode;
+import ultrasound.audio.AudioSources;
+import ultrasound.audio.IAudioSource;
+
+/**
+ * Command line receiver which decodes audio from a file or from the standard
+ * input and prints received data. Example for a Linux capture device:
+ * 
+ * <pre>
+ * arecord -t raw -f S16_LE -c 1 -r 48000 | java ultrasound.decoder.HeadlessReceiver 48000 16 17000 40 1024 0.3 frame
+ * </pre>
+ */
+public final class HeadlessReceiver {
+
+	private static final String USAGE = "Usage: HeadlessReceiver <sample rate> <no of channels> <first freq> "
+			+ "<freq step> <nfft> <threshold> [simple|frame] [audio file, standard input when not given]";
+
+	private HeadlessReceiver() {
+
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 6) {
+			System.err.println(USAGE);
+			System.exit(1);
+		}
+		int sampleRate = Integer.parseInt(args[0]);
+		int noOfChannels = Integer.parseInt(args[1]);
+		int firstFreq = Integer.parseInt(args[2]);
+		int freqStep = Integer.parseInt(args[3]);
+		int nfft = Integer.parseInt(args[4]);
+		double threshold = Double.parseDouble(args[5]);
+		CoderMode mode = args.length > 6 && args[6].equalsIgnoreCase("simple") ? CoderMode.SIMPLE
+				: CoderMode.DATA_FRAME;
+
+		IAudioSource source = args.length > 7 ? AudioSources.open(new File(args[7]), sampleRate)
+				: AudioSources.stdin(sampleRate);
+
+		SourceDecoderBuilder builder = new SourceDecoderBuilder(source, noOfChannels, firstFreq, freqStep, nfft,
+				threshold);
+		builder.dataFrameListener(frame -> System.out.println("Received: " + frame));
+		builder.dataListener(data -> System.out.println("Received: " + data));
+		builder.mode(mode);
+
+		builder.build().run();
+	}
+
+}
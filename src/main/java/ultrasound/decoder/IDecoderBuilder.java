@@ -1,10 +1,118 @@
 package ultrasound.decoder;
 
 import ultrasound.ICoderBuilder;
+import ultrasound.decoder.IDecoderSimple.ExecutionMode;
+import ultrasound.decoder.IDecoderSimple.FftEngine;
+import ultrasound.decoder.IDecoderSimple.PeakInterpolation;
+import ultrasound.decoder.IDecoderSimple.Precision;
+import ultrasound.decoder.ISpectralDetector.DetectorType;
 
 /**
  * Builder for new instances {@link IDecoder}
  */
 interface IDecoderBuilder extends ICoderBuilder {
 
+	/**
+	 * Spectral detector used to calculate signal power in the analysis band.
+	 * Optional parameter, when not provided {@link DetectorType#FFT} will be set.
+	 * 
+	 * @param detectorType type of the spectral detector {@link DetectorType}
+	 * @return {@link IDecoderBuilder}
+	 */
+	IDecoderBuilder spectralDetector(DetectorType detectorType);
+
+	/**
+	 * Execution mode of the decoder. Optional parameter, when not provided
+	 * {@link ExecutionMode#SERIAL} will be set.
+	 * 
+	 * @param executionMode execution mode {@link ExecutionMode}
+	 * @return {@link IDecoderBuilder}
+	 */
+	IDecoderBuilder executionMode(ExecutionMode executionMode);
+
+	/**
+	 * Number of samples between starts of successive analysed frames. When it is
+	 * less than the frame length (nfft), frames overlap, e.g. nfft/2 or nfft/4,
+	 * so symbol edges are found more precisely and shorter pulses can be
+	 * decoded. Optional parameter, when not provided frames will not overlap.
+	 * 
+	 * @param hopSize hop size in samples, from 1 to nfft
+	 * @return {@link IDecoderBuilder}
+	 */
+	IDecoderBuilder hopSize(int hopSize);
+
+	/**
+	 * Arithmetic precision of the spectral analysis. Optional parameter, when not
+	 * provided {@link Precision#DOUBLE} will be set.
+	 * 
+	 * @param precision precision {@link Precision}
+	 * @return {@link IDecoderBuilder}
+	 */
+	IDecoderBuilder precision(Precision precision);
+
+	/**
+	 * Implementation of the complex FFT used by the FFT spectral detector in
+	 * double precision. Optional parameter, when not provided
+	 * {@link FftEngine#RADIX4} will be set.
+	 * 
+	 * @param fftEngine FFT implementation {@link FftEngine}
+	 * @return {@link IDecoderBuilder}
+	 */
+	IDecoderBuilder fftEngine(FftEngine fftEngine);
+
+	/**
+	 * Number of analysed bins per FFT bin. With zoom greater than 1 the analysis
+	 * band is sampled on a grid of deltaF / zoom, so channel frequencies are found
+	 * more precisely. Supported by {@link DetectorType#ZOOM} and
+	 * {@link DetectorType#GOERTZEL} detectors. Optional parameter, when not
+	 * provided 1 will be set.
+	 * 
+	 * @param zoom zoom factor, at least 1
+	 * @return {@link IDecoderBuilder}
+	 */
+	IDecoderBuilder zoom(int zoom);
+
+	/**
+	 * Decimation factor of the baseband front end. With decimation D greater than
+	 * 1 the analysis band is mixed down to 0 Hz, low-pass filtered and decimated,
+	 * so frames of N / D complex samples are transformed instead of N real
+	 * samples with the same frequency resolution. Supported only by
+	 * {@link DetectorType#FFT} detector in {@link Precision#DOUBLE}, Nfft and hop
+	 * size have to be multiples of D and the analysis band has to fit in the
+	 * decimated bandwidth. Optional parameter, when not provided 1 will be set.
+	 * 
+	 * @param decimation decimation factor, at least 1
+	 * @return {@link IDecoderBuilder}
+	 */
+	IDecoderBuilder decimation(int decimation);
+
+	/**
+	 * Maximal number of frames transformed together when many frames are
+	 * available at once: in offline decoding, e.g. with {@link BatchDecoder}, in
+	 * {@link ExecutionMode#SERIAL} mode when one capture completes many
+	 * overlapping frames and when the {@link ExecutionMode#PIPELINED} decoder
+	 * catches up with a backlog of buffered audio. The
+	 * frames are transformed in frame-interleaved layout, so the twiddles are
+	 * loaded once per batch and the loops over frames are vectorized. Found
+	 * values are exactly the same as when the frames are analysed one by one.
+	 * Supported only by {@link DetectorType#FFT} detector in
+	 * {@link Precision#DOUBLE} with {@link FftEngine#RADIX4}, without decimation
+	 * and with Nfft which is a power of 2. Optional parameter, when not provided
+	 * 1 will be set and every frame is analysed separately.
+	 * 
+	 * @param batchSize maximal number of frames analysed at once, at least 1
+	 * @return {@link IDecoderBuilder}
+	 */
+	IDecoderBuilder batchSize(int batchSize);
+
+	/**
+	 * Estimation of the frequency found on every channel between the analysed
+	 * bins, see {@link PeakInterpolation}. Optional parameter, when not provided
+	 * {@link PeakInterpolation#NONE} will be set.
+	 * 
+	 * @param peakInterpolation {@link PeakInterpolation}
+	 * @return {@link IDecoderBuilder}
+	 */
+	IDecoderBuilder peakInterpolation(PeakInterpolation peakInterpolation);
+
 }
\ No newline at end of file
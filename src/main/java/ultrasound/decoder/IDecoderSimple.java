@@ -4,6 +4,74 @@ import ultrasound.ICoder;
 
 public interface IDecoderSimple extends ICoder, Runnable {
 
+	/**
+	 * Enum used to define how decoder's work is executed.
+	 * <ul>
+	 * <li>{@code ExecutionMode#SERIAL} - audio capture, spectral analysis and
+	 * bit/frame assembly are done one after another on the decoder's thread</li>
+	 * <li>{@code ExecutionMode#PIPELINED} - each of those stages runs on its own
+	 * thread, stages are connected with bounded lock-free queues</li>
+	 * </ul>
+	 */
+	public enum ExecutionMode {
+		SERIAL, PIPELINED
+	}
+
+	/**
+	 * Enum used to select arithmetic precision of the spectral analysis.
+	 * <ul>
+	 * <li>{@code Precision#DOUBLE} - samples are windowed and transformed as
+	 * {@code double}</li>
+	 * <li>{@code Precision#FLOAT} - samples are captured, windowed and
+	 * transformed as {@code float} normalised to [-1, 1]. Work buffers take half
+	 * of the memory and capture devices delivering 24 bit or floating point PCM
+	 * can be used without truncation to 16 bits</li>
+	 * <li>{@code Precision#Q15} - samples are windowed and transformed as Q15
+	 * fixed-point numbers and signal power is compared with a fixed-point
+	 * threshold, for processors without fast floating point</li>
+	 * </ul>
+	 */
+	public enum Precision {
+		DOUBLE, FLOAT, Q15
+	}
+
+	/**
+	 * Enum used to select implementation of the complex FFT used by
+	 * {@code DetectorType#FFT} in {@code Precision#DOUBLE} when nfft is a power
+	 * of 2. Other sizes are always transformed with {@link sw.MixedRadixFFT} or
+	 * {@link sw.BluesteinFFT}.
+	 * <ul>
+	 * <li>{@code FftEngine#RADIX2} - reference radix-2 implementation
+	 * {@link sw.FFT}</li>
+	 * <li>{@code FftEngine#RADIX4} - optimized radix-4 implementation
+	 * {@link sw.Radix4FFT} with precomputed bit-reversal permutation</li>
+	 * </ul>
+	 */
+	public enum FftEngine {
+		RADIX2, RADIX4
+	}
+
+	/**
+	 * Enum used to select estimation of the frequency of the strongest bin of
+	 * every channel between the analysed bins.
+	 * <ul>
+	 * <li>{@code PeakInterpolation#NONE} - frequency of the strongest bin is
+	 * used, tones are told apart with tolerance of one analysed bin, so the
+	 * frequency step has to be at least 2 * deltaF</li>
+	 * <li>{@code PeakInterpolation#QUADRATIC} - vertex of the parabola through
+	 * magnitudes of the strongest bin and its neighbours</li>
+	 * <li>{@code PeakInterpolation#GAUSSIAN} - vertex of the parabola through
+	 * logarithms of power of the same bins, it is less biased for the Hamming
+	 * window</li>
+	 * </ul>
+	 * With interpolation a tone is recognized within half of the frequency step,
+	 * so the frequency step can be smaller than 2 * deltaF and Nfft can be
+	 * smaller for the same channel plan.
+	 */
+	public enum PeakInterpolation {
+		NONE, QUADRATIC, GAUSSIAN
+	}
+
 	/**
 	*
 	*/
@@ -19,4 +87,68 @@ public interface IDecoderSimple extends ICoder, Runnable {
 
 	double[] getF();
 
+	/**
+	 * Get execution mode of the decoder {@link ExecutionMode}
+	 * 
+	 * @return {@link ExecutionMode} of the decoder
+	 */
+	ExecutionMode getExecutionMode();
+
+	/**
+	 * Get number of samples between starts of successive analysed frames
+	 * 
+	 * @return hop size in samples, equal to N when frames do not overlap
+	 */
+	int getHopSize();
+
+	/**
+	 * Get arithmetic precision of the spectral analysis {@link Precision}
+	 * 
+	 * @return {@link Precision} of the decoder
+	 */
+	Precision getPrecision();
+
+	/**
+	 * Get implementation of the complex FFT {@link FftEngine}
+	 * 
+	 * @return {@link FftEngine} of the decoder
+	 */
+	FftEngine getFftEngine();
+
+	/**
+	 * Get number of analysed bins per FFT bin
+	 * 
+	 * @return zoom factor, 1 when the spectrum is analysed on the FFT bins
+	 */
+	int getZoom();
+
+	/**
+	 * Get decimation factor of the baseband front end
+	 * 
+	 * @return decimation factor, 1 when the full band is analysed
+	 */
+	int getDecimation();
+
+	/**
+	 * Get estimation of the frequency of the strongest bin
+	 * 
+	 * @return {@link PeakInterpolation} of the decoder
+	 */
+	PeakInterpolation getPeakInterpolation();
+
+	/**
+	 * Get maximal number of frames analysed at once
+	 * 
+	 * @return batch size, 1 when every frame is analysed separately
+	 */
+	int getBatchSize();
+
+	/**
+	 * Returns queue metrics of the decoder's pipeline
+	 * 
+	 * @return {@link PipelineMetrics} or {@code null} when decoder has not been
+	 *         run in {@link ExecutionMode#PIPELINED} mode
+	 */
+	PipelineMetrics getPipelineMetrics();
+
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package ultrasound.decoder;
+
+/**
+ * Interface for spectral detectors used by {@link AbstractDecoderSimple} to
+ * calculate signal power in the decoder's analysis band.
+ */
+public interface ISpectralDetector {
+
+	/**
+	 * Enum used to select the spectral detector implementation.
+	 * <ul>
+	 * <li>{@code DetectorType#FFT} - full FFT of the frame, only bins from the
+	 * analysis band are used</li>
+	 * <li>{@code DetectorType#GOERTZEL} - Goertzel filter bank evaluating only the
+	 * bins searched by the transmission channels</li>
+	 * <li>{@code DetectorType#ZOOM} - chirp-z transform evaluating all bins of
+	 * the analysis band and only them, optionally on a grid finer than the FFT
+	 * bins</li>
+	 * </ul>
+	 */
+	public enum DetectorType {
+		FFT, GOERTZEL, ZOOM
+	}
+
+	/**
+	 * Calculates power of the spectral bins in the analysis band.
+	 * 
+	 * @param x    windowed and zero padded frame of nfft samples. Its content may
+	 *             be overwritten during calculation
+	 * @param ampl output array, {@code ampl[i]} is the power of the bin
+	 *             {@code lowestBin + i} where lowestBin is the first bin of the
+	 *             analysis band
+	 */
+	void calculatePower(double[] x, double[] ampl);
+
+	/**
+	 * Single precision version of {@link #calculatePower(double[], double[])}
+	 * 
+	 * @param x    windowed and zero padded frame of nfft samples. Its content may
+	 *             be overwritten during calculation
+	 * @param ampl output array, {@code ampl[i]} is the power of the bin
+	 *             {@code lowestBin + i} where lowestBin is the first bin of the
+	 *             analysis band
+	 */
+	void calculatePower(float[] x, float[] ampl);
+
+	/**
+	 * Fixed-point version of {@link #calculatePower(double[], double[])}. To
+	 * avoid overflow, the detector may scale the spectrum down by a power of 2.
+	 * 
+	 * @param x    windowed and zero padded frame of nfft Q15 samples. Its content
+	 *             may be overwritten during calculation
+	 * @param ampl output array, {@code ampl[i] * 4^exponent} is the power of the
+	 *             bin {@code lowestBin + i} in Q30, where lowestBin is the first
+	 *             bin of the analysis band
+	 * @return exponent of the scaling, the same for all bins
+	 */
+	int calculatePower(int[] x, long[] ampl);
+
+	/**
+	 * Get type of the detector
+	 * 
+	 * @return {@link DetectorType} of the detector
+	 */
+	DetectorType getType();
+
+}
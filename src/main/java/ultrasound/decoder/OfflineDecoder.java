@@ -0,0 +1,97 @@
+package ultrasound.decoder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ultrasound.dataframe.IDataFrame;
+import ultrasound.utils.UltrasoundHelper;
+import ultrasound.utils.log.DecoderLogger;
+import ultrasound.utils.log.Logger;
+
+/**
+ * Decoder used by {@link BatchDecoder}. It has no audio recorder, audio
+ * samples are given directly to {@link AbstractDecoderSimple#decode(short[], int, int)}.
+ * In {@link CoderMode#SIMPLE} mode decoded data is collected as hex string, in
+ * {@link CoderMode#DATA_FRAME} mode all successfully parsed data frames are
+ * collected. Messages are logged to {@link BurstLogger} of the decoder.
+ */
+final class OfflineDecoder extends AbstractDecoder {
+
+	private final List<IDataFrame> dataFrames;
+	private final BurstLogger burstLogger;
+
+	/**
+	 * Keeps messages of one decoder in memory. Workers of {@link BatchDecoder}
+	 * would otherwise wait for each other on the output of the shared
+	 * {@link DecoderLogger}.
+	 */
+	static final class BurstLogger extends Logger {
+
+		private final List<String> messages = new ArrayList<>();
+
+		BurstLogger() {
+			setTag(DecoderLogger.getInstance().getTag());
+		}
+
+		@Override
+		public void logMessage(String tag, String msg) {
+			messages.add(tag + " - " + msg);
+		}
+
+		List<String> getMessages() {
+			return messages;
+		}
+	}
+
+	OfflineDecoder(AbstractDecoderBuilder builder) throws Exception {
+		super(builder);
+		this.dataFrames = new ArrayList<>();
+		this.burstLogger = new BurstLogger();
+		this.logger = burstLogger;
+	}
+
+	@Override
+	protected void onNewBinaryDataDecoded(boolean[] resBinDec) {
+		if (mode == CoderMode.DATA_FRAME) {
+			super.onNewBinaryDataDecoded(resBinDec);
+		} else {
+			receivedHexMsg.append(UltrasoundHelper.bin2hex(resBinDec));
+		}
+	}
+
+	@Override
+	protected void onDataFrameSuccessfullyReceived() {
+		dataFrames.add(frame);
+	}
+
+	int getFrameSize() {
+		return N;
+	}
+
+	List<IDataFrame> getDataFrames() {
+		return dataFrames;
+	}
+
+	/**
+	 * @return messages logged by the decoder, without time stamps
+	 */
+	List<String> getLog() {
+		return burstLogger.getMessages();
+	}
+
+	@Override
+	protected short[] getAudioSamples() throws IllegalStateException {
+		throw new IllegalStateException("Offline decoder has no audio recorder!");
+	}
+
+	@Override
+	protected void startRecording() {
+
+	}
+
+	@Override
+	protected void stopAudioRecorder() {
+
+	}
+
+}
@@ -0,0 +1,112 @@
+package ultrasound.decoder;
+
+/**
+ * Snapshot of queue metrics of the pipelined decoder. The pipeline has two
+ * queues: audio samples passed from the capture stage to the DSP stage and
+ * frequency values passed from the DSP stage to the framing stage.
+ */
+public final class PipelineMetrics {
+
+	/**
+	 * Metrics of one queue between two stages of the pipeline
+	 */
+	public static final class QueueMetrics {
+
+		private final int depth;
+		private final int maxDepth;
+		private final int capacity;
+		private final long overrunCount;
+
+		QueueMetrics(int depth, int maxDepth, int capacity, long overrunCount) {
+			this.depth = depth;
+			this.maxDepth = maxDepth;
+			this.capacity = capacity;
+			this.overrunCount = overrunCount;
+		}
+
+		/**
+		 * @return number of elements waiting in the queue
+		 */
+		public int getDepth() {
+			return depth;
+		}
+
+		/**
+		 * @return maximal number of elements observed in the queue
+		 */
+		public int getMaxDepth() {
+			return maxDepth;
+		}
+
+		public int getCapacity() {
+			return capacity;
+		}
+
+		/**
+		 * @return number of elements dropped because the queue was full
+		 */
+		public long getOverrunCount() {
+			return overrunCount;
+		}
+
+		@Override
+		public String toString() {
+			return "depth: " + depth + "/" + capacity + ", max depth: " + maxDepth + ", overruns: " + overrunCount;
+		}
+	}
+
+	private final QueueMetrics samples;
+	private final QueueMetrics values;
+	private final long framesAnalysed;
+	private final long framesBatched;
+
+	PipelineMetrics(QueueMetrics samples, QueueMetrics values, long framesAnalysed, long framesBatched) {
+		this.samples = samples;
+		this.values = values;
+		this.framesAnalysed = framesAnalysed;
+		this.framesBatched = framesBatched;
+	}
+
+	/**
+	 * @return metrics of the queue of audio samples (capture to DSP stage)
+	 */
+	public QueueMetrics getSamples() {
+		return samples;
+	}
+
+	/**
+	 * @return metrics of the queue of frequency values (DSP to framing stage)
+	 */
+	public QueueMetrics getValues() {
+		return values;
+	}
+
+	/**
+	 * @return number of audio frames analysed by the DSP stage
+	 */
+	public long getFramesAnalysed() {
+		return framesAnalysed;
+	}
+
+	/**
+	 * @return number of audio frames analysed in batches while the DSP stage was
+	 *         catching up with a backlog, included in {@link #getFramesAnalysed()}
+	 */
+	public long getFramesBatched() {
+		return framesBatched;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("Pipeline metrics:");
+		sb.append(System.lineSeparator());
+		sb.append("\tSamples queue: " + samples);
+		sb.append(System.lineSeparator());
+		sb.append("\tValues queue: " + values);
+		sb.append(System.lineSeparator());
+		sb.append("\tFrames analysed: " + framesAnalysed + ", in batches: " + framesBatched);
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,97 @@
+package ultrasound.decoder;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import ultrasound.audio.IAudioSource;
+import ultrasound.dataframe.IDataFrame;
+import ultrasound.utils.UltrasoundHelper;
+
+/**
+ * Decoder which reads audio from an {@link IAudioSource}, e.g. a file, a pipe
+ * or an array. It stops itself when the source has no more samples. To
+ * instantiate new object of this type use {@link SourceDecoderBuilder}.
+ */
+public class SourceDecoder extends AbstractDecoder {
+
+	private final IAudioSource audioSource;
+	private final Consumer<IDataFrame> dataFrameListener;
+	private final Consumer<String> dataListener;
+
+	// Reused for every fragment, decoder does not keep reference to it
+	private final short[] recordFrag;
+
+	protected SourceDecoder(SourceDecoderBuilder builder) throws Exception {
+		super(builder);
+		this.audioSource = builder.audioSource;
+		this.dataFrameListener = builder.dataFrameListener;
+		this.dataListener = builder.dataListener;
+		this.recordFrag = new short[N];
+	}
+
+	@Override
+	protected void startRecording() {
+		try {
+			audioSource.start();
+		} catch (IOException e) {
+			logger.logMessage("Audio source could not be started: " + e.getMessage());
+			stop();
+		}
+	}
+
+	@Override
+	protected void stopAudioRecorder() {
+		try {
+			audioSource.close();
+		} catch (IOException e) {
+			logger.logMessage("Audio source could not be closed: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Reads N samples from the source. The last fragment may be shorter.
+	 */
+	@Override
+	protected short[] getAudioSamples() throws IllegalStateException {
+		int len = 0;
+		try {
+			while (len < N) {
+				int n = audioSource.read(recordFrag, len, N - len);
+				if (n < 0) {
+					stop();
+					break;
+				}
+				len += n;
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Audio source could not be read: " + e.getMessage(), e);
+		}
+		if (len < N) {
+			return Arrays.copyOf(recordFrag, len);
+		}
+		return recordFrag;
+	}
+
+	@Override
+	protected void onNewBinaryDataDecoded(boolean[] resBinDec) {
+		if (mode == CoderMode.DATA_FRAME) {
+			super.onNewBinaryDataDecoded(resBinDec);
+			return;
+		}
+		String resHex = UltrasoundHelper.bin2hex(resBinDec);
+		receivedHexMsg.append(resHex);
+		logger.logMessage("Decoded data: " + receivedHexMsg);
+		if (dataListener != null) {
+			dataListener.accept(resHex);
+		}
+	}
+
+	@Override
+	protected void onDataFrameSuccessfullyReceived() {
+		if (dataFrameListener != null) {
+			dataFrameListener.accept(frame);
+		}
+	}
+
+}
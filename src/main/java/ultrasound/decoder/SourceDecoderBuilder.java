@@ -0,0 +1,72 @@
+package ultrasound.decoder;
+
+import java.util.function.Consumer;
+
+import ultrasound.audio.IAudioSource;
+import ultrasound.dataframe.IDataFrame;
+
+/**
+ * Builder of {@link SourceDecoder}. Sample rate of the decoder is taken from
+ * the {@link IAudioSource}.
+ */
+public class SourceDecoderBuilder extends AbstractDecoderBuilder {
+
+	protected final IAudioSource audioSource;
+	protected Consumer<IDataFrame> dataFrameListener;
+	protected Consumer<String> dataListener;
+
+	/**
+	 * @param audioSource  {@link IAudioSource} with signal to decode
+	 * @param noOfChannels number of transmission channels (has to be a power of 2)
+	 * @param firstFreq    lowest frequency used by decoder (it will be a frequency
+	 *                     of low signal of the first channel)
+	 * @param freqStep     frequency interval between successive transmission
+	 *                     channels
+	 * @param nfft         size of FFT transform, has to be a power of 2 unless
+	 *                     the decoder works in double precision or uses Goertzel
+	 *                     detector
+	 * @param threshold    minimum amplitude of frequency to be detected as searched
+	 *                     signal
+	 */
+	public SourceDecoderBuilder(IAudioSource audioSource, int noOfChannels, int firstFreq, int freqStep, int nfft,
+			double threshold) {
+		super(audioSource.getSampleRate(), noOfChannels, firstFreq, freqStep, nfft, threshold);
+		this.audioSource = audioSource;
+	}
+
+	/**
+	 * Listener called for every successfully received data frame in
+	 * {@link ultrasound.ICoder.CoderMode#DATA_FRAME} mode. Optional parameter.
+	 * 
+	 * @param dataFrameListener listener called on the decoder's thread
+	 * @return {@link SourceDecoderBuilder}
+	 */
+	public SourceDecoderBuilder dataFrameListener(Consumer<IDataFrame> dataFrameListener) {
+		this.dataFrameListener = dataFrameListener;
+		return this;
+	}
+
+	/**
+	 * Listener called for every decoded portion of data in
+	 * {@link ultrasound.ICoder.CoderMode#SIMPLE} mode. Optional parameter.
+	 * 
+	 * @param dataListener listener which receives decoded data as hex string,
+	 *                     called on the decoder's thread
+	 * @return {@link SourceDecoderBuilder}
+	 */
+	public SourceDecoderBuilder dataListener(Consumer<String> dataListener) {
+		this.dataListener = dataListener;
+		return this;
+	}
+
+	@Override
+	public SourceDecoder build() {
+		validate();
+		try {
+			return new SourceDecoder(this);
+		} catch (Exception e) {
+			throw new IllegalStateException("Decoder could not be created: " + e.getMessage(), e);
+		}
+	}
+
+}
@@ -0,0 +1,81 @@
+package ultrasound.decoder;
+
+import java.nio.ShortBuffer;
+
+/**
+ * Cuts a continuous stream of {@code short} audio samples into overlapping
+ * frames of N samples. See {@link AbstractStreamFramer} for details.
+ */
+final class StreamFramer extends AbstractStreamFramer {
+
+	/**
+	 * Receives frames from {@link StreamFramer}
+	 */
+	interface FrameListener {
+
+		/**
+		 * Called for every complete frame. Frame is stored in a circular buffer and
+		 * is valid only during this call.
+		 *
+		 * @param history circular buffer of N samples
+		 * @param start   index of the oldest sample of the frame in the buffer
+		 */
+		void onFrame(short[] history, int start);
+	}
+
+	private final short[] history;
+	private final FrameListener listener;
+
+	/**
+	 * @param frameSize number of samples in one frame (N)
+	 * @param hop       number of samples between starts of successive frames,
+	 *                  from 1 to N
+	 * @param listener  {@link FrameListener} which receives frames
+	 */
+	StreamFramer(int frameSize, int hop, FrameListener listener) {
+		this(new short[frameSize], hop, listener);
+	}
+
+	private StreamFramer(short[] history, int hop, FrameListener listener) {
+		super(history, hop);
+		this.history = history;
+		this.listener = listener;
+	}
+
+	/**
+	 * Appends samples to the stream and emits every frame completed by them
+	 *
+	 * @param samples array of audio samples
+	 * @param off     index of the first sample to append
+	 * @param len     number of samples to append
+	 */
+	void push(short[] samples, int off, int len) {
+		pushSamples(samples, off, len);
+	}
+
+	/**
+	 * Appends samples from position to limit of the buffer to the stream and
+	 * emits every frame completed by them. Position of the buffer is moved to its
+	 * limit.
+	 *
+	 * @param samples buffer of audio samples
+	 */
+	void push(ShortBuffer samples) {
+		pushSamples(samples, 0, samples.remaining());
+	}
+
+	@Override
+	protected void copyIn(Object src, int srcOff, Object history, int pos, int len) {
+		if (src instanceof ShortBuffer) {
+			((ShortBuffer) src).get((short[]) history, pos, len);
+		} else {
+			super.copyIn(src, srcOff, history, pos, len);
+		}
+	}
+
+	@Override
+	protected void onFrame(int start) {
+		listener.onFrame(history, start);
+	}
+
+}
@@ -0,0 +1,168 @@
+package ultrasound.decoder;
+
+import sw.Radix4FFT;
+import ultrasound.decoder.IDecoderSimple.Precision;
+import ultrasound.utils.DspTableCache;
+
+/**
+ * Spectral detector calculating only the bins of the analysis band with the
+ * chirp-z transform. Bins are spaced by deltaF / zoom, so with zoom greater
+ * than 1 the spectrum is sampled more densely than by the FFT of the frame,
+ * which is equivalent to the FFT of the frame zero padded to nfft * zoom
+ * samples.
+ *
+ * The frame is multiplied by a chirp, convolved with a conjugated chirp using
+ * {@link Radix4FFT} of the smallest power of 2 size not less than
+ * {@code nfft + bins - 1} and the result is transformed back. Only the power
+ * is needed, so the final chirp multiplication, which does not change the
+ * magnitude, is skipped. Chirps and the transform of the conjugated chirp are
+ * shared through {@link DspTableCache}.
+ *
+ * Single precision frames are analysed in double precision internally. Q15
+ * precision is not supported.
+ */
+final class ZoomSpectralDetector implements ISpectralDetector {
+
+	private final int nfft;
+	private final Radix4FFT fft;
+
+	// Chirp multiplying the frame, real and imaginary parts interleaved
+	private final double[] chirp;
+
+	// Transform of the conjugated chirp, real and imaginary parts interleaved
+	private final double[] filter;
+
+	private final double[] re;
+	private final double[] im;
+
+	/**
+	 * @param nfft      size of the analysed frame
+	 * @param zoom      number of bins per FFT bin
+	 * @param lowestBin index of the first bin of the analysis band, in units of
+	 *                  deltaF / zoom
+	 * @param noOfBins  number of bins of the analysis band
+	 * @throws Exception on {@link Radix4FFT} initialization error
+	 */
+	ZoomSpectralDetector(int nfft, int zoom, int lowestBin, int noOfBins) throws Exception {
+		this.nfft = nfft;
+
+		int size = Integer.highestOneBit(nfft + noOfBins - 1);
+		if (size < nfft + noOfBins - 1) {
+			size *= 2;
+		}
+		Radix4FFT transform = new Radix4FFT(size);
+		this.fft = transform;
+
+		this.chirp = DspTableCache.get("czt.chirp", nfft, () -> chirp(nfft, zoom, lowestBin), zoom, lowestBin);
+		this.filter = DspTableCache.get("czt.filter", nfft, () -> filter(nfft, zoom, noOfBins, transform), zoom,
+				noOfBins);
+
+		this.re = new double[size];
+		this.im = new double[size];
+	}
+
+	/**
+	 * Chirp e^(-2*pi*i*(n*k0 + n^2/2)/(nfft*zoom)) for n = 0..nfft-1, where k0
+	 * is the first bin. Phases are calculated modulo 1 in integers, in units of 1 /
+	 * (2 * nfft * zoom), so they stay accurate for long frames.
+	 */
+	private static double[] chirp(int nfft, int zoom, int lowestBin) {
+		long period = 2L * nfft * zoom;
+		double[] res = new double[2 * nfft];
+		for (int n = 0; n < nfft; n++) {
+			long phase = ((2L * n * lowestBin + (long) n * n) % period + period) % period;
+			double angle = -2 * Math.PI * phase / period;
+			res[2 * n] = Math.cos(angle);
+			res[2 * n + 1] = Math.sin(angle);
+		}
+		return res;
+	}
+
+	/**
+	 * Transform of the conjugated chirp e^(2*pi*i*(m^2/2)/(nfft*zoom)) for lags m
+	 * from -(nfft-1) to noOfBins-1, stored circularly
+	 */
+	private static double[] filter(int nfft, int zoom, int noOfBins, Radix4FFT fft) {
+		int size = fft.getSize();
+		long period = 2L * nfft * zoom;
+		double[] hr = new double[size];
+		double[] hi = new double[size];
+		for (int m = -(nfft - 1); m < noOfBins; m++) {
+			double angle = 2 * Math.PI * ((long) m * m % period) / period;
+			int ind = m < 0 ? m + size : m;
+			hr[ind] = Math.cos(angle);
+			hi[ind] = Math.sin(angle);
+		}
+		fft.fft(hr, hi);
+
+		double[] res = new double[2 * size];
+		for (int k = 0; k < size; k++) {
+			res[2 * k] = hr[k];
+			res[2 * k + 1] = hi[k];
+		}
+		return res;
+	}
+
+	@Override
+	public void calculatePower(double[] x, double[] ampl) {
+		for (int n = 0; n < nfft; n++) {
+			re[n] = x[n] * chirp[2 * n];
+			im[n] = x[n] * chirp[2 * n + 1];
+		}
+		convolve();
+
+		double scale = 1.0 / ((double) re.length * re.length);
+		for (int k = 0; k < ampl.length; k++) {
+			ampl[k] = (re[k] * re[k] + im[k] * im[k]) * scale;
+		}
+	}
+
+	@Override
+	public void calculatePower(float[] x, float[] ampl) {
+		for (int n = 0; n < nfft; n++) {
+			re[n] = x[n] * chirp[2 * n];
+			im[n] = x[n] * chirp[2 * n + 1];
+		}
+		convolve();
+
+		double scale = 1.0 / ((double) re.length * re.length);
+		for (int k = 0; k < ampl.length; k++) {
+			ampl[k] = (float) ((re[k] * re[k] + im[k] * im[k]) * scale);
+		}
+	}
+
+	@Override
+	public int calculatePower(int[] x, long[] ampl) {
+		throw new IllegalStateException("Zoom detector does not support " + Precision.Q15 + " precision!");
+	}
+
+	/**
+	 * Convolves the chirped frame in the work buffers with the conjugated chirp.
+	 * Inverse transform is calculated as the forward transform of the conjugate,
+	 * which gives conjugated and not scaled result with the same magnitude.
+	 */
+	private void convolve() {
+		int size = re.length;
+		for (int n = nfft; n < size; n++) {
+			re[n] = 0;
+			im[n] = 0;
+		}
+
+		fft.fft(re, im);
+		for (int k = 0; k < size; k++) {
+			double c = filter[2 * k];
+			double s = filter[2 * k + 1];
+			double r = c * re[k] - s * im[k];
+			double i = s * re[k] + c * im[k];
+			re[k] = r;
+			im[k] = -i;
+		}
+		fft.fft(re, im);
+	}
+
+	@Override
+	public DetectorType getType() {
+		return DetectorType.ZOOM;
+	}
+
+}
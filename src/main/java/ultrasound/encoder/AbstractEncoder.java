@@ -1,14 +1,15 @@
 package ultrasound.encoder;
 
 import java.security.InvalidAlgorithmParameterException;
-import java.util.Arrays;
 import java.util.regex.Pattern;
 
-import org.apache.commons.lang3.ArrayUtils;
-
 import ultrasound.AbstractCoder;
 import ultrasound.ICoder;
 import ultrasound.dataframe.IDataFrame;
+import ultrasound.utils.BitStream;
+import ultrasound.utils.DspKernels;
+import ultrasound.utils.DspTableCache;
+import ultrasound.utils.SecdedCodec;
 import ultrasound.utils.UltrasoundHelper;
 import ultrasound.utils.log.EncoderLogger;
 
@@ -23,8 +24,8 @@ public abstract class AbstractEncoder extends AbstractCoder implements IEncoder
 
 	protected String hexData = "";
 
-	protected boolean[] signalBinEncoded;
-	private boolean[] signalBin;
+	protected BitStream signalBinEncoded;
+	private BitStream signalBin;
 
 	/**
 	 * Internal constructor for a new abstract encoder/decoder object. To
@@ -49,11 +50,12 @@ public abstract class AbstractEncoder extends AbstractCoder implements IEncoder
 		}
 
 		N = (int) Math.ceil((tOnePulse + tBreak) * sampleRate);
-		sines = new short[noOfChannels][2][N];
+		sines = new short[noOfChannels][2][];
 
+		// Tones are shared with other encoders of the same configuration
 		for (int i = 0; i < noOfChannels; i++) {
-			sines[i][0] = genTone(freq[i][0]);
-			sines[i][1] = genTone(freq[i][1]);
+			sines[i][0] = getTone(freq[i][0]);
+			sines[i][1] = getTone(freq[i][1]);
 		}
 	}
 	
@@ -134,7 +136,7 @@ public abstract class AbstractEncoder extends AbstractCoder implements IEncoder
 				convertHexSignalToBinary();
 				break;
 			case DATA_FRAME: 
-				signalBin = UltrasoundHelper.byte2bin(frame.get());
+				signalBin = BitStream.valueOf(frame.get());
 				break;
 			default:
 				return;
@@ -142,59 +144,74 @@ public abstract class AbstractEncoder extends AbstractCoder implements IEncoder
 
 		// Hamming code
 		if (isSecdedEnabled()) {
-			signalBinEncoded = new boolean[signalBin.length * 2];
-			int pos = 0;
-			for (int i = 3; i < signalBin.length; i += 4) {
-				boolean[] oneByte = Arrays.copyOfRange(signalBin, i - 3, i + 1);
-				boolean[] oneByteEncoded = UltrasoundHelper.encHamming(oneByte);
-				for (int j = 0; j < 8; j++) {
-					signalBinEncoded[pos] = oneByteEncoded[j];
-					pos++;
-				}
+			signalBinEncoded = new BitStream(signalBin.length() * 2);
+			for (int i = 3; i < signalBin.length(); i += 4) {
+				int nibble = (int) signalBin.readBits(i - 3, 4);
+				signalBinEncoded.append(SecdedCodec.encode(nibble), 8);
 			}
 		} else {
 			signalBinEncoded = signalBin;
 		}
 
 		// Soundfile generation
-		int bytePos = 0;
 
 		//playSound(genTone(40));
 
-		for (int i = 0; i < signalBinEncoded.length / noOfChannels; i++) {
+		for (int i = 0; i < signalBinEncoded.length() / noOfChannels; i++) {
 			
 			if(!isRunning) {
 				break;
 			}
 
-			short[] curTactSig = new short[N];
-			for (int j = 0; j < noOfChannels; j++) {
-
-				int freqInd = signalBinEncoded[bytePos] ? 1 : 0;
-				curTactSig = UltrasoundHelper.sumShortArrays(curTactSig,
-						UltrasoundHelper.multiplyArrayByFactor(sines[j][freqInd], 1 / (double) noOfChannels));
-				bytePos++;
-			}
-
-			playSound(curTactSig);
+			playSound(genSymbol(i * noOfChannels));
 
 		}
 		//playSound(genTone(40));
 		isRunning = false;
 	}
+
+	/**
+	 * Generates audio data of one transmission symbol. Tones of all channels are
+	 * mixed with equal amplitudes.
+	 * 
+	 * @param bitPos position of the symbol's first bit in
+	 *               {@link AbstractEncoder#signalBinEncoded}
+	 * @return {@code short[]} array with samples of the symbol
+	 */
+	short[] genSymbol(int bitPos) {
+		short[] curTactSig = new short[N];
+		for (int j = 0; j < noOfChannels; j++) {
+
+			int freqInd = signalBinEncoded.get(bitPos + j) ? 1 : 0;
+			DspKernels.mix(sines[j][freqInd], 0, 1 / (double) noOfChannels, curTactSig, 0, N);
+		}
+		return curTactSig;
+	}
 	
 	private void convertHexSignalToBinary() {
 		// Signal conversion form hex to binary
-		signalBin = UltrasoundHelper.binArrayFromBinStr(UltrasoundHelper.hex2bin(hexData));
+		signalBin = BitStream.valueOf(UltrasoundHelper.binArrayFromBinStr(UltrasoundHelper.hex2bin(hexData)));
 
-		int pad = (2 * signalBin.length) % noOfChannels;
+		int pad = (2 * signalBin.length()) % noOfChannels;
 		if (pad != 0) {
-			boolean[] zeros = new boolean[noOfChannels - pad / 2];
-			Arrays.fill(zeros, false);
-			signalBin = ArrayUtils.addAll(signalBin, zeros);
+			for (int i = 0; i < noOfChannels - pad / 2; i++) {
+				signalBin.append(false);
+			}
 		}
 	}
 
+	/**
+	 * Returns tone of given frequency from {@link DspTableCache}, it is generated
+	 * with {@link #genTone(double)} on first use. The returned array is shared and
+	 * must not be modified.
+	 * 
+	 * @param freq frequency of signal [Hz]
+	 * @return {@code short[]} array with samples of the tone
+	 */
+	private short[] getTone(double freq) {
+		return DspTableCache.get("tone", N, () -> genTone(freq), sampleRate, freq, tBreak, fadeLength);
+	}
+
 	/**
 	 * Helper's method used to generate tone data of given frequency with silence
 	 * before and after signal
@@ -202,7 +219,7 @@ public abstract class AbstractEncoder extends AbstractCoder implements IEncoder
 	 * @param freq frequency of signal to be generated [Hz]
 	 * @return {@code short[]} array with samples of generated signal
 	 */
-	private short[] genTone(double freq) {
+	short[] genTone(double freq) {
 
 		int Nbreak = (int) Math.ceil(tBreak / 2.0 * sampleRate);
 		int Nsig = N - 2 * Nbreak;
@@ -271,15 +288,18 @@ public abstract class AbstractEncoder extends AbstractCoder implements IEncoder
 	}
 
 	public boolean[] getBinaryMessage() {
-		return signalBinEncoded;
+		if (signalBinEncoded == null) {
+			return null;
+		}
+		return signalBinEncoded.toBooleanArray();
 	}
 
 	public String getBinaryMessageString() {
-		return UltrasoundHelper.binStrFromBinArray(signalBin);
+		return signalBin.toString();
 	}
 
 	public String getHexMessageString() {
-		return UltrasoundHelper.bin2hex(signalBin);
+		return UltrasoundHelper.bin2hex(signalBin.toBooleanArray());
 	}
 
 }
@@ -0,0 +1,243 @@
+package ultrasound.utils;
+
+import java.lang.reflect.Array;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free single-producer/single-consumer ring buffer for primitive audio
+ * samples. Exactly one thread may write to the buffer and exactly one (other)
+ * thread may read from it.
+ *
+ * Positions of the producer and the consumer are kept as {@code long}
+ * sequences, so they never wrap. Both sequences are stored in one
+ * {@link AtomicLongArray} with enough padding between them to keep them in
+ * separate cache lines. Samples are published with ordered writes of the
+ * sequences, so the consumer always sees samples written before the sequence
+ * has been updated.
+ *
+ * Use a typed implementation: {@link ShortRingBuffer}, {@link FloatRingBuffer}
+ * or {@link DoubleRingBuffer}.
+ */
+public abstract class AbstractRingBuffer {
+
+	// 16 longs = 128 bytes, it covers also adjacent cache line prefetch
+	private static final int PAD = 16;
+
+	// Producer's cache line
+	private static final int WRITE_SEQUENCE = PAD;
+	private static final int CACHED_READ_SEQUENCE = PAD + 1;
+	private static final int OVERRUN_COUNT = PAD + 2;
+
+	// Consumer's cache line
+	private static final int READ_SEQUENCE = 2 * PAD;
+	private static final int CACHED_WRITE_SEQUENCE = 2 * PAD + 1;
+	private static final int UNDERRUN_COUNT = 2 * PAD + 2;
+
+	private final AtomicLongArray sequences;
+
+	private final Object buffer;
+	private final int capacity;
+	private final int mask;
+
+	/**
+	 * @param buffer array used to store samples, its length has to be a power of 2
+	 */
+	protected AbstractRingBuffer(Object buffer) {
+		int capacity = Array.getLength(buffer);
+		if (capacity < 1 || (capacity & (capacity - 1)) != 0) {
+			throw new IllegalArgumentException("Ring buffer capacity must be a power of 2! Is " + capacity);
+		}
+		this.buffer = buffer;
+		this.capacity = capacity;
+		this.mask = capacity - 1;
+		this.sequences = new AtomicLongArray(3 * PAD);
+	}
+
+	/**
+	 * Returns the lowest power of 2 which is not less than given capacity
+	 *
+	 * @param capacity requested capacity
+	 * @return capacity rounded up to a power of 2
+	 */
+	protected static int roundUpToPowerOf2(int capacity) {
+		if (capacity < 1 || capacity > (1 << 30)) {
+			throw new IllegalArgumentException("Ring buffer capacity must be between 1 and 2^30! Is " + capacity);
+		}
+		int rounded = 1;
+		while (rounded < capacity) {
+			rounded <<= 1;
+		}
+		return rounded;
+	}
+
+	/**
+	 * Copies samples from the array to the buffer. Can be called only by the
+	 * producer thread. Samples which do not fit in the buffer are dropped and
+	 * counted as overrun, unless {@code exactly} is set.
+	 *
+	 * @param src     source array of the same type as the buffer
+	 * @param off     index of the first sample in source array
+	 * @param len     number of samples to write
+	 * @param exactly when {@code true}, samples are written only if all of them
+	 *                fit in the buffer. Nothing is dropped in this case, so it is
+	 *                not counted as overrun
+	 * @return number of written samples
+	 */
+	protected final int writeArray(Object src, int off, int len, boolean exactly) {
+		long write = sequences.get(WRITE_SEQUENCE);
+		long free = capacity - (write - sequences.get(CACHED_READ_SEQUENCE));
+		if (free < len) {
+			long read = sequences.get(READ_SEQUENCE);
+			sequences.lazySet(CACHED_READ_SEQUENCE, read);
+			free = capacity - (write - read);
+		}
+
+		int n = (int) Math.min(len, free);
+		if (n < len) {
+			if (exactly) {
+				return 0;
+			}
+			sequences.lazySet(OVERRUN_COUNT, sequences.get(OVERRUN_COUNT) + (len - n));
+		}
+		if (n == 0) {
+			return 0;
+		}
+
+		int pos = (int) (write & mask);
+		int first = Math.min(n, capacity - pos);
+		copyIn(src, off, buffer, pos, first);
+		copyIn(src, off + first, buffer, 0, n - first);
+
+		sequences.lazySet(WRITE_SEQUENCE, write + n);
+		return n;
+	}
+
+	/**
+	 * Copies samples from the source to the array of the buffer. Segments are
+	 * copied in order of the source. Override to support other sources than
+	 * arrays.
+	 *
+	 * @param src    source of samples
+	 * @param srcOff index of the first sample in source
+	 * @param buffer array of the buffer
+	 * @param pos    index of the first sample in the array of the buffer
+	 * @param len    number of samples to copy
+	 */
+	protected void copyIn(Object src, int srcOff, Object buffer, int pos, int len) {
+		System.arraycopy(src, srcOff, buffer, pos, len);
+	}
+
+	/**
+	 * Copies samples from the buffer to the array. Can be called only by the
+	 * consumer thread. When there are less samples available than requested it
+	 * is counted as underrun.
+	 *
+	 * @param dst     destination array of the same type as the buffer
+	 * @param off     index of the first sample in destination array
+	 * @param len     number of samples to read
+	 * @param exactly when {@code true}, samples are read only if all requested
+	 *                samples are available
+	 * @return number of read samples
+	 */
+	protected final int readArray(Object dst, int off, int len, boolean exactly) {
+		long read = sequences.get(READ_SEQUENCE);
+		long available = sequences.get(CACHED_WRITE_SEQUENCE) - read;
+		if (available < len) {
+			long write = sequences.get(WRITE_SEQUENCE);
+			sequences.lazySet(CACHED_WRITE_SEQUENCE, write);
+			available = write - read;
+		}
+
+		int n = (int) Math.min(len, available);
+		if (n < len) {
+			sequences.lazySet(UNDERRUN_COUNT, sequences.get(UNDERRUN_COUNT) + 1);
+			if (exactly) {
+				return 0;
+			}
+		}
+		if (n == 0) {
+			return 0;
+		}
+
+		int pos = (int) (read & mask);
+		int first = Math.min(n, capacity - pos);
+		System.arraycopy(buffer, pos, dst, off, first);
+		System.arraycopy(buffer, 0, dst, off + first, n - first);
+
+		sequences.lazySet(READ_SEQUENCE, read + n);
+		return n;
+	}
+
+	/**
+	 * Checks if the range is inside the array
+	 */
+	protected static void checkBounds(int arrayLength, int off, int len) {
+		if (off < 0 || len < 0 || off + len > arrayLength || off + len < 0) {
+			throw new IndexOutOfBoundsException(
+					"Offset: " + off + ", length: " + len + ", array length: " + arrayLength);
+		}
+	}
+
+	/**
+	 * Get maximal number of samples stored in the buffer
+	 *
+	 * @return {@code int} capacity of the buffer
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Get number of samples available for reading. When called concurrently with
+	 * producer or consumer, the value may be already outdated.
+	 *
+	 * @return {@code int} number of samples in the buffer
+	 */
+	public int size() {
+		long read = sequences.get(READ_SEQUENCE);
+		long write = sequences.get(WRITE_SEQUENCE);
+		return (int) Math.max(0, Math.min(capacity, write - read));
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Get total number of samples written to the buffer since its creation
+	 *
+	 * @return {@code long} producer's sequence
+	 */
+	public long getWriteSequence() {
+		return sequences.get(WRITE_SEQUENCE);
+	}
+
+	/**
+	 * Get total number of samples read from the buffer since its creation
+	 *
+	 * @return {@code long} consumer's sequence
+	 */
+	public long getReadSequence() {
+		return sequences.get(READ_SEQUENCE);
+	}
+
+	/**
+	 * Get number of samples dropped by the producer because the buffer was full
+	 *
+	 * @return {@code long} number of dropped samples
+	 */
+	public long getOverrunCount() {
+		return sequences.get(OVERRUN_COUNT);
+	}
+
+	/**
+	 * Get number of read requests which could not be completely satisfied because
+	 * there were not enough samples in the buffer
+	 *
+	 * @return {@code long} number of underruns
+	 */
+	public long getUnderrunCount() {
+		return sequences.get(UNDERRUN_COUNT);
+	}
+
+}
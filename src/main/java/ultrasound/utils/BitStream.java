@@ -0,0 +1,257 @@
+package ultrasound.utils;
+
+import java.util.Arrays;
+
+/**
+ * Growable sequence of bits packed in a {@code long[]}. Bits are stored in
+ * transmission order, the first bit of the stream is the most significant bit
+ * of the first word. Appending a bit is amortized O(1) and takes 1/8 of the
+ * memory of a {@code boolean[]}.
+ */
+public final class BitStream {
+
+	private static final int DEFAULT_CAPACITY = 64;
+
+	private long[] words;
+	private int length;
+
+	/**
+	 * Creates an empty bit stream
+	 */
+	public BitStream() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty bit stream
+	 *
+	 * @param capacity initial capacity in bits
+	 */
+	public BitStream(int capacity) {
+		this.words = new long[Math.max(1, (capacity + Long.SIZE - 1) / Long.SIZE)];
+		this.length = 0;
+	}
+
+	/**
+	 * Creates a new bit stream from array of boolean binary values
+	 *
+	 * @param bits array of boolean binary values
+	 * @return new {@link BitStream}
+	 */
+	public static BitStream valueOf(boolean[] bits) {
+		BitStream stream = new BitStream(bits.length);
+		stream.append(bits);
+		return stream;
+	}
+
+	/**
+	 * Creates a new bit stream from array of bytes. Every byte is appended starting
+	 * from its most significant bit.
+	 *
+	 * @param bytes array of bytes
+	 * @return new {@link BitStream}
+	 */
+	public static BitStream valueOf(byte[] bytes) {
+		BitStream stream = new BitStream(bytes.length * Byte.SIZE);
+		for (byte b : bytes) {
+			stream.append(b & 0xFF, Byte.SIZE);
+		}
+		return stream;
+	}
+
+	/**
+	 * Get number of bits in the stream
+	 *
+	 * @return {@code int} number of bits
+	 */
+	public int length() {
+		return length;
+	}
+
+	public boolean isEmpty() {
+		return length == 0;
+	}
+
+	/**
+	 * Get value of one bit
+	 *
+	 * @param index position of the bit in the stream
+	 * @return {@code true} if bit is set
+	 */
+	public boolean get(int index) {
+		checkRange(index, 1);
+		return (words[index >>> 6] << (index & 63)) < 0;
+	}
+
+	/**
+	 * Appends one bit at the end of the stream
+	 *
+	 * @param bit value of the bit
+	 */
+	public void append(boolean bit) {
+		ensureCapacity(length + 1);
+		if (bit) {
+			words[length >>> 6] |= Long.MIN_VALUE >>> (length & 63);
+		}
+		length++;
+	}
+
+	/**
+	 * Appends given number of the lowest bits of the value, starting from the most
+	 * significant of them.
+	 *
+	 * @param bits  value containing bits to append
+	 * @param count number of bits to append, from 0 to 64
+	 */
+	public void append(long bits, int count) {
+		if (count < 0 || count > Long.SIZE) {
+			throw new IllegalArgumentException("Bit count must be between 0 and 64! Is " + count);
+		}
+		if (count == 0) {
+			return;
+		}
+		ensureCapacity(length + count);
+		long aligned = bits << (Long.SIZE - count);
+		int offset = length & 63;
+		int word = length >>> 6;
+		words[word] |= aligned >>> offset;
+		if (offset + count > Long.SIZE) {
+			words[word + 1] |= aligned << (Long.SIZE - offset);
+		}
+		length += count;
+	}
+
+	/**
+	 * Appends array of boolean binary values at the end of the stream
+	 *
+	 * @param bits array of boolean binary values
+	 */
+	public void append(boolean[] bits) {
+		ensureCapacity(length + bits.length);
+		for (boolean bit : bits) {
+			append(bit);
+		}
+	}
+
+	/**
+	 * Appends all bits of other stream at the end of this stream
+	 *
+	 * @param other {@link BitStream} to append
+	 */
+	public void append(BitStream other) {
+		ensureCapacity(length + other.length);
+		int otherLength = other.length;
+		for (int pos = 0; pos < otherLength; pos += Long.SIZE) {
+			int count = Math.min(Long.SIZE, otherLength - pos);
+			append(other.readBits(pos, count), count);
+		}
+	}
+
+	/**
+	 * Reads given number of bits as an unsigned value. The first read bit will be
+	 * the most significant bit of the result.
+	 *
+	 * @param index position of the first bit to read
+	 * @param count number of bits to read, from 1 to 64
+	 * @return {@code long} value of the bits
+	 */
+	public long readBits(int index, int count) {
+		if (count < 1 || count > Long.SIZE) {
+			throw new IllegalArgumentException("Bit count must be between 1 and 64! Is " + count);
+		}
+		checkRange(index, count);
+		int offset = index & 63;
+		int word = index >>> 6;
+		long value = words[word] << offset;
+		if (offset + count > Long.SIZE) {
+			value |= words[word + 1] >>> (Long.SIZE - offset);
+		}
+		return value >>> (Long.SIZE - count);
+	}
+
+	/**
+	 * Returns a new stream containing bits from the given range
+	 *
+	 * @param from index of the first bit, inclusive
+	 * @param to   index of the last bit, exclusive
+	 * @return new {@link BitStream}
+	 */
+	public BitStream slice(int from, int to) {
+		if (from > to) {
+			throw new IllegalArgumentException("Slice start " + from + " is greater than end " + to);
+		}
+		checkRange(from, to - from);
+		BitStream slice = new BitStream(to - from);
+		for (int pos = from; pos < to; pos += Long.SIZE) {
+			int count = Math.min(Long.SIZE, to - pos);
+			slice.append(readBits(pos, count), count);
+		}
+		return slice;
+	}
+
+	/**
+	 * Removes all bits from the stream. Allocated memory is kept for reuse.
+	 */
+	public void clear() {
+		Arrays.fill(words, 0, (length + Long.SIZE - 1) >>> 6, 0L);
+		length = 0;
+	}
+
+	/**
+	 * Converts the stream to array of boolean binary values
+	 *
+	 * @return array of boolean binary values
+	 */
+	public boolean[] toBooleanArray() {
+		boolean[] bits = new boolean[length];
+		for (int i = 0; i < length; i++) {
+			bits[i] = get(i);
+		}
+		return bits;
+	}
+
+	/**
+	 * Converts the stream to array of bytes. Length of the stream has to be a
+	 * multiple of 8
+	 *
+	 * @return array of bytes
+	 * @throws IllegalArgumentException when length of the stream is not a multiple
+	 *                                  of 8
+	 */
+	public byte[] toByteArray() {
+		if (length % Byte.SIZE != 0) {
+			throw new IllegalArgumentException("Bin array length mismatch! " + toString());
+		}
+		byte[] bytes = new byte[length / Byte.SIZE];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) readBits(i * Byte.SIZE, Byte.SIZE);
+		}
+		return bytes;
+	}
+
+	/**
+	 * Returns bits of the stream formatted as '0' and '1'
+	 */
+	@Override
+	public String toString() {
+		char[] binStr = new char[length];
+		for (int i = 0; i < length; i++) {
+			binStr[i] = get(i) ? UltrasoundHelper.HIGH_VAL : UltrasoundHelper.LOW_VAL;
+		}
+		return String.valueOf(binStr);
+	}
+
+	private void ensureCapacity(int bits) {
+		int required = (bits + Long.SIZE - 1) >>> 6;
+		if (required > words.length) {
+			words = Arrays.copyOf(words, Math.max(required, words.length * 2));
+		}
+	}
+
+	private void checkRange(int index, int count) {
+		if (index < 0 || index + count > length) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", count: " + count + ", length: " + length);
+		}
+	}
+
+}
@@ -5,7 +5,11 @@ package ultrasound.utils;
  * https://github.com/eugenp/tutorials/blob/master/data-structures/src/main/java/com/baeldung/circularbuffer/CircularBuffer.java
  * 
  * @param <E>
+ * @deprecated it is not safe to use between threads and its sequences overflow.
+ *             For audio samples use {@link ShortRingBuffer} or
+ *             {@link FloatRingBuffer}
  */
+@Deprecated
 public class CircularBuffer<E> {
 
 	private static final int DEFAULT_CAPACITY = 8;
@@ -0,0 +1,174 @@
+package ultrasound.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Streaming reader of audio samples stored as integers in a CSV file. Values
+ * may be separated with commas, semicolons or white characters. Characters are
+ * parsed straight from a byte buffer, no {@link String} is created per value.
+ */
+public final class CsvSampleReader implements Closeable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int INITIAL_CAPACITY = 1 << 12;
+
+	private final ReadableByteChannel channel;
+	private final ByteBuffer buf;
+	private final byte[] bytes;
+	private int pos;
+	private int limit;
+	private boolean endOfInput;
+	private long valueIndex;
+
+	/**
+	 * @param channel channel with CSV data, it is closed together with the reader
+	 */
+	public CsvSampleReader(ReadableByteChannel channel) {
+		this.channel = channel;
+		this.bytes = new byte[BUFFER_SIZE];
+		this.buf = ByteBuffer.wrap(bytes);
+	}
+
+	/**
+	 * @param file CSV file
+	 * @throws IOException when file could not be opened
+	 */
+	public CsvSampleReader(File file) throws IOException {
+		this(FileChannel.open(file.toPath(), StandardOpenOption.READ));
+	}
+
+	/**
+	 * Reads all samples of CSV file
+	 * 
+	 * @param file CSV file
+	 * @return audio samples
+	 * @throws IOException when file could not be read or contains invalid value
+	 */
+	public static short[] readAll(File file) throws IOException {
+		try (CsvSampleReader reader = new CsvSampleReader(file)) {
+			short[] data = new short[INITIAL_CAPACITY];
+			int length = 0;
+			while (true) {
+				if (length == data.length) {
+					data = Arrays.copyOf(data, 2 * data.length);
+				}
+				int n = reader.read(data, length, data.length - length);
+				if (n < 0) {
+					return Arrays.copyOf(data, length);
+				}
+				length += n;
+			}
+		}
+	}
+
+	/**
+	 * Reads next samples. Values are cast to {@code short} like
+	 * {@code (short) Integer.parseInt(value)}.
+	 * 
+	 * @param dst destination array
+	 * @param off index of the first sample in destination array
+	 * @param len maximal number of samples to read
+	 * @return number of read samples or -1 at the end of the file
+	 * @throws IOException when file could not be read or contains invalid value
+	 */
+	public int read(short[] dst, int off, int len) throws IOException {
+		int n = 0;
+		while (n < len) {
+			if (!skipSeparators()) {
+				break;
+			}
+			dst[off + n] = (short) parseValue();
+			n++;
+		}
+		return n == 0 && len > 0 ? -1 : n;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Skips separators before the next value
+	 * 
+	 * @return {@code false} at the end of the file
+	 */
+	private boolean skipSeparators() throws IOException {
+		while (pos < limit || fill()) {
+			if (!isSeparator(bytes[pos])) {
+				return true;
+			}
+			pos++;
+		}
+		return false;
+	}
+
+	private int parseValue() throws IOException {
+		boolean negative = false;
+		byte b = bytes[pos];
+		if (b == '-' || b == '+') {
+			negative = b == '-';
+			pos++;
+		}
+		long value = 0;
+		int digits = 0;
+		while (pos < limit || fill()) {
+			b = bytes[pos];
+			if (b >= '0' && b <= '9') {
+				value = value * 10 + (b - '0');
+				if (value > Integer.MAX_VALUE + 1L) {
+					throw new IOException("Value " + valueIndex + " is out of range!");
+				}
+				digits++;
+				pos++;
+			} else if (isSeparator(b)) {
+				break;
+			} else {
+				throw new IOException("Invalid character '" + (char) b + "' in value " + valueIndex + "!");
+			}
+		}
+		if (digits == 0) {
+			throw new IOException("Value " + valueIndex + " has no digits!");
+		}
+		if (!negative && value > Integer.MAX_VALUE) {
+			throw new IOException("Value " + valueIndex + " is out of range!");
+		}
+		valueIndex++;
+		return (int) (negative ? -value : value);
+	}
+
+	/**
+	 * Reads next bytes to the empty buffer
+	 * 
+	 * @return {@code false} at the end of the file
+	 */
+	private boolean fill() throws IOException {
+		if (endOfInput) {
+			return false;
+		}
+		buf.clear();
+		int n;
+		do {
+			n = channel.read(buf);
+		} while (n == 0);
+		pos = 0;
+		limit = Math.max(0, n);
+		if (n < 0) {
+			endOfInput = true;
+			return false;
+		}
+		return true;
+	}
+
+	private static boolean isSeparator(byte b) {
+		return b == ',' || b == ';' || b == ' ' || b == '\t' || b == '\r' || b == '\n';
+	}
+
+}
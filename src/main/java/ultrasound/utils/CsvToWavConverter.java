@@ -0,0 +1,53 @@
+package ultrasound.utils;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Converts recordings stored as CSV files to mono 16 bit PCM WAV files. Every
+ * WAV file is saved next to its CSV file.
+ *
+ * Usage: {@code CsvToWavConverter <sample rate> <CSV file or directory>...}
+ */
+public final class CsvToWavConverter {
+
+	private CsvToWavConverter() {
+
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: CsvToWavConverter <sample rate> <CSV file or directory>...");
+			System.exit(1);
+		}
+		int sampleRate = Integer.parseInt(args[0]);
+		for (int i = 1; i < args.length; i++) {
+			convert(new File(args[i]), sampleRate);
+		}
+	}
+
+	/**
+	 * Converts CSV file or all CSV files in the directory
+	 * 
+	 * @param file       CSV file or directory
+	 * @param sampleRate sample rate of the recordings in Hz
+	 * @throws IOException when any file could not be converted
+	 */
+	public static void convert(File file, int sampleRate) throws IOException {
+		if (file.isDirectory()) {
+			File[] files = file.listFiles((dir, name) -> name.toLowerCase().endsWith(".csv"));
+			if (files != null) {
+				for (File csvFile : files) {
+					convert(csvFile, sampleRate);
+				}
+			}
+			return;
+		}
+		String name = file.getName();
+		int dot = name.lastIndexOf('.');
+		File wavFile = new File(file.getParentFile(), (dot > 0 ? name.substring(0, dot) : name) + ".wav");
+		FileUtil.convertCsvToWav(file, wavFile, sampleRate);
+		System.out.println("Saved " + wavFile.getAbsolutePath());
+	}
+
+}
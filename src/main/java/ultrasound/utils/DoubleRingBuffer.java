@@ -0,0 +1,77 @@
+package ultrasound.utils;
+
+/**
+ * Lock-free single-producer/single-consumer ring buffer for {@code double}
+ * values. It is used to pass blocks of analysis results between decoder's
+ * threads. See {@link AbstractRingBuffer} for details.
+ */
+public final class DoubleRingBuffer extends AbstractRingBuffer {
+
+	/**
+	 * Creates a new ring buffer
+	 *
+	 * @param capacity minimal number of samples stored in the buffer, it will be
+	 *                 rounded up to a power of 2
+	 */
+	public DoubleRingBuffer(int capacity) {
+		super(new double[roundUpToPowerOf2(capacity)]);
+	}
+
+	/**
+	 * Writes samples to the buffer. Can be called only by the producer thread.
+	 * Samples which do not fit in the buffer are dropped and counted as overrun.
+	 *
+	 * @param src source array
+	 * @param off index of the first sample in source array
+	 * @param len number of samples to write
+	 * @return number of written samples
+	 */
+	public int write(double[] src, int off, int len) {
+		checkBounds(src.length, off, len);
+		return writeArray(src, off, len, false);
+	}
+
+	/**
+	 * Writes all given samples to the buffer or nothing when there is not enough
+	 * free space. Can be called only by the producer thread.
+	 *
+	 * @param src source array
+	 * @param off index of the first sample in source array
+	 * @param len number of samples to write
+	 * @return {@code true} when samples have been written
+	 */
+	public boolean writeFully(double[] src, int off, int len) {
+		checkBounds(src.length, off, len);
+		return writeArray(src, off, len, true) == len;
+	}
+
+	/**
+	 * Reads available samples from the buffer, but not more than requested. Can be
+	 * called only by the consumer thread.
+	 *
+	 * @param dst destination array
+	 * @param off index of the first sample in destination array
+	 * @param len maximal number of samples to read
+	 * @return number of read samples
+	 */
+	public int read(double[] dst, int off, int len) {
+		checkBounds(dst.length, off, len);
+		return readArray(dst, off, len, false);
+	}
+
+	/**
+	 * Reads exactly the requested number of samples. When there are not enough
+	 * samples in the buffer nothing is read. Can be called only by the consumer
+	 * thread.
+	 *
+	 * @param dst destination array
+	 * @param off index of the first sample in destination array
+	 * @param len number of samples to read
+	 * @return {@code true} when samples have been read
+	 */
+	public boolean readFully(double[] dst, int off, int len) {
+		checkBounds(dst.length, off, len);
+		return readArray(dst, off, len, true) == len;
+	}
+
+}
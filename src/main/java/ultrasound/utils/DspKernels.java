@@ -0,0 +1,226 @@
+package ultrasound.utils;
+
+/**
+ * Hot loops of the encoder and decoders: conversion and windowing of samples,
+ * power of spectrum bins, mixing of tones, radix-4 butterflies of
+ * {@link sw.Radix4FFT} and butterflies of frames transformed together by
+ * {@link sw.BatchFFT}. The project targets Java 8, so the loops are scalar,
+ * but the JAR is multi-release: on Java 17 and newer its versioned section
+ * contains an implementation using SIMD instructions through the Vector API.
+ * The Vector API is an incubator module, so it is used only when the
+ * application is started with {@code --add-modules jdk.incubator.vector},
+ * otherwise and on older runtimes the scalar loops are used. Both
+ * implementations give exactly the same results, as they do the same
+ * operations in the same order.
+ *
+ * The vector implementation can be switched off with system property
+ * {@code ultrasound.kernels=scalar}.
+ */
+public final class DspKernels {
+
+	/**
+	 * System property selecting the implementation, {@code scalar} switches off
+	 * the vector one
+	 */
+	public static final String PROPERTY = "ultrasound.kernels";
+
+	private static final String VECTOR_KERNELS = "ultrasound.utils.VectorKernels";
+
+	private static final ScalarKernels KERNELS = create(!"scalar".equals(System.getProperty(PROPERTY)));
+
+	private DspKernels() {
+	}
+
+	/**
+	 * @param vectorized {@code true} to use the vector implementation when the
+	 *                   runtime supports it
+	 * @return vector implementation of the versioned section of the JAR or
+	 *         scalar one when it can not be loaded
+	 */
+	static ScalarKernels create(boolean vectorized) {
+		if (vectorized) {
+			try {
+				return (ScalarKernels) Class.forName(VECTOR_KERNELS).getDeclaredConstructor().newInstance();
+			} catch (ReflectiveOperationException | LinkageError e) {
+				// Runtime older than Java 17 or the incubator module was not added
+			}
+		}
+		return new ScalarKernels();
+	}
+
+	/**
+	 * @return {@code true} when the vector implementation is used
+	 */
+	public static boolean isVectorized() {
+		return KERNELS.isVectorized();
+	}
+
+	/**
+	 * Converts samples to doubles from -1 to 1:
+	 * {@code dst[dstPos + i] = src[srcPos + i] / Short.MAX_VALUE}
+	 *
+	 * @param src    audio samples
+	 * @param srcPos index of the first sample
+	 * @param dst    output array
+	 * @param dstPos index of the first output value
+	 * @param len    number of samples
+	 */
+	public static void toDoubles(short[] src, int srcPos, double[] dst, int dstPos, int len) {
+		KERNELS.toDoubles(src, srcPos, dst, dstPos, len);
+	}
+
+	/**
+	 * Converts samples to doubles and multiplies them by the window:
+	 * {@code dst[pos + i] = src[srcPos + i] / Short.MAX_VALUE * window[pos + i]}
+	 *
+	 * @param src    audio samples
+	 * @param srcPos index of the first sample
+	 * @param window window function
+	 * @param dst    output array
+	 * @param pos    index of the first value of the window and of the output
+	 * @param len    number of samples
+	 */
+	public static void window(short[] src, int srcPos, double[] window, double[] dst, int pos, int len) {
+		KERNELS.window(src, srcPos, window, pos, dst, pos, len);
+	}
+
+	/**
+	 * Converts samples to doubles and multiplies them by the window:
+	 * {@code dst[dstPos + i] = src[srcPos + i] / Short.MAX_VALUE * window[windowPos + i]}
+	 *
+	 * @param src       audio samples
+	 * @param srcPos    index of the first sample
+	 * @param window    window function
+	 * @param windowPos index of the first value of the window
+	 * @param dst       output array
+	 * @param dstPos    index of the first output value
+	 * @param len       number of samples
+	 */
+	public static void window(short[] src, int srcPos, double[] window, int windowPos, double[] dst, int dstPos,
+			int len) {
+		KERNELS.window(src, srcPos, window, windowPos, dst, dstPos, len);
+	}
+
+	/**
+	 * Multiplies samples by the window:
+	 * {@code dst[pos + i] = src[srcPos + i] * window[pos + i]}
+	 *
+	 * @param src    samples
+	 * @param srcPos index of the first sample
+	 * @param window window function
+	 * @param dst    output array, it can be the same as src
+	 * @param pos    index of the first value of the window and of the output
+	 * @param len    number of samples
+	 */
+	public static void multiply(double[] src, int srcPos, double[] window, double[] dst, int pos, int len) {
+		KERNELS.multiply(src, srcPos, window, dst, pos, len);
+	}
+
+	/**
+	 * Calculates power of spectrum bins:
+	 * {@code dst[dstPos + i] = re[srcPos + i]^2 + im[srcPos + i]^2}
+	 *
+	 * @param re     real parts of bins
+	 * @param im     imaginary parts of bins
+	 * @param srcPos index of the first bin
+	 * @param dst    output array
+	 * @param dstPos index of the first output value
+	 * @param len    number of bins
+	 */
+	public static void power(double[] re, double[] im, int srcPos, double[] dst, int dstPos, int len) {
+		KERNELS.power(re, im, srcPos, dst, dstPos, len);
+	}
+
+	/**
+	 * Adds samples multiplied by the gain to the output, both the scaled samples
+	 * and the sums are truncated to short like in
+	 * {@link UltrasoundHelper#multiplyArrayByFactor(short[], double)} and
+	 * {@link UltrasoundHelper#sumShortArrays(short[], short[])}
+	 *
+	 * @param src    audio samples
+	 * @param srcPos index of the first sample
+	 * @param gain   factor of the samples
+	 * @param dst    output samples
+	 * @param dstPos index of the first output sample
+	 * @param len    number of samples
+	 */
+	public static void mix(short[] src, int srcPos, double gain, short[] dst, int dstPos, int len) {
+		KERNELS.mix(src, srcPos, gain, dst, dstPos, len);
+	}
+
+	/**
+	 * Radix-4 butterflies combining four transforms of size q, stored one after
+	 * another from pos, into one transform of size 4q. Twiddles of the stage are
+	 * stored from t in six rows of q values: real and imaginary parts of W^j,
+	 * W^2j and W^3j. Twiddles of butterfly 0 are 1 and are not read.
+	 *
+	 * @param x        real parts, transformed in place
+	 * @param y        imaginary parts, transformed in place
+	 * @param pos      index of the first sample of the four transforms
+	 * @param q        size of the combined transforms
+	 * @param twiddles table of twiddles
+	 * @param t        index of the first twiddle of the stage
+	 */
+	public static void radix4(double[] x, double[] y, int pos, int q, double[] twiddles, int t) {
+		KERNELS.radix4(x, y, pos, q, twiddles, t, 0, q);
+	}
+
+	/**
+	 * Radix-2 butterflies of frames stored in frame-interleaved layout, where
+	 * sample i of frame b is at index i * batch + b: sample at pos + b is
+	 * combined with sample at pos + stride + b for every frame b.
+	 *
+	 * @param x      real parts, transformed in place
+	 * @param y      imaginary parts, transformed in place
+	 * @param pos    index of the first sample of the first frame
+	 * @param stride distance between the two samples of a butterfly
+	 * @param frames number of frames
+	 */
+	public static void radix2Frames(double[] x, double[] y, int pos, int stride, int frames) {
+		KERNELS.radix2Frames(x, y, pos, stride, frames);
+	}
+
+	/**
+	 * Radix-4 butterflies of frames stored in frame-interleaved layout, see
+	 * {@link #radix2Frames(double[], double[], int, int, int)}. Samples at pos + b,
+	 * pos + stride + b, pos + 2 * stride + b and pos + 3 * stride + b are combined
+	 * for every frame b, like butterfly j of {@link #radix4}. All frames use the
+	 * same twiddles, which are read once.
+	 *
+	 * @param x        real parts, transformed in place
+	 * @param y        imaginary parts, transformed in place
+	 * @param pos      index of the first sample of the first frame
+	 * @param stride   distance between the four samples of a butterfly
+	 * @param frames   number of frames
+	 * @param twiddles table of twiddles in the layout of {@link #radix4},
+	 *                 {@code null} for butterfly 0 which has no twiddles
+	 * @param t        index of the real part of W^j in the table
+	 * @param q        length of the rows of the table
+	 */
+	public static void radix4Frames(double[] x, double[] y, int pos, int stride, int frames, double[] twiddles,
+			int t, int q) {
+		KERNELS.radix4Frames(x, y, pos, stride, frames, twiddles, t, q);
+	}
+
+	/**
+	 * Separates bin k of the spectra of even and odd samples of real frames
+	 * packed into complex ones, like {@link sw.RealFFT}, for every frame of the
+	 * frame-interleaved layout.
+	 *
+	 * @param zr     real parts of the spectrum of packed frames
+	 * @param zi     imaginary parts of the spectrum of packed frames
+	 * @param pos    index of bin k of the first frame
+	 * @param mirror index of bin n/2 - k of the first frame
+	 * @param cos    real part of e^(-2*pi*i*k/n)
+	 * @param sin    imaginary part of e^(-2*pi*i*k/n)
+	 * @param re     output array for real parts of bin k
+	 * @param im     output array for imaginary parts of bin k
+	 * @param dstPos index of bin k of the first frame in the output arrays
+	 * @param frames number of frames
+	 */
+	public static void realFrames(double[] zr, double[] zi, int pos, int mirror, double cos, double sin,
+			double[] re, double[] im, int dstPos, int frames) {
+		KERNELS.realFrames(zr, zi, pos, mirror, cos, sin, re, im, dstPos, frames);
+	}
+
+}
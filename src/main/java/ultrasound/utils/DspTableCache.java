@@ -0,0 +1,241 @@
+package ultrasound.utils;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cache of immutable DSP tables, like FFT twiddles, window functions and
+ * encoder tones, shared by all encoders and decoders with the same
+ * configuration. A table is built on first use and kept as long as any object
+ * references it: tables are weakly referenced, so they are released by the
+ * garbage collector together with the last encoder or decoder using them.
+ *
+ * Tables are returned without copying, so they must never be modified.
+ * The cache can be used concurrently from many threads.
+ */
+public final class DspTableCache {
+
+	/**
+	 * Snapshot of cache metrics
+	 */
+	public static final class Metrics {
+
+		private final long hits;
+		private final long misses;
+		private final int tables;
+		private final long retainedBytes;
+
+		Metrics(long hits, long misses, int tables, long retainedBytes) {
+			this.hits = hits;
+			this.misses = misses;
+			this.tables = tables;
+			this.retainedBytes = retainedBytes;
+		}
+
+		/**
+		 * @return number of requests served with an already built table
+		 */
+		public long getHits() {
+			return hits;
+		}
+
+		/**
+		 * @return number of requests which built a new table
+		 */
+		public long getMisses() {
+			return misses;
+		}
+
+		/**
+		 * @return number of tables which have not been released yet
+		 */
+		public int getTables() {
+			return tables;
+		}
+
+		/**
+		 * @return approximate size of arrays of the tables which have not been
+		 *         released yet
+		 */
+		public long getRetainedBytes() {
+			return retainedBytes;
+		}
+
+		@Override
+		public String toString() {
+			return "hits: " + hits + ", misses: " + misses + ", tables: " + tables + ", retained: " + retainedBytes
+					+ " B";
+		}
+	}
+
+	/**
+	 * Identifies a table by its type, size and all parameters it is built from
+	 */
+	private static final class Key {
+
+		private final String type;
+		private final int size;
+		private final double[] params;
+		private final int hash;
+
+		Key(String type, int size, double[] params) {
+			this.type = type;
+			this.size = size;
+			this.params = params.clone();
+			this.hash = 31 * (31 * type.hashCode() + size) + Arrays.hashCode(params);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return size == other.size && type.equals(other.type) && Arrays.equals(params, other.params);
+		}
+
+		@Override
+		public String toString() {
+			return type + "[" + size + "]" + Arrays.toString(params);
+		}
+	}
+
+	/**
+	 * Weak reference to a table which remembers its key, so the entry can be
+	 * removed when the table has been released
+	 */
+	private static final class Entry extends WeakReference<Object> {
+
+		private final Key key;
+		private final long bytes;
+
+		Entry(Key key, Object table, ReferenceQueue<Object> queue) {
+			super(table, queue);
+			this.key = key;
+			this.bytes = sizeOf(table);
+		}
+	}
+
+	private static final Map<Key, Entry> TABLES = new ConcurrentHashMap<>();
+	private static final ReferenceQueue<Object> RELEASED = new ReferenceQueue<>();
+
+	private static final LongAdder HITS = new LongAdder();
+	private static final LongAdder MISSES = new LongAdder();
+
+	private DspTableCache() {
+
+	}
+
+	/**
+	 * Returns the table with given type, size and parameters. It is built with
+	 * the factory when it is not in the cache yet. The factory may get other
+	 * tables from the cache. When a missing table is requested concurrently, it
+	 * may be built more than once, but all callers get the same instance.
+	 *
+	 * @param <T>     type of the table, usually a primitive array
+	 * @param type    name of the table, e.g. {@code "hamming"}
+	 * @param size    number of elements of the table
+	 * @param factory builds the table when it is not in the cache
+	 * @param params  all other parameters which the content of the table depends
+	 *                on
+	 * @return shared table, it must not be modified
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T get(String type, int size, Supplier<T> factory, double... params) {
+		expungeReleasedTables();
+
+		Key key = new Key(type, size, params);
+		Object table = dereference(TABLES.get(key));
+		if (table != null) {
+			HITS.increment();
+			return (T) table;
+		}
+
+		// The table is built outside of the map, so the factory can use the cache
+		T built = factory.get();
+		Entry entry = new Entry(key, built, RELEASED);
+		while (true) {
+			Entry previous = TABLES.putIfAbsent(key, entry);
+			if (previous == null) {
+				MISSES.increment();
+				return built;
+			}
+			table = previous.get();
+			if (table != null) {
+				// Another thread has built the same table first
+				HITS.increment();
+				return (T) table;
+			}
+			if (TABLES.replace(key, previous, entry)) {
+				MISSES.increment();
+				return built;
+			}
+		}
+	}
+
+	/**
+	 * Get current metrics of the cache
+	 *
+	 * @return {@link Metrics} snapshot
+	 */
+	public static Metrics getMetrics() {
+		expungeReleasedTables();
+
+		int tables = 0;
+		long bytes = 0;
+		for (Entry entry : TABLES.values()) {
+			if (entry.get() != null) {
+				tables++;
+				bytes += entry.bytes;
+			}
+		}
+		return new Metrics(HITS.sum(), MISSES.sum(), tables, bytes);
+	}
+
+	private static Object dereference(Entry entry) {
+		return entry == null ? null : entry.get();
+	}
+
+	/**
+	 * Removes entries of tables released by the garbage collector
+	 */
+	private static void expungeReleasedTables() {
+		Object released;
+		while ((released = RELEASED.poll()) != null) {
+			Entry entry = (Entry) released;
+			TABLES.remove(entry.key, entry);
+		}
+	}
+
+	/**
+	 * Estimates size of the table, only primitive arrays are counted
+	 */
+	private static long sizeOf(Object table) {
+		if (table instanceof double[]) {
+			return 8L * ((double[]) table).length;
+		} else if (table instanceof long[]) {
+			return 8L * ((long[]) table).length;
+		} else if (table instanceof float[]) {
+			return 4L * ((float[]) table).length;
+		} else if (table instanceof int[]) {
+			return 4L * ((int[]) table).length;
+		} else if (table instanceof short[]) {
+			return 2L * ((short[]) table).length;
+		}
+		return 0;
+	}
+
+}
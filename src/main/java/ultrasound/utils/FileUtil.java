@@ -5,7 +5,13 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -16,6 +22,9 @@ import javax.sound.sampled.AudioSystem;
 
 public final class FileUtil {
 
+	// Size of buffer used to convert samples during writing
+	private static final int IO_BUFFER_SIZE = 1 << 16;
+
 	private FileUtil() {
 
 	}
@@ -152,5 +161,182 @@ public final class FileUtil {
 		return vals;
 		
 	}
-	
+
+	/**
+	 * Reads all audio samples from CSV file. Unlike
+	 * {@link FileUtil#readDataFromCsvFile(File)}, values are parsed straight to
+	 * {@code short[]} with {@link CsvSampleReader}.
+	 * 
+	 * @param file CSV file
+	 * @return audio samples
+	 * @throws IOException when file could not be read or contains invalid value
+	 */
+	public static short[] readCsvSamples(File file) throws IOException {
+		return CsvSampleReader.readAll(file);
+	}
+
+	/**
+	 * Saves samples as raw 16 bit little endian PCM
+	 * 
+	 * @param file destination file, it is overwritten when exists
+	 * @param data audio samples
+	 * @throws IOException when file could not be written
+	 */
+	public static void writePcmFile(File file, short[] data) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			writeSamples(channel, data);
+		}
+	}
+
+	/**
+	 * Reads all samples of raw 16 bit little endian PCM file
+	 * 
+	 * @param file PCM file
+	 * @return audio samples
+	 * @throws IOException when file could not be read
+	 */
+	public static short[] readPcmFile(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			return readSamples(channel, 0, channel.size());
+		}
+	}
+
+	/**
+	 * Maps raw 16 bit little endian PCM file to memory. Samples are read by the
+	 * operating system when they are accessed, nothing is copied to the heap.
+	 * 
+	 * @param file PCM file
+	 * @return read only {@link ShortBuffer} view of the samples
+	 * @throws IOException when file could not be mapped
+	 */
+	public static ShortBuffer mapPcmFile(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			return mapSamples(channel, 0, channel.size() & ~1L);
+		}
+	}
+
+	/**
+	 * Saves samples as mono 16 bit PCM WAV file
+	 * 
+	 * @param file       destination file, it is overwritten when exists
+	 * @param data       audio samples
+	 * @param sampleRate sample rate in Hz
+	 * @throws IOException when file could not be written
+	 */
+	public static void writeWavFile(File file, short[] data, int sampleRate) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer header = ByteBuffer.allocate(WavHeader.LENGTH);
+			new WavHeader(sampleRate, 1, WavHeader.LENGTH, 2L * data.length).write(header);
+			header.flip();
+			while (header.hasRemaining()) {
+				channel.write(header);
+			}
+			writeSamples(channel, data);
+		}
+	}
+
+	/**
+	 * Reads header of WAV file
+	 * 
+	 * @param file WAV file
+	 * @return {@link WavHeader}
+	 * @throws IOException when file is not a 16 bit PCM WAV file
+	 */
+	public static WavHeader readWavHeader(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			return WavHeader.read(channel);
+		}
+	}
+
+	/**
+	 * Reads all samples of 16 bit PCM WAV file. Samples of multichannel files are
+	 * interleaved.
+	 * 
+	 * @param file WAV file
+	 * @return audio samples
+	 * @throws IOException when file is not a 16 bit PCM WAV file
+	 */
+	public static short[] readWavFile(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			WavHeader header = WavHeader.read(channel);
+			return readSamples(channel, header.getDataOffset(), header.getDataLength());
+		}
+	}
+
+	/**
+	 * Maps samples of 16 bit PCM WAV file to memory. Samples are read by the
+	 * operating system when they are accessed, nothing is copied to the heap.
+	 * 
+	 * @param file WAV file
+	 * @return read only {@link ShortBuffer} view of the samples
+	 * @throws IOException when file is not a 16 bit PCM WAV file
+	 */
+	public static ShortBuffer mapWavFile(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			WavHeader header = WavHeader.read(channel);
+			return mapSamples(channel, header.getDataOffset(), header.getDataLength());
+		}
+	}
+
+	/**
+	 * Converts CSV file with audio samples to mono 16 bit PCM WAV file
+	 * 
+	 * @param csvFile    source CSV file
+	 * @param wavFile    destination WAV file
+	 * @param sampleRate sample rate of the recording in Hz
+	 * @throws IOException when file could not be converted
+	 */
+	public static void convertCsvToWav(File csvFile, File wavFile, int sampleRate) throws IOException {
+		writeWavFile(wavFile, readCsvSamples(csvFile), sampleRate);
+	}
+
+	private static void writeSamples(FileChannel channel, short[] data) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocateDirect(IO_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		ShortBuffer shorts = buf.asShortBuffer();
+		for (int off = 0; off < data.length; off += shorts.capacity()) {
+			int len = Math.min(shorts.capacity(), data.length - off);
+			shorts.clear();
+			shorts.put(data, off, len);
+			buf.clear().limit(2 * len);
+			while (buf.hasRemaining()) {
+				channel.write(buf);
+			}
+		}
+	}
+
+	private static short[] readSamples(FileChannel channel, long offset, long length) throws IOException {
+		if (length / 2 > Integer.MAX_VALUE) {
+			throw new IOException("Audio file is too long to be read to an array!");
+		}
+		short[] data = new short[(int) (length / 2)];
+		ByteBuffer buf = ByteBuffer.allocateDirect(IO_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		int off = 0;
+		long pos = offset;
+		while (off < data.length) {
+			buf.clear().limit((int) Math.min(buf.capacity(), 2L * (data.length - off)));
+			while (buf.hasRemaining()) {
+				int n = channel.read(buf, pos);
+				if (n < 0) {
+					throw new IOException("Unexpected end of audio file!");
+				}
+				pos += n;
+			}
+			buf.flip();
+			int len = buf.remaining() / 2;
+			buf.asShortBuffer().get(data, off, len);
+			off += len;
+		}
+		return data;
+	}
+
+	private static ShortBuffer mapSamples(FileChannel channel, long offset, long length) throws IOException {
+		if (length > Integer.MAX_VALUE) {
+			throw new IOException("Audio file is too long to be mapped!");
+		}
+		// Mapping stays valid after the channel has been closed
+		return channel.map(MapMode.READ_ONLY, offset, length).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+	}
+
 }
@@ -0,0 +1,191 @@
+package ultrasound.utils;
+
+/**
+ * Scalar implementation of {@link DspKernels}, used on every runtime. It is
+ * extended by the vector implementation of the multi-release section of the
+ * JAR, which calls these methods for the remainders of arrays shorter than a
+ * vector.
+ */
+class ScalarKernels {
+
+	private static final double SCALE = Short.MAX_VALUE;
+
+	void toDoubles(short[] src, int srcPos, double[] dst, int dstPos, int len) {
+		for (int i = 0; i < len; i++) {
+			dst[dstPos + i] = (double) src[srcPos + i] / SCALE;
+		}
+	}
+
+	void window(short[] src, int srcPos, double[] window, int windowPos, double[] dst, int dstPos, int len) {
+		for (int i = 0; i < len; i++) {
+			dst[dstPos + i] = (double) src[srcPos + i] / SCALE * window[windowPos + i];
+		}
+	}
+
+	void multiply(double[] src, int srcPos, double[] window, double[] dst, int pos, int len) {
+		for (int i = 0; i < len; i++) {
+			dst[pos + i] = src[srcPos + i] * window[pos + i];
+		}
+	}
+
+	void power(double[] re, double[] im, int srcPos, double[] dst, int dstPos, int len) {
+		for (int i = 0; i < len; i++) {
+			double r = re[srcPos + i];
+			double m = im[srcPos + i];
+			dst[dstPos + i] = r * r + m * m;
+		}
+	}
+
+	void mix(short[] src, int srcPos, double gain, short[] dst, int dstPos, int len) {
+		for (int i = 0; i < len; i++) {
+			dst[dstPos + i] = (short) (dst[dstPos + i] + (short) (src[srcPos + i] * gain));
+		}
+	}
+
+	void radix4(double[] x, double[] y, int pos, int q, double[] twiddles, int t, int from, int to) {
+		double ar, ai, br, bi, cr, ci, dr, di;
+		double s0r, s0i, d0r, d0i, s1r, s1i, d1r, d1i;
+		double c1, s1, c2, s2, c3, s3;
+
+		for (int j = from; j < to; j++) {
+			int i0 = pos + j;
+			int i1 = i0 + q;
+			int i2 = i1 + q;
+			int i3 = i2 + q;
+
+			ar = x[i0];
+			ai = y[i0];
+			if (j == 0) {
+				br = x[i1];
+				bi = y[i1];
+				cr = x[i2];
+				ci = y[i2];
+				dr = x[i3];
+				di = y[i3];
+			} else {
+				c1 = twiddles[t + j];
+				s1 = twiddles[t + q + j];
+				c2 = twiddles[t + 2 * q + j];
+				s2 = twiddles[t + 3 * q + j];
+				c3 = twiddles[t + 4 * q + j];
+				s3 = twiddles[t + 5 * q + j];
+				br = c2 * x[i1] - s2 * y[i1];
+				bi = s2 * x[i1] + c2 * y[i1];
+				cr = c1 * x[i2] - s1 * y[i2];
+				ci = s1 * x[i2] + c1 * y[i2];
+				dr = c3 * x[i3] - s3 * y[i3];
+				di = s3 * x[i3] + c3 * y[i3];
+			}
+
+			s0r = ar + br;
+			s0i = ai + bi;
+			d0r = ar - br;
+			d0i = ai - bi;
+			s1r = cr + dr;
+			s1i = ci + di;
+			d1r = cr - dr;
+			d1i = ci - di;
+
+			x[i0] = s0r + s1r;
+			y[i0] = s0i + s1i;
+			x[i2] = s0r - s1r;
+			y[i2] = s0i - s1i;
+			x[i1] = d0r + d1i;
+			y[i1] = d0i - d1r;
+			x[i3] = d0r - d1i;
+			y[i3] = d0i + d1r;
+		}
+	}
+
+	void radix2Frames(double[] x, double[] y, int pos, int stride, int frames) {
+		for (int b = pos; b < pos + frames; b++) {
+			double ar = x[b];
+			double ai = y[b];
+			x[b] = ar + x[b + stride];
+			y[b] = ai + y[b + stride];
+			x[b + stride] = ar - x[b + stride];
+			y[b + stride] = ai - y[b + stride];
+		}
+	}
+
+	void radix4Frames(double[] x, double[] y, int pos, int stride, int frames, double[] twiddles, int t, int q) {
+		double ar, ai, br, bi, cr, ci, dr, di;
+		double s0r, s0i, d0r, d0i, s1r, s1i, d1r, d1i;
+		double c1 = 0, s1 = 0, c2 = 0, s2 = 0, c3 = 0, s3 = 0;
+
+		if (twiddles != null) {
+			c1 = twiddles[t];
+			s1 = twiddles[t + q];
+			c2 = twiddles[t + 2 * q];
+			s2 = twiddles[t + 3 * q];
+			c3 = twiddles[t + 4 * q];
+			s3 = twiddles[t + 5 * q];
+		}
+
+		for (int i0 = pos; i0 < pos + frames; i0++) {
+			int i1 = i0 + stride;
+			int i2 = i1 + stride;
+			int i3 = i2 + stride;
+
+			ar = x[i0];
+			ai = y[i0];
+			if (twiddles == null) {
+				br = x[i1];
+				bi = y[i1];
+				cr = x[i2];
+				ci = y[i2];
+				dr = x[i3];
+				di = y[i3];
+			} else {
+				br = c2 * x[i1] - s2 * y[i1];
+				bi = s2 * x[i1] + c2 * y[i1];
+				cr = c1 * x[i2] - s1 * y[i2];
+				ci = s1 * x[i2] + c1 * y[i2];
+				dr = c3 * x[i3] - s3 * y[i3];
+				di = s3 * x[i3] + c3 * y[i3];
+			}
+
+			s0r = ar + br;
+			s0i = ai + bi;
+			d0r = ar - br;
+			d0i = ai - bi;
+			s1r = cr + dr;
+			s1i = ci + di;
+			d1r = cr - dr;
+			d1i = ci - di;
+
+			x[i0] = s0r + s1r;
+			y[i0] = s0i + s1i;
+			x[i2] = s0r - s1r;
+			y[i2] = s0i - s1i;
+			x[i1] = d0r + d1i;
+			y[i1] = d0i - d1r;
+			x[i3] = d0r - d1i;
+			y[i3] = d0i + d1r;
+		}
+	}
+
+	void realFrames(double[] zr, double[] zi, int pos, int mirror, double cos, double sin, double[] re, double[] im,
+			int dstPos, int frames) {
+		double ar, ai, br, bi, er, ei, or, oi;
+		for (int b = 0; b < frames; b++) {
+			ar = zr[pos + b];
+			ai = zi[pos + b];
+			br = zr[mirror + b];
+			bi = zi[mirror + b];
+
+			er = 0.5 * (ar + br);
+			ei = 0.5 * (ai - bi);
+			or = 0.5 * (ai + bi);
+			oi = 0.5 * (br - ar);
+
+			re[dstPos + b] = er + cos * or - sin * oi;
+			im[dstPos + b] = ei + sin * or + cos * oi;
+		}
+	}
+
+	boolean isVectorized() {
+		return false;
+	}
+
+}
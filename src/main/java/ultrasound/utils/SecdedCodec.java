@@ -0,0 +1,135 @@
+package ultrasound.utils;
+
+/**
+ * Table driven SECDED Hamming(8,4) codec. It gives exactly the same results as
+ * {@link UltrasoundHelper#encHamming(boolean[])} and
+ * {@link UltrasoundHelper#secded(boolean[])}, but every nibble is encoded and
+ * decoded with a single table lookup. Tables are generated from the matrices
+ * {@link UltrasoundHelper#matrixG}, {@link UltrasoundHelper#matrixHTransp} and
+ * {@link UltrasoundHelper#matrixRTransp}.
+ *
+ * Nibbles and codewords are given as {@code int} values, the first bit of
+ * transmission is the most significant one.
+ */
+public final class SecdedCodec {
+
+	/**
+	 * No error detected
+	 */
+	public static final int OK = 0;
+	/**
+	 * Single error detected and corrected
+	 */
+	public static final int CORRECTED = 1;
+	/**
+	 * Error detected but its position could not be found. Data is returned without
+	 * correction.
+	 */
+	public static final int NOT_LOCATED = 2;
+	/**
+	 * Double error detected, data is not valid
+	 */
+	public static final int DOUBLE_ERROR = 3;
+
+	private static final int K = 4;
+	private static final int N = 8;
+
+	private static final byte[] ENCODE_TABLE = new byte[1 << K];
+	private static final byte[] DECODE_TABLE = new byte[1 << N];
+
+	static {
+		for (int msg = 0; msg < ENCODE_TABLE.length; msg++) {
+			ENCODE_TABLE[msg] = (byte) multiply(msg, K, UltrasoundHelper.matrixG);
+		}
+		for (int codeword = 0; codeword < DECODE_TABLE.length; codeword++) {
+			DECODE_TABLE[codeword] = (byte) correct(codeword);
+		}
+	}
+
+	private SecdedCodec() {
+
+	}
+
+	/**
+	 * Encodes 4 bits of data
+	 *
+	 * @param nibble data to encode, only 4 lowest bits are used
+	 * @return 8 bits codeword
+	 */
+	public static int encode(int nibble) {
+		return ENCODE_TABLE[nibble & 0x0F] & 0xFF;
+	}
+
+	/**
+	 * Decodes 8 bits codeword. Use {@link SecdedCodec#getData(int)} and
+	 * {@link SecdedCodec#getStatus(int)} to read the result.
+	 *
+	 * @param codeword codeword to decode, only 8 lowest bits are used
+	 * @return decoded data together with status of decoding
+	 */
+	public static int decode(int codeword) {
+		return DECODE_TABLE[codeword & 0xFF];
+	}
+
+	/**
+	 * @param decoded result of {@link SecdedCodec#decode(int)}
+	 * @return 4 bits of decoded data
+	 */
+	public static int getData(int decoded) {
+		return decoded & 0x0F;
+	}
+
+	/**
+	 * @param decoded result of {@link SecdedCodec#decode(int)}
+	 * @return one of {@link SecdedCodec#OK}, {@link SecdedCodec#CORRECTED},
+	 *         {@link SecdedCodec#NOT_LOCATED}, {@link SecdedCodec#DOUBLE_ERROR}
+	 */
+	public static int getStatus(int decoded) {
+		return decoded >>> K;
+	}
+
+	/**
+	 * Generates entry of decode table in the same way as
+	 * {@link UltrasoundHelper#secded(boolean[])} decodes a codeword.
+	 */
+	private static int correct(int codeword) {
+		int status = OK;
+		int syndrome = multiply(codeword, N, UltrasoundHelper.matrixHTransp);
+		if (syndrome != 0) {
+			boolean parity = Integer.bitCount(codeword) % 2 != 0;
+			boolean parityBit = (codeword & 1) != 0;
+			if (parity != parityBit) {
+				status = NOT_LOCATED;
+				for (int i = 0; i < N; i++) {
+					int error = 1 << (N - 1 - i);
+					if (multiply(error, N, UltrasoundHelper.matrixHTransp) == syndrome) {
+						codeword ^= error;
+						status = CORRECTED;
+						break;
+					}
+				}
+			} else {
+				return DOUBLE_ERROR << K;
+			}
+		}
+		return (status << K) | multiply(codeword, N, UltrasoundHelper.matrixRTransp);
+	}
+
+	/**
+	 * Multiplies row vector given as bits of {@code int} by binary matrix
+	 */
+	private static int multiply(int vector, int length, boolean[][] matrix) {
+		int result = 0;
+		for (int col = 0; col < matrix[0].length; col++) {
+			int cell = 0;
+			for (int row = 0; row < length; row++) {
+				if (matrix[row][col] && (vector & (1 << (length - 1 - row))) != 0) {
+					cell ^= 1;
+				}
+			}
+			result = (result << 1) | cell;
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,105 @@
+package ultrasound.utils;
+
+import java.nio.ShortBuffer;
+
+/**
+ * Lock-free single-producer/single-consumer ring buffer for {@code short}
+ * audio samples. It can be used to pass samples from an audio capture thread to
+ * the decoder thread without locks and allocations. See
+ * {@link AbstractRingBuffer} for details.
+ */
+public final class ShortRingBuffer extends AbstractRingBuffer {
+
+	/**
+	 * Creates a new ring buffer
+	 *
+	 * @param capacity minimal number of samples stored in the buffer, it will be
+	 *                 rounded up to a power of 2
+	 */
+	public ShortRingBuffer(int capacity) {
+		super(new short[roundUpToPowerOf2(capacity)]);
+	}
+
+	/**
+	 * Writes samples to the buffer. Can be called only by the producer thread.
+	 * Samples which do not fit in the buffer are dropped and counted as overrun.
+	 *
+	 * @param src source array
+	 * @param off index of the first sample in source array
+	 * @param len number of samples to write
+	 * @return number of written samples
+	 */
+	public int write(short[] src, int off, int len) {
+		checkBounds(src.length, off, len);
+		return writeArray(src, off, len, false);
+	}
+
+	/**
+	 * Writes samples from position to limit of the source buffer, e.g. a direct
+	 * capture buffer. Can be called only by the producer thread. Samples which do
+	 * not fit in the buffer are dropped and counted as overrun. Position of the
+	 * source is moved to its limit.
+	 *
+	 * @param src source buffer
+	 * @return number of written samples
+	 */
+	public int write(ShortBuffer src) {
+		int len = src.remaining();
+		int n = writeArray(src, 0, len, false);
+		src.position(src.limit());
+		return n;
+	}
+
+	/**
+	 * Writes all given samples to the buffer or nothing when there is not enough
+	 * free space. Can be called only by the producer thread.
+	 *
+	 * @param src source array
+	 * @param off index of the first sample in source array
+	 * @param len number of samples to write
+	 * @return {@code true} when samples have been written
+	 */
+	public boolean writeFully(short[] src, int off, int len) {
+		checkBounds(src.length, off, len);
+		return writeArray(src, off, len, true) == len;
+	}
+
+	@Override
+	protected void copyIn(Object src, int srcOff, Object buffer, int pos, int len) {
+		if (src instanceof ShortBuffer) {
+			((ShortBuffer) src).get((short[]) buffer, pos, len);
+		} else {
+			super.copyIn(src, srcOff, buffer, pos, len);
+		}
+	}
+
+	/**
+	 * Reads available samples from the buffer, but not more than requested. Can be
+	 * called only by the consumer thread.
+	 *
+	 * @param dst destination array
+	 * @param off index of the first sample in destination array
+	 * @param len maximal number of samples to read
+	 * @return number of read samples
+	 */
+	public int read(short[] dst, int off, int len) {
+		checkBounds(dst.length, off, len);
+		return readArray(dst, off, len, false);
+	}
+
+	/**
+	 * Reads exactly the requested number of samples. When there are not enough
+	 * samples in the buffer nothing is read. Can be called only by the consumer
+	 * thread.
+	 *
+	 * @param dst destination array
+	 * @param off index of the first sample in destination array
+	 * @param len number of samples to read
+	 * @return {@code true} when samples have been read
+	 */
+	public boolean readFully(short[] dst, int off, int len) {
+		checkBounds(dst.length, off, len);
+		return readArray(dst, off, len, true) == len;
+	}
+
+}
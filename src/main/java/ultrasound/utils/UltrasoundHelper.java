@@ -107,29 +107,29 @@ public final class UltrasoundHelper {
 		return binStr.toString();
 	}
 
+	/**
+	 * Converts array of bytes to array of boolean binary values. Every byte is
+	 * converted starting from its most significant bit.
+	 * 
+	 * @param data array of bytes
+	 * @return array of boolean binary values
+	 */
 	public static boolean[] byte2bin(byte[] data) {
-		boolean[] binArray = new boolean[data.length * Byte.SIZE];
-		int pos = 0;
-		for (int i = 0; i < data.length; i++) {
-			for (int j = Byte.SIZE - 1; j >= 0; j--, pos++) {
-				binArray[pos] = (data[i] & 0xFF & (1 << j)) != 0;
-			}
-		}
-		return binArray;
+		return BitStream.valueOf(data).toBooleanArray();
 	}
 
+	/**
+	 * Converts array of boolean binary values to array of bytes (Length of array
+	 * has to be a multiple of 8)
+	 * 
+	 * @param data array of boolean binary values
+	 * @return array of bytes
+	 */
 	public static byte[] bin2byte(boolean[] data) {
 		if (data.length % 8 != 0) {
 			throw new IllegalArgumentException("Bin array length mismatch! " + binStrFromBinArray(data));
 		}
-		byte[] byteArr = new byte[data.length / Byte.SIZE];
-		int pos = 0;
-		for (int i = 0; i < byteArr.length; i++, pos += Byte.SIZE) {
-			boolean[] b = Arrays.copyOfRange(data, pos, pos + Byte.SIZE);
-			int val = Integer.parseInt(binStrFromBinArray(b), 2);
-			byteArr[i] = (byte) val;
-		}
-		return byteArr;
+		return BitStream.valueOf(data).toByteArray();
 	}
 
 	public static String bytesToHex(byte[] bytes) {
@@ -197,14 +197,52 @@ public final class UltrasoundHelper {
 		return findMaxValueIndex(array, 0, array.length);
 	}
 
+	/**
+	 * Finds index of the largest value in the range of the array. The range is
+	 * limited to the array, so the last element is searched when endInd is
+	 * negative or greater than the length of the array. When startInd is not
+	 * before endInd, only the element before endInd is searched.
+	 * 
+	 * @param array    searched array
+	 * @param startInd index of the first searched element
+	 * @param endInd   index after the last searched element
+	 * @return index of the first largest value in the range
+	 * @throws IllegalArgumentException when the range contains no elements, i.e.
+	 *                                  the array is empty or endInd is 0
+	 */
 	public static int findMaxValueIndex(double[] array, int startInd, int endInd) {
+		if (endInd < 0 || endInd > array.length)
+			endInd = array.length;
+		if (startInd < 0)
+			startInd = 0;
+		if (endInd == 0)
+			throw new IllegalArgumentException("Searched range of the array is empty! Is " + startInd + " to " + endInd);
+		if (startInd >= endInd)
+			startInd = endInd - 1;
 		int maxValInd = startInd;
-		if (endInd < 0 || endInd >= array.length)
-			endInd = array.length - 1;
+		for (int i = startInd; i < endInd; i++) {
+			if (array[i] > array[maxValInd])
+				maxValInd = i;
+		}
+		return maxValInd;
+	}
+
+	/**
+	 * Version of {@link #findMaxValueIndex(double[], int, int)} for fixed-point
+	 * values
+	 * 
+	 * @throws IllegalArgumentException when the range contains no elements
+	 */
+	public static int findMaxValueIndex(long[] array, int startInd, int endInd) {
+		if (endInd < 0 || endInd > array.length)
+			endInd = array.length;
 		if (startInd < 0)
 			startInd = 0;
-		if (startInd > endInd)
+		if (endInd == 0)
+			throw new IllegalArgumentException("Searched range of the array is empty! Is " + startInd + " to " + endInd);
+		if (startInd >= endInd)
 			startInd = endInd - 1;
+		int maxValInd = startInd;
 		for (int i = startInd; i < endInd; i++) {
 			if (array[i] > array[maxValInd])
 				maxValInd = i;
@@ -212,6 +250,44 @@ public final class UltrasoundHelper {
 		return maxValInd;
 	}
 
+	/**
+	 * Finds the vertex of the parabola through three values of equally spaced
+	 * bins, e.g. magnitudes of the strongest bin of a spectrum and its
+	 * neighbours
+	 * 
+	 * @param left  value of the bin before the peak
+	 * @param peak  value of the peak bin
+	 * @param right value of the bin after the peak
+	 * @return offset of the vertex from the peak bin in bins, between -1 and 1,
+	 *         0 when the values do not form a peak
+	 */
+	public static double quadraticPeakOffset(double left, double peak, double right) {
+		double denominator = left - 2 * peak + right;
+		if (!(denominator < 0)) {
+			return 0;
+		}
+		return Math.max(-1, Math.min(1, 0.5 * (left - right) / denominator));
+	}
+
+	/**
+	 * Finds the vertex of the parabola through logarithms of three values of
+	 * equally spaced bins. It is exact for a Gaussian peak and close to exact for
+	 * the main lobe of the Hamming window. Power or magnitude of the bins can be
+	 * given, the vertex is the same.
+	 * 
+	 * @param left  value of the bin before the peak
+	 * @param peak  value of the peak bin
+	 * @param right value of the bin after the peak
+	 * @return offset of the vertex from the peak bin in bins, between -1 and 1,
+	 *         0 when the values do not form a peak
+	 */
+	public static double gaussianPeakOffset(double left, double peak, double right) {
+		if (!(left > 0 && peak > 0 && right > 0)) {
+			return 0;
+		}
+		return quadraticPeakOffset(Math.log(left), Math.log(peak), Math.log(right));
+	}
+
 	public static boolean[][] matrixG = new boolean[][] { { true, true, true, false, false, false, false, true },
 			{ true, false, false, true, true, false, false, true },
 			{ false, true, false, true, false, true, false, true },
@@ -330,9 +406,7 @@ public final class UltrasoundHelper {
 		double[] frag = new double[n];
 
 		// Convert from short to double
-		for (int i = 0; i < n; i++) {
-			frag[i] = (double) shortArray[i] / Short.MAX_VALUE;
-		}
+		DspKernels.toDoubles(shortArray, 0, frag, 0, n);
 		return frag;
 	}
 }
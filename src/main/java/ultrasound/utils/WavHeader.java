@@ -0,0 +1,147 @@
+package ultrasound.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Header of a WAV file with 16 bit PCM samples. Only RIFF chunks needed to find
+ * the samples are parsed, other chunks are skipped.
+ */
+public final class WavHeader {
+
+	/**
+	 * Length of the header written by {@link WavHeader#write(ByteBuffer)}
+	 */
+	public static final int LENGTH = 44;
+
+	private static final int RIFF = 0x46464952;
+	private static final int WAVE = 0x45564157;
+	private static final int FMT = 0x20746d66;
+	private static final int DATA = 0x61746164;
+	private static final short FORMAT_PCM = 1;
+
+	private final int sampleRate;
+	private final int noOfChannels;
+	private final long dataOffset;
+	private final long dataLength;
+
+	/**
+	 * @param sampleRate   sample rate in Hz
+	 * @param noOfChannels number of audio channels
+	 * @param dataOffset   position of the first sample in the file in bytes
+	 * @param dataLength   length of samples in bytes
+	 */
+	public WavHeader(int sampleRate, int noOfChannels, long dataOffset, long dataLength) {
+		this.sampleRate = sampleRate;
+		this.noOfChannels = noOfChannels;
+		this.dataOffset = dataOffset;
+		this.dataLength = dataLength;
+	}
+
+	/**
+	 * Reads header from the beginning of the file
+	 * 
+	 * @param channel {@link FileChannel} of a WAV file
+	 * @return {@link WavHeader}
+	 * @throws IOException when file is not a WAV file with 16 bit PCM samples
+	 */
+	public static WavHeader read(FileChannel channel) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+		readFully(channel, buf, 0, 12);
+		if (buf.getInt(0) != RIFF || buf.getInt(8) != WAVE) {
+			throw new IOException("Not a WAV file!");
+		}
+
+		int sampleRate = -1;
+		int noOfChannels = -1;
+		long pos = 12;
+		while (pos + 8 <= channel.size()) {
+			readFully(channel, buf, pos, 8);
+			int id = buf.getInt(0);
+			long size = buf.getInt(4) & 0xFFFFFFFFL;
+			if (id == FMT) {
+				readFully(channel, buf, pos + 8, 16);
+				short format = buf.getShort(0);
+				noOfChannels = buf.getShort(2);
+				sampleRate = buf.getInt(4);
+				short bitsPerSample = buf.getShort(14);
+				if (format != FORMAT_PCM || bitsPerSample != 16) {
+					throw new IOException("Only 16 bit PCM WAV files are supported!");
+				}
+			} else if (id == DATA) {
+				if (sampleRate < 0) {
+					throw new IOException("WAV format chunk not found!");
+				}
+				// Recorders which could not seek write invalid length of data
+				long length = Math.min(size, channel.size() - pos - 8);
+				return new WavHeader(sampleRate, noOfChannels, pos + 8, length & ~1L);
+			}
+			// Chunks are aligned to 2 bytes
+			pos += 8 + size + (size & 1);
+		}
+		throw new IOException("WAV data chunk not found!");
+	}
+
+	/**
+	 * Writes canonical 44 bytes header of 16 bit PCM WAV file
+	 * 
+	 * @param buf buffer to write to, its byte order is changed to little endian
+	 */
+	public void write(ByteBuffer buf) {
+		buf.order(ByteOrder.LITTLE_ENDIAN);
+		buf.putInt(RIFF);
+		buf.putInt((int) (LENGTH - 8 + dataLength));
+		buf.putInt(WAVE);
+		buf.putInt(FMT);
+		buf.putInt(16);
+		buf.putShort(FORMAT_PCM);
+		buf.putShort((short) noOfChannels);
+		buf.putInt(sampleRate);
+		buf.putInt(sampleRate * noOfChannels * 2);
+		buf.putShort((short) (noOfChannels * 2));
+		buf.putShort((short) 16);
+		buf.putInt(DATA);
+		buf.putInt((int) dataLength);
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buf, long pos, int len) throws IOException {
+		buf.clear().limit(len);
+		while (buf.hasRemaining()) {
+			if (channel.read(buf, pos + buf.position()) < 0) {
+				throw new IOException("Unexpected end of WAV file!");
+			}
+		}
+	}
+
+	public int getSampleRate() {
+		return sampleRate;
+	}
+
+	public int getNoOfChannels() {
+		return noOfChannels;
+	}
+
+	/**
+	 * @return position of the first sample in the file in bytes
+	 */
+	public long getDataOffset() {
+		return dataOffset;
+	}
+
+	/**
+	 * @return length of samples in bytes
+	 */
+	public long getDataLength() {
+		return dataLength;
+	}
+
+	/**
+	 * @return number of samples of all channels
+	 */
+	public long getNoOfSamples() {
+		return dataLength / 2;
+	}
+
+}
@@ -0,0 +1,236 @@
+package ultrasound.utils;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implementation of {@link DspKernels} with the Vector API, in the Java 17
+ * section of the multi-release JAR. Loops process vectors of the preferred
+ * size of the CPU, samples are loaded as vectors of shorts with the same
+ * number of lanes. Remainders shorter than a vector are processed by
+ * {@link ScalarKernels}. Lanewise operations are done in the same order as in
+ * the scalar loops and are not fused, so the results are identical.
+ *
+ * Mixing stays scalar: conversion of doubles to ints is not compiled to SIMD
+ * instructions on Java 17 and the vector loop was two times slower.
+ *
+ * The class is loaded by {@link DspKernels} only when the module
+ * jdk.incubator.vector is present, CPUs with vectors of fewer than 4 doubles
+ * fail the initialization and use the scalar loops.
+ */
+final class VectorKernels extends ScalarKernels {
+
+	private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Short> SHORTS = VectorSpecies.of(short.class,
+			VectorShape.forBitSize(DOUBLES.length() * Short.SIZE));
+
+	private static final int LANES = DOUBLES.length();
+	private static final double SCALE = Short.MAX_VALUE;
+
+	private static DoubleVector toDoubles(short[] src, int pos) {
+		return (DoubleVector) ShortVector.fromArray(SHORTS, src, pos).convertShape(VectorOperators.S2D, DOUBLES, 0);
+	}
+
+	private static DoubleVector load(double[] src, int pos) {
+		return DoubleVector.fromArray(DOUBLES, src, pos);
+	}
+
+	@Override
+	void toDoubles(short[] src, int srcPos, double[] dst, int dstPos, int len) {
+		int i = 0;
+		for (; i <= len - LANES; i += LANES) {
+			toDoubles(src, srcPos + i).div(SCALE).intoArray(dst, dstPos + i);
+		}
+		super.toDoubles(src, srcPos + i, dst, dstPos + i, len - i);
+	}
+
+	@Override
+	void window(short[] src, int srcPos, double[] window, int windowPos, double[] dst, int dstPos, int len) {
+		int i = 0;
+		for (; i <= len - LANES; i += LANES) {
+			toDoubles(src, srcPos + i).div(SCALE).mul(load(window, windowPos + i)).intoArray(dst, dstPos + i);
+		}
+		super.window(src, srcPos + i, window, windowPos + i, dst, dstPos + i, len - i);
+	}
+
+	@Override
+	void multiply(double[] src, int srcPos, double[] window, double[] dst, int pos, int len) {
+		int i = 0;
+		for (; i <= len - LANES; i += LANES) {
+			load(src, srcPos + i).mul(load(window, pos + i)).intoArray(dst, pos + i);
+		}
+		super.multiply(src, srcPos + i, window, dst, pos + i, len - i);
+	}
+
+	@Override
+	void power(double[] re, double[] im, int srcPos, double[] dst, int dstPos, int len) {
+		int i = 0;
+		for (; i <= len - LANES; i += LANES) {
+			DoubleVector r = load(re, srcPos + i);
+			DoubleVector m = load(im, srcPos + i);
+			r.mul(r).add(m.mul(m)).intoArray(dst, dstPos + i);
+		}
+		super.power(re, im, srcPos + i, dst, dstPos + i, len - i);
+	}
+
+	@Override
+	void radix4(double[] x, double[] y, int pos, int q, double[] twiddles, int t, int from, int to) {
+		// Butterfly 0 has no twiddles
+		int j = from;
+		if (j == 0 && to > 0) {
+			super.radix4(x, y, pos, q, twiddles, t, 0, 1);
+			j = 1;
+		}
+		for (; j <= to - LANES; j += LANES) {
+			int i0 = pos + j;
+			int i1 = i0 + q;
+			int i2 = i1 + q;
+			int i3 = i2 + q;
+
+			DoubleVector c1 = load(twiddles, t + j);
+			DoubleVector s1 = load(twiddles, t + q + j);
+			DoubleVector c2 = load(twiddles, t + 2 * q + j);
+			DoubleVector s2 = load(twiddles, t + 3 * q + j);
+			DoubleVector c3 = load(twiddles, t + 4 * q + j);
+			DoubleVector s3 = load(twiddles, t + 5 * q + j);
+
+			DoubleVector ar = load(x, i0);
+			DoubleVector ai = load(y, i0);
+			DoubleVector xr = load(x, i1);
+			DoubleVector xi = load(y, i1);
+			DoubleVector br = c2.mul(xr).sub(s2.mul(xi));
+			DoubleVector bi = s2.mul(xr).add(c2.mul(xi));
+			xr = load(x, i2);
+			xi = load(y, i2);
+			DoubleVector cr = c1.mul(xr).sub(s1.mul(xi));
+			DoubleVector ci = s1.mul(xr).add(c1.mul(xi));
+			xr = load(x, i3);
+			xi = load(y, i3);
+			DoubleVector dr = c3.mul(xr).sub(s3.mul(xi));
+			DoubleVector di = s3.mul(xr).add(c3.mul(xi));
+
+			DoubleVector s0r = ar.add(br);
+			DoubleVector s0i = ai.add(bi);
+			DoubleVector d0r = ar.sub(br);
+			DoubleVector d0i = ai.sub(bi);
+			DoubleVector s1r = cr.add(dr);
+			DoubleVector s1i = ci.add(di);
+			DoubleVector d1r = cr.sub(dr);
+			DoubleVector d1i = ci.sub(di);
+
+			s0r.add(s1r).intoArray(x, i0);
+			s0i.add(s1i).intoArray(y, i0);
+			s0r.sub(s1r).intoArray(x, i2);
+			s0i.sub(s1i).intoArray(y, i2);
+			d0r.add(d1i).intoArray(x, i1);
+			d0i.sub(d1r).intoArray(y, i1);
+			d0r.sub(d1i).intoArray(x, i3);
+			d0i.add(d1r).intoArray(y, i3);
+		}
+		super.radix4(x, y, pos, q, twiddles, t, j, to);
+	}
+
+	@Override
+	void radix2Frames(double[] x, double[] y, int pos, int stride, int frames) {
+		int b = 0;
+		for (; b <= frames - LANES; b += LANES) {
+			int i0 = pos + b;
+			int i1 = i0 + stride;
+			DoubleVector ar = load(x, i0);
+			DoubleVector ai = load(y, i0);
+			DoubleVector br = load(x, i1);
+			DoubleVector bi = load(y, i1);
+			ar.add(br).intoArray(x, i0);
+			ai.add(bi).intoArray(y, i0);
+			ar.sub(br).intoArray(x, i1);
+			ai.sub(bi).intoArray(y, i1);
+		}
+		super.radix2Frames(x, y, pos + b, stride, frames - b);
+	}
+
+	@Override
+	void radix4Frames(double[] x, double[] y, int pos, int stride, int frames, double[] twiddles, int t, int q) {
+		int b = 0;
+		for (; b <= frames - LANES; b += LANES) {
+			int i0 = pos + b;
+			int i1 = i0 + stride;
+			int i2 = i1 + stride;
+			int i3 = i2 + stride;
+
+			DoubleVector ar = load(x, i0);
+			DoubleVector ai = load(y, i0);
+			DoubleVector br = load(x, i1);
+			DoubleVector bi = load(y, i1);
+			DoubleVector cr = load(x, i2);
+			DoubleVector ci = load(y, i2);
+			DoubleVector dr = load(x, i3);
+			DoubleVector di = load(y, i3);
+			if (twiddles != null) {
+				double c1 = twiddles[t];
+				double s1 = twiddles[t + q];
+				double c2 = twiddles[t + 2 * q];
+				double s2 = twiddles[t + 3 * q];
+				double c3 = twiddles[t + 4 * q];
+				double s3 = twiddles[t + 5 * q];
+				DoubleVector xr = br;
+				br = xr.mul(c2).sub(bi.mul(s2));
+				bi = xr.mul(s2).add(bi.mul(c2));
+				xr = cr;
+				cr = xr.mul(c1).sub(ci.mul(s1));
+				ci = xr.mul(s1).add(ci.mul(c1));
+				xr = dr;
+				dr = xr.mul(c3).sub(di.mul(s3));
+				di = xr.mul(s3).add(di.mul(c3));
+			}
+
+			DoubleVector s0r = ar.add(br);
+			DoubleVector s0i = ai.add(bi);
+			DoubleVector d0r = ar.sub(br);
+			DoubleVector d0i = ai.sub(bi);
+			DoubleVector s1r = cr.add(dr);
+			DoubleVector s1i = ci.add(di);
+			DoubleVector d1r = cr.sub(dr);
+			DoubleVector d1i = ci.sub(di);
+
+			s0r.add(s1r).intoArray(x, i0);
+			s0i.add(s1i).intoArray(y, i0);
+			s0r.sub(s1r).intoArray(x, i2);
+			s0i.sub(s1i).intoArray(y, i2);
+			d0r.add(d1i).intoArray(x, i1);
+			d0i.sub(d1r).intoArray(y, i1);
+			d0r.sub(d1i).intoArray(x, i3);
+			d0i.add(d1r).intoArray(y, i3);
+		}
+		super.radix4Frames(x, y, pos + b, stride, frames - b, twiddles, t, q);
+	}
+
+	@Override
+	void realFrames(double[] zr, double[] zi, int pos, int mirror, double cos, double sin, double[] re, double[] im,
+			int dstPos, int frames) {
+		int b = 0;
+		for (; b <= frames - LANES; b += LANES) {
+			DoubleVector ar = load(zr, pos + b);
+			DoubleVector ai = load(zi, pos + b);
+			DoubleVector br = load(zr, mirror + b);
+			DoubleVector bi = load(zi, mirror + b);
+
+			DoubleVector er = ar.add(br).mul(0.5);
+			DoubleVector ei = ai.sub(bi).mul(0.5);
+			DoubleVector or = ai.add(bi).mul(0.5);
+			DoubleVector oi = br.sub(ar).mul(0.5);
+
+			er.add(or.mul(cos)).sub(oi.mul(sin)).intoArray(re, dstPos + b);
+			ei.add(or.mul(sin)).add(oi.mul(cos)).intoArray(im, dstPos + b);
+		}
+		super.realFrames(zr, zi, pos + b, mirror + b, cos, sin, re, im, dstPos + b, frames - b);
+	}
+
+	@Override
+	boolean isVectorized() {
+		return true;
+	}
+
+}
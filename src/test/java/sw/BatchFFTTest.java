@@ -0,0 +1,122 @@
+package sw;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Batched transforms have to give exactly the same spectra as the transforms
+ * of single frames, so the decoder finds the same values in both modes.
+ */
+class BatchFFTTest {
+
+	private static final int BATCH = 7;
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 2, 4, 8, 32, 256, 2048, 4096 })
+	void testMatchesRadix4Fft(int n) throws Exception {
+
+		Random random = new Random(n);
+		double[][] expX = new double[BATCH][n];
+		double[][] expY = new double[BATCH][n];
+		double[] x = new double[n * BATCH];
+		double[] y = new double[n * BATCH];
+		// Fewer frames than the batch, the last one must not be touched
+		int frames = BATCH - 1;
+		for (int b = 0; b < BATCH; b++) {
+			for (int i = 0; i < n; i++) {
+				expX[b][i] = random.nextDouble() * 2 - 1;
+				expY[b][i] = random.nextDouble() * 2 - 1;
+				x[i * BATCH + b] = expX[b][i];
+				y[i * BATCH + b] = expY[b][i];
+			}
+		}
+
+		Radix4FFT fft = new Radix4FFT(n);
+		for (int b = 0; b < frames; b++) {
+			fft.fft(expX[b], expY[b]);
+		}
+		new BatchFFT(n, BATCH).fft(x, y, frames);
+
+		for (int b = 0; b < BATCH; b++) {
+			for (int i = 0; i < n; i++) {
+				assertEquals(expX[b][i], x[i * BATCH + b], 0);
+				assertEquals(expY[b][i], y[i * BATCH + b], 0);
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 4, 8, 32, 256, 2048, 4096 })
+	void testRealMatchesRealFft(int n) throws Exception {
+
+		Random random = new Random(n);
+		double[][] frames = new double[BATCH][n];
+		double[] x = new double[n * BATCH];
+		for (int b = 0; b < BATCH; b++) {
+			for (int i = 0; i < n; i++) {
+				frames[b][i] = random.nextDouble() * 2 - 1;
+				x[i * BATCH + b] = frames[b][i];
+			}
+		}
+		double[] copy = x.clone();
+
+		double[] re = new double[(n / 2 + 1) * BATCH];
+		double[] im = new double[(n / 2 + 1) * BATCH];
+		new BatchRealFFT(n, BATCH).fft(x, BATCH, re, im);
+		assertArrayEquals(copy, x, 0);
+
+		RealFFT fft = new RealFFT(new Radix4FFT(n / 2));
+		double[] expRe = new double[n / 2 + 1];
+		double[] expIm = new double[n / 2 + 1];
+		for (int b = 0; b < BATCH; b++) {
+			fft.fft(frames[b], expRe, expIm);
+			for (int k = 0; k <= n / 2; k++) {
+				assertEquals(expRe[k], re[k * BATCH + b], 0);
+				assertEquals(expIm[k], im[k * BATCH + b], 0);
+			}
+		}
+	}
+
+	@Test
+	void testRealCalculatesOnlyRequestedBins() throws Exception {
+
+		int n = 1024;
+		int frames = 3;
+		Random random = new Random(n);
+		double[] x = new double[n * BATCH];
+		for (int i = 0; i < x.length; i++) {
+			x[i] = random.nextDouble() * 2 - 1;
+		}
+
+		BatchRealFFT fft = new BatchRealFFT(n, BATCH);
+		double[] expRe = new double[(n / 2 + 1) * BATCH];
+		double[] expIm = new double[(n / 2 + 1) * BATCH];
+		fft.fft(x, frames, expRe, expIm);
+
+		double[] re = new double[(n / 2 + 1) * BATCH];
+		double[] im = new double[(n / 2 + 1) * BATCH];
+		fft.fft(x, frames, re, im, 100, 200);
+		for (int k = 0; k <= n / 2; k++) {
+			for (int b = 0; b < frames; b++) {
+				boolean inRange = k >= 100 && k < 200;
+				assertEquals(inRange ? expRe[k * BATCH + b] : 0, re[k * BATCH + b], 0);
+				assertEquals(inRange ? expIm[k * BATCH + b] : 0, im[k * BATCH + b], 0);
+			}
+		}
+	}
+
+	@Test
+	void testInvalidSize() {
+		assertThrows(Exception.class, () -> new BatchFFT(48, 4));
+		assertThrows(Exception.class, () -> new BatchFFT(64, 0));
+		assertThrows(Exception.class, () -> new BatchRealFFT(96, 4));
+	}
+
+}
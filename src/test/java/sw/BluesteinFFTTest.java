@@ -0,0 +1,52 @@
+package sw;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class BluesteinFFTTest {
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 2, 7, 11, 49, 97, 256, 1000, 2205, 2399 })
+	void testMatchesDft(int n) throws Exception {
+		MixedRadixFFTTest.assertMatchesDft(new BluesteinFFT(n), 1e-9);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 6, 7, 1200, 2205, 2399, 2400 })
+	void testRealFftOfAnyLength(int n) throws Exception {
+
+		Random random = new Random(n);
+		double[] x = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = random.nextDouble() * 2 - 1;
+		}
+
+		double[] expRe = x.clone();
+		double[] expIm = new double[n];
+		new BluesteinFFT(n).fft(expRe, expIm);
+
+		IFFTEngine complex = n % 2 == 0 ? new MixedRadixFFT(n / 2) : new BluesteinFFT(n);
+		RealFFT fft = new RealFFT(n, complex);
+		double[] re = new double[n / 2 + 1];
+		double[] im = new double[n / 2 + 1];
+		fft.fft(x, re, im);
+
+		for (int k = 0; k <= n / 2; k++) {
+			assertEquals(expRe[k], re[k], 1e-9);
+			assertEquals(expIm[k], im[k], 1e-9);
+		}
+	}
+
+	@Test
+	void testRealFftSizeMismatch() {
+		assertThrows(Exception.class, () -> new RealFFT(7, new BluesteinFFT(3)));
+		assertThrows(Exception.class, () -> new RealFFT(8, new FFT(8)));
+	}
+
+}
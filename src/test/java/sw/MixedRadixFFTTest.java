@@ -0,0 +1,88 @@
+package sw;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class MixedRadixFFTTest {
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 2, 3, 4, 5, 6, 8, 9, 12, 15, 25, 30, 60, 120, 1000, 1200, 2400 })
+	void testMatchesDft(int n) throws Exception {
+		assertMatchesDft(new MixedRadixFFT(n), 1e-9);
+	}
+
+	@Test
+	void testPowerOf2MatchesReferenceFft() throws Exception {
+		int n = 4096;
+		Random random = new Random(n);
+		double[] x = new double[n];
+		double[] y = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = random.nextDouble() * 2 - 1;
+			y[i] = random.nextDouble() * 2 - 1;
+		}
+
+		double[] expX = x.clone();
+		double[] expY = y.clone();
+		new FFT(n).fft(expX, expY);
+		new MixedRadixFFT(n).fft(x, y);
+
+		for (int k = 0; k < n; k++) {
+			assertEquals(expX[k], x[k], 1e-9);
+			assertEquals(expY[k], y[k], 1e-9);
+		}
+	}
+
+	@Test
+	void testSupports() {
+		assertTrue(MixedRadixFFT.supports(1));
+		assertTrue(MixedRadixFFT.supports(2400));
+		assertFalse(MixedRadixFFT.supports(0));
+		assertFalse(MixedRadixFFT.supports(7));
+		assertFalse(MixedRadixFFT.supports(2205));
+		assertThrows(Exception.class, () -> new MixedRadixFFT(2205));
+	}
+
+	/**
+	 * Compares result of the transform with directly calculated DFT of random
+	 * input
+	 */
+	static void assertMatchesDft(IFFTEngine fft, double delta) {
+		int n = fft.getSize();
+		Random random = new Random(n);
+		double[] x = new double[n];
+		double[] y = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = random.nextDouble() * 2 - 1;
+			y[i] = random.nextDouble() * 2 - 1;
+		}
+
+		double[] re = x.clone();
+		double[] im = y.clone();
+		fft.fft(re, im);
+
+		for (int k = 0; k < n; k++) {
+			double expRe = 0;
+			double expIm = 0;
+			for (int i = 0; i < n; i++) {
+				// i*k modulo n keeps the angle accurate
+				double angle = -2 * Math.PI * ((long) i * k % n) / n;
+				double c = Math.cos(angle);
+				double s = Math.sin(angle);
+				expRe += c * x[i] - s * y[i];
+				expIm += s * x[i] + c * y[i];
+			}
+			assertEquals(expRe, re[k], delta);
+			assertEquals(expIm, im[k], delta);
+		}
+	}
+
+}
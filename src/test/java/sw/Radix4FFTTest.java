@@ -0,0 +1,98 @@
+package sw;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class Radix4FFTTest {
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 2, 4, 8, 16, 32, 256, 512, 1024, 2048, 4096, 8192, 16384 })
+	void testMatchesReferenceFft(int n) throws Exception {
+
+		Random random = new Random(n);
+		double[] x = new double[n];
+		double[] y = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = random.nextDouble() * 2 - 1;
+			y[i] = random.nextDouble() * 2 - 1;
+		}
+
+		double[] expX = x.clone();
+		double[] expY = y.clone();
+		new FFT(n).fft(expX, expY);
+		new Radix4FFT(n).fft(x, y);
+
+		for (int k = 0; k < n; k++) {
+			assertEquals(expX[k], x[k], 1e-9);
+			assertEquals(expY[k], y[k], 1e-9);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 2, 4, 8, 16, 32 })
+	void testMatchesDft(int n) throws Exception {
+
+		Random random = new Random(n);
+		double[] x = new double[n];
+		double[] y = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = random.nextDouble() * 2 - 1;
+			y[i] = random.nextDouble() * 2 - 1;
+		}
+
+		double[] re = x.clone();
+		double[] im = y.clone();
+		new Radix4FFT(n).fft(re, im);
+
+		for (int k = 0; k < n; k++) {
+			double expRe = 0;
+			double expIm = 0;
+			for (int i = 0; i < n; i++) {
+				double c = Math.cos(-2 * Math.PI * i * k / n);
+				double s = Math.sin(-2 * Math.PI * i * k / n);
+				expRe += c * x[i] - s * y[i];
+				expIm += s * x[i] + c * y[i];
+			}
+			assertEquals(expRe, re[k], 1e-12);
+			assertEquals(expIm, im[k], 1e-12);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 2, 4, 256, 1024, 8192 })
+	void testRealFftWithRadix4Engine(int n) throws Exception {
+
+		Random random = new Random(n);
+		double[] x = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = random.nextDouble() * 2 - 1;
+		}
+
+		double[] expRe = new double[n / 2 + 1];
+		double[] expIm = new double[n / 2 + 1];
+		new RealFFT(n).fft(x, expRe, expIm);
+
+		double[] re = new double[n / 2 + 1];
+		double[] im = new double[n / 2 + 1];
+		RealFFT fft = new RealFFT(new Radix4FFT(n / 2));
+		fft.fft(x, re, im);
+
+		assertEquals(n, fft.getSize());
+		for (int k = 0; k <= n / 2; k++) {
+			assertEquals(expRe[k], re[k], 1e-9);
+			assertEquals(expIm[k], im[k], 1e-9);
+		}
+	}
+
+	@Test
+	void testLengthNotPowerOf2() {
+		assertThrows(Exception.class, () -> new Radix4FFT(1000));
+	}
+
+}
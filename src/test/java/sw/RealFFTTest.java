@@ -0,0 +1,132 @@
+package sw;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class RealFFTTest {
+
+	@ParameterizedTest
+	@ValueSource(ints = { 2, 4, 16, 256, 1024, 8192 })
+	void testMatchesComplexFft(int n) throws Exception {
+
+		Random random = new Random(n);
+		double[] x = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = random.nextDouble() * 2 - 1;
+		}
+
+		double[] re = new double[n / 2 + 1];
+		double[] im = new double[n / 2 + 1];
+		new RealFFT(n).fft(x, re, im);
+
+		double[] expRe = x.clone();
+		double[] expIm = new double[n];
+		new FFT(n).fft(expRe, expIm);
+
+		for (int k = 0; k <= n / 2; k++) {
+			assertEquals(expRe[k], re[k], 1e-9);
+			assertEquals(expIm[k], im[k], 1e-9);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 2, 4, 16, 256, 1024, 8192 })
+	void testFloatMatchesDouble(int n) throws Exception {
+
+		Random random = new Random(n);
+		double[] x = new double[n];
+		float[] xFloat = new float[n];
+		for (int i = 0; i < n; i++) {
+			xFloat[i] = (float) (random.nextDouble() * 2 - 1);
+			x[i] = xFloat[i];
+		}
+
+		double[] re = new double[n / 2 + 1];
+		double[] im = new double[n / 2 + 1];
+		new RealFFT(n).fft(x, re, im);
+
+		float[] reFloat = new float[n / 2 + 1];
+		float[] imFloat = new float[n / 2 + 1];
+		new RealFFTFloat(n).fft(xFloat, reFloat, imFloat);
+
+		// Rounding error of the radix-2 FFT grows with log2(n), relative to the
+		// norm of the input, which is about sqrt(n / 3) here
+		double tolerance = 1e-6 * Math.sqrt(n) * (1 + Math.log(n) / Math.log(2));
+		for (int k = 0; k <= n / 2; k++) {
+			assertEquals(re[k], reFloat[k], tolerance);
+			assertEquals(im[k], imFloat[k], tolerance);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 2, 4, 16, 256, 1024, 8192 })
+	void testQ15MatchesDouble(int n) throws Exception {
+
+		Random random = new Random(n);
+		double[] x = new double[n];
+		int[] xQ15 = new int[n];
+		for (int i = 0; i < n; i++) {
+			xQ15[i] = random.nextInt(1 << 16) - (1 << 15);
+			x[i] = xQ15[i] / 32768.0;
+		}
+
+		double[] re = new double[n / 2 + 1];
+		double[] im = new double[n / 2 + 1];
+		new RealFFT(n).fft(x, re, im);
+
+		int[] reQ15 = new int[n / 2 + 1];
+		int[] imQ15 = new int[n / 2 + 1];
+		int exponent = new RealFFTQ15(n).fft(xQ15, reQ15, imQ15);
+
+		// Rounding errors of products grow with the signal, about sqrt(n) LSB
+		double scale = Math.scalb(1.0, exponent) / 32768;
+		double tolerance = Math.sqrt(n) * scale;
+		for (int k = 0; k <= n / 2; k++) {
+			assertEquals(re[k], reQ15[k] * scale, tolerance);
+			assertEquals(im[k], imQ15[k] * scale, tolerance);
+		}
+	}
+
+	@Test
+	void testQ15ScalesLongFrames() throws Exception {
+		int n = 1 << 16;
+		int[] x = new int[n];
+		Arrays.fill(x, Short.MAX_VALUE);
+
+		int[] re = new int[n / 2 + 1];
+		int[] im = new int[n / 2 + 1];
+		int exponent = new RealFFTQ15(n).fft(x, re, im);
+
+		assertTrue(exponent > 0);
+		assertEquals((double) n * Short.MAX_VALUE, Math.scalb((double) re[0], exponent), Math.scalb(1.0, exponent));
+		assertEquals(0, re[1]);
+		assertEquals(0, im[1]);
+	}
+
+	@Test
+	void testLengthNotPowerOf2() {
+		assertThrows(Exception.class, () -> new RealFFT(1000));
+		assertThrows(Exception.class, () -> new RealFFTFloat(1000));
+		assertThrows(Exception.class, () -> new RealFFTQ15(1000));
+	}
+
+	@Test
+	void testTwiddlesAreShared() throws Exception {
+		RealFFT real = new RealFFT(1024);
+		assertSame(real.cos, new RealFFT(1024).cos);
+		assertSame(real.cos, new FFT(1024).cos);
+		assertNotSame(real.cos, new RealFFT(512).cos);
+		assertSame(new RealFFTQ15(256).sin, new FFTQ15(256).sin);
+	}
+
+}
@@ -1,8 +1,6 @@
 package ultrasound;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -30,15 +28,7 @@ public class TestData {
 		}
 		
 		File file = new File(this.getClass().getClassLoader().getResource(name).toURI());
-    	List<String> tmpArr = FileUtil.readDataFromCsvFile(file);
-    	List<Short> audioSigList = new ArrayList<Short>();
-    	for (String string : tmpArr) {
-			audioSigList.add((short) Integer.parseInt(string));
-		}
-        this.audioSig = new short[audioSigList.size()];
-        for (int i = 0; i < this.audioSig.length; i++) {
-        	this.audioSig[i] = audioSigList.get(i);
-        }
+		this.audioSig = FileUtil.readCsvSamples(file);
 	}
 
 	public int getSampleRate() {
@@ -0,0 +1,102 @@
+package ultrasound.audio;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ultrasound.TestData;
+import ultrasound.utils.FileUtil;
+
+class AudioSourceTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void testBufferSource() throws IOException {
+		short[] data = randomSamples(1000);
+		try (BufferAudioSource source = new BufferAudioSource(data, 8000)) {
+			assertEquals(8000, source.getSampleRate());
+			assertArrayEquals(data, readAll(source, 300));
+			assertEquals(0, source.remaining());
+		}
+	}
+
+	@Test
+	void testStreamSourceWithSplitSamples() throws IOException {
+		short[] data = randomSamples(5001);
+		byte[] bytes = new byte[2 * data.length];
+		for (int i = 0; i < data.length; i++) {
+			bytes[2 * i] = (byte) data[i];
+			bytes[2 * i + 1] = (byte) (data[i] >> 8);
+		}
+		// Pipe which returns bytes in small chunks of odd length
+		InputStream in = new ByteArrayInputStream(bytes) {
+			@Override
+			public synchronized int read(byte[] b, int off, int len) {
+				return super.read(b, off, Math.min(len, 3));
+			}
+		};
+
+		try (StreamAudioSource source = new StreamAudioSource(in, 48000)) {
+			assertArrayEquals(data, readAll(source, 1024));
+		}
+	}
+
+	@Test
+	void testOpenFiles() throws Exception {
+		String name = "4F17000S40-6C.csv";
+		short[] expected = new TestData(name, 48000).getAudioSig();
+		File csvFile = new File(getClass().getClassLoader().getResource(name).toURI());
+		File wavFile = tempDir.resolve("rec.wav").toFile();
+		File pcmFile = tempDir.resolve("rec.pcm").toFile();
+		FileUtil.writeWavFile(wavFile, expected, 44100);
+		FileUtil.writePcmFile(pcmFile, expected);
+
+		try (IAudioSource source = AudioSources.open(csvFile, 48000)) {
+			assertEquals(48000, source.getSampleRate());
+			assertArrayEquals(expected, readAll(source, 1024));
+		}
+		try (IAudioSource source = AudioSources.open(wavFile, 48000)) {
+			assertEquals(44100, source.getSampleRate());
+			assertArrayEquals(expected, readAll(source, 1024));
+		}
+		try (IAudioSource source = AudioSources.open(pcmFile, 48000)) {
+			assertArrayEquals(expected, readAll(source, 1024));
+		}
+	}
+
+	private static short[] readAll(IAudioSource source, int chunk) throws IOException {
+		source.start();
+		short[] data = new short[chunk];
+		int length = 0;
+		int n;
+		while ((n = source.read(data, length, Math.min(chunk, data.length - length))) >= 0) {
+			length += n;
+			if (length == data.length) {
+				data = Arrays.copyOf(data, 2 * data.length);
+			}
+		}
+		return Arrays.copyOf(data, length);
+	}
+
+	private static short[] randomSamples(int length) {
+		Random random = new Random(0);
+		short[] data = new short[length];
+		for (int i = 0; i < length; i++) {
+			data[i] = (short) random.nextInt();
+		}
+		return data;
+	}
+
+}
@@ -1,18 +1,30 @@
 package ultrasound.decoder;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 import java.util.stream.Stream;
 
 import org.apache.commons.lang3.time.StopWatch;
 import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import ultrasound.ICoder.CoderMode;
 import ultrasound.TestData;
 import ultrasound.dataframe.IDataFrame;
+import ultrasound.encoder.MockEncoder;
 
 class AbstractDecoderTest {
 	
@@ -113,6 +125,228 @@ class AbstractDecoderTest {
 		);
 	}
 	
+	@ParameterizedTest
+	@ValueSource(ints = { 2400, 2399 })
+	void testDecodeFramesOfSymbolLength(int symbolNfft) throws Exception {
+		// One 50 ms symbol at 48 kHz, 2399 samples are transformed with Bluestein FFT
+		for (String testFileName : new String[] { "16F20000S40-6C.csv", "4F17000S40-6C.csv" }) {
+			TestData data = new TestData(testFileName, sampleRate);
+			MockDecoderBuilder builder = new MockDecoderBuilder(sampleRate, data.getNoOfChannels(),
+					data.getFirstFreq(), data.getFreqStep(), symbolNfft, threshold);
+			builder.audioDataForMock(data.getAudioSig());
+			builder.stopAtEndOfData(true);
+			builder.validate();
+
+			IDecoderSimple decoder = builder.build();
+			decoder.run();
+			assertEquals("6c", decoder.getResHex());
+		}
+	}
+
+	@Test
+	void testNfftMustBePowerOf2ForFixedPrecisionFft() {
+		MockDecoderBuilder builder = new MockDecoderBuilder(sampleRate, 4, 17000, 40, 2400, threshold);
+		builder.precision(IDecoderSimple.Precision.FLOAT);
+		assertThrows(IllegalArgumentException.class, builder::validate);
+
+		builder.spectralDetector(ISpectralDetector.DetectorType.GOERTZEL);
+		builder.validate();
+
+		MockDecoderBuilder tooShort = new MockDecoderBuilder(sampleRate, 4, 17000, 40, 1, threshold);
+		assertThrows(IllegalArgumentException.class, tooShort::validate);
+	}
+
+	@Test
+	void testZoomNeedsBandLimitedDetector() {
+		MockDecoderBuilder builder = new MockDecoderBuilder(sampleRate, 4, 17000, 40, 1024, threshold);
+		builder.zoom(0);
+		assertThrows(IllegalArgumentException.class, builder::validate);
+
+		builder.zoom(4);
+		assertThrows(IllegalArgumentException.class, builder::validate);
+
+		builder.spectralDetector(ISpectralDetector.DetectorType.ZOOM);
+		builder.validate();
+		builder.spectralDetector(ISpectralDetector.DetectorType.GOERTZEL);
+		builder.validate();
+
+		builder.spectralDetector(ISpectralDetector.DetectorType.ZOOM);
+		builder.precision(IDecoderSimple.Precision.Q15);
+		assertThrows(IllegalArgumentException.class, builder::validate);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 2, 4, 8, 16 })
+	void testDecimatedDecodingMatchesFullBand(int decimation) throws Exception {
+		for (String testFileName : new String[] { "16F20000S40-6C.csv", "4F17000S40-6C.csv" }) {
+			for (IDecoderSimple.ExecutionMode mode : IDecoderSimple.ExecutionMode.values()) {
+				TestData data = new TestData(testFileName, sampleRate);
+				MockDecoderBuilder builder = new MockDecoderBuilder(sampleRate, data.getNoOfChannels(),
+						data.getFirstFreq(), data.getFreqStep(), 1024, threshold);
+				builder.audioDataForMock(data.getAudioSig());
+				builder.stopAtEndOfData(true);
+				builder.executionMode(mode);
+				builder.hopSize(256);
+				List<String> expected = SymbolLog.run(builder.build());
+
+				builder.decimation(decimation);
+				builder.validate();
+				IDecoderSimple decoder = builder.build();
+				assertEquals(decimation, decoder.getDecimation());
+				assertEquals(testFileName + " " + mode, expected, SymbolLog.run(decoder));
+			}
+		}
+	}
+
+	@Test
+	void testDecimationNeedsDoublePrecisionFft() {
+		MockDecoderBuilder builder = new MockDecoderBuilder(sampleRate, 4, 17000, 40, 1024, threshold);
+		builder.decimation(0);
+		assertThrows(IllegalArgumentException.class, builder::validate);
+
+		builder.decimation(16);
+		builder.validate();
+		builder.hopSize(100);
+		assertThrows(IllegalArgumentException.class, builder::validate);
+		builder.hopSize(0);
+
+		builder.precision(IDecoderSimple.Precision.FLOAT);
+		assertThrows(IllegalArgumentException.class, builder::validate);
+		builder.precision(IDecoderSimple.Precision.DOUBLE);
+		builder.spectralDetector(ISpectralDetector.DetectorType.GOERTZEL);
+		assertThrows(IllegalArgumentException.class, builder::validate);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 2, 7, 16 })
+	void testBatchedDecodingMatchesFrameByFrame(int batchSize) throws Exception {
+		for (String testFileName : new String[] { "16F20000S40-6C.csv", "4F17000S40-6C.csv",
+				"16F18000S20-Alamakota.csv" }) {
+			for (int hopSize : new int[] { 1024, 256 }) {
+				TestData data = new TestData(testFileName, sampleRate);
+				short[] audio = data.getAudioSig();
+				MockDecoderBuilder builder = new MockDecoderBuilder(sampleRate, data.getNoOfChannels(),
+						data.getFirstFreq(), data.getFreqStep(), 1024, threshold);
+				builder.hopSize(hopSize);
+				MockDecoderSimple expectedDecoder = builder.build();
+				List<String> expected = SymbolLog.collect(() -> expectedDecoder.decode(audio, 0, audio.length));
+				assertFalse(expected.isEmpty());
+
+				builder.batchSize(batchSize);
+				builder.validate();
+				MockDecoderSimple decoder = builder.build();
+				assertEquals(batchSize, decoder.getBatchSize());
+				assertEquals(testFileName + " " + hopSize, expected,
+						SymbolLog.collect(() -> decoder.decode(audio, 0, audio.length)));
+			}
+		}
+	}
+
+	@Test
+	void testBatchNeedsDoublePrecisionRadix4Fft() {
+		MockDecoderBuilder builder = new MockDecoderBuilder(sampleRate, 4, 17000, 40, 1024, threshold);
+		builder.batchSize(0);
+		assertThrows(IllegalArgumentException.class, builder::validate);
+
+		builder.batchSize(8);
+		builder.validate();
+
+		builder.precision(IDecoderSimple.Precision.FLOAT);
+		assertThrows(IllegalArgumentException.class, builder::validate);
+		builder.precision(IDecoderSimple.Precision.DOUBLE);
+		builder.fftEngine(IDecoderSimple.FftEngine.RADIX2);
+		assertThrows(IllegalArgumentException.class, builder::validate);
+		builder.fftEngine(IDecoderSimple.FftEngine.RADIX4);
+		builder.spectralDetector(ISpectralDetector.DetectorType.GOERTZEL);
+		assertThrows(IllegalArgumentException.class, builder::validate);
+		builder.spectralDetector(ISpectralDetector.DetectorType.FFT);
+		builder.decimation(16);
+		assertThrows(IllegalArgumentException.class, builder::validate);
+
+		MockDecoderBuilder notPowerOf2 = new MockDecoderBuilder(sampleRate, 4, 17000, 40, 2400, threshold);
+		notPowerOf2.batchSize(8);
+		assertThrows(IllegalArgumentException.class, notPowerOf2::validate);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 480, 240, 120 })
+	void testPeakInterpolationDecodesWithSmallerFft(int smallNfft) throws Exception {
+		// One channel with tones 100 Hz apart, resolved by bins of 50 Hz without interpolation
+		String hex = "6c5a93f1e27b";
+		MockEncoder.MockEncoderBuilder encoderBuilder = new MockEncoder.MockEncoderBuilder(sampleRate, 1, 18000, 100);
+		encoderBuilder.mode(CoderMode.SIMPLE);
+		MockEncoder encoder = encoderBuilder.build();
+		encoder.setHexData(hex);
+		encoder.run();
+		short[] sig = encoder.getOutputBuffer();
+
+		Random random = new Random(1);
+		short[] audio = new short[sig.length + 4 * 960];
+		for (int i = 0; i < sig.length; i++) {
+			double sample = sig[i] + random.nextGaussian() * 30;
+			audio[960 + i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, sample));
+		}
+
+		for (int nfft : new int[] { 960, smallNfft }) {
+			for (IDecoderSimple.PeakInterpolation interpolation : IDecoderSimple.PeakInterpolation.values()) {
+				MockDecoderBuilder builder = new MockDecoderBuilder(sampleRate, 1, 18000, 100, nfft, threshold);
+				builder.mode(CoderMode.SIMPLE);
+				builder.peakInterpolation(interpolation);
+				builder.validate();
+				MockDecoderSimple decoder = builder.build();
+				assertEquals(interpolation, decoder.getPeakInterpolation());
+				decoder.decode(audio, 0, audio.length);
+				if (nfft == 960 || interpolation != IDecoderSimple.PeakInterpolation.NONE) {
+					assertEquals(nfft + " " + interpolation, hex, decoder.getResHex());
+				} else {
+					assertNotEquals(hex, decoder.getResHex());
+				}
+			}
+		}
+	}
+
+	@Test
+	void testDecodeDoesNotAllocateAfterWarmUp() {
+
+		assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+		threadBean.setThreadAllocatedMemoryEnabled(true);
+
+		initTest("16F18000S20-Alamakota.csv", null, CoderMode.SIMPLE);
+		MockDecoderSimple decoder = (MockDecoderSimple) decoderSimple;
+		int n = decoder.getNfft();
+		short[] signal = Arrays.copyOfRange(testData.getAudioSig(), 20 * n, 21 * n);
+
+		// Vector API kernels allocate until they are compiled by C2. On a single CPU
+		// the compilations may finish after the first rounds, so warm up until the
+		// JIT compiler stops compiling.
+		CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+		boolean compiling = compiler != null && compiler.isCompilationTimeMonitoringSupported();
+		for (int round = 0; round < 20; round++) {
+			long compilationTime = compiling ? compiler.getTotalCompilationTime() : 0;
+			for (int i = 0; i < 10000; i++) {
+				decoder.decode(signal);
+			}
+			if (!compiling || compiler.getTotalCompilationTime() == compilationTime) {
+				break;
+			}
+		}
+
+		long threadId = Thread.currentThread().getId();
+		long before = threadBean.getThreadAllocatedBytes(threadId);
+		long overhead = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+		before = threadBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < 1000; i++) {
+			decoder.decode(signal);
+		}
+		long allocated = threadBean.getThreadAllocatedBytes(threadId) - before - overhead;
+
+		assertEquals("Decoding frames without new symbols should not allocate memory", 0, allocated);
+	}
+
 	protected void pause(long duration) {
 
 		try {
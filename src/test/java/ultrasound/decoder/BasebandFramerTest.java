@@ -0,0 +1,112 @@
+package ultrasound.decoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import ultrasound.TestData;
+import ultrasound.decoder.IDecoderSimple.FftEngine;
+import ultrasound.utils.UltrasoundHelper;
+
+class BasebandFramerTest {
+
+	int nfft = 1024;
+	int lowestBin = 383;
+	int noOfBins = 16;
+	int centreBin = lowestBin + noOfBins / 2;
+
+	@ParameterizedTest
+	@ValueSource(ints = { 2, 4, 8, 16 })
+	void testPowerMatchesFullFft(int decimation) throws Exception {
+
+		TestData testData = new TestData("16F18000S20-Alamakota.csv", 48000);
+		double[] hamming = UltrasoundHelper.hamming(nfft);
+
+		FftSpectralDetector fft = new FftSpectralDetector(nfft, lowestBin);
+		BasebandFramer framer = new BasebandFramer(nfft, decimation, nfft, centreBin, noOfBins / 2 + 1, null);
+		BasebandSpectralDetector baseband = new BasebandSpectralDetector(nfft, decimation, lowestBin, centreBin,
+				FftEngine.RADIX4);
+
+		for (int frame = 0; frame < 60; frame++) {
+			short[] samples = Arrays.copyOfRange(testData.getAudioSig(), frame * nfft, (frame + 1) * nfft);
+			double[] x = UltrasoundHelper.shortArrayToDoubleArray(samples);
+			for (int i = 0; i < nfft; i++) {
+				x[i] *= hamming[i];
+			}
+
+			double[] expected = new double[noOfBins];
+			double[] actual = new double[noOfBins];
+			fft.calculatePower(x, expected);
+			int start = framer.decimateFrame(samples, 0, nfft);
+			baseband.calculatePower(framer.getRe(), framer.getIm(), start, actual);
+
+			// Power differs by the ripple of the decimation filter, relative to the
+			// strongest bin of the band, and most at the onset of symbols. Out of
+			// band noise leaking into the full spectrum is removed by the filter, it
+			// is far below the threshold.
+			double max = Arrays.stream(expected).max().getAsDouble();
+			for (int bin = 0; bin < noOfBins; bin++) {
+				assertEquals(expected[bin], actual[bin], 5e-2 * max + 2e-2, "Frame " + frame + ", bin " + bin);
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1024, 512, 256, 64 })
+	void testFramesStartEveryHop(int hop) {
+		int decimation = 16;
+		short[] stream = new short[10000];
+		int[] count = new int[1];
+		BasebandFramer framer = new BasebandFramer(nfft, decimation, hop, centreBin, noOfBins / 2 + 1,
+				(re, im, start) -> count[0]++);
+
+		// Push the stream in chunks of random length
+		Random random = new Random(0);
+		int off = 0;
+		while (off < stream.length) {
+			int len = Math.min(random.nextInt(2 * nfft), stream.length - off);
+			framer.push(stream, off, len);
+			off += len;
+		}
+		assertEquals((stream.length - nfft - framer.getZeroPadding()) / hop + 1, count[0]);
+
+		// Frames which started in the stream are emitted after zero padding
+		int lastFrame = (stream.length - 1) / hop * hop;
+		framer.pushZeros(lastFrame + nfft + framer.getZeroPadding() - stream.length);
+		assertEquals(lastFrame / hop + 1, count[0]);
+	}
+
+	@Test
+	void testToneIsMovedToItsBin() throws Exception {
+		int decimation = 8;
+		int bin = lowestBin + 3;
+		short[] tone = new short[nfft];
+		for (int i = 0; i < nfft; i++) {
+			tone[i] = (short) (10000 * Math.cos(2 * Math.PI * bin * i / nfft));
+		}
+
+		BasebandFramer framer = new BasebandFramer(nfft, decimation, nfft, centreBin, noOfBins / 2 + 1, null);
+		BasebandSpectralDetector baseband = new BasebandSpectralDetector(nfft, decimation, lowestBin, centreBin,
+				FftEngine.RADIX4);
+		double[] ampl = new double[noOfBins];
+		int start = framer.decimateFrame(tone, 0, nfft);
+		baseband.calculatePower(framer.getRe(), framer.getIm(), start, ampl);
+
+		assertEquals(3, UltrasoundHelper.findMaxValueIndex(ampl, 0, noOfBins));
+	}
+
+	@Test
+	void testBandMustFitInDecimatedFrame() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new BasebandFramer(nfft, 64, nfft, centreBin, noOfBins / 2 + 1, null));
+		assertThrows(IllegalArgumentException.class,
+				() -> new BasebandFramer(nfft, 16, 1000, centreBin, noOfBins / 2 + 1, null));
+	}
+
+}
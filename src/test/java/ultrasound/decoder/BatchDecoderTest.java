@@ -0,0 +1,128 @@
+package ultrasound.decoder;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import ultrasound.ICoder.CoderMode;
+import ultrasound.TestData;
+import ultrasound.dataframe.IDataFrame;
+import ultrasound.decoder.BatchDecoder.Burst;
+import ultrasound.decoder.RealTimeFactorHarness.Recording;
+
+class BatchDecoderTest {
+
+	private static final int SAMPLE_RATE = RealTimeFactorHarness.SAMPLE_RATE;
+
+	private static ForkJoinPool pool;
+
+	@BeforeAll
+	static void setUp() {
+		pool = new ForkJoinPool(4);
+	}
+
+	@AfterAll
+	static void tearDown() {
+		pool.shutdown();
+	}
+
+	@ParameterizedTest
+	@MethodSource("corpus")
+	void testBatchDecodingMatchesRealTimeDecoding(Recording recording) throws Exception {
+		TestData testData = new TestData(recording.fileName, SAMPLE_RATE);
+		MockDecoderBuilder builder = createBuilder(testData, recording.nfft, recording.mode);
+
+		List<Burst> bursts = new BatchDecoder(builder, pool).decode(testData.getAudioSig());
+		assertTrue(bursts.size() > 0);
+
+		if (recording.mode == CoderMode.SIMPLE) {
+			IDecoderSimple decoder = builder.build();
+			decoder.run();
+			assertEquals(recording.expected, decoder.getResHex());
+			assertEquals(decoder.getResHex(), bursts.stream().map(Burst::getResHex).collect(Collectors.joining()));
+		} else {
+			MockDecoder decoder = builder.buildDataFrame();
+			decoder.run();
+			IDataFrame expected = decoder.getDataFrame();
+			assertNotNull(expected);
+			assertEquals(recording.expected, new String(expected.getData()));
+			List<IDataFrame> frames = bursts.stream().flatMap(burst -> burst.getDataFrames().stream())
+					.collect(Collectors.toList());
+			assertEquals(expected.toString(), frames.get(frames.size() - 1).toString());
+		}
+	}
+
+	@Test
+	void testRecordingSplitAtSilence() throws Exception {
+		int nfft = 2400;
+		TestData testData = new TestData("4F17000S40-6C.csv", SAMPLE_RATE);
+		short[] single = testData.getAudioSig();
+		MockDecoderBuilder builder = createBuilder(testData, nfft, CoderMode.SIMPLE);
+		BatchDecoder batchDecoder = new BatchDecoder(builder, pool);
+
+		// Three copies of the recording separated with 2 seconds of silence, every
+		// copy starts at a frame boundary
+		int period = ((single.length + 2 * SAMPLE_RATE) / nfft + 1) * nfft;
+		short[] audio = new short[3 * period];
+		for (int i = 0; i < 3; i++) {
+			System.arraycopy(single, 0, audio, i * period, single.length);
+		}
+
+		List<Burst> bursts = batchDecoder.decode(audio);
+
+		assertEquals(3, bursts.size());
+		for (int i = 0; i < 3; i++) {
+			Burst burst = bursts.get(i);
+			assertTrue(burst.getStartSample() >= i * period);
+			assertTrue(burst.getEndSample() <= i * period + single.length + nfft);
+			assertEquals("6c", burst.getResHex());
+			assertTrue(burst.getLog().contains("DEC - Decoded data binary: 01101100"), burst.getLog().toString());
+		}
+	}
+
+	@Test
+	void testFindBursts() {
+		int hop = 4;
+		short[] audio = new short[100];
+		audio[10] = 5000;
+		audio[20] = -5000;
+		audio[80] = 5000;
+
+		BatchDecoder batchDecoder = new BatchDecoder(new MockDecoderBuilder(SAMPLE_RATE, 4, 17000, 40, 1024, 0.3));
+		// 10 blocks of silence split the recording
+		batchDecoder.setMinSilence(10.0 * hop / SAMPLE_RATE);
+		List<int[]> ranges = batchDecoder.findBursts(audio, 8, hop, SAMPLE_RATE);
+
+		assertEquals(2, ranges.size());
+		// Frames of 8 samples which contain samples 10 - 20
+		assertArrayEquals(new int[] { 4, 28 }, ranges.get(0));
+		// Frames which contain sample 80, limited by the end of the recording
+		assertArrayEquals(new int[] { 76, 88 }, ranges.get(1));
+	}
+
+	private static Stream<Recording> corpus() {
+		return RealTimeFactorHarness.DECODED.stream();
+	}
+
+	private static MockDecoderBuilder createBuilder(TestData testData, int nfft, CoderMode mode) {
+		MockDecoderBuilder builder = new MockDecoderBuilder(SAMPLE_RATE, testData.getNoOfChannels(),
+				testData.getFirstFreq(), testData.getFreqStep(), nfft, RealTimeFactorHarness.THRESHOLD);
+		builder.audioDataForMock(testData.getAudioSig());
+		builder.stopAtEndOfData(true);
+		builder.mode(mode);
+		return builder;
+	}
+
+}
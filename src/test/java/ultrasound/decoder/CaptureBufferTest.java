@@ -0,0 +1,132 @@
+package ultrasound.decoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import ultrasound.TestData;
+import ultrasound.decoder.IDecoderSimple.ExecutionMode;
+
+/**
+ * Checks that capturing to the direct buffer gives the same results as
+ * {@link AbstractDecoderSimple#getAudioSamples()}
+ */
+class CaptureBufferTest {
+
+	private static final String RECORDING = "4F17000S40-6C.csv";
+
+	/**
+	 * Fills capture buffer in place, like a platform decoder reading from native
+	 * audio buffer
+	 */
+	static class DirectCaptureDecoder extends MockDecoderSimple {
+
+		private final short[] audio;
+		private int pos;
+
+		DirectCaptureDecoder(MockDecoderBuilder builder) throws Exception {
+			super(builder);
+			this.audio = builder.audioData;
+		}
+
+		@Override
+		protected int readAudioSamples(ByteBuffer buffer) {
+			assertTrue(buffer.isDirect());
+			assertEquals(ByteOrder.nativeOrder(), buffer.order());
+			if (pos >= audio.length) {
+				stop();
+				return 0;
+			}
+			int n = Math.min(getN(buffer), audio.length - pos);
+			for (int i = 0; i < n; i++) {
+				buffer.putShort(2 * i, audio[pos + i]);
+			}
+			pos += n;
+			return n;
+		}
+
+		private static int getN(ByteBuffer buffer) {
+			return buffer.capacity() / 2;
+		}
+
+		@Override
+		public short[] getAudioSamples() {
+			throw new IllegalStateException("Capture buffer should be used");
+		}
+	}
+
+	/**
+	 * Returns fragments 2.5 times longer than N
+	 */
+	static class LongFragmentDecoder extends MockDecoderSimple {
+
+		private final short[] audio;
+		private int pos;
+
+		LongFragmentDecoder(MockDecoderBuilder builder) throws Exception {
+			super(builder);
+			this.audio = builder.audioData;
+		}
+
+		@Override
+		public short[] getAudioSamples() {
+			if (pos >= audio.length) {
+				stop();
+				return new short[0];
+			}
+			int len = Math.min(5 * getNfft() / 2, audio.length - pos);
+			pos += len;
+			return Arrays.copyOfRange(audio, pos - len, pos);
+		}
+	}
+
+	@ParameterizedTest
+	@MethodSource("modes")
+	void testDirectCaptureMatchesAdapter(ExecutionMode mode, int hopDivisor) throws Exception {
+		MockDecoderBuilder builder = createBuilder(mode, hopDivisor);
+
+		List<String> expected = SymbolLog.run(builder.build());
+		List<String> decoded = SymbolLog.run(new DirectCaptureDecoder(builder));
+
+		assertTrue(expected.size() > 0);
+		assertEquals(expected, decoded);
+	}
+
+	@ParameterizedTest
+	@MethodSource("modes")
+	void testAdapterKeepsSamplesOfLongFragments(ExecutionMode mode, int hopDivisor) throws Exception {
+		MockDecoderBuilder builder = createBuilder(mode, hopDivisor);
+
+		List<String> expected = SymbolLog.run(new DirectCaptureDecoder(builder));
+		List<String> decoded = SymbolLog.run(new LongFragmentDecoder(builder));
+
+		assertEquals(expected, decoded);
+	}
+
+	private static MockDecoderBuilder createBuilder(ExecutionMode mode, int hopDivisor) throws Exception {
+		TestData testData = new TestData(RECORDING, RealTimeFactorHarness.SAMPLE_RATE);
+		MockDecoderBuilder builder = new MockDecoderBuilder(RealTimeFactorHarness.SAMPLE_RATE,
+				testData.getNoOfChannels(), testData.getFirstFreq(), testData.getFreqStep(),
+				RealTimeFactorHarness.NFFT, RealTimeFactorHarness.THRESHOLD);
+		builder.audioDataForMock(testData.getAudioSig());
+		builder.stopAtEndOfData(true);
+		builder.executionMode(mode);
+		builder.hopSize(RealTimeFactorHarness.NFFT / hopDivisor);
+		return builder;
+	}
+
+	private static Stream<Arguments> modes() {
+		return Stream.of(Arguments.of(ExecutionMode.SERIAL, 1), Arguments.of(ExecutionMode.SERIAL, 2),
+				Arguments.of(ExecutionMode.PIPELINED, 1), Arguments.of(ExecutionMode.PIPELINED, 4));
+	}
+
+}
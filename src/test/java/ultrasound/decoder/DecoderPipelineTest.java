@@ -0,0 +1,171 @@
+package ultrasound.decoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import ultrasound.TestData;
+import ultrasound.decoder.IDecoderSimple.ExecutionMode;
+import ultrasound.decoder.PipelineMetrics.QueueMetrics;
+import ultrasound.decoder.RealTimeFactorHarness.Recording;
+
+/**
+ * Checks that the pipelined decoder finds exactly the same symbols as the
+ * serial one
+ */
+class DecoderPipelineTest {
+
+	@ParameterizedTest
+	@MethodSource("corpus")
+	void testPipelinedDecodingMatchesSerial(Recording recording, int hopDivisor) throws Exception {
+
+		TestData testData = new TestData(recording.fileName, RealTimeFactorHarness.SAMPLE_RATE);
+
+		List<String> serial = new ArrayList<>();
+		IDecoderSimple serialDecoder = decode(testData, recording, ExecutionMode.SERIAL, hopDivisor, serial);
+		assertNull(serialDecoder.getPipelineMetrics());
+
+		List<String> pipelined = new ArrayList<>();
+		IDecoderSimple pipelinedDecoder = decode(testData, recording, ExecutionMode.PIPELINED, hopDivisor,
+				pipelined);
+
+		assertFalse(serial.isEmpty());
+		assertEquals(serial, pipelined);
+		assertEquals(serialDecoder.getResHex(), pipelinedDecoder.getResHex());
+		assertTrue(recording.isFoundIn(pipelinedDecoder.getResHex()), pipelinedDecoder.getResHex());
+
+		PipelineMetrics metrics = pipelinedDecoder.getPipelineMetrics();
+		assertNotNull(metrics);
+		assertTrue(metrics.getFramesAnalysed() > 0);
+		assertEquals(0, metrics.getSamples().getOverrunCount());
+		assertEquals(0, metrics.getSamples().getDepth());
+		assertEquals(0, metrics.getValues().getOverrunCount());
+		assertEquals(0, metrics.getValues().getDepth());
+	}
+
+	@ParameterizedTest
+	@MethodSource("overlapped")
+	void testCatchingUpInBatchesMatchesSerial(Recording recording, int hopDivisor) throws Exception {
+
+		TestData testData = new TestData(recording.fileName, RealTimeFactorHarness.SAMPLE_RATE);
+
+		List<String> serial = new ArrayList<>();
+		IDecoderSimple serialDecoder = decode(testData, recording, ExecutionMode.SERIAL, hopDivisor, 1, serial);
+
+		// Frames completed by one capture are analysed in batches
+		List<String> serialBatched = new ArrayList<>();
+		IDecoderSimple serialBatchedDecoder = decode(testData, recording, ExecutionMode.SERIAL, hopDivisor, 2,
+				serialBatched);
+
+		// The DSP stage analyses the first frame after the whole recording has been
+		// captured, so it has a backlog and catches up in batches
+		MockDecoderSimple pipelinedDecoder = new MockDecoderSimple(
+				builder(testData, recording, ExecutionMode.PIPELINED, hopDivisor, 2)) {
+			@Override
+			boolean analyseFrame(short[] buffer, int start, int len) {
+				while (isRunning()) {
+					LockSupport.parkNanos(100_000);
+				}
+				return super.analyseFrame(buffer, start, len);
+			}
+		};
+		List<String> pipelined = SymbolLog.run(pipelinedDecoder);
+
+		assertFalse(serial.isEmpty());
+		assertEquals(serial, serialBatched);
+		assertEquals(serial, pipelined);
+		assertEquals(serialDecoder.getResHex(), serialBatchedDecoder.getResHex());
+		assertEquals(serialDecoder.getResHex(), pipelinedDecoder.getResHex());
+		assertTrue(recording.isFoundIn(pipelinedDecoder.getResHex()), pipelinedDecoder.getResHex());
+
+		PipelineMetrics metrics = pipelinedDecoder.getPipelineMetrics();
+		assertTrue(metrics.getFramesBatched() > 0);
+		assertEquals(0, metrics.getSamples().getOverrunCount());
+		assertEquals(0, metrics.getSamples().getDepth());
+	}
+
+	@Test
+	void testFailedFramingDoesNotBlockAnalysis() throws Exception {
+
+		TestData testData = new TestData("16F18000S20-Alamakota.csv", RealTimeFactorHarness.SAMPLE_RATE);
+		MockDecoderBuilder builder = new MockDecoderBuilder(RealTimeFactorHarness.SAMPLE_RATE,
+				testData.getNoOfChannels(), testData.getFirstFreq(), testData.getFreqStep(),
+				RealTimeFactorHarness.NFFT, RealTimeFactorHarness.THRESHOLD);
+		builder.audioDataForMock(testData.getAudioSig());
+		builder.stopAtEndOfData(true);
+		builder.executionMode(ExecutionMode.PIPELINED);
+		builder.hopSize(RealTimeFactorHarness.NFFT / 16);
+
+		// The framing stage waits until the queue of values is full and fails
+		MockDecoderSimple decoder = new MockDecoderSimple(builder) {
+			@Override
+			void onValuesFoundOnAllChannels(double[] vals) {
+				long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+				QueueMetrics values = getPipelineMetrics().getValues();
+				while (values.getDepth() < values.getCapacity() && System.nanoTime() < deadline) {
+					LockSupport.parkNanos(100_000);
+					values = getPipelineMetrics().getValues();
+				}
+				throw new IllegalStateException("Framing failed");
+			}
+		};
+
+		assertTimeoutPreemptively(Duration.ofSeconds(30), decoder::run);
+		PipelineMetrics metrics = decoder.getPipelineMetrics();
+		assertFalse(decoder.isRunning());
+		assertEquals(metrics.getValues().getCapacity(), metrics.getValues().getDepth());
+		assertTrue(metrics.getValues().getOverrunCount() > 0);
+	}
+
+	private static IDecoderSimple decode(TestData testData, Recording recording, ExecutionMode mode,
+			int hopDivisor, List<String> log) {
+		return decode(testData, recording, mode, hopDivisor, 1, log);
+	}
+
+	private static IDecoderSimple decode(TestData testData, Recording recording, ExecutionMode mode,
+			int hopDivisor, int batchSize, List<String> log) {
+		IDecoderSimple decoder = builder(testData, recording, mode, hopDivisor, batchSize).build();
+
+		log.addAll(SymbolLog.run(decoder));
+		return decoder;
+	}
+
+	private static MockDecoderBuilder builder(TestData testData, Recording recording, ExecutionMode mode,
+			int hopDivisor, int batchSize) {
+		MockDecoderBuilder builder = new MockDecoderBuilder(RealTimeFactorHarness.SAMPLE_RATE,
+				testData.getNoOfChannels(), testData.getFirstFreq(), testData.getFreqStep(), recording.nfft,
+				RealTimeFactorHarness.THRESHOLD);
+		builder.audioDataForMock(testData.getAudioSig());
+		builder.stopAtEndOfData(true);
+		builder.executionMode(mode);
+		builder.hopSize(recording.nfft / hopDivisor);
+		builder.batchSize(batchSize);
+		return builder;
+	}
+
+	private static Stream<Arguments> corpus() {
+		return Stream.concat(RealTimeFactorHarness.DECODED.stream().map(recording -> Arguments.of(recording, 1)),
+				overlapped());
+	}
+
+	// Batches need Nfft which is a power of 2
+	private static Stream<Arguments> overlapped() {
+		return Stream.of(1, 2, 4).map(hopDivisor -> Arguments.of(RealTimeFactorHarness.OVERLAPPED, hopDivisor));
+	}
+
+}
@@ -1,30 +1,20 @@
 package ultrasound.decoder;
 
-import java.util.Arrays;
-
 import ultrasound.dataframe.CheckAddressResult;
 import ultrasound.dataframe.ParserResult;
 
 public class MockDecoder extends AbstractDecoder implements IDecoder {
 	
-    private short[] audioData;
-    private int i;
+    private final MockRecorder recorder;
 	
 	protected MockDecoder(MockDecoderBuilder builder) throws Exception {
 		super(builder);
-		 this.audioData = builder.audioData;
-	     i = 0;
+		this.recorder = new MockRecorder(this, builder);
 	}
 	
 	@Override
     public short[] getAudioSamples() {
-
-        if (i < audioData.length) {
-        	i += N;
-            return Arrays.copyOfRange(this.audioData, i - N, i);
-        }
-        return new short[0];
-
+        return recorder.getAudioSamples();
     }
 
 	@Override
@@ -3,6 +3,7 @@ package ultrasound.decoder;
 public class MockDecoderBuilder extends AbstractDecoderBuilder {
 
     protected short[] audioData;
+    protected boolean stopAtEndOfData;
 
     public MockDecoderBuilder(int sampleRate, int noOfChannels, int firstFreq, int freqStep, int nfft,
                               double threshold) {
@@ -15,6 +16,14 @@ public class MockDecoderBuilder extends AbstractDecoderBuilder {
         return this;
     }
 
+    /**
+     * When set, the mock decoder stops itself after all audio data has been read
+     */
+    public MockDecoderBuilder stopAtEndOfData(boolean stopAtEndOfData) {
+        this.stopAtEndOfData = stopAtEndOfData;
+        return this;
+    }
+
     @Override
     public MockDecoderSimple build() {
         MockDecoderSimple decoder;
@@ -1,27 +1,21 @@
 package ultrasound.decoder;
 
-import java.util.Arrays;
-
 class MockDecoderSimple extends AbstractDecoderSimple {
 
-    private short[] audioData;
-    private int i;
+    private final MockRecorder recorder;
 
     protected MockDecoderSimple(MockDecoderBuilder builder) throws Exception {
         super(builder);
-        this.audioData = builder.audioData;
-        i = 0;
+        this.recorder = new MockRecorder(this, builder);
     }
 
     @Override
     public short[] getAudioSamples() {
+        return recorder.getAudioSamples();
+    }
 
-        if (i < audioData.length) {
-        	i += N;
-            return Arrays.copyOfRange(this.audioData, i - N, i);
-        }
-        return new short[0];
-
+    MockRecorder getRecorder() {
+        return recorder;
     }
 
 	@Override
@@ -0,0 +1,56 @@
+package ultrasound.decoder;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audio recorder of {@link MockDecoderSimple} and {@link MockDecoder}. It
+ * returns audio data given to {@link MockDecoderBuilder} in fragments of N
+ * samples.
+ */
+final class MockRecorder {
+
+	private final AbstractDecoderSimple decoder;
+	private final short[] audioData;
+	private final boolean stopAtEndOfData;
+	private final int fragmentSize;
+	private int i;
+
+	MockRecorder(AbstractDecoderSimple decoder, MockDecoderBuilder builder) {
+		this.decoder = decoder;
+		this.audioData = builder.audioData;
+		this.stopAtEndOfData = builder.stopAtEndOfData;
+		// N of the decoder
+		this.fragmentSize = decoder.getNfft();
+	}
+
+	/**
+	 * @return next N samples of the audio data, empty array at its end. The
+	 *         decoder is stopped at the end when it has been set in the builder.
+	 */
+	short[] getAudioSamples() {
+		if (i < audioData.length) {
+			waitForPipeline();
+			i += fragmentSize;
+			return Arrays.copyOfRange(audioData, i - fragmentSize, i);
+		}
+		if (stopAtEndOfData) {
+			decoder.stop();
+		}
+		return new short[0];
+	}
+
+	/**
+	 * Audio data is available immediately, so in pipelined mode wait until the
+	 * pipeline has room for the next fragment like a real recorder would do
+	 */
+	void waitForPipeline() {
+		PipelineMetrics metrics = decoder.getPipelineMetrics();
+		while (metrics != null
+				&& metrics.getSamples().getDepth() + fragmentSize > metrics.getSamples().getCapacity()) {
+			LockSupport.parkNanos(100_000);
+			metrics = decoder.getPipelineMetrics();
+		}
+	}
+
+}
@@ -0,0 +1,266 @@
+package ultrasound.decoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.FloatBuffer;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import ultrasound.TestData;
+import ultrasound.decoder.IDecoderSimple.ExecutionMode;
+import ultrasound.decoder.IDecoderSimple.FftEngine;
+import ultrasound.decoder.IDecoderSimple.Precision;
+import ultrasound.decoder.ISpectralDetector.DetectorType;
+import ultrasound.decoder.RealTimeFactorHarness.Recording;
+
+/**
+ * Checks that decoding in single precision and in fixed-point finds exactly the
+ * same symbols as in double precision, and that fixed-point signal levels are
+ * the same as in double precision
+ */
+class PrecisionTest {
+
+	/**
+	 * Fills single precision capture buffer in place, like a platform decoder
+	 * reading from a floating point capture device
+	 */
+	static class FloatCaptureDecoder extends MockDecoderSimple {
+
+		private final float[] audio;
+		private int pos;
+
+		FloatCaptureDecoder(MockDecoderBuilder builder) throws Exception {
+			super(builder);
+			this.audio = new float[builder.audioData.length];
+			for (int i = 0; i < audio.length; i++) {
+				audio[i] = (float) builder.audioData[i] / Short.MAX_VALUE;
+			}
+		}
+
+		@Override
+		protected int readAudioSamples(FloatBuffer buffer) {
+			assertTrue(buffer.isDirect());
+			if (pos >= audio.length) {
+				stop();
+				return 0;
+			}
+			getRecorder().waitForPipeline();
+			int n = Math.min(buffer.capacity(), audio.length - pos);
+			for (int i = 0; i < n; i++) {
+				buffer.put(i, audio[pos + i]);
+			}
+			pos += n;
+			return n;
+		}
+
+		@Override
+		public short[] getAudioSamples() {
+			throw new IllegalStateException("Single precision capture buffer should be used");
+		}
+	}
+
+	@ParameterizedTest
+	@MethodSource("precisions")
+	void testMatchesDouble(Recording recording, ExecutionMode mode, int hopDivisor, Precision precision,
+			DetectorType detectorType) throws Exception {
+
+		MockDecoderBuilder doubleBuilder = createBuilder(recording, mode, hopDivisor, Precision.DOUBLE);
+		doubleBuilder.spectralDetector(detectorType);
+		IDecoderSimple doubleDecoder = doubleBuilder.build();
+		List<String> expected = SymbolLog.run(doubleDecoder);
+		assertFalse(expected.isEmpty());
+
+		MockDecoderBuilder builder = createBuilder(recording, mode, hopDivisor, precision);
+		builder.spectralDetector(detectorType);
+		IDecoderSimple decoder = builder.build();
+		assertEquals(precision, decoder.getPrecision());
+		List<String> decoded = SymbolLog.run(decoder);
+
+		assertEquals(expected, decoded);
+		assertEquals(doubleDecoder.getResHex(), decoder.getResHex());
+		assertTrue(recording.isFoundIn(decoder.getResHex()), decoder.getResHex());
+	}
+
+	@ParameterizedTest
+	@MethodSource("signalLevels")
+	void testQ15SignalLevelMatchesDouble(Recording recording, int nfft, DetectorType detectorType)
+			throws Exception {
+		MockDecoderBuilder doubleBuilder = createBuilder(recording, nfft, ExecutionMode.SERIAL, 1, Precision.DOUBLE);
+		doubleBuilder.spectralDetector(detectorType);
+		MockDecoderBuilder builder = createBuilder(recording, nfft, ExecutionMode.SERIAL, 1, Precision.Q15);
+		builder.spectralDetector(detectorType);
+
+		assertTrue(assertSignalLevelsMatch(doubleBuilder, builder, nfft, doubleBuilder.audioData) > 0);
+	}
+
+	@Test
+	void testQ15GoertzelSignalLevelOfScaledStateMatchesDouble() throws Exception {
+
+		// Tone of nearly full scale on a channel of low frequency during the whole
+		// frame. The state of the fixed-point Goertzel filter grows like 1 / sin(w)
+		// and exceeds 32 bits, so its power overflows unless the state is scaled.
+		int nfft = 1 << 16;
+		int freq = 375;
+		short[] audio = new short[nfft];
+		for (int i = 0; i < nfft; i++) {
+			audio[i] = (short) Math.round(0.9 * Short.MAX_VALUE
+					* Math.sin(2 * Math.PI * freq * i / RealTimeFactorHarness.SAMPLE_RATE));
+		}
+		MockDecoderBuilder[] builders = new MockDecoderBuilder[2];
+		Precision[] precisions = { Precision.DOUBLE, Precision.Q15 };
+		for (int i = 0; i < builders.length; i++) {
+			builders[i] = new MockDecoderBuilder(RealTimeFactorHarness.SAMPLE_RATE, 1, freq, 10, nfft,
+					RealTimeFactorHarness.THRESHOLD);
+			builders[i].precision(precisions[i]);
+			builders[i].spectralDetector(DetectorType.GOERTZEL);
+		}
+
+		assertEquals(1, assertSignalLevelsMatch(builders[0], builders[1], nfft, audio));
+	}
+
+	/**
+	 * Analyses consecutive frames of the audio in double precision and in
+	 * fixed-point, their signal levels have to be equal within quantisation error
+	 * 
+	 * @return number of frames with signal above threshold
+	 */
+	private static int assertSignalLevelsMatch(MockDecoderBuilder doubleBuilder, MockDecoderBuilder builder,
+			int nfft, short[] audio) {
+		MockDecoderSimple doubleDecoder = doubleBuilder.build();
+		MockDecoderSimple decoder = builder.build();
+		assertEquals(Precision.Q15, decoder.getPrecision());
+
+		int signalFrames = 0;
+		for (int pos = 0; pos + nfft <= audio.length; pos += nfft) {
+			doubleDecoder.analyseFrame(audio, pos, nfft);
+			decoder.analyseFrame(audio, pos, nfft);
+			double expected = doubleDecoder.getSignalLevel();
+			assertEquals(expected, decoder.getSignalLevel(),
+					1e-2 * Math.max(expected, RealTimeFactorHarness.THRESHOLD), "Frame at " + pos);
+			if (expected > RealTimeFactorHarness.THRESHOLD) {
+				signalFrames++;
+			}
+		}
+		return signalFrames;
+	}
+
+	@ParameterizedTest
+	@MethodSource("corpus")
+	void testRadix4MatchesRadix2(Recording recording, ExecutionMode mode, int hopDivisor) throws Exception {
+		MockDecoderBuilder radix2Builder = createBuilder(recording, mode, hopDivisor, Precision.DOUBLE);
+		radix2Builder.fftEngine(FftEngine.RADIX2);
+		List<String> expected = SymbolLog.run(radix2Builder.build());
+		assertFalse(expected.isEmpty());
+
+		MockDecoderBuilder builder = createBuilder(recording, mode, hopDivisor, Precision.DOUBLE);
+		builder.fftEngine(FftEngine.RADIX4);
+		IDecoderSimple decoder = builder.build();
+		assertEquals(FftEngine.RADIX4, decoder.getFftEngine());
+
+		assertEquals(expected, SymbolLog.run(decoder));
+		assertTrue(recording.isFoundIn(decoder.getResHex()), decoder.getResHex());
+	}
+
+	@ParameterizedTest
+	@MethodSource("corpus")
+	void testZoomMatchesFft(Recording recording, ExecutionMode mode, int hopDivisor) throws Exception {
+		MockDecoderBuilder fftBuilder = createBuilder(recording, mode, hopDivisor, Precision.DOUBLE);
+		List<String> expected = SymbolLog.run(fftBuilder.build());
+		assertFalse(expected.isEmpty());
+
+		// Without zoom the chirp-z transform calculates the same bins as the FFT
+		MockDecoderBuilder builder = createBuilder(recording, mode, hopDivisor, Precision.DOUBLE);
+		builder.spectralDetector(DetectorType.ZOOM);
+		IDecoderSimple decoder = builder.build();
+		assertEquals(1, decoder.getZoom());
+
+		assertEquals(expected, SymbolLog.run(decoder));
+		assertTrue(recording.isFoundIn(decoder.getResHex()), decoder.getResHex());
+	}
+
+	@ParameterizedTest
+	@MethodSource("corpus")
+	void testFloatCaptureMatchesAdapter(Recording recording, ExecutionMode mode, int hopDivisor) throws Exception {
+		MockDecoderBuilder builder = createBuilder(recording, mode, hopDivisor, Precision.FLOAT);
+
+		List<String> expected = SymbolLog.run(builder.build());
+		assertFalse(expected.isEmpty());
+		FloatCaptureDecoder decoder = new FloatCaptureDecoder(builder);
+		List<String> decoded = SymbolLog.run(decoder);
+
+		assertEquals(expected, decoded);
+		assertTrue(recording.isFoundIn(decoder.getResHex()), decoder.getResHex());
+		if (mode == ExecutionMode.PIPELINED) {
+			assertEquals(0, decoder.getPipelineMetrics().getSamples().getOverrunCount());
+		} else {
+			assertNull(decoder.getPipelineMetrics());
+		}
+	}
+
+	private static MockDecoderBuilder createBuilder(Recording recording, ExecutionMode mode, int hopDivisor,
+			Precision precision) throws Exception {
+		return createBuilder(recording, recording.nfft, mode, hopDivisor, precision);
+	}
+
+	private static MockDecoderBuilder createBuilder(Recording recording, int nfft, ExecutionMode mode,
+			int hopDivisor, Precision precision) throws Exception {
+		TestData testData = new TestData(recording.fileName, RealTimeFactorHarness.SAMPLE_RATE);
+		MockDecoderBuilder builder = new MockDecoderBuilder(RealTimeFactorHarness.SAMPLE_RATE,
+				testData.getNoOfChannels(), testData.getFirstFreq(), testData.getFreqStep(), nfft,
+				RealTimeFactorHarness.THRESHOLD);
+		builder.audioDataForMock(testData.getAudioSig());
+		builder.stopAtEndOfData(true);
+		builder.executionMode(mode);
+		builder.hopSize(nfft / hopDivisor);
+		builder.precision(precision);
+		// FFT in single precision and fixed-point needs Nfft which is a power of 2
+		if (precision != Precision.DOUBLE && !isPowerOf2(nfft)) {
+			builder.spectralDetector(DetectorType.GOERTZEL);
+		}
+		return builder;
+	}
+
+	private static boolean isPowerOf2(int n) {
+		return (n & n - 1) == 0;
+	}
+
+	private static Stream<Arguments> precisions() {
+		return corpus().flatMap(arguments -> Stream.of(Precision.FLOAT, Precision.Q15)
+				.flatMap(precision -> Stream.of(DetectorType.FFT, DetectorType.GOERTZEL)
+						.filter(detectorType -> detectorType != DetectorType.FFT
+								|| isPowerOf2(((Recording) arguments.get()[0]).nfft))
+						.map(detectorType -> Arguments.of(arguments.get()[0], arguments.get()[1],
+								arguments.get()[2], precision, detectorType))));
+	}
+
+	private static Stream<Arguments> signalLevels() {
+		return RealTimeFactorHarness.DECODED.stream()
+				.flatMap(recording -> Stream.of(recording.nfft, 4096)
+						.flatMap(nfft -> Stream.of(DetectorType.FFT, DetectorType.GOERTZEL)
+								.filter(detectorType -> detectorType != DetectorType.FFT || isPowerOf2(nfft))
+								.map(detectorType -> Arguments.of(recording, nfft, detectorType))));
+	}
+
+	/**
+	 * Recordings decoded at their frame size and a recording decoded from
+	 * overlapping frames
+	 */
+	private static Stream<Arguments> corpus() {
+		return Stream.concat(
+				RealTimeFactorHarness.DECODED.stream()
+						.flatMap(recording -> Stream.of(Arguments.of(recording, ExecutionMode.SERIAL, 1),
+								Arguments.of(recording, ExecutionMode.PIPELINED, 1))),
+				Stream.of(Arguments.of(RealTimeFactorHarness.OVERLAPPED, ExecutionMode.SERIAL, 1),
+						Arguments.of(RealTimeFactorHarness.OVERLAPPED, ExecutionMode.SERIAL, 4),
+						Arguments.of(RealTimeFactorHarness.OVERLAPPED, ExecutionMode.PIPELINED, 2)));
+	}
+
+}
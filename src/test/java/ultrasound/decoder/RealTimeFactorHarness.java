@@ -0,0 +1,237 @@
+package ultrasound.decoder;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import ultrasound.ICoder.CoderMode;
+import ultrasound.TestData;
+import ultrasound.dataframe.ControlCodes;
+import ultrasound.dataframe.IDataFrame;
+import ultrasound.utils.UltrasoundHelper;
+import ultrasound.utils.log.DecoderLogger;
+import ultrasound.utils.log.ILogger;
+
+/**
+ * Replays recordings from test resources through {@link MockDecoder} as fast
+ * as possible and measures how much faster than real time they are decoded.
+ * Frames do not overlap and every recording is decoded with the frame size
+ * which recovers its message.
+ * Run {@link RealTimeFactorHarness#main(String[])} to print report for the
+ * whole corpus.
+ */
+public class RealTimeFactorHarness {
+
+	public static final int SAMPLE_RATE = 48000;
+	// Frame size of tests which do not need decoded symbols, the corpus is decoded
+	// at the frame size of every recording
+	public static final int NFFT = 1024;
+	public static final double THRESHOLD = 0.3;
+
+	/**
+	 * Recordings from test resources with the frame size which decodes them and
+	 * expected message. The ACK recording is not decoded with any frame size, it
+	 * is used only by tests comparing decoders with each other.
+	 */
+	public static final List<Recording> CORPUS = Arrays.asList(
+			new Recording("16F17000S40-ACK.csv", CoderMode.DATA_FRAME, 2400, null),
+			new Recording("16F18000S20-Alamakota.csv", CoderMode.DATA_FRAME, 4800, "Alamakota"),
+			new Recording("16F20000S40-6C.csv", CoderMode.SIMPLE, 2400, "6c"),
+			new Recording("4F17000S40-6C.csv", CoderMode.SIMPLE, 2400, "6c"));
+
+	/**
+	 * Recordings of the corpus which are decoded to the expected message, only
+	 * they are replayed
+	 */
+	public static final List<Recording> DECODED = CORPUS.stream().filter(recording -> recording.expected != null)
+			.collect(Collectors.toList());
+
+	/**
+	 * Recording which is decoded also from overlapping frames, with every hop
+	 * size from nfft to nfft / 4. Its frame size is a power of 2, as required by
+	 * the FFT in single precision and fixed-point.
+	 */
+	public static final Recording OVERLAPPED = new Recording("16F20000S40-6C.csv", CoderMode.SIMPLE, 4096, "6c");
+
+	private static final PrintStream NULL_OUT = new PrintStream(new OutputStream() {
+		@Override
+		public void write(int b) {
+		}
+	});
+
+	private RealTimeFactorHarness() {
+
+	}
+
+	/**
+	 * Recording with parameters needed to decode it
+	 */
+	public static class Recording {
+		final String fileName;
+		final CoderMode mode;
+		final int nfft;
+		final String expected;
+
+		public Recording(String fileName, CoderMode mode, int nfft, String expected) {
+			this.fileName = fileName;
+			this.mode = mode;
+			this.nfft = nfft;
+			this.expected = expected;
+		}
+
+		/**
+		 * @param resHex data found by a simple decoder, see
+		 *               {@link IDecoderSimple#getResHex()}
+		 * @return {@code true} when the expected message has been found. A simple
+		 *         decoder finds data frames together with their header and
+		 *         checksum, so only their data is searched.
+		 */
+		public boolean isFoundIn(String resHex) {
+			if (mode == CoderMode.SIMPLE) {
+				return expected.equalsIgnoreCase(resHex);
+			}
+			return resHex.toLowerCase().contains(UltrasoundHelper.bytesToHex(expected.getBytes()));
+		}
+
+		@Override
+		public String toString() {
+			return fileName;
+		}
+	}
+
+	/**
+	 * Result of one replay of a recording
+	 */
+	public static class Result {
+		final Recording recording;
+		final double audioSeconds;
+		final double cpuSeconds;
+		final long frames;
+		final long allocatedBytes;
+		final String decoded;
+
+		Result(Recording recording, double audioSeconds, double cpuSeconds, long frames, long allocatedBytes,
+				String decoded) {
+			this.recording = recording;
+			this.audioSeconds = audioSeconds;
+			this.cpuSeconds = cpuSeconds;
+			this.frames = frames;
+			this.allocatedBytes = allocatedBytes;
+			this.decoded = decoded;
+		}
+
+		/**
+		 * @return seconds of audio decoded per one second of CPU time
+		 */
+		public double getRealTimeFactor() {
+			return audioSeconds / cpuSeconds;
+		}
+
+		public double getFramesPerSecond() {
+			return frames / cpuSeconds;
+		}
+
+		/**
+		 * @return allocated memory in bytes per one second of CPU time or -1 when
+		 *         allocation counter is not supported by the JVM
+		 */
+		public double getAllocationRate() {
+			return allocatedBytes < 0 ? -1 : allocatedBytes / cpuSeconds;
+		}
+
+		public boolean isCorrect() {
+			return recording.expected.equalsIgnoreCase(decoded);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%-28s RTF %8.1f  %9.0f frames/s  %8.2f MB/s  decoded '%s' (%s)", recording,
+					getRealTimeFactor(), getFramesPerSecond(), getAllocationRate() / 1e6, decoded,
+					isCorrect() ? "OK" : "expected '" + recording.expected + "'");
+		}
+	}
+
+	/**
+	 * Decodes recording in the current thread. CPU time and allocated memory of
+	 * the thread are measured for the last replay only.
+	 * 
+	 * @param recording recording to decode
+	 * @param warmUps   number of replays before the measured one
+	 * @return {@link Result} of the measured replay
+	 * @throws Exception when recording could not be read
+	 */
+	public static Result replay(Recording recording, int warmUps) throws Exception {
+		TestData testData = new TestData(recording.fileName, SAMPLE_RATE);
+		short[] audio = testData.getAudioSig();
+
+		ILogger logger = DecoderLogger.getInstance();
+		PrintStream out = logger.getOut();
+		logger.setLogOut(NULL_OUT);
+		try {
+			for (int i = 0; i < warmUps; i++) {
+				decode(recording, testData);
+			}
+
+			ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+			long cpuStart = threadBean.getCurrentThreadCpuTime();
+			long allocStart = getAllocatedBytes();
+
+			String decoded = decode(recording, testData);
+
+			double cpuSeconds = (threadBean.getCurrentThreadCpuTime() - cpuStart) / 1e9;
+			long allocated = allocStart < 0 ? -1 : getAllocatedBytes() - allocStart;
+			long frames = (audio.length + recording.nfft - 1) / recording.nfft;
+
+			return new Result(recording, (double) audio.length / SAMPLE_RATE, cpuSeconds, frames, allocated, decoded);
+		} finally {
+			logger.setLogOut(out);
+		}
+	}
+
+	private static String decode(Recording recording, TestData testData) {
+		MockDecoderBuilder builder = new MockDecoderBuilder(SAMPLE_RATE, testData.getNoOfChannels(),
+				testData.getFirstFreq(), testData.getFreqStep(), recording.nfft, THRESHOLD);
+		builder.audioDataForMock(testData.getAudioSig());
+		builder.stopAtEndOfData(true);
+
+		if (recording.mode == CoderMode.SIMPLE) {
+			IDecoderSimple decoder = builder.build();
+			decoder.run();
+			return decoder.getResHex();
+		}
+
+		MockDecoder decoder = builder.buildDataFrame();
+		decoder.run();
+		IDataFrame frame = decoder.getDataFrame();
+		if (frame == null) {
+			return "";
+		}
+		if (frame.getData() != null) {
+			return new String(frame.getData());
+		}
+		return ControlCodes.getCodeNameByValue(frame.getCommand());
+	}
+
+	private static long getAllocatedBytes() {
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		if (threadBean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadBean;
+			if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+				return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+		return -1;
+	}
+
+	public static void main(String[] args) throws Exception {
+		int warmUps = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+		for (Recording recording : DECODED) {
+			System.out.println(replay(recording, warmUps));
+		}
+	}
+
+}
@@ -0,0 +1,37 @@
+package ultrasound.decoder;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import ultrasound.decoder.RealTimeFactorHarness.Recording;
+import ultrasound.decoder.RealTimeFactorHarness.Result;
+
+/**
+ * Fails when any recording is not decoded to the expected message or is decoded
+ * slower than the real time factor given in system property {@code rtf.floor}
+ * (configured in pom.xml).
+ */
+class RealTimeFactorTest {
+
+	double floor = Double.parseDouble(System.getProperty("rtf.floor", "1.0"));
+
+	@ParameterizedTest
+	@MethodSource("corpus")
+	void testRealTimeFactorAboveFloor(Recording recording) throws Exception {
+
+		Result result = RealTimeFactorHarness.replay(recording, 3);
+
+		assertTrue(result.isCorrect(), result.toString());
+		assertTrue(result.getRealTimeFactor() >= floor,
+				recording + " decoded with real time factor " + result.getRealTimeFactor() + ", floor is " + floor);
+	}
+
+	private static Stream<Recording> corpus() {
+		return RealTimeFactorHarness.DECODED.stream();
+	}
+
+}
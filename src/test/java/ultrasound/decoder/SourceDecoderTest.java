@@ -0,0 +1,58 @@
+package ultrasound.decoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import ultrasound.TestData;
+import ultrasound.audio.AudioSources;
+import ultrasound.decoder.RealTimeFactorHarness.Recording;
+import ultrasound.utils.FileUtil;
+
+class SourceDecoderTest {
+
+	@TempDir
+	Path tempDir;
+
+	@ParameterizedTest
+	@MethodSource("corpus")
+	void testDecodingFromFileMatchesMock(Recording recording) throws Exception {
+		TestData testData = new TestData(recording.fileName, RealTimeFactorHarness.SAMPLE_RATE);
+		File wavFile = tempDir.resolve("rec.wav").toFile();
+		FileUtil.writeWavFile(wavFile, testData.getAudioSig(), RealTimeFactorHarness.SAMPLE_RATE);
+
+		MockDecoderBuilder mockBuilder = new MockDecoderBuilder(RealTimeFactorHarness.SAMPLE_RATE,
+				testData.getNoOfChannels(), testData.getFirstFreq(), testData.getFreqStep(),
+				recording.nfft, RealTimeFactorHarness.THRESHOLD);
+		mockBuilder.audioDataForMock(testData.getAudioSig());
+		mockBuilder.stopAtEndOfData(true);
+		MockDecoderSimple mock = mockBuilder.build();
+		List<String> expected = SymbolLog.run(mock);
+		assertFalse(expected.isEmpty());
+
+		SourceDecoderBuilder builder = new SourceDecoderBuilder(AudioSources.open(wavFile, 0),
+				testData.getNoOfChannels(), testData.getFirstFreq(), testData.getFreqStep(),
+				recording.nfft, RealTimeFactorHarness.THRESHOLD);
+		SourceDecoder decoder = builder.build();
+		List<String> decoded = SymbolLog.run(decoder);
+
+		assertEquals(expected, decoded);
+		assertEquals(mock.getResHex(), decoder.getResHex());
+		assertTrue(recording.isFoundIn(decoder.getResHex()), decoder.getResHex());
+		assertFalse(decoder.isRunning());
+	}
+
+	private static Stream<Recording> corpus() {
+		return RealTimeFactorHarness.DECODED.stream();
+	}
+
+}
@@ -0,0 +1,344 @@
+package ultrasound.decoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import ultrasound.TestData;
+import ultrasound.decoder.IDecoderSimple.FftEngine;
+import ultrasound.decoder.IDecoderSimple.Precision;
+import ultrasound.decoder.ISpectralDetector.DetectorType;
+import ultrasound.decoder.RealTimeFactorHarness.Recording;
+import ultrasound.utils.UltrasoundHelper;
+
+class SpectralDetectorTest {
+
+	int nfft = 1024;
+	int lowestBin = 350;
+	int noOfBins = 100;
+
+	@Test
+	void testGoertzelMatchesFft() throws Exception {
+
+		TestData testData = new TestData("16F18000S20-Alamakota.csv", 48000);
+		double[] hamming = UltrasoundHelper.hamming(nfft);
+		int[] bins = new int[] { 0, 1, 2, 17, 42, 43, 99 };
+
+		FftSpectralDetector fft = new FftSpectralDetector(nfft, lowestBin);
+		GoertzelSpectralDetector goertzel = new GoertzelSpectralDetector(nfft, nfft, lowestBin, bins);
+
+		for (int frame = 0; frame < 20; frame++) {
+			short[] samples = Arrays.copyOfRange(testData.getAudioSig(), frame * nfft, (frame + 1) * nfft);
+			double[] x = UltrasoundHelper.shortArrayToDoubleArray(samples);
+			for (int i = 0; i < nfft; i++) {
+				x[i] *= hamming[i];
+			}
+
+			double[] expected = new double[noOfBins];
+			double[] actual = new double[noOfBins];
+			goertzel.calculatePower(x.clone(), actual);
+			fft.calculatePower(x, expected);
+
+			for (int bin : bins) {
+				assertEquals(expected[bin], actual[bin], 1e-9 * (1 + expected[bin]));
+			}
+		}
+	}
+
+	@Test
+	void testGoertzelSkipsZeroPadding() throws Exception {
+
+		TestData testData = new TestData("16F18000S20-Alamakota.csv", 48000);
+		int frameLength = 600;
+		double[] hamming = UltrasoundHelper.hamming(frameLength);
+		int[] bins = new int[] { 0, 1, 2, 17, 42, 43, 99 };
+
+		FftSpectralDetector fft = new FftSpectralDetector(nfft, lowestBin);
+		GoertzelSpectralDetector goertzel = new GoertzelSpectralDetector(nfft, frameLength, lowestBin, bins);
+
+		for (int frame = 0; frame < 20; frame++) {
+			double[] x = new double[nfft];
+			for (int i = 0; i < frameLength; i++) {
+				x[i] = (double) testData.getAudioSig()[frame * frameLength + i] / Short.MAX_VALUE * hamming[i];
+			}
+
+			double[] expected = new double[noOfBins];
+			double[] actual = new double[noOfBins];
+			goertzel.calculatePower(x.clone(), actual);
+			fft.calculatePower(x, expected);
+
+			for (int bin : bins) {
+				assertEquals(expected[bin], actual[bin], 1e-9 * (1 + expected[bin]));
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@MethodSource("corpus")
+	void testGoertzelDecodesCorpusLikeFft(Recording recording) throws Exception {
+
+		TestData testData = new TestData(recording.fileName, RealTimeFactorHarness.SAMPLE_RATE);
+
+		IDecoderSimple fftDecoder = createBuilder(testData, recording, DetectorType.FFT).build();
+		List<String> expected = SymbolLog.run(fftDecoder);
+		IDecoderSimple goertzelDecoder = createBuilder(testData, recording, DetectorType.GOERTZEL).build();
+		List<String> decoded = SymbolLog.run(goertzelDecoder);
+
+		assertFalse(expected.isEmpty());
+		assertEquals(expected, decoded);
+		assertEquals(fftDecoder.getResHex(), goertzelDecoder.getResHex());
+		assertTrue(recording.isFoundIn(goertzelDecoder.getResHex()), goertzelDecoder.getResHex());
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1200, 2205, 2399, 2400 })
+	void testAnyNfftMatchesGoertzel(int nfft) throws Exception {
+
+		TestData testData = new TestData("16F18000S20-Alamakota.csv", 48000);
+		double[] hamming = UltrasoundHelper.hamming(nfft);
+		int lowestBin = 18000 * nfft / 48000 - 10;
+		int[] bins = new int[] { 0, 1, 10, 17, 42, 43, 99 };
+
+		FftSpectralDetector fft = new FftSpectralDetector(nfft, lowestBin);
+		GoertzelSpectralDetector goertzel = new GoertzelSpectralDetector(nfft, nfft, lowestBin, bins);
+
+		for (int frame = 0; frame < 10; frame++) {
+			short[] samples = Arrays.copyOfRange(testData.getAudioSig(), frame * nfft, (frame + 1) * nfft);
+			double[] x = UltrasoundHelper.shortArrayToDoubleArray(samples);
+			for (int i = 0; i < nfft; i++) {
+				x[i] *= hamming[i];
+			}
+
+			double[] expected = new double[noOfBins];
+			double[] actual = new double[noOfBins];
+			goertzel.calculatePower(x.clone(), actual);
+			fft.calculatePower(x, expected);
+
+			for (int bin : bins) {
+				assertEquals(expected[bin], actual[bin], 1e-9 * (1 + expected[bin]));
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 4 })
+	void testZoomMatchesZeroPaddedFft(int zoom) throws Exception {
+
+		TestData testData = new TestData("16F18000S20-Alamakota.csv", 48000);
+		double[] hamming = UltrasoundHelper.hamming(nfft);
+		int bins = noOfBins * zoom;
+
+		ZoomSpectralDetector detector = new ZoomSpectralDetector(nfft, zoom, lowestBin * zoom, bins);
+		FftSpectralDetector fft = new FftSpectralDetector(nfft * zoom, lowestBin * zoom);
+
+		for (int frame = 0; frame < 20; frame++) {
+			short[] samples = Arrays.copyOfRange(testData.getAudioSig(), frame * nfft, (frame + 1) * nfft);
+			double[] x = new double[nfft];
+			double[] padded = new double[nfft * zoom];
+			float[] xFloat = new float[nfft];
+			for (int i = 0; i < nfft; i++) {
+				x[i] = (double) samples[i] / Short.MAX_VALUE * hamming[i];
+				padded[i] = x[i];
+				xFloat[i] = (float) x[i];
+			}
+
+			double[] expected = new double[bins];
+			double[] actual = new double[bins];
+			float[] actualFloat = new float[bins];
+			fft.calculatePower(padded, expected);
+			detector.calculatePower(x, actual);
+			detector.calculatePower(xFloat, actualFloat);
+
+			double max = Arrays.stream(expected).max().getAsDouble();
+			for (int bin = 0; bin < bins; bin++) {
+				assertEquals(expected[bin], actual[bin], 1e-9 * (1 + expected[bin]));
+				assertEquals(expected[bin], actualFloat[bin], 1e-5 * (1 + max));
+			}
+		}
+	}
+
+	@Test
+	void testZoomOfAnyNfft() throws Exception {
+		int nfft = 2400;
+		double[] x = new double[nfft];
+		for (int i = 0; i < nfft; i++) {
+			x[i] = Math.cos(2 * Math.PI * 18010.0 * i / 48000);
+		}
+
+		// 18010 Hz is between bins of 20 Hz, it is found on the grid of 5 Hz
+		ZoomSpectralDetector detector = new ZoomSpectralDetector(nfft, 4, 17900 * 4 / 20, 4 * 20);
+		double[] ampl = new double[4 * 20];
+		detector.calculatePower(x, ampl);
+
+		assertEquals(18010, 17900 + 5 * UltrasoundHelper.findMaxValueIndex(ampl));
+		assertThrows(IllegalStateException.class, () -> detector.calculatePower(new int[nfft], new long[80]));
+	}
+
+	@Test
+	void testRadix4MatchesRadix2() throws Exception {
+
+		TestData testData = new TestData("16F18000S20-Alamakota.csv", 48000);
+		double[] hamming = UltrasoundHelper.hamming(nfft);
+
+		FftSpectralDetector radix2 = new FftSpectralDetector(nfft, lowestBin, Precision.DOUBLE, FftEngine.RADIX2);
+		FftSpectralDetector radix4 = new FftSpectralDetector(nfft, lowestBin, Precision.DOUBLE, FftEngine.RADIX4);
+
+		for (int frame = 0; frame < 20; frame++) {
+			short[] samples = Arrays.copyOfRange(testData.getAudioSig(), frame * nfft, (frame + 1) * nfft);
+			double[] x = UltrasoundHelper.shortArrayToDoubleArray(samples);
+			for (int i = 0; i < nfft; i++) {
+				x[i] *= hamming[i];
+			}
+
+			double[] expected = new double[noOfBins];
+			double[] actual = new double[noOfBins];
+			radix2.calculatePower(x, expected);
+			radix4.calculatePower(x, actual);
+
+			for (int bin = 0; bin < noOfBins; bin++) {
+				assertEquals(expected[bin], actual[bin], 1e-9 * (1 + expected[bin]));
+			}
+		}
+	}
+
+	@Test
+	void testFloatMatchesDouble() throws Exception {
+
+		TestData testData = new TestData("16F18000S20-Alamakota.csv", 48000);
+		double[] hamming = UltrasoundHelper.hamming(nfft);
+		int[] bins = new int[] { 0, 1, 2, 17, 42, 43, 99 };
+
+		ISpectralDetector[] doubleDetectors = new ISpectralDetector[] { new FftSpectralDetector(nfft, lowestBin),
+				new GoertzelSpectralDetector(nfft, nfft, lowestBin, bins) };
+		ISpectralDetector[] floatDetectors = new ISpectralDetector[] {
+				new FftSpectralDetector(nfft, lowestBin, Precision.FLOAT),
+				new GoertzelSpectralDetector(nfft, nfft, lowestBin, bins) };
+
+		for (int frame = 0; frame < 20; frame++) {
+			short[] samples = Arrays.copyOfRange(testData.getAudioSig(), frame * nfft, (frame + 1) * nfft);
+			double[] x = new double[nfft];
+			float[] xFloat = new float[nfft];
+			for (int i = 0; i < nfft; i++) {
+				x[i] = (double) samples[i] / Short.MAX_VALUE * hamming[i];
+				xFloat[i] = (float) samples[i] / Short.MAX_VALUE * (float) hamming[i];
+			}
+
+			for (int d = 0; d < doubleDetectors.length; d++) {
+				double[] expected = new double[noOfBins];
+				float[] actual = new float[noOfBins];
+				doubleDetectors[d].calculatePower(x.clone(), expected);
+				floatDetectors[d].calculatePower(xFloat.clone(), actual);
+
+				for (int bin : bins) {
+					assertEquals(expected[bin], actual[bin], 1e-4 * (1 + expected[bin]));
+				}
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 4096, 65536 })
+	void testQ15GoertzelScalesLongFrames(int n) {
+
+		// Tones of half of the full scale on two low bins, the state of their filters
+		// grows like 1 / sin(w) and exceeds 40 bits in the longest frame
+		int lowestBin = 16;
+		int[] bins = new int[] { 0, 3, 10 };
+		double[] x = new double[n];
+		int[] xQ15 = new int[n];
+		for (int i = 0; i < n; i++) {
+			double sample = 0.5 * Math.cos(2 * Math.PI * (lowestBin + 3) * i / n)
+					+ 0.5 * Math.sin(2 * Math.PI * (lowestBin + 10) * i / n);
+			xQ15[i] = (int) Math.round(sample * 32767);
+			x[i] = xQ15[i] / 32768.0;
+		}
+
+		double[] expected = new double[20];
+		long[] actual = new long[20];
+		new GoertzelSpectralDetector(n, n, lowestBin, bins).calculatePower(x, expected);
+		int exponent = new GoertzelSpectralDetector(n, n, lowestBin, bins).calculatePower(xQ15, actual);
+
+		double scale = Math.scalb(1.0, 2 * exponent - 30);
+		for (int bin : bins) {
+			assertEquals(Math.sqrt(expected[bin]), Math.sqrt(actual[bin] * scale), 1e-3 * n);
+		}
+		assertEquals(n / 4.0, Math.sqrt(actual[3] * scale), 1e-3 * n);
+	}
+
+	@Test
+	void testQ15MatchesDouble() throws Exception {
+
+		TestData testData = new TestData("16F18000S20-Alamakota.csv", 48000);
+		double[] hamming = UltrasoundHelper.hamming(nfft);
+		int[] bins = new int[] { 0, 1, 2, 17, 42, 43, 99 };
+
+		ISpectralDetector[] doubleDetectors = new ISpectralDetector[] { new FftSpectralDetector(nfft, lowestBin),
+				new GoertzelSpectralDetector(nfft, nfft, lowestBin, bins) };
+		ISpectralDetector[] q15Detectors = new ISpectralDetector[] {
+				new FftSpectralDetector(nfft, lowestBin, Precision.Q15),
+				new GoertzelSpectralDetector(nfft, nfft, lowestBin, bins) };
+
+		for (int frame = 0; frame < 20; frame++) {
+			short[] samples = Arrays.copyOfRange(testData.getAudioSig(), frame * nfft, (frame + 1) * nfft);
+			double[] x = new double[nfft];
+			int[] xQ15 = new int[nfft];
+			for (int i = 0; i < nfft; i++) {
+				x[i] = samples[i] / 32768.0 * hamming[i];
+				xQ15[i] = (int) Math.round(samples[i] * hamming[i]);
+			}
+
+			for (int d = 0; d < doubleDetectors.length; d++) {
+				double[] expected = new double[noOfBins];
+				long[] actual = new long[noOfBins];
+				doubleDetectors[d].calculatePower(x.clone(), expected);
+				int exponent = q15Detectors[d].calculatePower(xQ15.clone(), actual);
+
+				// Samples are rounded to Q15, so magnitudes differ by about sqrt(nfft) LSB
+				double scale = Math.scalb(1.0, 2 * exponent - 30);
+				for (int bin : bins) {
+					assertEquals(Math.sqrt(expected[bin]), Math.sqrt(actual[bin] * scale),
+							Math.sqrt(nfft) / 32768);
+				}
+			}
+		}
+	}
+
+	@Test
+	void testPrecisionOfFftDetector() throws Exception {
+		FftSpectralDetector doubleDetector = new FftSpectralDetector(nfft, lowestBin);
+		FftSpectralDetector floatDetector = new FftSpectralDetector(nfft, lowestBin, Precision.FLOAT);
+
+		assertThrows(IllegalStateException.class,
+				() -> doubleDetector.calculatePower(new float[nfft], new float[noOfBins]));
+		assertThrows(IllegalStateException.class,
+				() -> floatDetector.calculatePower(new double[nfft], new double[noOfBins]));
+		assertThrows(IllegalStateException.class,
+				() -> floatDetector.calculatePower(new int[nfft], new long[noOfBins]));
+	}
+
+	private static MockDecoderBuilder createBuilder(TestData testData, Recording recording,
+			DetectorType detectorType) {
+		MockDecoderBuilder builder = new MockDecoderBuilder(RealTimeFactorHarness.SAMPLE_RATE,
+				testData.getNoOfChannels(), testData.getFirstFreq(), testData.getFreqStep(), recording.nfft,
+				RealTimeFactorHarness.THRESHOLD);
+		builder.audioDataForMock(testData.getAudioSig());
+		builder.stopAtEndOfData(true);
+		builder.spectralDetector(detectorType);
+		return builder;
+	}
+
+	private static Stream<Recording> corpus() {
+		return RealTimeFactorHarness.DECODED.stream();
+	}
+
+}
@@ -0,0 +1,74 @@
+package ultrasound.decoder;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class StreamFramerTest {
+
+	private static final int N = 64;
+
+	@ParameterizedTest
+	@ValueSource(ints = { N, N / 2, N / 4, 3, 1 })
+	void testFramesMatchSlidingWindow(int hop) {
+		short[] stream = new short[1000];
+		for (int i = 0; i < stream.length; i++) {
+			stream[i] = (short) i;
+		}
+
+		List<short[]> frames = new ArrayList<>();
+		StreamFramer framer = new StreamFramer(N, hop, (history, start) -> {
+			short[] frame = new short[N];
+			for (int i = 0; i < N; i++) {
+				frame[i] = history[(start + i) % N];
+			}
+			frames.add(frame);
+		});
+
+		// Push the stream in chunks of random length
+		Random random = new Random(0);
+		int off = 0;
+		while (off < stream.length) {
+			int len = Math.min(random.nextInt(2 * N), stream.length - off);
+			framer.push(stream, off, len);
+			off += len;
+		}
+
+		assertEquals((stream.length - N) / hop + 1, frames.size());
+		for (int k = 0; k < frames.size(); k++) {
+			short[] expected = new short[N];
+			System.arraycopy(stream, k * hop, expected, 0, N);
+			assertArrayEquals(expected, frames.get(k), "Frame " + k);
+		}
+	}
+
+	@Test
+	void testResetDropsHistory() {
+		int[] count = new int[1];
+		StreamFramer framer = new StreamFramer(N, N / 2, (history, start) -> count[0]++);
+		framer.push(new short[N + N / 4], 0, N + N / 4);
+		assertEquals(1, count[0]);
+		framer.reset();
+		framer.push(new short[N - 1], 0, N - 1);
+		assertEquals(1, count[0]);
+		framer.push(new short[1], 0, 1);
+		assertEquals(2, count[0]);
+	}
+
+	@Test
+	void testInvalidHop() {
+		assertThrows(IllegalArgumentException.class, () -> new StreamFramer(N, 0, (history, start) -> {
+		}));
+		assertThrows(IllegalArgumentException.class, () -> new StreamFramer(N, N + 1, (history, start) -> {
+		}));
+	}
+
+}
@@ -0,0 +1,64 @@
+package ultrasound.decoder;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import ultrasound.utils.log.DecoderLogger;
+import ultrasound.utils.log.ILogger;
+
+/**
+ * Runs decoder and collects symbols and decoded data from its log, so results
+ * of different decoding paths can be compared.
+ */
+final class SymbolLog {
+
+	private SymbolLog() {
+
+	}
+
+	/**
+	 * Runs decoder in the current thread until it stops itself
+	 * 
+	 * @param decoder decoder to run
+	 * @return found symbols and decoded data without time stamps
+	 */
+	static List<String> run(IDecoderSimple decoder) {
+		return collect(decoder::run);
+	}
+
+	/**
+	 * Runs decoding in the current thread, e.g. of samples given directly to
+	 * the decoder
+	 * 
+	 * @param decoding decoding to run
+	 * @return found symbols and decoded data without time stamps
+	 */
+	static List<String> collect(Runnable decoding) {
+		List<String> log = new ArrayList<>();
+		ILogger logger = DecoderLogger.getInstance();
+		PrintStream out = logger.getOut();
+		logger.setLogOut(new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b) {
+			}
+		}));
+		logger.connectExternalLogger(message -> {
+			String msg = message.substring(message.indexOf(" - ") + 3);
+			if (msg.matches("[01]+") || msg.startsWith("Decoded data")) {
+				synchronized (log) {
+					log.add(msg);
+				}
+			}
+		});
+		try {
+			decoding.run();
+		} finally {
+			logger.connectExternalLogger(null);
+			logger.setLogOut(out);
+		}
+		return log;
+	}
+
+}
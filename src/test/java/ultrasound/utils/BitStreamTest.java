@@ -0,0 +1,88 @@
+package ultrasound.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class BitStreamTest {
+
+	@Test
+	void testAppendAndGet() {
+		boolean[] bits = randomBits(1000, 1);
+		BitStream stream = new BitStream(1);
+		for (boolean bit : bits) {
+			stream.append(bit);
+		}
+		assertEquals(bits.length, stream.length());
+		assertArrayEquals(bits, stream.toBooleanArray());
+	}
+
+	@Test
+	void testAppendBitsAcrossWords() {
+		BitStream stream = new BitStream();
+		stream.append(0b101, 3);
+		stream.append(0xFFFFFFFFFFFFFFFFL, 64);
+		stream.append(0xF0, 8);
+		assertAll(
+			() -> assertEquals(75, stream.length()),
+			() -> assertEquals(0b101, stream.readBits(0, 3)),
+			() -> assertEquals(0xFFFFFFFFFFFFFFFFL, stream.readBits(3, 64)),
+			() -> assertEquals(0xF0, stream.readBits(67, 8)),
+			() -> assertEquals(0b1111, stream.readBits(63, 4))
+		);
+	}
+
+	@Test
+	void testAppendStreamAndSlice() {
+		boolean[] bitsA = randomBits(77, 2);
+		boolean[] bitsB = randomBits(130, 3);
+		BitStream stream = BitStream.valueOf(bitsA);
+		stream.append(BitStream.valueOf(bitsB));
+
+		BitStream slice = stream.slice(70, 200);
+		for (int i = 0; i < slice.length(); i++) {
+			boolean expected = i + 70 < bitsA.length ? bitsA[i + 70] : bitsB[i + 70 - bitsA.length];
+			assertEquals(expected, slice.get(i));
+		}
+	}
+
+	@Test
+	void testBytesConversion() {
+		byte[] bytes = new byte[] { 0x01, (byte) 0xFF, 0x7F, (byte) 0x80, 0x04 };
+		BitStream stream = BitStream.valueOf(bytes);
+		assertAll(
+			() -> assertEquals("0000000111111111011111111000000000000100", stream.toString()),
+			() -> assertArrayEquals(bytes, stream.toByteArray())
+		);
+	}
+
+	@Test
+	void testToByteArrayLengthMismatch() {
+		BitStream stream = BitStream.valueOf(new boolean[] { true, false, true });
+		assertThrows(IllegalArgumentException.class, () -> stream.toByteArray());
+	}
+
+	@Test
+	void testClear() {
+		BitStream stream = BitStream.valueOf(randomBits(100, 4));
+		stream.clear();
+		stream.append(0, 3);
+		assertAll(
+			() -> assertEquals(3, stream.length()),
+			() -> assertEquals("000", stream.toString()),
+			() -> assertThrows(IndexOutOfBoundsException.class, () -> stream.get(3))
+		);
+	}
+
+	private boolean[] randomBits(int length, long seed) {
+		Random random = new Random(seed);
+		boolean[] bits = new boolean[length];
+		for (int i = 0; i < length; i++) {
+			bits[i] = random.nextBoolean();
+		}
+		return bits;
+	}
+
+}
@@ -0,0 +1,82 @@
+package ultrasound.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class CsvSampleReaderTest {
+
+	@ParameterizedTest
+	@ValueSource(strings = { "16F17000S40-ACK.csv", "16F18000S20-Alamakota.csv", "16F20000S40-6C.csv",
+			"4F17000S40-6C.csv" })
+	void testSameSamplesAsStringParsing(String name) throws Exception {
+		File file = new File(getClass().getClassLoader().getResource(name).toURI());
+
+		List<String> vals = FileUtil.readDataFromCsvFile(file);
+		short[] expected = new short[vals.size()];
+		for (int i = 0; i < expected.length; i++) {
+			expected[i] = (short) Integer.parseInt(vals.get(i));
+		}
+
+		assertArrayEquals(expected, CsvSampleReader.readAll(file));
+	}
+
+	@Test
+	void testSeparatorsAndSigns() throws IOException {
+		assertArrayEquals(new short[] { 1, -2, 3, 4, 5, -32768, 32767, (short) 40000 },
+				read("1,-2\r\n+3;4 \t5,,-32768,32767\n40000,"));
+		assertArrayEquals(new short[0], read(""));
+		assertArrayEquals(new short[0], read(" ,\n"));
+	}
+
+	@Test
+	void testChunkedRead() throws IOException {
+		try (CsvSampleReader reader = reader("10,20,30,40,50")) {
+			short[] dst = new short[4];
+			assertEquals(2, reader.read(dst, 1, 2));
+			assertArrayEquals(new short[] { 0, 10, 20, 0 }, dst);
+			assertEquals(3, reader.read(dst, 0, 4));
+			assertArrayEquals(new short[] { 30, 40, 50, 0 }, dst);
+			assertEquals(-1, reader.read(dst, 0, 4));
+		}
+	}
+
+	@Test
+	void testInvalidValues() {
+		assertThrows(IOException.class, () -> read("1,2a,3"));
+		assertThrows(IOException.class, () -> read("1,-,3"));
+		assertThrows(IOException.class, () -> read("1.5"));
+		assertThrows(IOException.class, () -> read("3000000000"));
+	}
+
+	private static short[] read(String csv) throws IOException {
+		try (CsvSampleReader reader = reader(csv)) {
+			short[] dst = new short[100];
+			int length = 0;
+			int n;
+			while ((n = reader.read(dst, length, dst.length - length)) > 0) {
+				length += n;
+			}
+			short[] result = new short[length];
+			System.arraycopy(dst, 0, result, 0, length);
+			return result;
+		}
+	}
+
+	private static CsvSampleReader reader(String csv) {
+		return new CsvSampleReader(
+				Channels.newChannel(new ByteArrayInputStream(csv.getBytes(StandardCharsets.US_ASCII))));
+	}
+
+}
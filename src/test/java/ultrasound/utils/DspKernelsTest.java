@@ -0,0 +1,121 @@
+package ultrasound.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Kernels selected for the runtime, the vector ones when the tests run on Java
+ * 17 with the incubator module, have to give exactly the same results as the
+ * scalar loops, also for lengths which are not multiples of the vector size.
+ */
+class DspKernelsTest {
+
+	private final ScalarKernels scalar = new ScalarKernels();
+	private final ScalarKernels kernels = DspKernels.create(true);
+
+	private static short[] randomShorts(Random random, int n) {
+		short[] res = new short[n];
+		for (int i = 0; i < n; i++) {
+			res[i] = (short) random.nextInt();
+		}
+		return res;
+	}
+
+	private static double[] randomDoubles(Random random, int n) {
+		double[] res = new double[n];
+		for (int i = 0; i < n; i++) {
+			res[i] = random.nextDouble() * 2 - 1;
+		}
+		return res;
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 0, 1, 3, 7, 8, 17, 100, 1024 })
+	void testConversionsMatchScalar(int len) {
+		Random random = new Random(len);
+		short[] src = randomShorts(random, len + 5);
+		double[] window = randomDoubles(random, len + 2);
+
+		double[] expected = new double[len + 2];
+		double[] actual = new double[len + 2];
+		scalar.toDoubles(src, 5, expected, 2, len);
+		kernels.toDoubles(src, 5, actual, 2, len);
+		assertArrayEquals(expected, actual);
+		for (int i = 0; i < len; i++) {
+			assertEquals((double) src[5 + i] / Short.MAX_VALUE, expected[2 + i]);
+		}
+
+		scalar.window(src, 5, window, 2, expected, 2, len);
+		kernels.window(src, 5, window, 2, actual, 2, len);
+		assertArrayEquals(expected, actual);
+		for (int i = 0; i < len; i++) {
+			assertEquals((double) src[5 + i] / Short.MAX_VALUE * window[2 + i], expected[2 + i]);
+		}
+
+		scalar.window(src, 5, window, 1, expected, 2, len);
+		kernels.window(src, 5, window, 1, actual, 2, len);
+		assertArrayEquals(expected, actual);
+		for (int i = 0; i < len; i++) {
+			assertEquals((double) src[5 + i] / Short.MAX_VALUE * window[1 + i], expected[2 + i]);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 0, 1, 3, 7, 8, 17, 100, 1024 })
+	void testArithmeticMatchesScalar(int len) {
+		Random random = new Random(len);
+		double[] re = randomDoubles(random, len + 3);
+		double[] im = randomDoubles(random, len + 3);
+		double[] window = randomDoubles(random, len + 1);
+
+		double[] expected = new double[len + 1];
+		double[] actual = new double[len + 1];
+		scalar.multiply(re, 3, window, expected, 1, len);
+		kernels.multiply(re, 3, window, actual, 1, len);
+		assertArrayEquals(expected, actual);
+
+		scalar.power(re, im, 3, expected, 1, len);
+		kernels.power(re, im, 3, actual, 1, len);
+		assertArrayEquals(expected, actual);
+		for (int i = 0; i < len; i++) {
+			assertEquals(re[3 + i] * re[3 + i] + im[3 + i] * im[3 + i], expected[1 + i]);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 0, 1, 3, 7, 8, 17, 100, 1024 })
+	void testMixMatchesHelper(int len) {
+		Random random = new Random(len);
+		short[] first = randomShorts(random, len);
+		short[] second = randomShorts(random, len);
+		double gain = 1 / 3.0;
+
+		short[] expected = UltrasoundHelper.sumShortArrays(UltrasoundHelper.multiplyArrayByFactor(first, gain),
+				UltrasoundHelper.multiplyArrayByFactor(second, gain));
+		short[] mixed = new short[len];
+		kernels.mix(first, 0, gain, mixed, 0, len);
+		kernels.mix(second, 0, gain, mixed, 0, len);
+		assertArrayEquals(expected, mixed);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 2, 4, 5, 16, 64, 256 })
+	void testRadix4MatchesScalar(int q) {
+		Random random = new Random(q);
+		double[] twiddles = randomDoubles(random, 6 * q + 2);
+		double[] expX = randomDoubles(random, 4 * q + 3);
+		double[] expY = randomDoubles(random, 4 * q + 3);
+		double[] x = expX.clone();
+		double[] y = expY.clone();
+
+		scalar.radix4(expX, expY, 3, q, twiddles, 2, 0, q);
+		kernels.radix4(x, y, 3, q, twiddles, 2, 0, q);
+		assertArrayEquals(expX, x);
+		assertArrayEquals(expY, y);
+	}
+
+}
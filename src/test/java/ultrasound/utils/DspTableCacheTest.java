@@ -0,0 +1,105 @@
+package ultrasound.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class DspTableCacheTest {
+
+	@Test
+	void testSameKeyReturnsSameTable() {
+		AtomicInteger builds = new AtomicInteger();
+		DspTableCache.Metrics before = DspTableCache.getMetrics();
+
+		double[] first = DspTableCache.get("test.same", 16, () -> {
+			builds.incrementAndGet();
+			return new double[16];
+		}, 1.0, 2.0);
+		double[] second = DspTableCache.get("test.same", 16, () -> {
+			builds.incrementAndGet();
+			return new double[16];
+		}, 1.0, 2.0);
+
+		DspTableCache.Metrics after = DspTableCache.getMetrics();
+		assertAll(
+			() -> assertSame(first, second),
+			() -> assertEquals(1, builds.get()),
+			() -> assertEquals(1, after.getMisses() - before.getMisses()),
+			() -> assertEquals(1, after.getHits() - before.getHits())
+		);
+	}
+
+	@Test
+	void testDifferentKeysReturnDifferentTables() {
+		double[] table = DspTableCache.get("test.keys", 8, () -> new double[8], 1.0);
+		assertAll(
+			() -> assertNotSame(table, DspTableCache.get("test.keys", 8, () -> new double[8], 2.0)),
+			() -> assertNotSame(table, DspTableCache.get("test.keys", 8, () -> new double[8])),
+			() -> assertNotSame(table, DspTableCache.get("test.keys", 4, () -> new double[8], 1.0)),
+			() -> assertNotSame(table, DspTableCache.get("test.keys.other", 8, () -> new double[8], 1.0))
+		);
+	}
+
+	@Test
+	void testRetainedBytes() {
+		DspTableCache.Metrics before = DspTableCache.getMetrics();
+		double[] doubles = DspTableCache.get("test.bytes", 100, () -> new double[100]);
+		float[] floats = DspTableCache.get("test.bytes.float", 100, () -> new float[100]);
+		short[] shorts = DspTableCache.get("test.bytes.short", 100, () -> new short[100]);
+		DspTableCache.Metrics after = DspTableCache.getMetrics();
+
+		assertAll(
+			() -> assertEquals(3, after.getTables() - before.getTables()),
+			() -> assertEquals(1400, after.getRetainedBytes() - before.getRetainedBytes())
+		);
+		assertNotNull(doubles);
+		assertNotNull(floats);
+		assertNotNull(shorts);
+	}
+
+	@Test
+	void testFactoryMayUseCache() {
+		// Enough tables to make the map grow while a factory is running, extra
+		// tables change parity of the number of entries
+		for (int i = 0; i < 2000; i++) {
+			int size = i;
+			if (i % 2 == 0) {
+				DspTableCache.get("test.nested.extra", size, () -> new double[0]);
+			}
+			float[] table = DspTableCache.get("test.nested.float", size,
+					() -> toFloat(DspTableCache.get("test.nested", size, () -> new double[size])));
+			assertEquals(size, table.length);
+		}
+	}
+
+	@Test
+	void testUnreferencedTableIsReleased() throws InterruptedException {
+		WeakReference<double[]> ref = new WeakReference<>(
+				DspTableCache.get("test.release", 1 << 16, () -> new double[1 << 16]));
+
+		for (int i = 0; i < 100 && ref.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertNull(ref.get());
+
+		AtomicInteger builds = new AtomicInteger();
+		DspTableCache.get("test.release", 1 << 16, () -> {
+			builds.incrementAndGet();
+			return new double[1 << 16];
+		});
+		assertEquals(1, builds.get());
+	}
+
+	private static float[] toFloat(double[] table) {
+		float[] res = new float[table.length];
+		for (int i = 0; i < table.length; i++) {
+			res[i] = (float) table[i];
+		}
+		return res;
+	}
+
+}
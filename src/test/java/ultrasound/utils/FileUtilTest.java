@@ -0,0 +1,118 @@
+package ultrasound.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ShortBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ultrasound.TestData;
+
+class FileUtilTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void testPcmRoundTrip() throws IOException {
+		// Longer than buffer used for conversion
+		short[] data = randomSamples(100_003);
+		File file = tempDir.resolve("test.pcm").toFile();
+
+		FileUtil.writePcmFile(file, data);
+
+		assertEquals(2L * data.length, file.length());
+		assertArrayEquals(data, FileUtil.readPcmFile(file));
+		assertArrayEquals(data, toArray(FileUtil.mapPcmFile(file)));
+	}
+
+	@Test
+	void testWavRoundTrip() throws Exception {
+		short[] data = randomSamples(70_001);
+		File file = tempDir.resolve("test.wav").toFile();
+
+		FileUtil.writeWavFile(file, data, 48000);
+
+		WavHeader header = FileUtil.readWavHeader(file);
+		assertEquals(48000, header.getSampleRate());
+		assertEquals(1, header.getNoOfChannels());
+		assertEquals(data.length, header.getNoOfSamples());
+		assertArrayEquals(data, FileUtil.readWavFile(file));
+		assertArrayEquals(data, toArray(FileUtil.mapWavFile(file)));
+
+		// File has to be readable by Java Sound
+		try (AudioInputStream stream = AudioSystem.getAudioInputStream(file)) {
+			AudioFormat format = stream.getFormat();
+			assertEquals(48000, format.getSampleRate(), 0);
+			assertEquals(16, format.getSampleSizeInBits());
+			assertEquals(data.length, stream.getFrameLength());
+		}
+	}
+
+	@Test
+	void testWavWithExtraChunk() throws IOException {
+		short[] data = randomSamples(1000);
+		File file = tempDir.resolve("test.wav").toFile();
+		FileUtil.writeWavFile(file, data, 44100);
+
+		// Insert LIST chunk with odd length between format and data chunks
+		byte[] wav = Files.readAllBytes(file.toPath());
+		byte[] list = new byte[] { 'L', 'I', 'S', 'T', 3, 0, 0, 0, 1, 2, 3, 0 };
+		byte[] extended = new byte[wav.length + list.length];
+		System.arraycopy(wav, 0, extended, 0, 36);
+		System.arraycopy(list, 0, extended, 36, list.length);
+		System.arraycopy(wav, 36, extended, 36 + list.length, wav.length - 36);
+		Files.write(file.toPath(), extended);
+
+		assertEquals(44100, FileUtil.readWavHeader(file).getSampleRate());
+		assertArrayEquals(data, FileUtil.readWavFile(file));
+	}
+
+	@Test
+	void testNotWavFile() throws IOException {
+		File file = tempDir.resolve("test.wav").toFile();
+		FileUtil.writePcmFile(file, randomSamples(100));
+
+		assertThrows(IOException.class, () -> FileUtil.readWavFile(file));
+	}
+
+	@Test
+	void testCsvCorpusConversion() throws Exception {
+		String name = "4F17000S40-6C.csv";
+		TestData testData = new TestData(name, 48000);
+		File csvFile = new File(getClass().getClassLoader().getResource(name).toURI());
+		File wavFile = tempDir.resolve("4F17000S40-6C.wav").toFile();
+
+		FileUtil.convertCsvToWav(csvFile, wavFile, 48000);
+
+		assertArrayEquals(testData.getAudioSig(), FileUtil.readWavFile(wavFile));
+	}
+
+	private static short[] randomSamples(int length) {
+		Random random = new Random(0);
+		short[] data = new short[length];
+		for (int i = 0; i < length; i++) {
+			data[i] = (short) random.nextInt();
+		}
+		return data;
+	}
+
+	private static short[] toArray(ShortBuffer buffer) {
+		short[] data = new short[buffer.remaining()];
+		buffer.get(data);
+		return data;
+	}
+
+}
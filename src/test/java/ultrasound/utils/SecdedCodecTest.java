@@ -0,0 +1,55 @@
+package ultrasound.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class SecdedCodecTest {
+
+	@Test
+	void testEncodeMatchesMatrices() {
+		for (int nibble = 0; nibble < 16; nibble++) {
+			boolean[] expected = UltrasoundHelper.encHamming(toBits(nibble, 4));
+			assertArrayEquals(expected, toBits(SecdedCodec.encode(nibble), 8));
+		}
+	}
+
+	@Test
+	void testDecodeMatchesMatrices() {
+		for (int codeword = 0; codeword < 256; codeword++) {
+			int decoded = SecdedCodec.decode(codeword);
+			boolean[] expected = null;
+			try {
+				expected = UltrasoundHelper.secded(toBits(codeword, 8));
+			} catch (Exception e) {
+				expected = null;
+			}
+			if (expected == null) {
+				assertEquals(SecdedCodec.DOUBLE_ERROR, SecdedCodec.getStatus(decoded));
+			} else {
+				assertNotEquals(SecdedCodec.DOUBLE_ERROR, SecdedCodec.getStatus(decoded));
+				assertArrayEquals(expected, toBits(SecdedCodec.getData(decoded), 4));
+			}
+		}
+	}
+
+	@Test
+	void testSingleErrorCorrected() {
+		int codeword = SecdedCodec.encode(0b0110);
+		int decoded = SecdedCodec.decode(codeword ^ 0b00010000);
+		assertAll(
+			() -> assertEquals(SecdedCodec.OK, SecdedCodec.getStatus(SecdedCodec.decode(codeword))),
+			() -> assertEquals(SecdedCodec.CORRECTED, SecdedCodec.getStatus(decoded)),
+			() -> assertEquals(0b0110, SecdedCodec.getData(decoded))
+		);
+	}
+
+	private boolean[] toBits(int value, int length) {
+		boolean[] bits = new boolean[length];
+		for (int i = 0; i < length; i++) {
+			bits[i] = (value & (1 << (length - 1 - i))) != 0;
+		}
+		return bits;
+	}
+
+}
@@ -0,0 +1,127 @@
+package ultrasound.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+class ShortRingBufferTest {
+
+	@Test
+	void testCapacityRoundedUp() {
+		assertAll(
+			() -> assertEquals(1, new ShortRingBuffer(1).capacity()),
+			() -> assertEquals(1024, new ShortRingBuffer(1000).capacity()),
+			() -> assertEquals(1024, new ShortRingBuffer(1024).capacity()),
+			() -> assertThrows(IllegalArgumentException.class, () -> new ShortRingBuffer(0))
+		);
+	}
+
+	@Test
+	void testWriteReadWrapAround() {
+		ShortRingBuffer buffer = new ShortRingBuffer(8);
+		short[] out = new short[8];
+		short value = 0;
+		for (int i = 0; i < 20; i++) {
+			short[] in = new short[] { value, (short) (value + 1), (short) (value + 2), (short) (value + 3),
+					(short) (value + 4) };
+			assertEquals(5, buffer.write(in, 0, 5));
+			assertEquals(5, buffer.read(out, 1, 5));
+			for (int j = 0; j < 5; j++) {
+				assertEquals(value + j, out[j + 1]);
+			}
+			value += 5;
+		}
+		assertAll(
+			() -> assertEquals(100, buffer.getWriteSequence()),
+			() -> assertEquals(100, buffer.getReadSequence()),
+			() -> assertTrue(buffer.isEmpty())
+		);
+	}
+
+	@Test
+	void testOverrunAndUnderrunCounters() {
+		ShortRingBuffer buffer = new ShortRingBuffer(8);
+		short[] samples = new short[6];
+
+		assertEquals(6, buffer.write(samples, 0, 6));
+		assertEquals(2, buffer.write(samples, 0, 6));
+		assertEquals(4, buffer.getOverrunCount());
+
+		assertTrue(buffer.readFully(samples, 0, 6));
+		assertFalse(buffer.readFully(samples, 0, 6));
+		assertEquals(2, buffer.size());
+		assertEquals(2, buffer.read(samples, 0, 6));
+		assertEquals(2, buffer.getUnderrunCount());
+	}
+
+	@Test
+	void testSingleProducerSingleConsumer() throws Exception {
+		ShortRingBuffer buffer = new ShortRingBuffer(1024);
+		int total = 5_000_000;
+		AtomicReference<Throwable> error = new AtomicReference<>();
+
+		Thread producer = new Thread(() -> {
+			Random random = new Random(0);
+			short[] chunk = new short[300];
+			int written = 0;
+			while (written < total) {
+				int len = Math.min(1 + random.nextInt(chunk.length), total - written);
+				for (int i = 0; i < len; i++) {
+					chunk[i] = (short) (written + i);
+				}
+				int off = 0;
+				while (off < len) {
+					int n = buffer.write(chunk, off, len - off);
+					if (n == 0) {
+						Thread.yield();
+					}
+					off += n;
+				}
+				written += len;
+			}
+		});
+
+		Thread consumer = new Thread(() -> {
+			Random random = new Random(1);
+			short[] chunk = new short[256];
+			int read = 0;
+			while (read < total) {
+				int n = buffer.read(chunk, 0, 1 + random.nextInt(chunk.length));
+				if (n == 0) {
+					Thread.yield();
+				}
+				for (int i = 0; i < n; i++) {
+					if (chunk[i] != (short) (read + i)) {
+						error.compareAndSet(null, new AssertionError("Wrong sample at " + (read + i)));
+						return;
+					}
+				}
+				read += n;
+			}
+		});
+
+		producer.start();
+		consumer.start();
+		producer.join(30000);
+		consumer.join(30000);
+
+		assertNull(error.get());
+		assertEquals(total, buffer.getReadSequence());
+	}
+
+	@Test
+	void testFloatBuffer() {
+		FloatRingBuffer buffer = new FloatRingBuffer(4);
+		float[] in = new float[] { 0.5f, -0.25f, 1.0f };
+		float[] out = new float[3];
+		buffer.write(in, 0, 3);
+		buffer.read(out, 0, 1);
+		buffer.write(in, 0, 2);
+		assertTrue(buffer.readFully(out, 0, 3));
+		assertArrayEquals(new float[] { -0.25f, 1.0f, 0.5f }, out);
+	}
+
+}
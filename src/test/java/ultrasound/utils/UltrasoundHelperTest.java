@@ -156,4 +156,63 @@ class UltrasoundHelperTest {
         assertArrayEquals(actual,expected);
 
     }
+
+    @Test
+    void testPeakOffsets() {
+
+        // Parabola and Gaussian with the vertex 0.3 bin to the right of the middle sample
+        double[] parabola = new double[3];
+        double[] gaussian = new double[3];
+        for (int i = 0; i < 3; i++) {
+            parabola[i] = 10 - 2 * (i - 1.3) * (i - 1.3);
+            gaussian[i] = Math.exp(-(i - 1.3) * (i - 1.3) / 2.0);
+        }
+        assertEquals(0.3, UltrasoundHelper.quadraticPeakOffset(parabola[0], parabola[1], parabola[2]), 1e-12);
+        assertEquals(0.3, UltrasoundHelper.gaussianPeakOffset(gaussian[0], gaussian[1], gaussian[2]), 1e-12);
+        assertEquals(-0.3, UltrasoundHelper.gaussianPeakOffset(gaussian[2], gaussian[1], gaussian[0]), 1e-12);
+
+        // No peak in the middle or no power
+        assertEquals(0.0, UltrasoundHelper.quadraticPeakOffset(1, 2, 3));
+        assertEquals(0.0, UltrasoundHelper.quadraticPeakOffset(2, 2, 2));
+        assertEquals(0.0, UltrasoundHelper.gaussianPeakOffset(0, 2, 1));
+
+    }
+
+    @Test
+    void testFindMaxValueIndex() {
+
+        // The largest value is the last element, it was excluded when the range
+        // ended at the end of the array
+        double[] values = {1, 5, 2, 3, 7};
+        assertEquals(4, UltrasoundHelper.findMaxValueIndex(values));
+        assertEquals(4, UltrasoundHelper.findMaxValueIndex(values, 1, values.length));
+        assertEquals(4, UltrasoundHelper.findMaxValueIndex(values, 1, 10));
+        assertEquals(1, UltrasoundHelper.findMaxValueIndex(values, 0, 4));
+        assertEquals(3, UltrasoundHelper.findMaxValueIndex(values, 2, 4));
+        // Start before the array is searched from the first element
+        assertEquals(1, UltrasoundHelper.findMaxValueIndex(values, -3, 3));
+
+        long[] fixed = {1, 5, 2, 3, 7};
+        assertEquals(4, UltrasoundHelper.findMaxValueIndex(fixed, 1, fixed.length));
+        assertEquals(1, UltrasoundHelper.findMaxValueIndex(fixed, -3, 3));
+
+    }
+
+    @Test
+    void testFindMaxValueIndexOfEmptyRange() {
+
+        // Start at or after the end searches the element before the end
+        double[] values = {1, 5, 2, 3, 7};
+        assertEquals(4, UltrasoundHelper.findMaxValueIndex(values, 5, 5));
+        assertEquals(2, UltrasoundHelper.findMaxValueIndex(values, 4, 3));
+        long[] fixed = {1, 5, 2, 3, 7};
+        assertEquals(4, UltrasoundHelper.findMaxValueIndex(fixed, 5, 5));
+
+        // No element before the end
+        assertThrows(IllegalArgumentException.class, () -> UltrasoundHelper.findMaxValueIndex(values, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> UltrasoundHelper.findMaxValueIndex(new double[0]));
+        assertThrows(IllegalArgumentException.class, () -> UltrasoundHelper.findMaxValueIndex(fixed, 2, 0));
+        assertThrows(IllegalArgumentException.class, () -> UltrasoundHelper.findMaxValueIndex(new long[0], 0, -1));
+
+    }
 }